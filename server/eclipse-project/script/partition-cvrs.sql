@@ -0,0 +1,102 @@
+-- Converts cast_vote_record and cvr_contest_info to tables partitioned by
+-- county (and, for cast_vote_record, by record type within each county), so
+-- that per-county scans touch only that county's partitions and a county's
+-- CVR re-import can truncate its uploaded-CVR partition instead of deleting
+-- rows one at a time.
+--
+-- Requires PostgreSQL 11 or later. Run it with the server stopped, against a
+-- database whose schema has already been created by the server, and then set
+-- cvr_partitioning = true in the server properties (which also stops
+-- Hibernate from trying to update the schema itself).
+--
+-- Foreign keys cannot reference a partitioned table unless they include its
+-- partition key, so the foreign keys referencing cast_vote_record (from
+-- cvr_audit_info and cvr_contest_info) are dropped.
+
+BEGIN;
+
+-- cvr_contest_info needs the county ID of its CVR to be partitioned by county
+
+ALTER TABLE cvr_contest_info ADD COLUMN IF NOT EXISTS county_id bigint;
+
+UPDATE cvr_contest_info AS cci SET county_id = cvr.county_id
+  FROM cast_vote_record AS cvr
+ WHERE cci.cvr_id = cvr.id AND cci.county_id IS NULL;
+
+DO $$
+DECLARE
+  fk record;
+BEGIN
+  FOR fk IN SELECT conrelid::regclass AS tbl, conname FROM pg_constraint
+             WHERE contype = 'f' AND confrelid = 'cast_vote_record'::regclass LOOP
+    EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.tbl, fk.conname);
+  END LOOP;
+END $$;
+
+ALTER TABLE cast_vote_record RENAME TO cast_vote_record_unpartitioned;
+ALTER TABLE cvr_contest_info RENAME TO cvr_contest_info_unpartitioned;
+
+DROP INDEX IF EXISTS idx_cvr_county_type, idx_cvr_county_cvr_number,
+  idx_cvr_county_cvr_number_type, idx_cvr_county_sequence_number_type,
+  idx_cvr_county_imprinted_id_type;
+
+CREATE TABLE cast_vote_record
+  (LIKE cast_vote_record_unpartitioned INCLUDING DEFAULTS,
+   PRIMARY KEY (id, county_id, record_type))
+  PARTITION BY LIST (county_id);
+
+CREATE INDEX idx_cvr_county_type
+  ON cast_vote_record (county_id, record_type);
+CREATE INDEX idx_cvr_county_cvr_number
+  ON cast_vote_record (county_id, cvr_number);
+CREATE INDEX idx_cvr_county_cvr_number_type
+  ON cast_vote_record (county_id, cvr_number, record_type);
+CREATE INDEX idx_cvr_county_sequence_number_type
+  ON cast_vote_record (county_id, sequence_number, record_type);
+CREATE INDEX idx_cvr_county_imprinted_id_type
+  ON cast_vote_record (county_id, imprinted_id, record_type);
+
+CREATE TABLE cvr_contest_info
+  (LIKE cvr_contest_info_unpartitioned INCLUDING DEFAULTS,
+   PRIMARY KEY (cvr_id, index, county_id),
+   FOREIGN KEY (contest_id) REFERENCES contest (id))
+  PARTITION BY LIST (county_id);
+
+ALTER TABLE cvr_contest_info ALTER COLUMN county_id SET NOT NULL;
+
+-- creates the partitions for a single county; counties added later need
+-- this to be run for them, or their records go to the default partitions
+
+CREATE OR REPLACE FUNCTION create_cvr_partitions(the_county_id bigint)
+RETURNS void AS $$
+BEGIN
+  EXECUTE format('CREATE TABLE IF NOT EXISTS cast_vote_record_c%s ' ||
+                 'PARTITION OF cast_vote_record FOR VALUES IN (%s) ' ||
+                 'PARTITION BY LIST (record_type)', the_county_id, the_county_id);
+  EXECUTE format('CREATE TABLE IF NOT EXISTS cast_vote_record_c%s_uploaded ' ||
+                 'PARTITION OF cast_vote_record_c%s FOR VALUES IN (''UPLOADED'')',
+                 the_county_id, the_county_id);
+  EXECUTE format('CREATE TABLE IF NOT EXISTS cast_vote_record_c%s_audit ' ||
+                 'PARTITION OF cast_vote_record_c%s DEFAULT',
+                 the_county_id, the_county_id);
+  EXECUTE format('CREATE TABLE IF NOT EXISTS cvr_contest_info_c%s ' ||
+                 'PARTITION OF cvr_contest_info FOR VALUES IN (%s)',
+                 the_county_id, the_county_id);
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TABLE cast_vote_record_default PARTITION OF cast_vote_record DEFAULT;
+CREATE TABLE cvr_contest_info_default PARTITION OF cvr_contest_info DEFAULT;
+
+SELECT create_cvr_partitions(id) FROM county;
+
+INSERT INTO cast_vote_record SELECT * FROM cast_vote_record_unpartitioned;
+INSERT INTO cvr_contest_info SELECT * FROM cvr_contest_info_unpartitioned;
+
+DROP TABLE cvr_contest_info_unpartitioned;
+DROP TABLE cast_vote_record_unpartitioned;
+
+COMMIT;
+
+ANALYZE cast_vote_record;
+ANALYZE cvr_contest_info;
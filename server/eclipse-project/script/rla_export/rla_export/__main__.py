@@ -28,6 +28,7 @@ import logging
 import argparse
 from argparse import Namespace
 import json
+import base64
 import glob
 import re
 import pkg_resources
@@ -170,6 +171,39 @@ COUNTIES = {
 }
 
 
+def decode_id_list(column):
+    """Decode a list of ids stored by the ColoradoRLA server.
+    Older servers store a JSON array; newer ones store the list length
+    followed by the zigzag-encoded deltas between consecutive ids, as
+    variable-length integers, in Base64.
+    """
+
+    if column.startswith('['):
+        return json.loads(column)
+
+    data = bytearray(base64.b64decode(column))
+    values = []
+    position = 0
+    previous = 0
+    count = None
+    while position < len(data):
+        value = 0
+        shift = 0
+        while True:
+            byte = data[position]
+            position += 1
+            value |= (byte & 0x7F) << shift
+            shift += 7
+            if not byte & 0x80:
+                break
+        if count is None:
+            count = value
+        else:
+            previous += (value >> 1) ^ -(value & 1)
+            values.append(previous)
+    return values
+
+
 def check_or_create_dir(path):
     """Check whether path exists, and create directory there if necessary
     Props to A-B-B and discussion at
@@ -453,8 +487,8 @@ def random_sequence(args, connection, cursor, county_id, county_name):
             prefix = 0
             for sequences in rows:
                 round_number = sequences['round_number']
-                ballot_sequence = json.loads(sequences['ballot_sequence'])
-                audit_subsequence = json.loads(sequences['audit_subsequence'])
+                ballot_sequence = decode_id_list(sequences['ballot_sequence'])
+                audit_subsequence = decode_id_list(sequences['audit_subsequence'])
 
                 logging.debug("random_sequence: ballot_sequence for county %s, round %d: %s" %
                               (county_name, round_number, ballot_sequence))
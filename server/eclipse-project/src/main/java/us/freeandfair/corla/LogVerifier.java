@@ -0,0 +1,80 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla;
+
+import java.util.Properties;
+
+import javax.persistence.PersistenceException;
+
+import us.freeandfair.corla.crypto.LogChainVerifier;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.LogEntryQueries;
+
+/**
+ * A command line tool that verifies the hash chain of the log in the 
+ * database specified by a properties file, without starting a server.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class LogVerifier {
+  /**
+   * The exit status when the log is broken or cannot be verified.
+   */
+  public static final int FAILURE_STATUS = 1;
+  
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private LogVerifier() {
+    // do nothing
+  }
+  
+  /**
+   * The main method. Verifies the log in the database specified by the 
+   * properties file and exits with a nonzero status if it is broken or
+   * cannot be verified.
+   * 
+   * @param the_args Command line arguments, interpreted as they are by
+   * Main.
+   */
+  // exiting with a status is the point of this method
+  @SuppressWarnings("PMD.DoNotCallSystemExit")
+  public static void main(final String... the_args) {
+    final Properties properties = Main.loadProperties(the_args);
+    if (properties == null) {
+      System.exit(FAILURE_STATUS);
+    }
+    Persistence.setProperties(properties);
+    
+    boolean intact = false;
+    final LogChainVerifier verifier = new LogChainVerifier();
+    try {
+      if (Persistence.beginTransaction()) {
+        LogEntryQueries.verifyChain(verifier);
+        final LogChainVerifier.Result result = verifier.finish();
+        Persistence.rollbackTransaction();
+        Main.LOGGER.info(result);
+        intact = result.intact();
+      } else {
+        verifier.abort();
+        Main.LOGGER.error("could not open database connection");
+      }
+    } catch (final PersistenceException | IllegalStateException e) {
+      verifier.abort();
+      Main.LOGGER.error("could not verify log: " + e);
+    }
+    if (!intact) {
+      System.exit(FAILURE_STATUS);
+    }
+  }
+}
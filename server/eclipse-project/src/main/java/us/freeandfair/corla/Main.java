@@ -38,7 +38,9 @@ import org.apache.maven.model.Model;
 import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -59,7 +61,10 @@ import us.freeandfair.corla.asm.CountyDashboardASM;
 import us.freeandfair.corla.asm.DoSDashboardASM;
 import us.freeandfair.corla.asm.PersistentASMState;
 import us.freeandfair.corla.auth.AuthenticationInterface;
+import us.freeandfair.corla.endpoint.AdmissionControl;
+import us.freeandfair.corla.endpoint.AsyncJobs;
 import us.freeandfair.corla.endpoint.CORSFilter;
+import us.freeandfair.corla.endpoint.ClientRateLimiter;
 import us.freeandfair.corla.endpoint.Endpoint;
 import us.freeandfair.corla.json.FreeAndFairNamingStrategy;
 import us.freeandfair.corla.json.InstantTypeAdapter;
@@ -123,6 +128,19 @@ public final class Main {
    */
   public static final int MAX_PORT = 65535;
   
+  /**
+   * The default minimum size, in bytes, of a compressed response (can be
+   * overridden by properties).
+   */
+  public static final int DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+  
+  /**
+   * The default content types of compressed responses (can be overridden
+   * by properties).
+   */
+  public static final String DEFAULT_COMPRESSION_TYPES = 
+      "application/json, text/csv, text/plain";
+  
   /**
    * The logger.
    */
@@ -132,20 +150,21 @@ public final class Main {
    * The Gson object to use for translation to and from JSON; since 
    * Gson is thread-safe, we only need one for the system. Note that
    * any custom Gson serializers/deserializers we use must also be
-   * thread-safe.
+   * thread-safe. Its output is compact; use PRETTY_GSON for output
+   * meant to be read by people.
    */
   // @review kiniry Should we configure Gson to serialize nulls via
   // serializeNulls() as well?  This will, of course, cost more in
   // bandwidth, but the tradeoff is completeness and clarity of wire
   // format. Perhaps we should just bandwidth and performance
-  // benchmark with and without serializeNulls() and
-  // setPrettyPrinting()?
-  public static final Gson GSON = 
-      new GsonBuilder().
-      registerTypeAdapter(Instant.class, new InstantTypeAdapter()).
-      setFieldNamingStrategy(new FreeAndFairNamingStrategy()).
-      setExclusionStrategies(new VersionExclusionStrategy()).
-      setPrettyPrinting().create();
+  // benchmark with and without serializeNulls()?
+  public static final Gson GSON = gsonBuilder().create();
+  
+  /**
+   * The Gson object to use for translation to pretty-printed JSON; it is 
+   * configured identically to GSON in every other respect.
+   */
+  public static final Gson PRETTY_GSON = gsonBuilder().setPrettyPrinting().create();
   
   /**
    * The version string.
@@ -229,6 +248,17 @@ public final class Main {
     return new Properties(static_properties);
   }
   
+  /**
+   * @return a Gson builder configured for translation to and from JSON
+   * in this system.
+   */
+  private static GsonBuilder gsonBuilder() {
+    return new GsonBuilder().
+        registerTypeAdapter(Instant.class, new InstantTypeAdapter()).
+        setFieldNamingStrategy(new FreeAndFairNamingStrategy()).
+        setExclusionStrategies(new VersionExclusionStrategy());
+  }
+  
   /**
    * Creates a default set of properties.
    * 
@@ -302,6 +332,46 @@ public final class Main {
     return result;
   }
   
+  /**
+   * Wraps a handler so that, for clients that accept it, it gzip-compresses 
+   * GET responses of the content types and minimum size specified in 
+   * properties. Excel and PDF reports, which are already compressed, and
+   * server-sent event streams are not among those types.
+   * 
+   * @param the_handler The handler.
+   * @return the wrapped handler, or the_handler if compression is disabled.
+   */
+  private Handler compressionHandler(final Handler the_handler) {
+    if (!Boolean.parseBoolean(static_properties.getProperty("response_compression", 
+                                                            "true"))) {
+      return the_handler;
+    }
+    
+    int min_bytes = DEFAULT_COMPRESSION_MIN_BYTES;
+    try {
+      min_bytes = 
+          Integer.parseInt(static_properties.getProperty("response_compression_min_bytes", 
+                                                         String.valueOf(min_bytes)));
+    } catch (final NumberFormatException e) {
+      LOGGER.info("could not read property response_compression_min_bytes, " + 
+                  "using default " + min_bytes);
+    }
+    final List<String> types = new ArrayList<>();
+    for (final String type : static_properties.getProperty("response_compression_types",
+                                                           DEFAULT_COMPRESSION_TYPES).
+                                                           trim().split("\\s*,\\s*")) {
+      if (!type.isEmpty()) {
+        types.add(type);
+      }
+    }
+    
+    final GzipHandler result = new GzipHandler();
+    result.setMinGzipSize(min_bytes);
+    result.setIncludedMimeTypes(types.toArray(new String[types.size()]));
+    result.setHandler(the_handler);
+    return result;
+  }
+  
   /**
    * Redirect a request from HTTP to HTTPS.
    * 
@@ -523,6 +593,13 @@ public final class Main {
     
     // provide properties to the persistence engine
     Persistence.setProperties(static_properties);
+    
+    // set the admission control limits and the per-client rate limit
+    AdmissionControl.configure(static_properties);
+    ClientRateLimiter.configure(static_properties);
+    
+    // set up the executor for asynchronous jobs
+    AsyncJobs.configure(static_properties);
 
     if (Persistence.beginTransaction()) {
       initializeASMsAndDashboards(initializeCounties());
@@ -555,7 +632,7 @@ public final class Main {
                                         int the_min_threads, 
                                         int the_thread_timeout) -> {
           return new Server();
-        }, handler);
+        }, compressionHandler(handler));
       });
     
     // get the port numbers from properties
@@ -607,20 +684,19 @@ public final class Main {
  
   
   /**
-   * The main method. Starts the server using the specified properties
-   * file.
+   * Loads properties from the properties file specified on the command line,
+   * falling back to the default properties for any that are not specified.
    * 
    * @param the_args Command line arguments. Only the first one is
    * considered, and it is interpreted as the path to a properties
    * file. If no arguments are supplied, default properties are
-   * used. If the specified properties file cannot be loaded, the
-   * server does not start.
+   * used.
+   * @return the properties, or null if the specified properties file 
+   * cannot be loaded.
    */
-  public static void main(final String... the_args) {
-    // set headless mode - this prevents Apache POI from starting a GUI when
-    // generating Excel files
-    System.setProperty("java.awt.headless", "true");
-    
+  // a null result indicates that the properties could not be loaded
+  @SuppressWarnings("PMD.NullAssignment")
+  public static Properties loadProperties(final String... the_args) {
     final Properties default_properties = defaultProperties();
     Properties properties = new Properties(default_properties);
     if (the_args.length > 0) {
@@ -636,13 +712,35 @@ public final class Main {
           properties.loadFromXML(new FileInputStream(file));
         } catch (final IOException ex) {
           // could not load properties that way either, let's abort
-          LOGGER.error("could not load properties, exiting");
-          return;
+          LOGGER.error("could not load properties");
+          properties = null;
         }
       }
     } else {
       LOGGER.info("no property file specified, using default properties");
     }
+    return properties;
+  }
+  
+  /**
+   * The main method. Starts the server using the specified properties
+   * file.
+   * 
+   * @param the_args Command line arguments. Only the first one is
+   * considered, and it is interpreted as the path to a properties
+   * file. If no arguments are supplied, default properties are
+   * used. If the specified properties file cannot be loaded, the
+   * server does not start.
+   */
+  public static void main(final String... the_args) {
+    // set headless mode - this prevents Apache POI from starting a GUI when
+    // generating Excel files
+    System.setProperty("java.awt.headless", "true");
+    
+    final Properties properties = loadProperties(the_args);
+    if (properties == null) {
+      return;
+    }
 
     final Main main = new Main(properties);
     try {
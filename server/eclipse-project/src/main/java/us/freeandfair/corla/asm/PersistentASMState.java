@@ -15,6 +15,7 @@ import static us.freeandfair.corla.util.EqualsHashcodeHelper.nullableEquals;
 
 import java.io.Serializable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -33,6 +34,7 @@ import us.freeandfair.corla.persistence.PersistentEntity;
  * @version 1.0.0
  */
 @Entity
+@Cacheable(true)
 @Table(name = "asm_state")
 // this class has many fields that would normally be declared final, but
 // cannot be for compatibility with Hibernate and JPA.
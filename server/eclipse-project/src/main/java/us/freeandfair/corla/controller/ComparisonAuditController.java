@@ -13,9 +13,10 @@ package us.freeandfair.corla.controller;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
@@ -24,6 +25,8 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
+import javax.persistence.PersistenceException;
+
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.crypto.PseudoRandomNumberGenerator;
 import us.freeandfair.corla.model.AuditReason;
@@ -42,6 +45,7 @@ import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.model.Round;
 import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.query.CVRAuditInfoQueries;
 import us.freeandfair.corla.query.CastVoteRecordQueries;
 import us.freeandfair.corla.query.CountyContestResultQueries;
 
@@ -52,8 +56,14 @@ import us.freeandfair.corla.query.CountyContestResultQueries;
  * @version 1.0.0
  */
 @SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity", "PMD.ExcessiveImports",
-    "PMD.ModifiedCyclomaticComplexity", "PMD.StdCyclomaticComplexity"})
+    "PMD.ModifiedCyclomaticComplexity", "PMD.StdCyclomaticComplexity", "PMD.TooManyMethods"})
 public final class ComparisonAuditController {
+  /**
+   * The number of audit subsequence entries for which to load audit
+   * information at once when advancing the CVR under audit.
+   */
+  private static final int AUDIT_INFO_WINDOW = 32;
+  
   /**
    * Private constructor to prevent instantiation.
    */
@@ -154,16 +164,14 @@ public final class ComparisonAuditController {
       throw new IllegalArgumentException("invalid round specified");
     }
     final Round round = the_cdb.rounds().get(the_round_number - 1);
-    final Set<Long> id_set = new HashSet<>();
+    final Set<Long> id_set = new LinkedHashSet<>(round.auditSubsequence());
+    final Map<Long, CVRAuditInfo> cvrai_map = auditInfoFor(id_set);
     final List<CVRAuditInfo> result = new ArrayList<>();
     
-    for (final Long cvr_id : round.auditSubsequence()) {
-      if (!id_set.contains(cvr_id)) {
-        id_set.add(cvr_id);
-        result.add(Persistence.getByID(cvr_id, CVRAuditInfo.class));
-      }
+    for (final Long cvr_id : id_set) {
+      result.add(cvrai_map.get(cvr_id));
     }
-    
+
     return result;
   }
   
@@ -228,11 +236,9 @@ public final class ComparisonAuditController {
            (!the_duplicates && cvr_set.size() < possible_ballots)) {
       final List<CastVoteRecord> new_cvrs = 
           getCVRsInAuditSequence(the_cdb.county(), start, end);
+      setAuditFlags(new_cvrs);
       for (int i = 0; i < new_cvrs.size(); i++) {
         final CastVoteRecord cvr = new_cvrs.get(i);
-        if (!cvr_set.contains(cvr)) {
-          cvr.setAuditFlag(audited(the_cdb, cvr));
-        }
         if ((the_duplicates || !cvr_set.contains(cvr)) && 
             (the_audited || !cvr.auditFlag())) {
           cvr_to_audit_list.add(cvr);
@@ -289,13 +295,12 @@ public final class ComparisonAuditController {
                                                      the_start_index - 1));
     }
 
+    setAuditFlags(cvrs);
     for (int i = 0; i < cvrs.size(); i++) {
       final CastVoteRecord cvr = cvrs.get(i);
-      if (!cvr_set.contains(cvr) && !previous_cvr_set.contains(cvr)) {
-        cvr.setAuditFlag(audited(the_cdb, cvr));
-        if (the_audited || !cvr.auditFlag()) {
-          cvr_to_audit_list.add(cvr);
-        }
+      if (!cvr_set.contains(cvr) && !previous_cvr_set.contains(cvr) &&
+          (the_audited || !cvr.auditFlag())) {
+        cvr_to_audit_list.add(cvr);
       }
       cvr_set.add(cvr);
     }
@@ -326,10 +331,7 @@ public final class ComparisonAuditController {
     
     // we already have the list of CVR IDs for the round
     final List<CastVoteRecord> cvrs = CastVoteRecordQueries.get(round.ballotSequence());
-    
-    for (final CastVoteRecord cvr : cvrs) {
-      cvr.setAuditFlag(audited(the_cdb, cvr));
-    }
+    setAuditFlags(cvrs);
 
     return cvrs;
   }
@@ -466,18 +468,8 @@ public final class ComparisonAuditController {
       new_cvr_ids.add(cvr.id());
     }
     
-    // the unique IDs of the CVRs to audit
-    final Set<Long> unique_new_cvr_ids = new HashSet<>(new_cvr_ids);
-    
-    for (final Round round : the_cdb.rounds()) {
-      for (final Long cvr_id : round.ballotSequence()) {
-        if (unique_new_cvr_ids.contains(cvr_id)) {
-          unique_new_cvr_ids.remove(cvr_id);
-          sorted_deduplicated_new_cvrs.remove(Persistence.getByID(cvr_id, 
-                                                                  CastVoteRecord.class));
-        }
-      }
-    }
+    // remove the CVRs that were already in previous rounds
+    removeCVRsInRounds(the_cdb, sorted_deduplicated_new_cvrs);
     
     if (sorted_deduplicated_new_cvrs.isEmpty()) {
       return false;
@@ -547,20 +539,7 @@ public final class ComparisonAuditController {
           new_cvrs.addAll(extra_cvrs);
           Persistence.saveOrUpdate(the_cdb);
           sorted_deduplicated_new_cvrs.addAll(new_cvrs);
-          
-          final Set<Long> unique_new_cvr_ids = new HashSet<>();
-          for (final CastVoteRecord cvr : sorted_deduplicated_new_cvrs) {
-            unique_new_cvr_ids.add(cvr.id());
-          }
-          for (final Round round : the_cdb.rounds()) {
-            for (final Long cvr_id : round.ballotSequence()) {
-              if (unique_new_cvr_ids.contains(cvr_id)) {
-                unique_new_cvr_ids.remove(cvr_id);
-                sorted_deduplicated_new_cvrs.remove(Persistence.getByID(cvr_id, 
-                                                                        CastVoteRecord.class));
-              }
-            }
-          }
+          removeCVRsInRounds(the_cdb, sorted_deduplicated_new_cvrs);
         }
       }
 
@@ -589,6 +568,20 @@ public final class ComparisonAuditController {
     return result;
   }
   
+  /**
+   * Removes from the specified set all CVRs that have already been in the
+   * ballot sequence of a round on the specified dashboard. This is done
+   * entirely in memory, by ID.
+   * 
+   * @param the_cdb The dashboard.
+   * @param the_cvrs The set of CVRs to remove previously-audited CVRs from.
+   */
+  private static void removeCVRsInRounds(final CountyDashboard the_cdb,
+                                         final Set<CastVoteRecord> the_cvrs) {
+    final Set<Long> cvr_ids_in_rounds = the_cdb.cvrIDsInRounds();
+    the_cvrs.removeIf(cvr -> cvr_ids_in_rounds.contains(cvr.id()));
+  }
+  
   /**
    * Submit an audit CVR for a CVR under audit to the specified county dashboard.
    * 
@@ -643,7 +636,6 @@ public final class ComparisonAuditController {
                        the_audit_cvr.id() + " for county " + the_cdb.id() + 
                        ", cvr " + the_cvr_under_audit.id());
     }
-    Persistence.flush();
     updateCVRUnderAudit(the_cdb);
     the_cdb.
         setEstimatedSamplesToAudit(computeEstimatedSamplesToAudit(the_cdb) -
@@ -698,55 +690,62 @@ public final class ComparisonAuditController {
   }
   
   /**
-   * Checks to see if the specified CVR has been audited on the specified county
-   * dashboard. This check sets the audit flag on the CVR record in memory, 
-   * so its result can be accessed later without an expensive database hit.
+   * Sets the audit flags on all the specified CVRs, determining their audit
+   * status with a single bulk query rather than one query per CVR.
    * 
-   * @param the_cdb The county dashboard.
-   * @param the_cvr The CVR.
-   * @return true if the specified CVR has been audited, false otherwise.
+   * @param the_cvrs The CVRs.
+   * @exception PersistenceException if the audit status cannot be determined.
    */
-  public static boolean audited(final CountyDashboard the_cdb, 
-                                final CastVoteRecord the_cvr) {
-    final CVRAuditInfo info = Persistence.getByID(the_cvr.id(), CVRAuditInfo.class);
-    final boolean result;
-    if (info == null || info.acvr() == null) {
-      result = false;
-    } else {
-      result = true;
+  public static void setAuditFlags(final Collection<CastVoteRecord> the_cvrs) {
+    final List<Long> ids = new ArrayList<>();
+    for (final CastVoteRecord cvr : the_cvrs) {
+      ids.add(cvr.id());
+    }
+    final Set<Long> audited_ids = CVRAuditInfoQueries.audited(ids);
+    if (audited_ids == null) {
+      throw new PersistenceException("could not determine audited CVRs");
+    }
+    for (final CastVoteRecord cvr : the_cvrs) {
+      cvr.setAuditFlag(audited_ids.contains(cvr.id()));
     }
-    return result;
   }
   
-
   /**
    * Updates a round object with the disagreements and discrepancies
    * that already exist for CVRs in its audit subsequence, creates
    * any CVRAuditInfo objects that don't exist but need to, and
    * increases the multiplicity of any CVRAuditInfo objects that already
-   * exist and are duplicated in this round.
+   * exist and are duplicated in this round. All the CVRAuditInfo objects
+   * for the round are loaded in bulk, rather than one at a time.
    * 
    * @param the_cdb The county dashboard to update.
    * @param the_round The round to update.
    */
-  private static void updateRound(final CountyDashboard the_cdb, 
+  private static void updateRound(final CountyDashboard the_cdb,
                                   final Round the_round) {
-    for (final Long cvr_id : new HashSet<>(the_round.auditSubsequence())) {
-      final Map<Contest, AuditReason> audit_reasons = new HashMap<>();
+    // the multiplicity of each CVR in the round, in audit sequence order of
+    // first appearance; this is computed once rather than once per CVR
+    final Map<Long, Integer> multiplicities = the_round.auditSubsequenceMultiplicities();
+    final Map<Long, CVRAuditInfo> cvrai_map = auditInfoFor(multiplicities.keySet());
+    
+    createAuditInfo(multiplicities, cvrai_map);
+    
+    final Map<Contest, AuditReason> audit_reasons = new HashMap<>();
+    for (final CountyContestComparisonAudit ca : the_cdb.comparisonAudits()) {
+      audit_reasons.put(ca.contest(), ca.auditReason());
+    }
+
+    for (final Map.Entry<Long, Integer> entry : multiplicities.entrySet()) {
+      final Long cvr_id = entry.getKey();
+      final int multiplicity = entry.getValue();
       final Set<AuditReason> discrepancies = new HashSet<>();
       final Set<AuditReason> disagreements = new HashSet<>();
-      CVRAuditInfo cvrai = Persistence.getByID(cvr_id, CVRAuditInfo.class);
+      final CVRAuditInfo cvrai = cvrai_map.get(cvr_id);
       
-      if (cvrai == null) {
-        // create it if it doesn't exist
-        cvrai = new CVRAuditInfo(Persistence.getByID(cvr_id, CastVoteRecord.class));
-        cvrai.setMultiplicity(Collections.frequency(the_round.auditSubsequence(), cvr_id));
-        Persistence.saveOrUpdate(cvrai);
-      } else if (cvrai.acvr() != null) {
+      if (cvrai != null && cvrai.acvr() != null) {
         // update the round statistics as necessary
         for (final CountyContestComparisonAudit ca : the_cdb.comparisonAudits()) {
-          audit_reasons.put(ca.contest(), ca.auditReason());
-          if (!discrepancies.contains(ca.auditReason()) && 
+          if (!discrepancies.contains(ca.auditReason()) &&
               ca.computeDiscrepancy(cvrai.cvr(), cvrai.acvr()).isPresent()) {
             discrepancies.add(ca.auditReason());
           }
@@ -757,9 +756,7 @@ public final class ComparisonAuditController {
             disagreements.add(reason);
           }
         }
-        
-        final int multiplicity = Collections.frequency(the_round.auditSubsequence(),
-                                                       cvr_id);
+
         for (int i = 0; i < multiplicity; i++) {
           the_round.addDiscrepancy(discrepancies);
           the_round.addDisagreement(disagreements);
@@ -771,9 +768,44 @@ public final class ComparisonAuditController {
     }
   }
   
+  /**
+   * Creates and persists CVRAuditInfo objects, with the appropriate 
+   * multiplicities, for all CVR IDs in the specified multiplicity map 
+   * that do not already have them. The CVRs for the new objects are 
+   * loaded in bulk.
+   * 
+   * @param the_multiplicities The map from CVR IDs to multiplicities.
+   * @param the_existing The map of CVRAuditInfo objects that already exist.
+   * @exception PersistenceException if the CVRs cannot be loaded.
+   */
+  private static void createAuditInfo(final Map<Long, Integer> the_multiplicities,
+                                      final Map<Long, CVRAuditInfo> the_existing) {
+    final List<Long> new_cvr_ids = new ArrayList<>();
+    for (final Long cvr_id : the_multiplicities.keySet()) {
+      if (!the_existing.containsKey(cvr_id)) {
+        new_cvr_ids.add(cvr_id);
+      }
+    }
+    if (new_cvr_ids.isEmpty()) {
+      return;
+    }
+    final List<CastVoteRecord> cvrs = CastVoteRecordQueries.get(new_cvr_ids);
+    if (cvrs == null) {
+      throw new PersistenceException("could not load CVRs to audit");
+    }
+    for (final CastVoteRecord cvr : cvrs) {
+      final CVRAuditInfo cvrai = new CVRAuditInfo(cvr);
+      cvrai.setMultiplicity(the_multiplicities.get(cvr.id()));
+      Persistence.saveOrUpdate(cvrai);
+    }
+  }
+  
   /**
    * Audits a CVR/ACVR pair by adding it to all the audits in progress.
-   * This also updates the local audit counters, as appropriate.
+   * Discrepancies and disagreements are only computed for the audits of
+   * contests that appear on the CVR or the ACVR (or for all audits, if the
+   * ACVR is a phantom ballot), since no other audit can be affected by
+   * the pair. This also updates the local audit counters, as appropriate.
    * 
    * @param the_cdb The dashboard.
    * @param the_info The CVRAuditInfo to audit.
@@ -800,23 +832,27 @@ public final class ComparisonAuditController {
     }
     
     final int audit_count = the_info.multiplicity() - the_info.counted();
+    final Set<Contest> affected_contests = affectedContests(cvr_under_audit, audit_cvr);
+    // the comparison audits are managed by the dashboard, so changes to them
+    // are persisted without explicitly saving them
     for (final CountyContestComparisonAudit ca : the_cdb.comparisonAudits()) {
-      final OptionalInt discrepancy = 
-          ca.computeDiscrepancy(cvr_under_audit, audit_cvr);
-      if (discrepancy.isPresent()) {
-        for (int i = 0; i < audit_count; i++) {
-          ca.recordDiscrepancy(the_info, discrepancy.getAsInt());
+      if (affected_contests == null || affected_contests.contains(ca.contest())) {
+        final OptionalInt discrepancy = 
+            ca.computeDiscrepancy(cvr_under_audit, audit_cvr);
+        if (discrepancy.isPresent()) {
+          for (int i = 0; i < audit_count; i++) {
+            ca.recordDiscrepancy(the_info, discrepancy.getAsInt());
+          }
+          discrepancies.add(ca.auditReason());
         }
-        discrepancies.add(ca.auditReason());
-      }
-      if (contest_disagreements.contains(ca.contest())) {
-        for (int i = 0; i < audit_count; i++) {
-          ca.recordDisagreement(the_info);
+        if (contest_disagreements.contains(ca.contest())) {
+          for (int i = 0; i < audit_count; i++) {
+            ca.recordDisagreement(the_info);
+          }
+          disagreements.add(ca.auditReason());
         }
-        disagreements.add(ca.auditReason());
       }
       ca.signalSampleAudited(audit_count);
-      Persistence.saveOrUpdate(ca);
     }
     
     the_info.setDiscrepancy(discrepancies);
@@ -834,8 +870,10 @@ public final class ComparisonAuditController {
   
   /**
    * "Unaudits" a CVR/ACVR pair by removing it from all the audits in 
-   * progress in the specified county dashboard. This also updates the
-   * dashboard's counters as appropriate.
+   * progress in the specified county dashboard. As in auditing, only the
+   * audits of contests that appear on the CVR or the ACVR are examined 
+   * for discrepancies and disagreements. This also updates the dashboard's 
+   * counters as appropriate.
    *
    * @param the_cdb The county dashboard.
    * @param the_info The CVRAuditInfo to unaudit.
@@ -856,23 +894,25 @@ public final class ComparisonAuditController {
       }
     }
     
+    final Set<Contest> affected_contests = affectedContests(cvr_under_audit, audit_cvr);
     for (final CountyContestComparisonAudit ca : the_cdb.comparisonAudits()) {
-      final OptionalInt discrepancy = 
-          ca.computeDiscrepancy(cvr_under_audit, audit_cvr);
-      if (discrepancy.isPresent()) {
-        for (int i = 0; i < result; i++) {
-          ca.removeDiscrepancy(the_info, discrepancy.getAsInt());
+      if (affected_contests == null || affected_contests.contains(ca.contest())) {
+        final OptionalInt discrepancy = 
+            ca.computeDiscrepancy(cvr_under_audit, audit_cvr);
+        if (discrepancy.isPresent()) {
+          for (int i = 0; i < result; i++) {
+            ca.removeDiscrepancy(the_info, discrepancy.getAsInt());
+          }
+          discrepancies.add(ca.auditReason());
         }
-        discrepancies.add(ca.auditReason());
-      }
-      if (contest_disagreements.contains(ca.contest())) {
-        for (int i = 0; i < result; i++) {
-          ca.removeDisagreement(the_info);
+        if (contest_disagreements.contains(ca.contest())) {
+          for (int i = 0; i < result; i++) {
+            ca.removeDisagreement(the_info);
+          }
+          disagreements.add(ca.auditReason());
         }
-        disagreements.add(ca.auditReason());
       }
       ca.signalSampleUnaudited(result);
-      Persistence.saveOrUpdate(ca);
     }
     
     the_info.setDisagreement(null);
@@ -886,12 +926,40 @@ public final class ComparisonAuditController {
     return result;
   }
   
+  /**
+   * Determines the contests that can be affected by auditing the specified
+   * CVR/ACVR pair; these are the contests that appear on either record.
+   * 
+   * @param the_cvr The CVR.
+   * @param the_acvr The ACVR.
+   * @return the affected contests, or null if every contest is affected 
+   * (because the ACVR is a phantom ballot).
+   */
+  private static Set<Contest> affectedContests(final CastVoteRecord the_cvr,
+                                               final CastVoteRecord the_acvr) {
+    Set<Contest> result = null;
+    if (the_acvr.recordType() != RecordType.PHANTOM_BALLOT) {
+      final Set<Contest> contests = new HashSet<>();
+      for (final CVRContestInfo ci : the_cvr.contestInfo()) {
+        contests.add(ci.contest());
+      }
+      for (final CVRContestInfo ci : the_acvr.contestInfo()) {
+        contests.add(ci.contest());
+      }
+      result = contests;
+    }
+    return result;
+  }
+  
   /**
    * Updates the current CVR to audit index of the specified county
    * dashboard to the first CVR after the current CVR under audit that
    * lacks an ACVR. This "audits" all the CVR/ACVR pairs it finds 
-   * in between, and extends the sequence of ballots to audit if it
-   * reaches the end and the audit is not concluded.
+   * in between that have not already been counted, and extends the 
+   * sequence of ballots to audit if it reaches the end and the audit 
+   * is not concluded. The scan starts at the dashboard's audited prefix,
+   * so each call only examines the audit subsequence entries beyond
+   * the prefix.
    * 
    * @param the_cdb The dashboard.
    */
@@ -901,15 +969,22 @@ public final class ComparisonAuditController {
     final Round round = the_cdb.currentRound();
     if (round != null) {
       final Set<Long> checked_ids = new HashSet<>();
+      final Map<Long, CVRAuditInfo> loaded = new HashMap<>();
       int index = round.actualAuditedPrefixLength() - round.startAuditedPrefixLength();
       while (index < round.auditSubsequence().size()) {
         final Long cvr_id = round.auditSubsequence().get(index);
         if (!checked_ids.contains(cvr_id)) {
           checked_ids.add(cvr_id);
-          final CVRAuditInfo cai = Persistence.getByID(cvr_id, CVRAuditInfo.class);
+          if (!loaded.containsKey(cvr_id)) {
+            // load the next window of the audit subsequence in one query
+            final int window_end = 
+                Math.min(round.auditSubsequence().size(), index + AUDIT_INFO_WINDOW);
+            loaded.putAll(auditInfoFor(round.auditSubsequence().subList(index, window_end)));
+          }
+          final CVRAuditInfo cai = loaded.get(cvr_id);
           if (cai.acvr() == null) {
             break;
-          } else {
+          } else if (cai.counted() < cai.multiplicity()) {
             final int audit_count = audit(the_cdb, cai, false);
             the_cdb.setAuditedSampleCount(the_cdb.auditedSampleCount() + audit_count);
           }
@@ -920,6 +995,21 @@ public final class ComparisonAuditController {
     }
   }
   
+  /**
+   * Loads the CVRAuditInfo objects with the specified IDs in bulk.
+   * 
+   * @param the_ids The IDs.
+   * @return the CVRAuditInfo objects, mapped by ID.
+   * @exception PersistenceException if the objects cannot be loaded.
+   */
+  private static Map<Long, CVRAuditInfo> auditInfoFor(final Collection<Long> the_ids) {
+    final Map<Long, CVRAuditInfo> result = CVRAuditInfoQueries.get(the_ids);
+    if (result == null) {
+      throw new PersistenceException("could not load CVR audit info");
+    }
+    return result;
+  }
+  
   /**
    * Checks that the specified CVR and ACVR are an audit pair, and that
    * the specified ACVR is auditor generated.
@@ -0,0 +1,393 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import us.freeandfair.corla.model.LogEntry;
+
+/**
+ * A verifier for the hash-chained log. Log entries are added in ID order;
+ * they are divided into ranges of consecutive entries, and each range is
+ * verified on a thread of a fixed-size pool while later entries are being
+ * added. Each range carries the last entry of the range before it, so the
+ * links across range boundaries are verified along with the links inside
+ * the ranges. The number of ranges held in memory at once is bounded, so
+ * logs of any length can be verified.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// the thread pool is the point of this class
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class LogChainVerifier {
+  /**
+   * The default number of entries in a range.
+   */
+  public static final int DEFAULT_RANGE_SIZE = 10000;
+
+  /**
+   * The number of ranges, per thread, that may be awaiting verification
+   * at once.
+   */
+  private static final int RANGES_PER_THREAD = 2;
+
+  /**
+   * The thread pool.
+   */
+  private final ExecutorService my_executor;
+
+  /**
+   * The permits for ranges awaiting verification.
+   */
+  private final Semaphore my_permits;
+
+  /**
+   * The number of entries in a range.
+   */
+  private final int my_range_size;
+
+  /**
+   * The results of the range verifications, in range order.
+   */
+  private final List<Future<Break>> my_results = new ArrayList<>();
+
+  /**
+   * The range currently being filled.
+   */
+  private List<Link> my_range = new ArrayList<>();
+
+  /**
+   * The last entry of the previous range, or null if there is no
+   * previous range.
+   */
+  private Link my_range_predecessor;
+
+  /**
+   * The number of entries added.
+   */
+  private long my_entries;
+
+  /**
+   * Constructs a new LogChainVerifier that uses one thread per available
+   * processor and the default range size.
+   */
+  public LogChainVerifier() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_RANGE_SIZE);
+  }
+
+  /**
+   * Constructs a new LogChainVerifier.
+   * 
+   * @param the_threads The number of threads to verify ranges on.
+   * @param the_range_size The number of entries in a range.
+   */
+  public LogChainVerifier(final int the_threads, final int the_range_size) {
+    my_executor = Executors.newFixedThreadPool(the_threads);
+    my_permits = new Semaphore(the_threads * RANGES_PER_THREAD);
+    my_range_size = the_range_size;
+  }
+
+  /**
+   * Adds a log entry to be verified; log entries must be added in ID order.
+   * This method blocks if too many ranges are awaiting verification.
+   * 
+   * @param the_id The ID of the log entry.
+   * @param the_previous_id The ID of the previous log entry, or null if
+   * there is none.
+   * @param the_hash_string The hash string of the log entry.
+   * @param the_hash The hash of the log entry.
+   */
+  public void add(final long the_id, final Long the_previous_id,
+                  final String the_hash_string, final String the_hash) {
+    my_range.add(new Link(the_id, the_previous_id, the_hash_string, the_hash));
+    my_entries = my_entries + 1;
+    if (my_range.size() >= my_range_size) {
+      submitRange();
+    }
+  }
+
+  /**
+   * Finishes verification, waiting for all ranges to be verified, and shuts
+   * down the thread pool. No entries may be added after this method is
+   * called.
+   * 
+   * @return the result of verification.
+   * @exception IllegalStateException if verification is interrupted or fails
+   * unexpectedly.
+   */
+  public Result finish() {
+    if (!my_range.isEmpty()) {
+      submitRange();
+    }
+    Break first_break = null;
+    try {
+      for (final Future<Break> future : my_results) {
+        first_break = future.get();
+        if (first_break != null) {
+          break;
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("log verification interrupted", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("log verification failed", e);
+    } finally {
+      my_executor.shutdownNow();
+    }
+    return new Result(my_entries, my_results.size(), first_break);
+  }
+
+  /**
+   * Abandons verification and shuts down the thread pool. No entries may be
+   * added after this method is called.
+   */
+  public void abort() {
+    my_executor.shutdownNow();
+  }
+
+  /**
+   * Submits the range currently being filled for verification and starts
+   * a new one.
+   */
+  private void submitRange() {
+    final Link predecessor = my_range_predecessor;
+    final List<Link> range = my_range;
+    my_permits.acquireUninterruptibly();
+    my_results.add(my_executor.submit(() -> {
+      try {
+        return verifyRange(predecessor, range);
+      } finally {
+        my_permits.release();
+      }
+    }));
+    my_range_predecessor = range.get(range.size() - 1);
+    my_range = new ArrayList<>(my_range_size);
+  }
+
+  /**
+   * Verifies a range of entries.
+   * 
+   * @param the_predecessor The entry before the range, or null if there is
+   * none.
+   * @param the_range The range.
+   * @return the first broken link in the range, or null if there is none.
+   */
+  private static Break verifyRange(final Link the_predecessor,
+                                   final List<Link> the_range) {
+    Break result = null;
+    Link previous = the_predecessor;
+    for (final Link link : the_range) {
+      result = link.verify(previous);
+      if (result != null) {
+        break;
+      }
+      previous = link;
+    }
+    return result;
+  }
+
+  /**
+   * A log entry, reduced to the information needed to verify its link.
+   */
+  private static class Link {
+    /**
+     * The ID.
+     */
+    private final long my_id;
+
+    /**
+     * The ID of the previous entry.
+     */
+    private final Long my_previous_id;
+
+    /**
+     * The hash string.
+     */
+    private final String my_hash_string;
+
+    /**
+     * The hash.
+     */
+    private final String my_hash;
+
+    /**
+     * Constructs a new Link.
+     * 
+     * @param the_id The ID.
+     * @param the_previous_id The ID of the previous entry.
+     * @param the_hash_string The hash string.
+     * @param the_hash The hash.
+     */
+    Link(final long the_id, final Long the_previous_id,
+         final String the_hash_string, final String the_hash) {
+      my_id = the_id;
+      my_previous_id = the_previous_id;
+      my_hash_string = the_hash_string;
+      my_hash = the_hash;
+    }
+
+    /**
+     * Verifies this link against the entry before it.
+     * 
+     * @param the_previous The entry before this one, or null if there is none.
+     * @return the break in this link, or null if it is intact.
+     */
+    public Break verify(final Link the_previous) {
+      Long expected_previous_id = null;
+      String previous_hash = LogEntry.ROOT_HASH;
+      if (the_previous != null) {
+        expected_previous_id = the_previous.my_id;
+        previous_hash = the_previous.my_hash;
+      }
+      Break result = null;
+      if (Objects.equals(my_previous_id, expected_previous_id)) {
+        if (!LogEntry.chainHash(my_hash_string, previous_hash).equals(my_hash)) {
+          result = new Break(my_id, "entry hash does not match its contents");
+        }
+      } else {
+        result = new Break(my_id, "entry refers to previous entry " + my_previous_id +
+                                  " instead of " + expected_previous_id);
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A broken link in the log.
+   */
+  public static class Break {
+    /**
+     * The ID of the entry whose link is broken.
+     */
+    private final long my_id;
+
+    /**
+     * The reason the link is broken.
+     */
+    private final String my_reason;
+
+    /**
+     * Constructs a new Break.
+     * 
+     * @param the_id The ID of the entry whose link is broken.
+     * @param the_reason The reason the link is broken.
+     */
+    Break(final long the_id, final String the_reason) {
+      my_id = the_id;
+      my_reason = the_reason;
+    }
+
+    /**
+     * @return the ID of the entry whose link is broken.
+     */
+    public long id() {
+      return my_id;
+    }
+
+    /**
+     * @return the reason the link is broken.
+     */
+    public String reason() {
+      return my_reason;
+    }
+  }
+
+  /**
+   * The result of verifying the log.
+   */
+  public static class Result {
+    /**
+     * The number of entries verified.
+     */
+    private final long my_entries;
+
+    /**
+     * The number of ranges verified.
+     */
+    private final int my_ranges;
+
+    /**
+     * The first broken link, or null if the log is intact.
+     */
+    private final Break my_first_break;
+
+    /**
+     * A flag indicating whether the log is intact.
+     */
+    private final boolean my_intact;
+
+    /**
+     * Constructs a new Result.
+     * 
+     * @param the_entries The number of entries verified.
+     * @param the_ranges The number of ranges verified.
+     * @param the_first_break The first broken link, or null if there is none.
+     */
+    Result(final long the_entries, final int the_ranges, final Break the_first_break) {
+      my_entries = the_entries;
+      my_ranges = the_ranges;
+      my_first_break = the_first_break;
+      my_intact = the_first_break == null;
+    }
+
+    /**
+     * @return the number of entries verified.
+     */
+    public long entries() {
+      return my_entries;
+    }
+
+    /**
+     * @return the number of ranges verified.
+     */
+    public int ranges() {
+      return my_ranges;
+    }
+
+    /**
+     * @return true if the log is intact, false otherwise.
+     */
+    public boolean intact() {
+      return my_intact;
+    }
+
+    /**
+     * @return the first broken link, or null if the log is intact.
+     */
+    public Break firstBreak() {
+      return my_first_break;
+    }
+
+    /**
+     * @return a String representation of this result.
+     */
+    @Override
+    public String toString() {
+      String status = "log is intact";
+      if (my_first_break != null) {
+        status = "first broken link at entry " + my_first_break.id() + 
+                 " (" + my_first_break.reason() + ")";
+      }
+      return "verified " + my_entries + " log entries in " + my_ranges + 
+             " ranges: " + status;
+    }
+  }
+}
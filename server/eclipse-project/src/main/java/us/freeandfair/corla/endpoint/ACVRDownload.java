@@ -11,26 +11,11 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.UncheckedIOException;
-import java.util.stream.Stream;
-
-import javax.persistence.PersistenceException;
-
-import com.google.gson.stream.JsonWriter;
-
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
-import us.freeandfair.corla.model.CastVoteRecord;
 import us.freeandfair.corla.model.CastVoteRecord.RecordType;
-import us.freeandfair.corla.persistence.Persistence;
-import us.freeandfair.corla.query.CastVoteRecordQueries;
-import us.freeandfair.corla.util.SparkHelper;
+import us.freeandfair.corla.query.CastVoteRecordProjections;
 
 /**
  * The ballot manifest download endpoint.
@@ -56,6 +41,22 @@ public class ACVRDownload extends AbstractEndpoint {
     return "/acvr";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
@@ -68,31 +69,13 @@ public class ACVRDownload extends AbstractEndpoint {
    * {@inheritDoc}
    */
   @Override
-  // necessary to break out of the lambda expression in case of IOException
-  @SuppressWarnings("PMD.ExceptionAsFlowControl")
   public String endpointBody(final Request the_request, final Response the_response) {
-    try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
-         BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-         JsonWriter jw = new JsonWriter(bw)) {
+    streamJSON(the_request, the_response, jw -> {
       jw.beginArray();
-      final Stream<CastVoteRecord> matches = 
-          Stream.concat(CastVoteRecordQueries.getMatching(RecordType.AUDITOR_ENTERED),
-                        CastVoteRecordQueries.getMatching(RecordType.PHANTOM_BALLOT));
-      matches.forEach((the_cvr) -> {
-        try {
-          jw.jsonValue(Main.GSON.toJson(Persistence.unproxy(the_cvr)));
-          Persistence.evict(the_cvr);
-        } catch (final IOException e) {
-          throw new UncheckedIOException(e);
-        } 
-      });
+      CastVoteRecordProjections.writeMatching(jw, null, RecordType.AUDITOR_ENTERED, 
+                                              RecordType.PHANTOM_BALLOT);
       jw.endArray();
-      jw.flush();
-      jw.close();
-      ok(the_response);
-    } catch (final UncheckedIOException | IOException | PersistenceException e) {
-      serverError(the_response, "Unable to stream response");
-    }
+    });
     return my_endpoint_result.get();
   }
 }
@@ -11,8 +11,12 @@
 
 package us.freeandfair.corla.endpoint;
 
+import javax.persistence.PersistenceException;
+
 import spark.Request;
 
+import us.freeandfair.corla.asm.ASMEvent;
+import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.DoSDashboardASM;
 
 /**
@@ -50,4 +54,26 @@ public abstract class AbstractDoSDashboardEndpoint extends AbstractEndpoint {
   protected String asmIdentity(final Request the_request) {
     return DoSDashboardASM.IDENTITY;
   }
+  
+  /**
+   * Takes the specified event in the Department of State ASM and saves the
+   * ASM, within the current transaction. This is for work that finishes 
+   * outside the request that asked for it, such as an asynchronous job; 
+   * within a request, the endpoint's event is taken after its body runs.
+   * 
+   * @param the_event The event.
+   * @exception IllegalStateException if the event is illegal in the ASM's
+   * current state.
+   * @exception PersistenceException if the ASM cannot be saved.
+   */
+  protected static void stepDoSDashboardASM(final ASMEvent the_event) {
+    if (!DISABLE_ASM) {
+      final DoSDashboardASM asm = 
+          ASMUtilities.asmFor(DoSDashboardASM.class, DoSDashboardASM.IDENTITY);
+      asm.stepEvent(the_event);
+      if (!ASMUtilities.save(asm)) {
+        throw new PersistenceException("could not save the DoS dashboard ASM");
+      }
+    }
+  }
 }
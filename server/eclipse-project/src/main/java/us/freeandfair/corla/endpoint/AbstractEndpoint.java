@@ -13,9 +13,19 @@ package us.freeandfair.corla.endpoint;
 
 import static us.freeandfair.corla.model.Administrator.AdministratorType.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.persistence.PersistenceException;
 
@@ -24,6 +34,9 @@ import org.apache.log4j.Level;
 import org.eclipse.jetty.http.HttpStatus;
 import org.hibernate.HibernateException;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
 import spark.HaltException;
 import spark.Request;
 import spark.Response;
@@ -34,11 +47,17 @@ import us.freeandfair.corla.asm.ASMEvent;
 import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.AbstractStateMachine;
 import us.freeandfair.corla.auth.AuthenticationInterface;
+import us.freeandfair.corla.json.DashboardRefreshCache;
 import us.freeandfair.corla.json.Result;
 import us.freeandfair.corla.model.Administrator;
 import us.freeandfair.corla.model.LogEntry;
+import us.freeandfair.corla.persistence.EntityChanges;
+import us.freeandfair.corla.persistence.LogWriter;
 import us.freeandfair.corla.persistence.Persistence;
-import us.freeandfair.corla.query.LogEntryQueries;
+import us.freeandfair.corla.persistence.RequestStatistics;
+import us.freeandfair.corla.util.Metrics;
+import us.freeandfair.corla.util.Metrics.Phase;
+import us.freeandfair.corla.util.SparkHelper;
 import us.freeandfair.corla.util.SuppressFBWarnings;
 
 /**
@@ -56,7 +75,8 @@ import us.freeandfair.corla.util.SuppressFBWarnings;
 // in before() to initialize my_persistent_asm_state.
     "SF_SWITCH_NO_DEFAULT"})
 @SuppressWarnings({"PMD.AtLeastOneConstructor", "PMD.TooManyMethods",
-    "PMD.EmptyMethodInAbstractClassShouldBeAbstract", "PMD.GodClass"})
+    "PMD.EmptyMethodInAbstractClassShouldBeAbstract", "PMD.GodClass",
+    "PMD.ExcessiveImports", "PMD.ExcessiveClassLength"})
 public abstract class AbstractEndpoint implements Endpoint {
   /**
    * A flag that disables ASM checks, when true.
@@ -64,15 +84,25 @@ public abstract class AbstractEndpoint implements Endpoint {
   public static final boolean DISABLE_ASM = false;
   
   /**
-   * The number of times to retry committing logs for failed transactions.
+   * The maximum time to wait for log entries to be persisted, in seconds.
    */
-  public static final int LOG_COMMIT_RETRIES = 5;
+  public static final long LOG_WAIT_SECONDS = 30;
   
   /**
    * The "Retry-After" value for a transaction failure response, in seconds.
    */
   public static final String RETRY_AFTER_DELAY = "10";
 
+  /**
+   * The query parameter with which a client can request pretty-printed JSON.
+   */
+  public static final String PRETTY_PARAMETER = "pretty";
+
+  /**
+   * The content type of JSON responses.
+   */
+  public static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
   /**
    * The ASM for this endpoint.
    */
@@ -95,13 +125,32 @@ public abstract class AbstractEndpoint implements Endpoint {
   protected ThreadLocal<List<LogEntry>> my_log_entries = 
       new ThreadLocal<List<LogEntry>>();
   
+  /**
+   * The time at which the ongoing request started, in nanoseconds.
+   */
+  protected ThreadLocal<Long> my_request_start = new ThreadLocal<Long>();
+  
   /**
    * Halts the endpoint execution by ending the request and returning the
    * most recently set response code and endpoint result.
    */
   protected final void halt(final Response the_response) {
+    if (my_status.get() != null) {
+      Metrics.halted(my_status.get());
+    }
     Spark.halt(the_response.status(), my_endpoint_result.get());
   }
+  
+  /**
+   * Records the latency of a phase of the ongoing request in the server
+   * metrics.
+   * 
+   * @param the_phase The phase.
+   * @param the_start_nanos The time at which the phase started, in nanoseconds.
+   */
+  protected void recordPhase(final Phase the_phase, final long the_start_nanos) {
+    Metrics.recordPhase(endpointName(), the_phase, System.nanoTime() - the_start_nanos);
+  }
 
   /**
    * @return the abstract state machine class for this endpoint. By default,
@@ -137,9 +186,6 @@ public abstract class AbstractEndpoint implements Endpoint {
     return null;
   }
   
-  /**
-   * The endpoint method. Delegates immediately to the child class
-   */
   /**
    * Load the appropriate ASM from the database and make sure that
    * the transition we wish to take is legal.
@@ -177,17 +223,20 @@ public abstract class AbstractEndpoint implements Endpoint {
       // there is no ASM event for this endpoint
       return true;
     }
+    final long start = System.nanoTime();
     try {
       // this asmFor() will be a no-op in nearly all cases, but in multi-transaction
       // endpoint hits like uploading large CVR imports, it is possible for the
       // state to change out from underneath us
       my_asm.set(ASMUtilities.asmFor(asmClass(), my_asm.get().identity()));
       my_asm.get().stepEvent(endpointEvent());
+      return ASMUtilities.save(my_asm.get());
     } catch (final IllegalStateException e) {
       illegalTransition(the_response, e.getMessage(), false);
       return false;
+    } finally {
+      recordPhase(Phase.ASM_SAVE, start);
     }
-    return ASMUtilities.save(my_asm.get());
   }
   
   /**
@@ -223,11 +272,202 @@ public abstract class AbstractEndpoint implements Endpoint {
    * @param the_json The JSON string to send as the body of the response.
    */
   public void okJSON(final Response the_response, final String the_json) {
+    the_response.type(JSON_CONTENT_TYPE);
     my_log_entries.get().add(new LogEntry(HttpStatus.OK_200, endpointName(), Instant.now()));
     my_status.set(HttpStatus.OK_200);
     my_endpoint_result.set(the_json);
   }
   
+  /**
+   * Indicate and log that the operation completed successfully, and send 
+   * the specified object as JSON, formatted as the request asks. For a 
+   * read-only endpoint, the JSON is streamed to the response as it is 
+   * generated (see streamJSON()); otherwise, it is generated in full and 
+   * sent only after the transaction commits, so that the client never sees
+   * a success response for a transaction that fails to commit.
+   * 
+   * @param the_request The HTTP request.
+   * @param the_response The HTTP response.
+   * @param the_object The object to send as the body of the response.
+   */
+  public void okJSON(final Request the_request, final Response the_response,
+                     final Object the_object) {
+    if (readOnly()) {
+      final JsonBody body = jw -> gson(the_request).toJson(the_object, Object.class, jw);
+      streamJSON(the_request, the_response, body);
+    } else {
+      okJSON(the_response, gson(the_request).toJson(the_object));
+    }
+  }
+  
+  /**
+   * Streams a JSON body to the response, and indicates and logs success. If 
+   * generating the JSON fails (for example, because a lazy association or a
+   * database cursor cannot be read) before any of the response has been 
+   * sent, the partial output is discarded and the client gets a server 
+   * error, as it would for any other endpoint. If it fails after part of the
+   * response has been sent, the 200 status can no longer be changed, so the
+   * connection is aborted and the client sees a truncated response. Endpoints
+   * that stream JSON must use this method, rather than writing to 
+   * jsonWriter() themselves, so that a failure is never sent as a complete 
+   * response.
+   * 
+   * @param the_request The HTTP request.
+   * @param the_response The HTTP response.
+   * @param the_body The body, which writes the JSON.
+   */
+  // any failure to generate the JSON must be caught, to abandon the response
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  protected void streamJSON(final Request the_request, final Response the_response,
+                            final JsonBody the_body) {
+    JsonWriter jw = null;
+    Exception failure = null;
+    try {
+      jw = jsonWriter(the_request, the_response);
+      the_body.write(jw);
+      jw.flush();
+    } catch (final IOException | RuntimeException e) {
+      failure = e;
+    }
+    if (failure == null) {
+      try {
+        // closing the writer completes the response
+        jw.close();
+      } catch (final IOException e) {
+        failure = e;
+      }
+    } else {
+      Main.LOGGER.error("could not generate response for " + endpointName() + ":\n" +
+                        ExceptionUtils.getStackTrace(failure));
+      try {
+        SparkHelper.abandon(the_response, failure);
+      } catch (final IOException | IllegalStateException e) {
+        Main.LOGGER.error("could not abandon response: " + e);
+      }
+    }
+    if (failure == null) {
+      ok(the_response);
+    } else {
+      serverError(the_response, "Unable to stream response");
+    }
+  }
+  
+  /**
+   * Indicate and log that the operation was accepted to run as the specified
+   * asynchronous job, and send the status of the job.
+   * 
+   * @param the_response The HTTP response.
+   * @param the_job The job.
+   */
+  public void accepted(final Response the_response, final AsyncJob the_job) {
+    the_response.type(JSON_CONTENT_TYPE);
+    the_response.header("Location", JobStatus.PATH + the_job.id());
+    my_log_entries.get().add(new LogEntry(HttpStatus.ACCEPTED_202, 
+                                          endpointName() + " job " + the_job.id(),
+                                          Instant.now()));
+    my_status.set(HttpStatus.ACCEPTED_202);
+    my_endpoint_result.set(Main.GSON.toJson(the_job.snapshot()));
+  }
+  
+  /**
+   * Determines whether the specified request asks for pretty-printed JSON, 
+   * which is intended for debugging; it does so with a "pretty" parameter
+   * with any value other than "false". 
+   * 
+   * @param the_request The HTTP request.
+   * @return true if the request asks for pretty-printed JSON, false otherwise.
+   */
+  protected boolean prettyRequested(final Request the_request) {
+    final String pretty = the_request.queryParams(PRETTY_PARAMETER);
+    return pretty != null && !"false".equalsIgnoreCase(pretty);
+  }
+  
+  /**
+   * @param the_request The HTTP request.
+   * @return the names of the query parameters of the request, other than 
+   * the one that requests pretty-printed JSON.
+   */
+  protected Set<String> dataParameters(final Request the_request) {
+    final Set<String> result = new HashSet<>(the_request.queryParams());
+    result.remove(PRETTY_PARAMETER);
+    return result;
+  }
+  
+  /**
+   * @param the_request The HTTP request.
+   * @return the Gson with which to format JSON for the response to the 
+   * request; its output is compact unless pretty-printing is requested.
+   */
+  protected Gson gson(final Request the_request) {
+    Gson result = Main.GSON;
+    if (prettyRequested(the_request)) {
+      result = Main.PRETTY_GSON;
+    }
+    return result;
+  }
+  
+  /**
+   * Sets the content type of the response to JSON and opens a JSON writer, 
+   * formatted as the request asks, on its output stream. Closing the writer
+   * commits the response. 
+   * 
+   * @param the_request The HTTP request.
+   * @param the_response The HTTP response.
+   * @return the JSON writer.
+   * @exception IOException if the output stream cannot be opened.
+   */
+  protected JsonWriter jsonWriter(final Request the_request, final Response the_response)
+      throws IOException {
+    the_response.type(JSON_CONTENT_TYPE);
+    return gson(the_request).newJsonWriter(new BufferedWriter(new OutputStreamWriter(
+        SparkHelper.getRaw(the_response).getOutputStream(), StandardCharsets.UTF_8)));
+  }
+  
+  /**
+   * Tags the response with a strong entity tag made from the specified tag
+   * and the epoch of entity change generations, and determines whether the 
+   * client already has the representation so tagged (according to the 
+   * If-None-Match header of the request); the tag also distinguishes
+   * pretty-printed representations. If it does, indicates and logs
+   * that the representation has not been modified, and the endpoint should 
+   * not build a response. The response is also marked to be revalidated
+   * on every use, so that clients always ask before reusing it.
+   * 
+   * @param the_request The HTTP request.
+   * @param the_response The HTTP response.
+   * @param the_tag The tag, which must change whenever the representation 
+   * changes.
+   * @return true if the client has the current representation, false 
+   * otherwise.
+   */
+  protected boolean notModified(final Request the_request, final Response the_response,
+                                final String the_tag) {
+    // pretty-printed representations differ from compact ones
+    String format = "";
+    if (prettyRequested(the_request)) {
+      format = "-pretty";
+    }
+    final String etag = "\"" + EntityChanges.EPOCH + "-" + the_tag + format + "\"";
+    the_response.header("ETag", etag);
+    the_response.header("Cache-Control", "private, no-cache");
+    boolean result = false;
+    final String if_none_match = the_request.headers("If-None-Match");
+    if (if_none_match != null) {
+      for (final String candidate : if_none_match.split(",")) {
+        // weak comparison, as specified for If-None-Match
+        final String trimmed = candidate.trim();
+        result |= "*".equals(trimmed) || etag.equals(trimmed.replaceFirst("^W/", ""));
+      }
+    }
+    if (result) {
+      my_log_entries.get().add(new LogEntry(HttpStatus.NOT_MODIFIED_304, endpointName(), 
+                                            Instant.now()));
+      my_status.set(HttpStatus.NOT_MODIFIED_304);
+      my_endpoint_result.set("");
+    }
+    return result;
+  }
+  
   /**
    * Indicate the client has violated an invariant or precondition relating data
    * to the endpoint in question. E.g., a digest is incorrect with regards to
@@ -375,6 +615,23 @@ public abstract class AbstractEndpoint implements Endpoint {
     halt(the_response);
   }
   
+  /**
+   * Indicate that the client has made too many requests recently.
+   * @param the_response the HTTP response.
+   * @param the_body the body of the HTTP response.
+   */
+  public void tooManyRequests(final Response the_response, 
+                              final String the_body) {
+    my_log_entries.get().add(new LogEntry(HttpStatus.TOO_MANY_REQUESTS_429,
+                                    "too many requests on " + endpointName() + ": " + 
+                                        the_body,
+                                    Instant.now()));
+    my_status.set(HttpStatus.TOO_MANY_REQUESTS_429);
+    the_response.header("Retry-After", RETRY_AFTER_DELAY);
+    my_endpoint_result.set(Main.GSON.toJson(new Result(the_body)));
+    halt(the_response);
+  }
+  
   /**
    * Indicate that the endpoint action failed due to a transaction failure.
    * Unlike other error responses, this one does _not_ halt the connection.
@@ -404,26 +661,54 @@ public abstract class AbstractEndpoint implements Endpoint {
   @Override
   public void before(final Request the_request, final Response the_response) {
     reset();
+    my_request_start.set(System.nanoTime());
+    RequestStatistics.begin();
     my_log_entries.set(new ArrayList<LogEntry>());
     Main.LOGGER.log(logLevel(), 
                     "endpoint " + endpointName() + " hit by " + the_request.host());
+    
+    // Turn the request away if its client has made too many requests recently
+    if (!ClientRateLimiter.allow(the_request)) {
+      tooManyRequests(the_response, "too many requests, try again later");
+    }
+    
+    // Admit the request, or turn it away if too many requests of its class 
+    // are already running
+    if (!AdmissionControl.admit(admissionClass())) {
+      the_response.header("Retry-After", RETRY_AFTER_DELAY);
+      serverUnavailable(the_response, "server busy, try again later");
+    }
+    
     // make sure we get all the HTTP post parameters, if there are any, before
     // anything has a chance to read the request body before Spark
     the_request.queryParams();
     
+    // Capture the dashboard generations before the transaction reads anything,
+    // so that dashboard responses are never tagged as newer than their data
+    DashboardRefreshCache.capture();
+    
     // Start a transaction, if the database is functioning; otherwise abort
     if (Persistence.hasDB()) {
-      Persistence.beginTransaction(); 
+      if (readOnly()) {
+        Persistence.beginReadOnlyTransaction();
+      } else {
+        Persistence.beginTransaction(); 
+      }
     } else {
       serverError(the_response, "no database");
       halt(the_response);
     } 
 
     // Check that the user is authorized for this endpoint
-    if (!checkAuthorization(the_request, requiredAuthorization())) {
-      unauthorized(the_response,
-                   "client not authorized to perform this action");
-      halt(the_response);
+    final long authorization_start = System.nanoTime();
+    try {
+      if (!checkAuthorization(the_request, requiredAuthorization())) {
+        unauthorized(the_response,
+                     "client not authorized to perform this action");
+        halt(the_response);
+      }
+    } finally {
+      recordPhase(Phase.AUTHORIZATION, authorization_start);
     }
     
     // Validate the parameters of the request.
@@ -433,7 +718,12 @@ public abstract class AbstractEndpoint implements Endpoint {
     }
     
     // Load and check the ASM
-    loadAndCheckASM(the_request, the_response);
+    final long asm_start = System.nanoTime();
+    try {
+      loadAndCheckASM(the_request, the_response);
+    } finally {
+      recordPhase(Phase.ASM_LOAD, asm_start);
+    }
   } 
   
   /**
@@ -451,6 +741,7 @@ public abstract class AbstractEndpoint implements Endpoint {
   @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.AvoidRethrowingException"})
   public final String endpoint(final Request the_request, final Response the_response) {
     String result = null;
+    final long start = System.nanoTime();
     
     try {
       result = endpointBody(the_request, the_response);
@@ -472,6 +763,8 @@ public abstract class AbstractEndpoint implements Endpoint {
                         ExceptionUtils.getStackTrace(e));
       serverError(the_response, e.toString());
       // the server error halts processing
+    } finally {
+      recordPhase(Phase.BODY, start);
     }
     
     return result;
@@ -506,7 +799,8 @@ public abstract class AbstractEndpoint implements Endpoint {
                       the_log_entry.information() + " by " + 
                       the_log_entry.authenticationData() + " from " + 
                       the_log_entry.clientHost());
-    } else if (HttpStatus.isSuccess(the_log_entry.resultCode())) {
+    } else if (HttpStatus.isSuccess(the_log_entry.resultCode()) ||
+               HttpStatus.isRedirection(the_log_entry.resultCode())) {
       Main.LOGGER.log(logLevel(), 
                       "successful " + the_log_entry.information() + " by " + 
                       the_log_entry.authenticationData() + " from " + 
@@ -519,8 +813,27 @@ public abstract class AbstractEndpoint implements Endpoint {
     }
   }
 
-  private void persistLogEntries(final Request the_request) {
-    LogEntry previous_entry = LogEntryQueries.last();
+  /**
+   * Sends the ongoing request's log entries to the log writer, which 
+   * hash-chains and persists them after the request's transaction has ended,
+   * and, if specified, waits (for up to LOG_WAIT_SECONDS) for them to be 
+   * persisted. Unlike writing them in the request's own transaction, this 
+   * does not make the entries atomic with the request's changes: if the 
+   * writer cannot persist them, the changes stay committed without a record 
+   * in the hash-chained log (the entries are still in the server log). 
+   * Callers that committed changes must treat a false result as a failure 
+   * of the request. Only those callers wait, so that requests that changed
+   * nothing (such as those turned away by admission control) never hold
+   * their threads waiting for the log writer.
+   * 
+   * @param the_request The request (used for log data).
+   * @param the_wait true to wait for the entries to be persisted, false
+   * otherwise.
+   * @return true if the entries were persisted, or if not waiting; false 
+   * otherwise.
+   */
+  private boolean persistLogEntries(final Request the_request, final boolean the_wait) {
+    final long start = System.nanoTime();
     final Object admin_attribute = 
         the_request.session().attribute(AuthenticationInterface.ADMIN);
     final String admin_data;
@@ -530,16 +843,52 @@ public abstract class AbstractEndpoint implements Endpoint {
       admin_data = "(unauthenticated)";
     }
     
+    final List<LogEntry> entries = new ArrayList<>();
     for (final LogEntry entry : my_log_entries.get()) {
-      // create and persist a new hash-chained log entry for each log entry
-      final LogEntry real_entry =
+      // the log writer hash-chains and persists the entries
+      final LogEntry full_entry =
           new LogEntry(entry.resultCode(), entry.information(), 
-                       admin_data, the_request.host(),
-                       entry.timestamp(), previous_entry);
-      Persistence.save(real_entry);
-      sendToLogger(real_entry);
-      previous_entry = real_entry;
+                       admin_data, the_request.host(), entry.timestamp());
+      sendToLogger(full_entry);
+      entries.add(full_entry);
     }
+    my_log_entries.get().clear();
+    
+    final CompletableFuture<Void> written = LogWriter.append(entries);
+    boolean result = true;
+    if (the_wait) {
+      try {
+        written.get(LOG_WAIT_SECONDS, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        Main.LOGGER.error("interrupted while waiting for log entries to be persisted");
+        result = false;
+      } catch (final ExecutionException | TimeoutException e) {
+        Main.LOGGER.error("could not wait for log entries to be persisted: " + e);
+        result = false;
+      }
+    }
+    recordPhase(Phase.LOG_PERSIST, start);
+    return result;
+  }
+  
+  /**
+   * Indicates that the ongoing request committed its changes, but that its
+   * log entries could not be persisted. The request is reported to the 
+   * operators as an alert, and to the client as a server error that says the
+   * changes were applied; there is no Retry-After, because retrying would 
+   * apply them again.
+   * 
+   * @param the_request The request.
+   */
+  private void logFailure(final Request the_request) {
+    Main.LOGGER.fatal("ALERT: changes by " + endpointName() + " for " + 
+                      the_request.host() + " were committed, but their log entries " +
+                      "could not be persisted to the hash-chained log");
+    Metrics.unloggedCommit();
+    my_status.set(HttpStatus.INTERNAL_SERVER_ERROR_500);
+    my_endpoint_result.set(Main.GSON.toJson(
+        new Result("changes applied but not logged; do not retry")));
   }
   
   /**
@@ -553,26 +902,15 @@ public abstract class AbstractEndpoint implements Endpoint {
   }
   
   /**
-   * Attempts to commit, in a separate transaction, any straggling log entries that
-   * could not be committed due to error.
+   * Persists any log entries that were not persisted after a successful commit
+   * (that is, those for requests that failed or were read-only), without
+   * waiting for them, as these requests changed nothing.
    * 
    * @param the_request The request (used for log data).
    */
   private void finalizeLogs(final Request the_request) {
-    int log_commit_retries = 0;
-    if (!my_log_entries.get().isEmpty() && log_commit_retries < LOG_COMMIT_RETRIES) {
-      try {
-        log_commit_retries = log_commit_retries + 1;
-        Persistence.beginTransaction();
-        persistLogEntries(the_request);
-        Persistence.commitTransaction();
-        my_log_entries.get().clear();
-      } catch (final PersistenceException e) {
-        Main.LOGGER.error("could not persist log entries for error response after " + 
-                          log_commit_retries + " attempt(s)");
-      }
-    } else if (!my_log_entries.get().isEmpty()) {
-      Main.LOGGER.error("maximum number of log entry commit attempts reached, aborting");
+    if (!my_log_entries.get().isEmpty()) {
+      persistLogEntries(the_request, false);
     }
   }
   
@@ -580,19 +918,45 @@ public abstract class AbstractEndpoint implements Endpoint {
    * The afterAfter filter for this endpoint. By default, it attempts to commit 
    * any open transaction (this makes writing endpoint code more straightforward,
    * as the vast majority of endpoints will never have to deal with transactions
-   * themselves).
+   * themselves). It also releases the request's admission, so that another
+   * request of the same admission class can run.
    */
   public void afterAfter(final Request the_request, final Response the_response) {
+    try {
+      // a request that was not admitted never started a transaction
+      if (AdmissionControl.isAdmitted()) {
+        endTransaction(the_request, the_response);
+      }
+      finishResponse(the_request, the_response);
+    } finally {
+      AdmissionControl.release();
+    }
+  }
+  
+  /**
+   * Ends the transaction for the ongoing request, by taking the transition for
+   * this endpoint in the ASM and committing or, if the request failed or is
+   * read-only, by rolling back.
+   * 
+   * @param the_request The request.
+   * @param the_response The response.
+   */
+  private void endTransaction(final Request the_request, final Response the_response) {
     // try to take the transition for this endpoint in the ASM and save it to the DB
-    // note that we do not try to commit when we have an error code in the response
-    if (successful() && 
+    // note that we do not try to commit when we have an error code in the response,
+    // or when the transaction is read-only; in either case, the log entries are 
+    // persisted by finalizeLogs()
+    if (!readOnly() && successful() && 
         transitionAndSaveASM(the_response) && 
         Persistence.isTransactionActive()) {
       try {
-        // since the transition finished, let's log all the log entries and commit
-        persistLogEntries(the_request);
+        // since the transition finished, let's commit and log all the log entries
+        final long commit_start = System.nanoTime();
         Persistence.commitTransaction();
-        my_log_entries.get().clear();
+        recordPhase(Phase.COMMIT, commit_start);
+        if (!persistLogEntries(the_request, awaitLogDurability())) {
+          logFailure(the_request);
+        }
       } catch (final PersistenceException e) {
         // this is an internal server error because we don't know what didn't
         // get committed
@@ -611,6 +975,16 @@ public abstract class AbstractEndpoint implements Endpoint {
         Main.LOGGER.error("could not roll back transaction for error response");
       }
     }
+  }
+  
+  /**
+   * Persists any remaining log entries and sets the body and status of the
+   * response.
+   * 
+   * @param the_request The request.
+   * @param the_response The response.
+   */
+  private void finishResponse(final Request the_request, final Response the_response) {
     // if there are still log entries left, we need to persist them and print them
     finalizeLogs(the_request);
     Integer status = my_status.get();
@@ -622,6 +996,20 @@ public abstract class AbstractEndpoint implements Endpoint {
     }
     the_response.body(endpoint_result);
     the_response.status(status);
+    RequestStatistics.end(endpointName());
+    recordRequest();
+  }
+  
+  /**
+   * Records the latency of the whole of the ongoing request in the server
+   * metrics.
+   */
+  private void recordRequest() {
+    final Long start = my_request_start.get();
+    if (start != null) {
+      recordPhase(Phase.REQUEST, start);
+      my_request_start.remove();
+    }
   }
   
   /**
@@ -633,6 +1021,27 @@ public abstract class AbstractEndpoint implements Endpoint {
     return AuthorizationType.NONE;
   }
   
+  /**
+   * @return true if this endpoint only reads from the database. The default
+   * is false.
+   */
+  @Override
+  public boolean readOnly() {
+    return false;
+  }
+  
+  /**
+   * @return the admission class of this endpoint. The default is READ for
+   * read-only endpoints and WRITE for all others.
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    if (readOnly()) {
+      return AdmissionClass.READ;
+    }
+    return AdmissionClass.WRITE;
+  }
+  
   /**
    * @return the priority level at which the endpoint's activity will be
    * logged. The default is Priority.INFO.
@@ -642,6 +1051,15 @@ public abstract class AbstractEndpoint implements Endpoint {
     return Level.INFO;
   }
   
+  /**
+   * @return true if requests to this endpoint that commit changes should 
+   * wait for their log entries to be persisted before responding. The 
+   * default is to wait unless the endpoint is read-only.
+   */
+  protected boolean awaitLogDurability() {
+    return !readOnly();
+  }
+  
   /**
    * Validates the parameters of a request. The default behavior is to
    * return 'true'.
@@ -710,4 +1128,18 @@ public abstract class AbstractEndpoint implements Endpoint {
       
     return result;
   }
+
+  /**
+   * The body of a streamed JSON response.
+   */
+  @FunctionalInterface
+  public interface JsonBody {
+    /**
+     * Writes the body.
+     * 
+     * @param the_writer The JSON writer.
+     * @exception IOException if the body cannot be written.
+     */
+    void write(JsonWriter the_writer) throws IOException;
+  }
 }
@@ -0,0 +1,251 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.endpoint.Endpoint.AdmissionClass;
+import us.freeandfair.corla.util.Metrics;
+
+/**
+ * Admission control for endpoint requests. Each admission class may run
+ * only a limited number of requests at once, so that bursts of one kind of
+ * request (such as report downloads) cannot take every database connection
+ * from the others (such as audit board submissions). A request that cannot
+ * be admitted waits, in order of arrival, for up to the class's maximum wait
+ * time; after that, it is turned away. The limits are set by the
+ * "admission.&lt;class&gt;.max_concurrent" and
+ * "admission.&lt;class&gt;.max_wait_ms" properties.
+ * 
+ * Some work uses database connections without being admitted: the log
+ * writer, the asynchronous job threads and the worker threads that start
+ * round 1. The default limits leave enough of the connection pool for
+ * them (one connection, "async_jobs.threads" connections and
+ * "round_start_threads" connections respectively); if any of these are 
+ * changed, the limits must still leave room for them.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AccessorMethodGeneration")
+public final class AdmissionControl {
+  /**
+   * The prefix of the admission control property names.
+   */
+  public static final String PROPERTY_PREFIX = "admission.";
+
+  /**
+   * The suffix of the names of the concurrency limit properties.
+   */
+  public static final String MAX_CONCURRENT_SUFFIX = ".max_concurrent";
+
+  /**
+   * The suffix of the names of the maximum wait properties.
+   */
+  public static final String MAX_WAIT_SUFFIX = ".max_wait_ms";
+
+  /**
+   * The default number of concurrent reads.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_READS = 5;
+
+  /**
+   * The default number of concurrent writes; writes get more connections
+   * than reads, so that audit board submissions are not starved by 
+   * dashboard refreshes.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_WRITES = 6;
+
+  /**
+   * The default number of concurrent heavy jobs.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_HEAVY = 2;
+
+  /**
+   * The default maximum wait for a read, in milliseconds.
+   */
+  public static final long DEFAULT_MAX_WAIT_READ_MSEC = 2000;
+
+  /**
+   * The default maximum wait for a write, in milliseconds; writes wait
+   * longest, so that audit board submissions queue rather than fail.
+   */
+  public static final long DEFAULT_MAX_WAIT_WRITE_MSEC = 30000;
+
+  /**
+   * The default maximum wait for a heavy job, in milliseconds.
+   */
+  public static final long DEFAULT_MAX_WAIT_HEAVY_MSEC = 0;
+
+  /**
+   * The limits, by admission class.
+   */
+  @SuppressWarnings("PMD.AvoidUsingVolatile")
+  private static volatile Map<AdmissionClass, Limit> limits =
+      limits(new Properties());
+
+  /**
+   * The admission class in which the request running on the current thread
+   * was admitted, if any.
+   */
+  private static final ThreadLocal<AdmissionClass> ADMITTED = new ThreadLocal<>();
+  
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private AdmissionControl() {
+    // do nothing
+  }
+
+  /**
+   * Configures admission control from the specified properties. This must
+   * be called before any requests are handled.
+   * 
+   * @param the_properties The properties.
+   */
+  public static void configure(final Properties the_properties) {
+    limits = limits(the_properties);
+  }
+
+  /**
+   * Attempts to admit a request of the specified class, waiting up to the
+   * class's maximum wait time if the class is at its concurrency limit. The
+   * request runs on the current thread and, whether or not it is admitted, 
+   * release() must be called on the same thread when it ends.
+   * 
+   * @param the_class The admission class.
+   * @return true if the request is admitted, false if it is turned away.
+   */
+  public static boolean admit(final AdmissionClass the_class) {
+    ADMITTED.remove();
+    final Limit limit = limits.get(the_class);
+    boolean result = false;
+    try {
+      result = limit.my_permits.tryAcquire(limit.my_max_wait_msec, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (result) {
+      ADMITTED.set(the_class);
+    } else {
+      Metrics.rejected(the_class.name().toLowerCase(Locale.US));
+    }
+    return result;
+  }
+
+  /**
+   * @return true if the request running on the current thread was admitted
+   * and has not been released, false otherwise.
+   */
+  public static boolean isAdmitted() {
+    return ADMITTED.get() != null;
+  }
+
+  /**
+   * Ends the request running on the current thread, releasing its place in
+   * its admission class if it was admitted.
+   */
+  public static void release() {
+    final AdmissionClass admitted = ADMITTED.get();
+    if (admitted != null) {
+      ADMITTED.remove();
+      limits.get(admitted).my_permits.release();
+    }
+  }
+
+  /**
+   * Creates the limits specified by a set of properties.
+   * 
+   * @param the_properties The properties.
+   * @return the limits, by admission class.
+   */
+  private static Map<AdmissionClass, Limit> limits(final Properties the_properties) {
+    final Map<AdmissionClass, Limit> result = new EnumMap<>(AdmissionClass.class);
+    result.put(AdmissionClass.READ,
+               limit(the_properties, AdmissionClass.READ,
+                     DEFAULT_MAX_CONCURRENT_READS, DEFAULT_MAX_WAIT_READ_MSEC));
+    result.put(AdmissionClass.WRITE,
+               limit(the_properties, AdmissionClass.WRITE,
+                     DEFAULT_MAX_CONCURRENT_WRITES, DEFAULT_MAX_WAIT_WRITE_MSEC));
+    result.put(AdmissionClass.HEAVY,
+               limit(the_properties, AdmissionClass.HEAVY,
+                     DEFAULT_MAX_CONCURRENT_HEAVY, DEFAULT_MAX_WAIT_HEAVY_MSEC));
+    return result;
+  }
+
+  /**
+   * Creates the limit for an admission class from a set of properties,
+   * falling back to the specified defaults if the properties are missing
+   * or invalid.
+   * 
+   * @param the_properties The properties.
+   * @param the_class The admission class.
+   * @param the_max_concurrent The default concurrency limit.
+   * @param the_max_wait_msec The default maximum wait, in milliseconds.
+   * @return the limit.
+   */
+  private static Limit limit(final Properties the_properties,
+                             final AdmissionClass the_class,
+                             final int the_max_concurrent,
+                             final long the_max_wait_msec) {
+    final String prefix = PROPERTY_PREFIX + the_class.name().toLowerCase(Locale.US);
+    int max_concurrent = the_max_concurrent;
+    long max_wait_msec = the_max_wait_msec;
+    try {
+      max_concurrent =
+          Integer.parseInt(the_properties.getProperty(prefix + MAX_CONCURRENT_SUFFIX,
+                                                      String.valueOf(the_max_concurrent)));
+      max_wait_msec =
+          Long.parseLong(the_properties.getProperty(prefix + MAX_WAIT_SUFFIX,
+                                                    String.valueOf(the_max_wait_msec)));
+    } catch (final NumberFormatException e) {
+      Main.LOGGER.error("invalid admission control property for " + prefix +
+                        ", using defaults");
+      max_concurrent = the_max_concurrent;
+      max_wait_msec = the_max_wait_msec;
+    }
+    return new Limit(new Semaphore(Math.max(1, max_concurrent), true), 
+                     Math.max(0, max_wait_msec));
+  }
+
+  /**
+   * The concurrency limit and maximum wait for an admission class.
+   */
+  private static final class Limit {
+    /**
+     * The permits; a request holds one while it runs.
+     */
+    private final Semaphore my_permits;
+
+    /**
+     * The maximum time to wait for a permit, in milliseconds.
+     */
+    private final long my_max_wait_msec;
+
+    /**
+     * Constructs a new Limit.
+     * 
+     * @param the_permits The permits.
+     * @param the_max_wait_msec The maximum wait, in milliseconds.
+     */
+    Limit(final Semaphore the_permits, final long the_max_wait_msec) {
+      my_permits = the_permits;
+      my_max_wait_msec = the_max_wait_msec;
+    }
+  }
+}
@@ -0,0 +1,344 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import org.eclipse.jetty.http.HttpStatus;
+
+import us.freeandfair.corla.json.AsyncJobStatus;
+
+/**
+ * A long-running piece of endpoint work, run outside the request that
+ * asked for it. A job reports its progress while it runs and, when it is
+ * done, holds either a result message or a generated artifact (a file)
+ * for the client to fetch.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"PMD.AvoidUsingVolatile", "PMD.TooManyFields"})
+public final class AsyncJob {
+  /**
+   * The ID of the job.
+   */
+  private final String my_id;
+
+  /**
+   * The name of the job (the name of the endpoint that submitted it).
+   */
+  private final String my_name;
+
+  /**
+   * The key of the job, which identifies the work it does; at most one job
+   * with a given key runs at a time.
+   */
+  private final String my_key;
+
+  /**
+   * The administrator who submitted the job.
+   */
+  private final String my_administrator;
+
+  /**
+   * The host from which the job was submitted.
+   */
+  private final String my_client_host;
+
+  /**
+   * The time at which the job was submitted.
+   */
+  private final Instant my_submitted = Instant.now();
+
+  /**
+   * The state of the job.
+   */
+  private volatile State my_state = State.QUEUED;
+
+  /**
+   * The time at which the job started, or null if it has not.
+   */
+  private volatile Instant my_started;
+
+  /**
+   * The time at which the job finished, or null if it has not.
+   */
+  private volatile Instant my_finished;
+
+  /**
+   * The number of steps of the job completed so far.
+   */
+  private long my_completed;
+
+  /**
+   * The total number of steps in the job, or 0 if unknown.
+   */
+  private long my_total;
+
+  /**
+   * The HTTP status of the job's outcome, or null if it has not finished.
+   */
+  private Integer my_status;
+
+  /**
+   * The result message of the job, or null if it has not finished.
+   */
+  private String my_message;
+
+  /**
+   * The artifact generated by the job, or null if there is none.
+   */
+  private Path my_artifact;
+
+  /**
+   * The content type of the artifact.
+   */
+  private String my_content_type;
+
+  /**
+   * The file name under which the artifact is sent to clients.
+   */
+  private String my_filename;
+
+  /**
+   * The states of a job.
+   */
+  public enum State {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED;
+  }
+
+  /**
+   * Constructs a new AsyncJob.
+   * 
+   * @param the_id The ID.
+   * @param the_name The name.
+   * @param the_key The key, or null if the job may run alongside any other.
+   * @param the_administrator The administrator who submitted the job.
+   * @param the_client_host The host from which the job was submitted.
+   */
+  AsyncJob(final String the_id, final String the_name, final String the_key,
+           final String the_administrator, final String the_client_host) {
+    my_id = the_id;
+    my_name = the_name;
+    my_key = the_key;
+    my_administrator = the_administrator;
+    my_client_host = the_client_host;
+  }
+
+  /**
+   * @return the ID of the job.
+   */
+  public String id() {
+    return my_id;
+  }
+
+  /**
+   * @return the name of the job.
+   */
+  public String name() {
+    return my_name;
+  }
+
+  /**
+   * @return the key of the job, or null if it has none.
+   */
+  public String key() {
+    return my_key;
+  }
+
+  /**
+   * @return the administrator who submitted the job.
+   */
+  public String administrator() {
+    return my_administrator;
+  }
+
+  /**
+   * @return the host from which the job was submitted.
+   */
+  public String clientHost() {
+    return my_client_host;
+  }
+
+  /**
+   * @return the state of the job.
+   */
+  public State state() {
+    return my_state;
+  }
+
+  /**
+   * @return true if the job has finished, successfully or not; false
+   * otherwise.
+   */
+  public boolean isFinished() {
+    return my_state == State.SUCCEEDED || my_state == State.FAILED;
+  }
+
+  /**
+   * @return the time at which the job finished, or null if it has not.
+   */
+  public Instant finished() {
+    return my_finished;
+  }
+
+  /**
+   * @return the HTTP status of the job's outcome, or null if it has not
+   * finished.
+   */
+  public synchronized Integer status() {
+    return my_status;
+  }
+
+  /**
+   * @return the result message of the job, or null if it has not finished.
+   */
+  public synchronized String message() {
+    return my_message;
+  }
+
+  /**
+   * @return the artifact generated by the job, or null if there is none.
+   */
+  public synchronized Path artifact() {
+    return my_artifact;
+  }
+
+  /**
+   * @return the content type of the artifact generated by the job.
+   */
+  public synchronized String contentType() {
+    return my_content_type;
+  }
+
+  /**
+   * @return the file name under which the artifact is sent to clients.
+   */
+  public synchronized String filename() {
+    return my_filename;
+  }
+
+  /**
+   * Sets the total number of steps in the job.
+   * 
+   * @param the_total The total.
+   */
+  public synchronized void setTotal(final long the_total) {
+    my_total = the_total;
+  }
+
+  /**
+   * Records the completion of a step of the job.
+   */
+  public synchronized void advance() {
+    my_completed = my_completed + 1;
+  }
+
+  /**
+   * Indicates that the job succeeded with the specified result message.
+   * 
+   * @param the_message The message.
+   */
+  public void succeed(final String the_message) {
+    finish(HttpStatus.OK_200, the_message);
+  }
+
+  /**
+   * Indicates that the job succeeded, generating the specified artifact.
+   * 
+   * @param the_artifact The artifact; it is deleted when the job is
+   * discarded.
+   * @param the_content_type The content type of the artifact.
+   * @param the_filename The file name under which the artifact is sent to
+   * clients.
+   */
+  public synchronized void succeed(final Path the_artifact, final String the_content_type,
+                                   final String the_filename) {
+    my_artifact = the_artifact;
+    my_content_type = the_content_type;
+    my_filename = the_filename;
+    finish(HttpStatus.OK_200, "generated " + the_filename);
+  }
+
+  /**
+   * Indicates that the job failed.
+   * 
+   * @param the_status The HTTP status that the failure would have had if
+   * the work had been done within a request.
+   * @param the_message The message.
+   */
+  public void fail(final int the_status, final String the_message) {
+    finish(the_status, the_message);
+  }
+
+  /**
+   * Indicates that the job started.
+   */
+  public void start() {
+    my_started = Instant.now();
+    my_state = State.RUNNING;
+  }
+
+  /**
+   * Indicates that the job finished, unless it has already done so.
+   * 
+   * @param the_status The HTTP status of the outcome.
+   * @param the_message The message.
+   */
+  private synchronized void finish(final int the_status, final String the_message) {
+    if (!isFinished()) {
+      my_status = the_status;
+      my_message = the_message;
+      my_finished = Instant.now();
+      if (my_total > 0) {
+        my_completed = my_total;
+      }
+      if (HttpStatus.isSuccess(the_status)) {
+        my_state = State.SUCCEEDED;
+      } else {
+        my_state = State.FAILED;
+      }
+    }
+  }
+
+  /**
+   * Deletes the artifact generated by the job, if any.
+   * 
+   * @exception IOException if the artifact cannot be deleted.
+   */
+  @SuppressWarnings("PMD.NullAssignment")
+  public synchronized void discard() throws IOException {
+    if (my_artifact != null) {
+      Files.deleteIfExists(my_artifact);
+      my_artifact = null;
+    }
+  }
+
+  /**
+   * @return a snapshot of the status of the job, for sending to clients.
+   */
+  public synchronized AsyncJobStatus snapshot() {
+    String result = null;
+    if (isFinished()) {
+      result = JobResult.PATH + my_id;
+    }
+    return new AsyncJobStatus(my_id, my_name, my_state.name(), my_completed, my_total,
+                              my_status, my_message, my_submitted, my_started,
+                              my_finished, result);
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.PersistenceException;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.eclipse.jetty.http.HttpStatus;
+
+import spark.Request;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.auth.AuthenticationInterface;
+import us.freeandfair.corla.model.Administrator;
+import us.freeandfair.corla.model.LogEntry;
+import us.freeandfair.corla.persistence.LogWriter;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * The asynchronous jobs of the server. An endpoint that does a large amount
+ * of work can, when the client asks for it (with an "async" query parameter
+ * or a "Prefer: respond-async" header), submit that work as a job and respond
+ * at once with the job's status; the client then polls the job's status and,
+ * when the job is done, fetches its result. Jobs run on a fixed pool of
+ * threads, set by the "async_jobs.threads" property, and finished jobs (with
+ * their artifacts) are discarded after the number of minutes set by the
+ * "async_jobs.retention_minutes" property.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"PMD.AvoidUsingVolatile", "PMD.DoNotUseThreads"})
+public final class AsyncJobs {
+  /**
+   * The query parameter with which a client can ask for asynchronous mode.
+   */
+  public static final String ASYNC_PARAMETER = "async";
+
+  /**
+   * The preference with which a client can ask for asynchronous mode.
+   */
+  public static final String RESPOND_ASYNC = "respond-async";
+
+  /**
+   * The name of the property that sets the number of job threads.
+   */
+  public static final String THREADS_PROPERTY = "async_jobs.threads";
+
+  /**
+   * The name of the property that sets the number of minutes for which
+   * finished jobs are kept.
+   */
+  public static final String RETENTION_PROPERTY = "async_jobs.retention_minutes";
+
+  /**
+   * The default number of job threads.
+   */
+  public static final int DEFAULT_THREADS = 2;
+
+  /**
+   * The default number of minutes for which finished jobs are kept.
+   */
+  public static final long DEFAULT_RETENTION_MINUTES = 60;
+
+  /**
+   * The jobs, by ID.
+   */
+  private static final Map<String, AsyncJob> JOBS = new ConcurrentHashMap<>();
+
+  /**
+   * The number of job threads created so far, used to name them.
+   */
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  /**
+   * The executor that runs the jobs.
+   */
+  private static volatile ExecutorService executor = newExecutor(DEFAULT_THREADS);
+
+  /**
+   * The time for which finished jobs are kept.
+   */
+  private static volatile Duration retention =
+      Duration.ofMinutes(DEFAULT_RETENTION_MINUTES);
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private AsyncJobs() {
+    // do nothing
+  }
+
+  /**
+   * Configures the jobs from the specified properties. This must be called
+   * before any jobs are submitted.
+   * 
+   * @param the_properties The properties.
+   */
+  public static void configure(final Properties the_properties) {
+    int threads = DEFAULT_THREADS;
+    long retention_minutes = DEFAULT_RETENTION_MINUTES;
+    try {
+      threads = Integer.parseInt(the_properties.getProperty(THREADS_PROPERTY,
+                                                            String.valueOf(threads)));
+      retention_minutes =
+          Long.parseLong(the_properties.getProperty(RETENTION_PROPERTY,
+                                                    String.valueOf(retention_minutes)));
+    } catch (final NumberFormatException e) {
+      Main.LOGGER.error("invalid asynchronous job property, using defaults");
+      threads = DEFAULT_THREADS;
+      retention_minutes = DEFAULT_RETENTION_MINUTES;
+    }
+    final ExecutorService old_executor = executor;
+    executor = newExecutor(threads);
+    retention = Duration.ofMinutes(Math.max(1, retention_minutes));
+    // jobs already submitted to the old executor still run
+    old_executor.shutdown();
+  }
+
+  /**
+   * Determines whether the specified request asks for asynchronous mode.
+   * 
+   * @param the_request The request.
+   * @return true if the request asks for asynchronous mode, false otherwise.
+   */
+  public static boolean requested(final Request the_request) {
+    final String async = the_request.queryParams(ASYNC_PARAMETER);
+    final String prefer = the_request.headers("Prefer");
+    return async != null && !"false".equalsIgnoreCase(async) ||
+           prefer != null && prefer.toLowerCase(Locale.US).contains(RESPOND_ASYNC);
+  }
+
+  /**
+   * Submits a job. If a job with the same key is queued or running, no new
+   * job is submitted.
+   * 
+   * @param the_name The name of the job.
+   * @param the_key The key of the job, or null if the job may run alongside
+   * any other.
+   * @param the_request The request that asked for the job.
+   * @param the_work The work of the job.
+   * @return the submitted job or, if a job with the same key is queued or
+   * running, that job.
+   */
+  public static synchronized AsyncJob submit(final String the_name, final String the_key,
+                                             final Request the_request,
+                                             final Work the_work) {
+    discardExpiredJobs();
+    AsyncJob result = active(the_key);
+    if (result == null) {
+      result = new AsyncJob(UUID.randomUUID().toString(), the_name, the_key,
+                            administrator(the_request), the_request.host());
+      JOBS.put(result.id(), result);
+      final AsyncJob job = result;
+      executor.execute(() -> run(job, the_work));
+      Main.LOGGER.info("job " + job.id() + " submitted by " + the_name);
+    }
+    return result;
+  }
+
+  /**
+   * Gets a job.
+   * 
+   * @param the_id The ID of the job.
+   * @return the job, or null if there is no such job or it has been discarded.
+   */
+  public static AsyncJob get(final String the_id) {
+    discardExpiredJobs();
+    return JOBS.get(the_id);
+  }
+
+  /**
+   * Gets the queued or running job with a key.
+   * 
+   * @param the_key The key.
+   * @return the job, or null if there is none.
+   */
+  public static AsyncJob active(final String the_key) {
+    AsyncJob result = null;
+    if (the_key != null) {
+      for (final AsyncJob job : JOBS.values()) {
+        if (the_key.equals(job.key()) && !job.isFinished()) {
+          result = job;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Runs a job, recording its outcome in the log.
+   * 
+   * @param the_job The job.
+   * @param the_work The work of the job.
+   */
+  // this method must record any failure of the work, whatever its cause
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static void run(final AsyncJob the_job, final Work the_work) {
+    the_job.start();
+    try {
+      the_work.run(the_job);
+      if (!the_job.isFinished()) {
+        the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, "job ended without a result");
+      }
+    } catch (final IOException | RuntimeException e) {
+      Main.LOGGER.error("uncaught exception in job " + the_job.id() + " (" +
+                        the_job.name() + "):\n" + ExceptionUtils.getStackTrace(e));
+      the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, e.toString());
+    } finally {
+      rollBackOpenTransaction();
+    }
+    final LogEntry entry =
+        new LogEntry(the_job.status(),
+                     the_job.name() + " job " + the_job.id() + ": " + the_job.message(),
+                     the_job.administrator(), the_job.clientHost(), Instant.now());
+    if (HttpStatus.isSuccess(the_job.status())) {
+      Main.LOGGER.info("job " + the_job.id() + " succeeded: " + the_job.message());
+    } else {
+      Main.LOGGER.error("job " + the_job.id() + " failed: " + the_job.message());
+    }
+    LogWriter.append(Collections.singletonList(entry));
+  }
+
+  /**
+   * Rolls back any transaction left open on the current thread.
+   */
+  private static void rollBackOpenTransaction() {
+    try {
+      if (Persistence.isSessionOpen() && Persistence.canTransactionRollback()) {
+        Persistence.rollbackTransaction();
+      }
+    } catch (final PersistenceException | IllegalStateException e) {
+      Main.LOGGER.error("could not roll back job transaction: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Discards the jobs that finished longer ago than the retention time,
+   * deleting their artifacts.
+   */
+  private static void discardExpiredJobs() {
+    final Instant cutoff = Instant.now().minus(retention);
+    final Iterator<AsyncJob> iterator = JOBS.values().iterator();
+    while (iterator.hasNext()) {
+      final AsyncJob job = iterator.next();
+      if (job.isFinished() && job.finished().isBefore(cutoff)) {
+        iterator.remove();
+        try {
+          job.discard();
+        } catch (final IOException e) {
+          Main.LOGGER.error("could not delete artifact of job " + job.id() + ": " + e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param the_request The request.
+   * @return the name of the administrator who made the request.
+   */
+  private static String administrator(final Request the_request) {
+    final Object admin =
+        the_request.session().attribute(AuthenticationInterface.ADMIN);
+    String result = "(unauthenticated)";
+    if (admin instanceof Administrator) {
+      result = ((Administrator) admin).username();
+    }
+    return result;
+  }
+
+  /**
+   * Creates an executor for jobs.
+   * 
+   * @param the_threads The number of threads.
+   * @return the executor.
+   */
+  private static ExecutorService newExecutor(final int the_threads) {
+    return Executors.newFixedThreadPool(Math.max(1, the_threads), runnable -> {
+      final Thread thread =
+          new Thread(runnable, "async-job-" + THREAD_COUNT.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * The work done by a job.
+   */
+  @FunctionalInterface
+  public interface Work {
+    /**
+     * Does the work of a job, reporting its progress and outcome to the job.
+     * The work runs on a job thread, and must begin and end its own
+     * transactions; any transaction it leaves open is rolled back.
+     * 
+     * @param the_job The job.
+     * @exception IOException if an artifact cannot be written.
+     */
+    void run(AsyncJob the_job) throws IOException;
+  }
+}
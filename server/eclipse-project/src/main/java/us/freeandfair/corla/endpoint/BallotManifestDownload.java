@@ -11,22 +11,17 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.UncheckedIOException;
 import java.util.stream.Stream;
 
+import com.google.gson.JsonIOException;
 import com.google.gson.stream.JsonWriter;
 
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.BallotManifestInfo;
 import us.freeandfair.corla.persistence.Persistence;
-import us.freeandfair.corla.util.SparkHelper;
 
 /**
  * The ballot manifest download endpoint.
@@ -52,30 +47,40 @@ public class BallotManifestDownload extends AbstractCountyDashboardEndpoint {
     return "/ballot-manifest";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * {@inheritDoc}
    */
   @Override
   public String endpointBody(final Request the_request, final Response the_response) {
-    try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
-         BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-         JsonWriter jw = new JsonWriter(bw)) {
+    try (JsonWriter jw = jsonWriter(the_request, the_response)) {
       jw.beginArray();
       final Stream<BallotManifestInfo> bmi_stream = 
           Persistence.getAllAsStream(BallotManifestInfo.class);
       bmi_stream.forEach((the_bmi) -> {
-        try {
-          jw.jsonValue(Main.GSON.toJson(Persistence.unproxy(the_bmi)));
-          Persistence.evict(the_bmi);
-        } catch (final IOException e) {
-          throw new UncheckedIOException(e);
-        } 
+        gson(the_request).toJson(Persistence.unproxy(the_bmi), BallotManifestInfo.class, jw);
+        Persistence.evict(the_bmi);
       });
       jw.endArray();
       jw.flush();
       jw.close();
       ok(the_response);
-    } catch (final IOException e) {
+    } catch (final IOException | JsonIOException e) {
       serverError(the_response, "Unable to stream response");
     }
     return my_endpoint_result.get();
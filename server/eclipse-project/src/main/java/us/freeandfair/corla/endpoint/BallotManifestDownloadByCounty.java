@@ -11,23 +11,19 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.google.gson.JsonIOException;
 import com.google.gson.stream.JsonWriter;
 
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.BallotManifestInfo;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.BallotManifestInfoQueries;
-import us.freeandfair.corla.util.SparkHelper;
 
 /**
  * The ballot manifest by county download endpoint.
@@ -53,6 +49,14 @@ public class BallotManifestDownloadByCounty extends AbstractCountyDashboardEndpo
     return "/ballot-manifest/county";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * {@inheritDoc}
    */
@@ -60,7 +64,7 @@ public class BallotManifestDownloadByCounty extends AbstractCountyDashboardEndpo
   public String endpointBody(final Request the_request, final Response the_response) {
     if (validateParameters(the_request)) {
       final Set<Integer> county_set = new HashSet<Integer>();
-      for (final String s : the_request.queryParams()) {
+      for (final String s : dataParameters(the_request)) {
         county_set.add(Integer.valueOf(s));
       }
       final Set<BallotManifestInfo> matches = 
@@ -68,18 +72,16 @@ public class BallotManifestDownloadByCounty extends AbstractCountyDashboardEndpo
       if (matches == null) {
         serverError(the_response, "Error retrieving records from database");
       } else {
-        try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
-             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-             JsonWriter jw = new JsonWriter(bw)) {
+        try (JsonWriter jw = jsonWriter(the_request, the_response)) {
           jw.beginArray();
           for (final BallotManifestInfo bmi : matches) {
-            jw.jsonValue(Main.GSON.toJson(Persistence.unproxy(bmi)));
+            gson(the_request).toJson(Persistence.unproxy(bmi), BallotManifestInfo.class, jw);
             Persistence.evict(bmi);
           } 
           jw.endArray();
           jw.flush();
           jw.close();
-        } catch (final IOException e) {
+        } catch (final IOException | JsonIOException e) {
           serverError(the_response, "Unable to stream response");
         }
       }
@@ -100,7 +102,7 @@ public class BallotManifestDownloadByCounty extends AbstractCountyDashboardEndpo
   protected boolean validateParameters(final Request the_request) {
     boolean result = true;
     
-    for (final String s : the_request.queryParams()) {
+    for (final String s : dataParameters(the_request)) {
       try {
         Integer.parseInt(s);
       } catch (final NumberFormatException e) {
@@ -38,6 +38,7 @@ import us.freeandfair.corla.model.UploadedFile.FileStatus;
 import us.freeandfair.corla.model.UploadedFile.HashStatus;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.BallotManifestInfoQueries;
+import us.freeandfair.corla.util.Metrics;
 
 /**
  * The "ballot manifest import" endpoint.
@@ -67,6 +68,14 @@ public class BallotManifestImport extends AbstractCountyDashboardEndpoint {
   public String endpointName() {
     return "/import-ballot-manifest";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /**
    * {@inheritDoc}
@@ -123,8 +132,10 @@ public class BallotManifestImport extends AbstractCountyDashboardEndpoint {
           new ColoradoBallotManifestParser(bmi_isr, 
                                            the_file.county().id());
       final int deleted = BallotManifestInfoQueries.deleteMatching(the_file.county().id());
+      final long start = System.nanoTime();
       if (parser.parse()) {
         final int imported = parser.recordCount().getAsInt();
+        Metrics.imported("ballot_manifest", imported, System.nanoTime() - start);
         Main.LOGGER.info(imported + " ballot manifest records parsed from file " + 
                          the_file.filename() + PAREN_ID + the_file.id() + ") for county " + 
                          the_file.county().id());
@@ -11,28 +11,14 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Stream;
-
-import javax.persistence.PersistenceException;
-
-import com.google.gson.stream.JsonWriter;
 
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
-import us.freeandfair.corla.model.CastVoteRecord;
 import us.freeandfair.corla.model.CastVoteRecord.RecordType;
-import us.freeandfair.corla.persistence.Persistence;
-import us.freeandfair.corla.query.CastVoteRecordQueries;
-import us.freeandfair.corla.util.SparkHelper;
+import us.freeandfair.corla.query.CastVoteRecordProjections;
 
 /**
  * The ballot manifest download endpoint.
@@ -58,6 +44,14 @@ public class CVRDownloadByCounty extends AbstractEndpoint {
     return "/cvr/county";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
@@ -70,36 +64,18 @@ public class CVRDownloadByCounty extends AbstractEndpoint {
    * {@inheritDoc}
    */
   @Override
-  // necessary to break out of the lambda expression in case of IOException
-  @SuppressWarnings("PMD.ExceptionAsFlowControl")
   public String endpointBody(final Request the_request, final Response the_response) {
     final Set<Long> county_set = new HashSet<Long>();
-    for (final String s : the_request.queryParams()) {
+    for (final String s : dataParameters(the_request)) {
       county_set.add(Long.valueOf(s));
     }
-    try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
-         BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-         JsonWriter jw = new JsonWriter(bw)) {
+    streamJSON(the_request, the_response, jw -> {
       jw.beginArray();
       for (final Long county : county_set) {
-        final Stream<CastVoteRecord> matches = 
-            CastVoteRecordQueries.getMatching(county, RecordType.UPLOADED);
-        matches.forEach((the_cvr) -> {
-          try {
-            jw.jsonValue(Main.GSON.toJson(Persistence.unproxy(the_cvr)));
-            Persistence.evict(the_cvr);
-          } catch (final IOException e) {
-            throw new UncheckedIOException(e);
-          } 
-        });
+        CastVoteRecordProjections.writeMatching(jw, county, RecordType.UPLOADED);
       }
       jw.endArray();
-      jw.flush();
-      jw.close();
-      ok(the_response);
-    } catch (final UncheckedIOException | IOException | PersistenceException e) {
-      serverError(the_response, "Unable to stream response");
-    }
+    });
     return my_endpoint_result.get();
   }
   
@@ -113,7 +89,7 @@ public class CVRDownloadByCounty extends AbstractEndpoint {
   protected boolean validateParameters(final Request the_request) {
     boolean result = true;
     
-    for (final String s : the_request.queryParams()) {
+    for (final String s : dataParameters(the_request)) {
       try {
         Integer.parseInt(s);
       } catch (final NumberFormatException e) {
@@ -16,7 +16,6 @@ import org.apache.log4j.Level;
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.CastVoteRecord;
 import us.freeandfair.corla.persistence.Persistence;
 
@@ -44,6 +43,14 @@ public class CVRDownloadByID extends AbstractEndpoint {
     return "/cvr/id/:id";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
@@ -72,7 +79,7 @@ public class CVRDownloadByID extends AbstractEndpoint {
       if (c == null) {
         dataNotFound(the_response, "CVR not found");
       } else {
-        okJSON(the_response, Main.GSON.toJson(Persistence.unproxy(c)));
+        okJSON(the_request, the_response, Persistence.unproxy(c));
       }
     } catch (final NumberFormatException e) {
       invariantViolation(the_response, "Bad CVR ID");
@@ -58,6 +58,7 @@ import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.CastVoteRecordQueries;
 import us.freeandfair.corla.query.CountyContestResultQueries;
 import us.freeandfair.corla.util.ExponentialBackoffHelper;
+import us.freeandfair.corla.util.Metrics;
 import us.freeandfair.corla.util.UploadedFileStreamer;
 
 /**
@@ -92,6 +93,14 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
   public String endpointName() {
     return "/import-cvr-export";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /**
    * {@inheritDoc}
@@ -479,8 +488,10 @@ public class CVRExportImport extends AbstractCountyDashboardEndpoint {
         
         updateCountyDashboard(the_file, new ImportStatus(ImportState.IN_PROGRESS), 0);
                 
+        final long start = System.nanoTime();
         if (parser.parse()) {
           final int imported = parser.recordCount().getAsInt();
+          Metrics.imported("cvr", imported, System.nanoTime() - start);
           Main.LOGGER.info(imported + " CVRs parsed from file " + the_file.id() + 
                            " for county " + the_file.county().id());
           updateCountyDashboard(the_file, new ImportStatus(ImportState.SUCCESSFUL), imported);
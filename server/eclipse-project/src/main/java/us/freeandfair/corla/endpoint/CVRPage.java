@@ -0,0 +1,180 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.query.CastVoteRecordProjections;
+
+/**
+ * The paginated CVR download endpoint. The "county" parameter (required)
+ * is the county ID, the "type" parameter is the record type (UPLOADED by
+ * default), the "after" parameter is the cursor returned with the previous
+ * page (omitted for the first page), and the "limit" parameter is the maximum
+ * number of CVRs in the page. The response is an object containing the
+ * "cvrs" in the page and the "next_cursor" for the next page, which is
+ * absent if there are no more pages.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class CVRPage extends AbstractEndpoint {
+  /**
+   * The default number of CVRs in a page.
+   */
+  public static final int DEFAULT_LIMIT = 1000;
+
+  /**
+   * The maximum number of CVRs in a page.
+   */
+  public static final int MAX_LIMIT = 10000;
+
+  /**
+   * The "county" parameter.
+   */
+  private static final String COUNTY = "county";
+
+  /**
+   * The "type" parameter.
+   */
+  private static final String TYPE = "type";
+
+  /**
+   * The "after" parameter.
+   */
+  private static final String AFTER = "after";
+
+  /**
+   * The "limit" parameter.
+   */
+  private static final String LIMIT = "limit";
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.GET;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return "/cvr/page";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+
+  /**
+   * This endpoint requires any kind of authentication.
+   */
+  @Override
+  public AuthorizationType requiredAuthorization() {
+    return AuthorizationType.EITHER;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointBody(final Request the_request, final Response the_response) {
+    final Long county = Long.valueOf(the_request.queryParams(COUNTY));
+    final RecordType type = recordType(the_request);
+    Long after = null;
+    if (the_request.queryParams(AFTER) != null) {
+      after = Long.valueOf(the_request.queryParams(AFTER));
+    }
+    final Long cursor = after;
+    final int limit = limit(the_request);
+    streamJSON(the_request, the_response, jw -> {
+      jw.beginObject();
+      jw.name("cvrs");
+      jw.beginArray();
+      final Long next = CastVoteRecordProjections.writePage(jw, county, type, cursor, limit);
+      jw.endArray();
+      if (next != null) {
+        jw.name("next_cursor").value(next);
+      }
+      jw.endObject();
+    });
+    return my_endpoint_result.get();
+  }
+
+  /**
+   * Validates the parameters of a request. For this endpoint, the county
+   * parameter must be present and an integer, the type parameter (if present)
+   * must be a record type, the after parameter (if present) must be an
+   * integer, and the limit parameter (if present) must be a positive integer
+   * no larger than the maximum limit.
+   * 
+   * @param the_request The request.
+   * @return true if the parameters are valid, false otherwise.
+   */
+  @Override
+  protected boolean validateParameters(final Request the_request) {
+    boolean result;
+
+    try {
+      Long.parseLong(the_request.queryParams(COUNTY));
+      recordType(the_request);
+      if (the_request.queryParams(AFTER) != null) {
+        Long.parseLong(the_request.queryParams(AFTER));
+      }
+      final int limit = limit(the_request);
+      result = 0 < limit && limit <= MAX_LIMIT;
+    } catch (final IllegalArgumentException e) {
+      // NumberFormatException is a subclass of IllegalArgumentException
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * @param the_request The request.
+   * @return the record type specified in the request.
+   * @exception IllegalArgumentException if the record type is invalid.
+   */
+  private RecordType recordType(final Request the_request) {
+    final String type = the_request.queryParams(TYPE);
+    RecordType result = RecordType.UPLOADED;
+    if (type != null) {
+      result = RecordType.valueOf(type);
+    }
+    return result;
+  }
+
+  /**
+   * @param the_request The request.
+   * @return the page size limit specified in the request.
+   * @exception NumberFormatException if the limit is not an integer.
+   */
+  private int limit(final Request the_request) {
+    final String limit = the_request.queryParams(LIMIT);
+    int result = DEFAULT_LIMIT;
+    if (limit != null) {
+      result = Integer.parseInt(limit);
+    }
+    return result;
+  }
+}
@@ -108,6 +108,14 @@ public class CVRToAuditDownload extends AbstractEndpoint {
     return "/cvr-to-audit-download";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
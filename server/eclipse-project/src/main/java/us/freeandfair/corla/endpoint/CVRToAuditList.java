@@ -24,6 +24,7 @@ import us.freeandfair.corla.Main;
 import us.freeandfair.corla.controller.ComparisonAuditController;
 import us.freeandfair.corla.json.CVRToAuditResponse;
 import us.freeandfair.corla.json.CVRToAuditResponse.BallotOrderComparator;
+import us.freeandfair.corla.json.DashboardRefreshCache;
 import us.freeandfair.corla.model.CastVoteRecord;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyDashboard;
@@ -85,6 +86,14 @@ public class CVRToAuditList extends AbstractEndpoint {
     return "/cvr-to-audit-list";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
@@ -157,6 +166,15 @@ public class CVRToAuditList extends AbstractEndpoint {
       assert county != null; // makes FindBugs happy
     }
     
+    // the list depends only on the state of the county dashboard
+    // (there is no tag if the list must not be cached)
+    final CountyDashboard cdb = Persistence.getByID(county.id(), CountyDashboard.class);
+    final String tag = DashboardRefreshCache.countyTag(cdb);
+    if (tag != null && 
+        notModified(the_request, the_response, "cvrs-" + cdb.id() + "-" + tag)) {
+      return my_endpoint_result.get();
+    }
+    
     try {
       // get the request parameters
       final String start_param = the_request.queryParams(START);
@@ -186,7 +204,6 @@ public class CVRToAuditList extends AbstractEndpoint {
         audited = true;
       }
       // get other things we need
-      final CountyDashboard cdb = Persistence.getByID(county.id(), CountyDashboard.class);
       final List<CastVoteRecord> cvr_to_audit_list;      
       final List<CVRToAuditResponse> response_list = new ArrayList<>();
       
@@ -222,7 +239,7 @@ public class CVRToAuditList extends AbstractEndpoint {
                                                  cvr.auditFlag()));
       }
       response_list.sort(new BallotOrderComparator());
-      okJSON(the_response, Main.GSON.toJson(response_list));
+      okJSON(the_request, the_response, response_list);
     } catch (final PersistenceException e) {
       serverError(the_response, "could not generate cvr list");
     }
@@ -0,0 +1,263 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import spark.Request;
+import spark.Session;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.auth.AuthenticationInterface;
+import us.freeandfair.corla.model.Administrator;
+
+/**
+ * Per-client rate limiting for endpoint requests. Each client (an
+ * authenticated administrator, or the host of an unauthenticated request)
+ * has a token bucket that holds up to "rate_limit.burst" tokens and is
+ * refilled at "rate_limit.requests_per_second" tokens per second; a request
+ * takes a token, and a request that finds the bucket empty is turned away
+ * with 429. A rate of 0 disables rate limiting. Unlike admission control,
+ * which bounds the requests of all clients together, this keeps a single
+ * misbehaving client from taking more than its share.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AccessorMethodGeneration")
+public final class ClientRateLimiter {
+  /**
+   * The name of the property that sets the refill rate.
+   */
+  public static final String RATE_PROPERTY = "rate_limit.requests_per_second";
+
+  /**
+   * The name of the property that sets the bucket size.
+   */
+  public static final String BURST_PROPERTY = "rate_limit.burst";
+
+  /**
+   * The default refill rate, in requests per second.
+   */
+  public static final double DEFAULT_RATE = 10;
+
+  /**
+   * The default bucket size, in requests.
+   */
+  public static final int DEFAULT_BURST = 50;
+
+  /**
+   * The number of clients above which idle clients are forgotten.
+   */
+  public static final int MAX_CLIENTS = 10000;
+
+  /**
+   * The number of tokens a request takes.
+   */
+  private static final double REQUEST_COST = 1;
+
+  /**
+   * The rate limiter used for requests.
+   */
+  @SuppressWarnings("PMD.AvoidUsingVolatile")
+  private static volatile ClientRateLimiter instance =
+      new ClientRateLimiter(DEFAULT_RATE, DEFAULT_BURST);
+
+  /**
+   * The buckets, by client.
+   */
+  private final Map<String, Bucket> my_buckets = new ConcurrentHashMap<>();
+
+  /**
+   * The refill rate, in tokens per nanosecond.
+   */
+  private final double my_tokens_per_nano;
+
+  /**
+   * The bucket size.
+   */
+  private final int my_burst;
+
+  /**
+   * Constructs a new ClientRateLimiter.
+   * 
+   * @param the_rate The refill rate, in requests per second; 0 or less
+   * disables rate limiting.
+   * @param the_burst The bucket size, in requests.
+   */
+  public ClientRateLimiter(final double the_rate, final int the_burst) {
+    my_tokens_per_nano = Math.max(0, the_rate) / TimeUnit.SECONDS.toNanos(1);
+    my_burst = Math.max(1, the_burst);
+  }
+
+  /**
+   * Configures rate limiting from the specified properties. This must be
+   * called before any requests are handled.
+   * 
+   * @param the_properties The properties.
+   */
+  public static void configure(final Properties the_properties) {
+    double rate = DEFAULT_RATE;
+    int burst = DEFAULT_BURST;
+    try {
+      rate = Double.parseDouble(the_properties.getProperty(RATE_PROPERTY,
+                                                           String.valueOf(rate)));
+      burst = Integer.parseInt(the_properties.getProperty(BURST_PROPERTY,
+                                                          String.valueOf(burst)));
+    } catch (final NumberFormatException e) {
+      Main.LOGGER.error("invalid rate limit property, using defaults");
+      rate = DEFAULT_RATE;
+      burst = DEFAULT_BURST;
+    }
+    instance = new ClientRateLimiter(rate, burst);
+  }
+
+  /**
+   * Takes a token for the specified request from its client.
+   * 
+   * @param the_request The request.
+   * @return true if the request may proceed, false if it is turned away.
+   */
+  public static boolean allow(final Request the_request) {
+    return instance.tryAcquire(client(the_request), System.nanoTime());
+  }
+
+  /**
+   * Identifies the client making a request: the authenticated administrator,
+   * if any, or else the requesting host.
+   * 
+   * @param the_request The request.
+   * @return the client.
+   */
+  private static String client(final Request the_request) {
+    final Session session = the_request.session(false);
+    String result = "host:" + the_request.host();
+    if (session != null && 
+        session.attribute(AuthenticationInterface.ADMIN) instanceof Administrator) {
+      final Administrator admin = session.attribute(AuthenticationInterface.ADMIN);
+      result = "admin:" + admin.username();
+    }
+    return result;
+  }
+
+  /**
+   * Takes a token for a request from the specified client at the specified
+   * time.
+   * 
+   * @param the_client The client.
+   * @param the_now_nanos The time, in nanoseconds (as from System.nanoTime()).
+   * @return true if the request may proceed, false if it is turned away.
+   */
+  public boolean tryAcquire(final String the_client, final long the_now_nanos) {
+    if (my_tokens_per_nano <= 0) {
+      return true;
+    }
+    if (my_buckets.size() > MAX_CLIENTS) {
+      forgetIdle(the_now_nanos);
+    }
+    return my_buckets.computeIfAbsent(the_client, client -> new Bucket(my_burst,
+                                                                       the_now_nanos)).
+        take(the_now_nanos, my_tokens_per_nano, my_burst);
+  }
+
+  /**
+   * Forgets the clients whose buckets would be full by now; they are
+   * indistinguishable from clients never seen.
+   * 
+   * @param the_now_nanos The time, in nanoseconds.
+   */
+  private void forgetIdle(final long the_now_nanos) {
+    my_buckets.values().removeIf(bucket ->
+        bucket.isFull(the_now_nanos, my_tokens_per_nano, my_burst));
+  }
+
+  /**
+   * The token bucket of a client.
+   */
+  private static final class Bucket {
+    /**
+     * The number of tokens, as of the last update.
+     */
+    private double my_tokens;
+
+    /**
+     * The time of the last update, in nanoseconds.
+     */
+    private long my_updated_nanos;
+
+    /**
+     * Constructs a new, full Bucket.
+     * 
+     * @param the_tokens The number of tokens.
+     * @param the_now_nanos The current time, in nanoseconds.
+     */
+    Bucket(final int the_tokens, final long the_now_nanos) {
+      my_tokens = the_tokens;
+      my_updated_nanos = the_now_nanos;
+    }
+
+    /**
+     * Refills this bucket up to the specified time, then takes a token if
+     * there is one.
+     * 
+     * @param the_now_nanos The time, in nanoseconds.
+     * @param the_tokens_per_nano The refill rate.
+     * @param the_burst The bucket size.
+     * @return true if a token was taken, false otherwise.
+     */
+    public synchronized boolean take(final long the_now_nanos,
+                                     final double the_tokens_per_nano,
+                                     final int the_burst) {
+      refill(the_now_nanos, the_tokens_per_nano, the_burst);
+      boolean result = false;
+      if (my_tokens >= REQUEST_COST) {
+        my_tokens = my_tokens - REQUEST_COST;
+        result = true;
+      }
+      return result;
+    }
+
+    /**
+     * Checks whether this bucket would be full at the specified time.
+     * 
+     * @param the_now_nanos The time, in nanoseconds.
+     * @param the_tokens_per_nano The refill rate.
+     * @param the_burst The bucket size.
+     * @return true if the bucket would be full, false otherwise.
+     */
+    public synchronized boolean isFull(final long the_now_nanos,
+                                       final double the_tokens_per_nano,
+                                       final int the_burst) {
+      refill(the_now_nanos, the_tokens_per_nano, the_burst);
+      return my_tokens >= the_burst;
+    }
+
+    /**
+     * Refills this bucket up to the specified time.
+     * 
+     * @param the_now_nanos The time, in nanoseconds.
+     * @param the_tokens_per_nano The refill rate.
+     * @param the_burst The bucket size.
+     */
+    private void refill(final long the_now_nanos, final double the_tokens_per_nano,
+                        final int the_burst) {
+      final long elapsed = the_now_nanos - my_updated_nanos;
+      if (elapsed > 0) {
+        my_tokens = Math.min(the_burst, my_tokens + elapsed * the_tokens_per_nano);
+        my_updated_nanos = the_now_nanos;
+      }
+    }
+  }
+}
@@ -11,26 +11,23 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import com.google.gson.JsonIOException;
 import com.google.gson.stream.JsonWriter;
 
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.Contest;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.persistence.EntityChanges;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.ContestQueries;
-import us.freeandfair.corla.util.SparkHelper;
 
 /**
  * The contest download endpoint.
@@ -56,6 +53,22 @@ public class ContestDownload extends AbstractEndpoint {
     return "/contest";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
@@ -64,11 +77,24 @@ public class ContestDownload extends AbstractEndpoint {
     return AuthorizationType.EITHER;
   }
   
+  /**
+   * @return the tag for the current contest lists, which changes whenever 
+   * contests or county dashboards (and hence, the set of counties that have 
+   * finished their uploads) change.
+   */
+  public static String contestsTag() {
+    return "contests-" + EntityChanges.generation(Contest.class) + "-" + 
+           EntityChanges.generation(CountyDashboard.class);
+  }
+  
   /**
    * {@inheritDoc}
    */
   @Override
   public String endpointBody(final Request the_request, final Response the_response) {
+    if (notModified(the_request, the_response, contestsTag())) {
+      return my_endpoint_result.get();
+    }
     // only return contests for counties that have finished their uploads
     final Set<County> county_set = new HashSet<>();
     for (final CountyDashboard cdb : Persistence.getAll(CountyDashboard.class)) {
@@ -77,19 +103,17 @@ public class ContestDownload extends AbstractEndpoint {
       }
     }
     final List<Contest> contest_list = ContestQueries.forCounties(county_set);
-    try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
-         BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-         JsonWriter jw = new JsonWriter(bw)) {
+    try (JsonWriter jw = jsonWriter(the_request, the_response)) {
       jw.beginArray();
       for (final Contest contest : contest_list) {
-        jw.jsonValue(Main.GSON.toJson(Persistence.unproxy(contest)));
+        gson(the_request).toJson(Persistence.unproxy(contest), Contest.class, jw);
         Persistence.evict(contest);
       } 
       jw.endArray();
       jw.flush();
       jw.close();
       ok(the_response);
-    } catch (final IOException e) {
+    } catch (final IOException | JsonIOException e) {
       serverError(the_response, "Unable to stream response");
     }
     return my_endpoint_result.get();
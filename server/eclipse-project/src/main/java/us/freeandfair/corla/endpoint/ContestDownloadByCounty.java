@@ -11,26 +11,22 @@
 
 package us.freeandfair.corla.endpoint;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import com.google.gson.JsonIOException;
 import com.google.gson.stream.JsonWriter;
 
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.Contest;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.ContestQueries;
-import us.freeandfair.corla.util.SparkHelper;
 
 /**
  * The contest by county download endpoint.
@@ -55,6 +51,14 @@ public class ContestDownloadByCounty extends AbstractEndpoint {
   public String endpointName() {
     return "/contest/county";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
 
   /**
    * This endpoint requires any kind of authentication.
@@ -69,9 +73,12 @@ public class ContestDownloadByCounty extends AbstractEndpoint {
    */
   @Override
   public String endpointBody(final Request the_request, final Response the_response) {
+    if (notModified(the_request, the_response, ContestDownload.contestsTag())) {
+      return my_endpoint_result.get();
+    }
     if (validateParameters(the_request)) {
       final Set<County> county_set = new HashSet<County>();
-      for (final String s : the_request.queryParams()) {
+      for (final String s : dataParameters(the_request)) {
         final Long county_id = Long.valueOf(s);
         final CountyDashboard cdb = Persistence.getByID(county_id, CountyDashboard.class);
         // only get contests for counties that have finished their uploads
@@ -83,19 +90,17 @@ public class ContestDownloadByCounty extends AbstractEndpoint {
         }
       }
       final List<Contest> contest_list = ContestQueries.forCounties(county_set);
-      try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
-           BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
-           JsonWriter jw = new JsonWriter(bw)) {
+      try (JsonWriter jw = jsonWriter(the_request, the_response)) {
         jw.beginArray();
         for (final Contest contest : contest_list) {
-          jw.jsonValue(Main.GSON.toJson(Persistence.unproxy(contest)));
+          gson(the_request).toJson(Persistence.unproxy(contest), Contest.class, jw);
           Persistence.evict(contest);
         } 
         jw.endArray();
         jw.flush();
         jw.close();
         ok(the_response);
-      } catch (final IOException e) {
+      } catch (final IOException | JsonIOException e) {
         serverError(the_response, "Unable to stream response");
       }
     } else {
@@ -114,7 +119,7 @@ public class ContestDownloadByCounty extends AbstractEndpoint {
   protected boolean validateParameters(final Request the_request) {
     boolean result = true;
     
-    for (final String s : the_request.queryParams()) {
+    for (final String s : dataParameters(the_request)) {
       try {
         Integer.parseInt(s);
       } catch (final NumberFormatException e) {
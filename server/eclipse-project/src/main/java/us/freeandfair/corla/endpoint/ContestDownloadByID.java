@@ -16,7 +16,6 @@ import org.apache.log4j.Level;
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.Contest;
 import us.freeandfair.corla.persistence.Persistence;
 
@@ -44,6 +43,14 @@ public class ContestDownloadByID extends AbstractEndpoint {
     return "/contest/id/:id";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * This endpoint requires any kind of authentication.
    */
@@ -71,8 +78,9 @@ public class ContestDownloadByID extends AbstractEndpoint {
                               Contest.class);
       if (c == null) {
         dataNotFound(the_response, "Contest not found");
-      } else {
-        okJSON(the_response, Main.GSON.toJson(Persistence.unproxy(c)));
+      } else if (!notModified(the_request, the_response, 
+                              "contest-" + c.id() + "-" + c.version())) {
+        okJSON(the_request, the_response, Persistence.unproxy(c));
       }
     } catch (final NumberFormatException e) {
       invariantViolation(the_response, "Bad contest ID");
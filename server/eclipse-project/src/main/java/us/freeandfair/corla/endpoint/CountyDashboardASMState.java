@@ -16,7 +16,6 @@ import org.apache.log4j.Level;
 import spark.Request;
 import spark.Response;
 
-import us.freeandfair.corla.Main;
 import us.freeandfair.corla.json.ServerASMResponse;
 
 /**
@@ -59,9 +58,9 @@ public class CountyDashboardASMState extends AbstractCountyDashboardEndpoint {
     // there's really nothing to do here other than get the ASM state, which we
     // conveniently have locally already
     
-    okJSON(the_response, 
-           Main.GSON.toJson(new ServerASMResponse(my_asm.get().currentState(), 
-                                                  my_asm.get().enabledUIEvents())));
+    okJSON(the_request, the_response, 
+           new ServerASMResponse(my_asm.get().currentState(), 
+                                 my_asm.get().enabledUIEvents()));
     return my_endpoint_result.get();
   }
 }
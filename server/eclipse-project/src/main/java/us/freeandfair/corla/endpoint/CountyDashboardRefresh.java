@@ -20,6 +20,7 @@ import spark.Response;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.json.CountyDashboardRefreshResponse;
+import us.freeandfair.corla.json.DashboardRefreshCache;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.persistence.Persistence;
@@ -49,6 +50,14 @@ public class CountyDashboardRefresh extends AbstractCountyDashboardEndpoint {
     return "/county-dashboard";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * {@inheritDoc}
    */
@@ -67,10 +76,22 @@ public class CountyDashboardRefresh extends AbstractCountyDashboardEndpoint {
   public String endpointBody(final Request the_request, final Response the_response) {
     try {
       final County county = Main.authentication().authenticatedCounty(the_request);
-          
-      okJSON(the_response, 
-             Main.GSON.toJson(CountyDashboardRefreshResponse.createResponse
-                              (Persistence.getByID(county.id(), CountyDashboard.class))));
+      final CountyDashboard cdb = Persistence.getByID(county.id(), CountyDashboard.class);
+      // there is no tag if the response must not be cached
+      final String tag = DashboardRefreshCache.countyTag(cdb);
+      
+      if (tag == null || 
+          !notModified(the_request, the_response, "county-" + cdb.id() + "-" + tag)) {
+        if (prettyRequested(the_request)) {
+          // pretty-printed responses are for debugging, so they are not cached
+          okJSON(the_request, the_response, 
+                 CountyDashboardRefreshResponse.createResponse(cdb));
+        } else {
+          okJSON(the_response, 
+                 DashboardRefreshCache.countyResponse(cdb, () -> Main.GSON.toJson(
+                     CountyDashboardRefreshResponse.createResponse(cdb))));
+        }
+      }
     } catch (final PersistenceException e) {
       serverError(the_response, "could not obtain dashboard state");
     }
@@ -73,6 +73,22 @@ public class CountyReportDownload extends AbstractEndpoint {
   public String endpointName() {
     return "/county-report";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
 
   /**
    * This endpoint requires any kind of authentication.
@@ -147,11 +163,6 @@ public class CountyReportDownload extends AbstractEndpoint {
     } else {
       the_response.type("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
       filename = cr.filenameExcel();
-      try {
-        file = cr.generateExcel();
-      } catch (final IOException e) {
-        serverError(the_response, "Unable to generate Excel file");
-      }
     }
     
     try {
@@ -163,7 +174,12 @@ public class CountyReportDownload extends AbstractEndpoint {
     
     try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
          BufferedOutputStream bos = new BufferedOutputStream(os)) {
-      bos.write(file);
+      if (pdf) {
+        bos.write(file);
+      } else {
+        // the workbook is streamed, not held in memory
+        cr.generateExcel(bos);
+      }
       bos.flush();
       ok(the_response);
     } catch (final IOException | PersistenceException e) {
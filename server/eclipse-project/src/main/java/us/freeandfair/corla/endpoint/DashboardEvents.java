@@ -0,0 +1,515 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Level;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.json.DashboardRefreshCache;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.util.SparkHelper;
+
+/**
+ * The endpoint for subscribing to dashboard change notifications as a
+ * stream of Server-Sent Events. County administrators are notified of changes
+ * to their county dashboard, and state administrators of changes to the DoS
+ * dashboard; each notification is a "change" event whose data is the name of
+ * the endpoint from which to refresh the dashboard. A notification is also
+ * sent when the subscription starts, so that changes made while a client was
+ * reconnecting are not missed. Subscriptions are held asynchronously, so they
+ * do not occupy server threads while idle; they expire periodically, and
+ * clients are expected to reconnect (as EventSource does automatically).
+ * Events are written on a pool of writer threads, so a client on a slow or
+ * stalled connection delays only its own events, and a subscription whose
+ * write does not finish within WRITE_TIMEOUT_MSEC is ended.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// the event thread is the point of this class
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "PMD.DoNotUseThreads",
+                   "PMD.AccessorMethodGeneration"})
+public class DashboardEvents extends AbstractEndpoint {
+  /**
+   * The time after which a subscription expires, in milliseconds.
+   */
+  public static final long SUBSCRIPTION_TIMEOUT_MSEC = TimeUnit.MINUTES.toMillis(10);
+
+  /**
+   * The interval between keepalive comments, in seconds.
+   */
+  public static final long KEEPALIVE_SECONDS = 20;
+
+  /**
+   * The time after which a write that has not finished ends the 
+   * subscription, in milliseconds; this is checked at each keepalive.
+   */
+  public static final long WRITE_TIMEOUT_MSEC = TimeUnit.SECONDS.toMillis(30);
+
+  /**
+   * The delay before a client reconnects after losing its subscription, in
+   * milliseconds.
+   */
+  public static final long RECONNECT_DELAY_MSEC = 5000;
+
+  /**
+   * The subscribers to county dashboard changes, by county ID.
+   */
+  private static final Map<Long, Set<Subscriber>> COUNTY_SUBSCRIBERS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The subscribers to DoS dashboard changes.
+   */
+  private static final Set<Subscriber> DOS_SUBSCRIBERS = ConcurrentHashMap.newKeySet();
+
+  /**
+   * The threads on which events are written; a subscriber whose client is
+   * slow holds only its own writer thread, not those of other subscribers.
+   */
+  private static final ExecutorService WRITERS =
+      Executors.newCachedThreadPool(the_runnable -> {
+        final Thread thread = new Thread(the_runnable, "dashboard-event-writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * The thread on which keepalives are scheduled.
+   */
+  private static final ScheduledExecutorService EVENT_THREAD =
+      Executors.newSingleThreadScheduledExecutor(the_runnable -> {
+        final Thread thread = new Thread(the_runnable, "dashboard-events");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  static {
+    DashboardRefreshCache.addListener(DashboardEvents::dashboardsChanged);
+    EVENT_THREAD.scheduleWithFixedDelay(DashboardEvents::keepalive, KEEPALIVE_SECONDS,
+                                        KEEPALIVE_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.GET;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return "/dashboard-events";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Level logLevel() {
+    return Level.DEBUG;
+  }
+
+  /**
+   * This endpoint requires any kind of authentication.
+   */
+  @Override
+  public AuthorizationType requiredAuthorization() {
+    return AuthorizationType.EITHER;
+  }
+
+  /**
+   * Starts a subscription to the dashboard of the authenticated administrator.
+   * 
+   * @param the_request The request.
+   * @param the_response The response.
+   */
+  @Override
+  public String endpointBody(final Request the_request, final Response the_response) {
+    final County county = Main.authentication().authenticatedCounty(the_request);
+    final Set<Subscriber> subscribers;
+    final String refresh_endpoint;
+    if (county == null) {
+      subscribers = DOS_SUBSCRIBERS;
+      refresh_endpoint = "/dos-dashboard";
+    } else {
+      subscribers = COUNTY_SUBSCRIBERS.computeIfAbsent(county.id(),
+          id -> ConcurrentHashMap.newKeySet());
+      refresh_endpoint = "/county-dashboard";
+    }
+
+    try {
+      final HttpServletResponse raw_response = SparkHelper.getRaw(the_response);
+      raw_response.setContentType("text/event-stream");
+      raw_response.setCharacterEncoding("UTF-8");
+      raw_response.setHeader("Cache-Control", "no-cache");
+      // tell any buffering proxy to pass events through immediately
+      raw_response.setHeader("X-Accel-Buffering", "no");
+      final AsyncContext context = SparkHelper.getRaw(the_request).startAsync();
+      context.setTimeout(SUBSCRIPTION_TIMEOUT_MSEC);
+      final Subscriber subscriber =
+          new Subscriber(context, raw_response, refresh_endpoint, subscribers);
+      context.addListener(new SubscriptionListener(subscribers, subscriber));
+      // writing the first event commits the response, so it is not completed
+      // when this request finishes; the subscriber gets no other events until
+      // it is added, so this is the only write in progress
+      if (!subscriber.write("retry: " + RECONNECT_DELAY_MSEC + "\n" + 
+                            subscriber.changeEvent())) {
+        throw new IOException("could not write the first event");
+      }
+      subscribers.add(subscriber);
+      ok(the_response);
+    } catch (final IOException | IllegalStateException e) {
+      serverError(the_response, "could not start subscription");
+    }
+    return my_endpoint_result.get();
+  }
+
+  /**
+   * Notifies the subscribers to changed dashboards.
+   * 
+   * @param the_county_ids The IDs of the changed county dashboards.
+   * @param the_all_counties true if all county dashboards may have changed,
+   * false otherwise.
+   */
+  private static void dashboardsChanged(final Set<Long> the_county_ids,
+                                        final boolean the_all_counties) {
+    notifySubscribers(DOS_SUBSCRIBERS);
+    if (the_all_counties) {
+      for (final Set<Subscriber> subscribers : COUNTY_SUBSCRIBERS.values()) {
+        notifySubscribers(subscribers);
+      }
+    } else {
+      for (final Long county_id : the_county_ids) {
+        final Set<Subscriber> subscribers = COUNTY_SUBSCRIBERS.get(county_id);
+        if (subscribers != null) {
+          notifySubscribers(subscribers);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sends change events to the specified subscribers. A subscriber that
+   * already has a change event waiting to be written is not sent another.
+   * 
+   * @param the_subscribers The subscribers.
+   */
+  private static void notifySubscribers(final Set<Subscriber> the_subscribers) {
+    for (final Subscriber subscriber : the_subscribers) {
+      subscriber.changed();
+    }
+  }
+
+  /**
+   * Sends a keepalive comment to all subscribers; this also detects
+   * subscribers whose connections have been lost, and ends the subscriptions
+   * of those whose writes have stalled.
+   */
+  private static void keepalive() {
+    final long now = System.nanoTime();
+    for (final Subscriber subscriber : DOS_SUBSCRIBERS) {
+      subscriber.keepalive(now);
+    }
+    for (final Set<Subscriber> subscribers : COUNTY_SUBSCRIBERS.values()) {
+      for (final Subscriber subscriber : subscribers) {
+        subscriber.keepalive(now);
+      }
+    }
+  }
+
+  /**
+   * A subscription to dashboard changes. Events are written by the writer
+   * threads, at most one write at a time per subscriber; events that arrive
+   * while a write is in progress are coalesced and written after it.
+   */
+  private static class Subscriber {
+    /**
+     * The write start time of a subscriber that is not writing.
+     */
+    private static final long IDLE = Long.MIN_VALUE;
+
+    /**
+     * The keepalive comment.
+     */
+    private static final String KEEPALIVE = ":\n\n";
+
+    /**
+     * The asynchronous context of the subscription.
+     */
+    private final AsyncContext my_context;
+
+    /**
+     * The raw response of the subscription.
+     */
+    private final HttpServletResponse my_response;
+
+    /**
+     * The output stream of the subscription.
+     */
+    private final ServletOutputStream my_output;
+
+    /**
+     * The endpoint from which to refresh the dashboard.
+     */
+    private final String my_refresh_endpoint;
+
+    /**
+     * The subscribers to the same dashboard.
+     */
+    private final Set<Subscriber> my_subscribers;
+
+    /**
+     * A flag indicating whether a change event is waiting to be written.
+     */
+    private final AtomicBoolean my_change_pending = new AtomicBoolean();
+
+    /**
+     * A flag indicating whether a keepalive is waiting to be written.
+     */
+    private final AtomicBoolean my_keepalive_pending = new AtomicBoolean();
+
+    /**
+     * The time at which the write in progress started, in nanoseconds, or
+     * IDLE if no write is in progress.
+     */
+    private final AtomicLong my_write_start = new AtomicLong(IDLE);
+
+    /**
+     * Constructs a new Subscriber.
+     * 
+     * @param the_context The asynchronous context of the subscription.
+     * @param the_response The raw response of the subscription.
+     * @param the_refresh_endpoint The endpoint from which to refresh the
+     * dashboard.
+     * @param the_subscribers The subscribers to the same dashboard.
+     * @exception IOException if the output stream cannot be obtained.
+     */
+    Subscriber(final AsyncContext the_context, final HttpServletResponse the_response,
+               final String the_refresh_endpoint, final Set<Subscriber> the_subscribers) 
+        throws IOException {
+      my_context = the_context;
+      my_response = the_response;
+      my_output = the_response.getOutputStream();
+      my_refresh_endpoint = the_refresh_endpoint;
+      my_subscribers = the_subscribers;
+    }
+
+    /**
+     * @return the change event for this subscriber.
+     */
+    public String changeEvent() {
+      return "event: change\ndata: " + my_refresh_endpoint + "\n\n";
+    }
+
+    /**
+     * Marks a change event as waiting to be written, and starts writing if
+     * no write is in progress.
+     */
+    public void changed() {
+      my_change_pending.set(true);
+      startWriting();
+    }
+
+    /**
+     * Marks a keepalive as waiting to be written and starts writing, unless
+     * a write is in progress; if that write has taken longer than 
+     * WRITE_TIMEOUT_MSEC, the subscription is ended.
+     * 
+     * @param the_now_nanos The current time, in nanoseconds.
+     */
+    public void keepalive(final long the_now_nanos) {
+      final long write_start = my_write_start.get();
+      if (write_start == IDLE) {
+        my_keepalive_pending.set(true);
+        startWriting();
+      } else if (the_now_nanos - write_start > 
+                 TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MSEC)) {
+        end(new TimeoutException("dashboard event write stalled"));
+      }
+    }
+
+    /**
+     * Writes the specified text to the subscriber on the calling thread, 
+     * ending the subscription if it cannot be written.
+     * 
+     * @param the_text The text.
+     * @return true if the text was written, false otherwise.
+     */
+    public boolean write(final String the_text) {
+      boolean result = false;
+      try {
+        my_output.write(the_text.getBytes(StandardCharsets.UTF_8));
+        my_output.flush();
+        result = true;
+      } catch (final IOException | IllegalStateException e) {
+        end(e);
+      }
+      return result;
+    }
+
+    /**
+     * Starts a writer thread writing the waiting events, unless a write is
+     * already in progress.
+     */
+    private void startWriting() {
+      if (my_write_start.compareAndSet(IDLE, System.nanoTime())) {
+        WRITERS.execute(this::writePending);
+      }
+    }
+
+    /**
+     * Writes the waiting events until there are none.
+     */
+    private void writePending() {
+      boolean open = true;
+      String text = nextEvent();
+      while (open && text != null) {
+        my_write_start.set(System.nanoTime());
+        open = write(text);
+        text = nextEvent();
+      }
+      my_write_start.set(IDLE);
+      // an event that arrived after the last check must not be stranded
+      if (open && (my_change_pending.get() || my_keepalive_pending.get())) {
+        startWriting();
+      }
+    }
+
+    /**
+     * @return the next waiting event, or null if there is none; a change
+     * event also serves as a keepalive.
+     */
+    private String nextEvent() {
+      String result = null;
+      if (my_change_pending.getAndSet(false)) {
+        my_keepalive_pending.set(false);
+        result = changeEvent();
+      } else if (my_keepalive_pending.getAndSet(false)) {
+        result = KEEPALIVE;
+      }
+      return result;
+    }
+
+    /**
+     * Ends the subscription, aborting its connection so that any write in 
+     * progress fails rather than waiting for the client.
+     * 
+     * @param the_cause The reason the subscription ends.
+     */
+    private void end(final Throwable the_cause) {
+      Main.LOGGER.debug("dashboard event subscription lost: " + the_cause.getMessage());
+      my_subscribers.remove(this);
+      SparkHelper.abort(my_response, the_cause);
+      try {
+        my_context.complete();
+      } catch (final IllegalStateException ex) {
+        // the subscription has already ended
+      }
+    }
+  }
+
+  /**
+   * A listener that removes a subscriber when its subscription ends.
+   */
+  private static class SubscriptionListener implements AsyncListener {
+    /**
+     * The subscribers from which to remove the subscriber.
+     */
+    private final Set<Subscriber> my_subscribers;
+
+    /**
+     * The subscriber.
+     */
+    private final Subscriber my_subscriber;
+
+    /**
+     * Constructs a new SubscriptionListener.
+     * 
+     * @param the_subscribers The subscribers from which to remove the subscriber.
+     * @param the_subscriber The subscriber.
+     */
+    SubscriptionListener(final Set<Subscriber> the_subscribers,
+                         final Subscriber the_subscriber) {
+      my_subscribers = the_subscribers;
+      my_subscriber = the_subscriber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onComplete(final AsyncEvent the_event) {
+      my_subscribers.remove(my_subscriber);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTimeout(final AsyncEvent the_event) {
+      my_subscribers.remove(my_subscriber);
+      the_event.getAsyncContext().complete();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onError(final AsyncEvent the_event) {
+      my_subscribers.remove(my_subscriber);
+      the_event.getAsyncContext().complete();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onStartAsync(final AsyncEvent the_event) {
+      // nothing to do
+    }
+  }
+}
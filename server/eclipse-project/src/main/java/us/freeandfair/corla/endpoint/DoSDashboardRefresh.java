@@ -19,6 +19,7 @@ import spark.Request;
 import spark.Response;
 
 import us.freeandfair.corla.Main;
+import us.freeandfair.corla.json.DashboardRefreshCache;
 import us.freeandfair.corla.json.DoSDashboardRefreshResponse;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.persistence.Persistence;
@@ -48,6 +49,14 @@ public class DoSDashboardRefresh extends AbstractDoSDashboardEndpoint {
     return "/dos-dashboard";
   }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
   /**
    * {@inheritDoc}
    */
@@ -65,9 +74,20 @@ public class DoSDashboardRefresh extends AbstractDoSDashboardEndpoint {
   @Override
   public String endpointBody(final Request the_request, final Response the_response) {
     try {
-      okJSON(the_response, 
-             Main.GSON.toJson(DoSDashboardRefreshResponse.createResponse
-                              (Persistence.getByID(DoSDashboard.ID, DoSDashboard.class))));
+      final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
+      // there is no tag if the response must not be cached
+      final String tag = DashboardRefreshCache.dosTag(dosdb);
+      
+      if (tag == null || !notModified(the_request, the_response, "dos-" + tag)) {
+        if (prettyRequested(the_request)) {
+          // pretty-printed responses are for debugging, so they are not cached
+          okJSON(the_request, the_response, DoSDashboardRefreshResponse.createResponse(dosdb));
+        } else {
+          okJSON(the_response, 
+                 DashboardRefreshCache.dosResponse(dosdb, () -> Main.GSON.toJson(
+                     DoSDashboardRefreshResponse.createResponse(dosdb))));
+        }
+      }
     } catch (final PersistenceException e) {
       serverError(the_response, "could not obtain dashboard state");
     }
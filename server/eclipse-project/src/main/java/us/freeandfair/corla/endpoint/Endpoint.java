@@ -86,10 +86,33 @@ public interface Endpoint {
    */
   Level logLevel(); 
   
+  /**
+   * @return true if this endpoint only reads from the database, in which case
+   * it runs in a read-only transaction (possibly on a separate connection
+   * pool), false otherwise.
+   */
+  boolean readOnly();
+  
+  /**
+   * @return the admission class of this endpoint, which determines how many
+   * of its requests may run concurrently and how long excess requests wait
+   * before they are turned away.
+   */
+  AdmissionClass admissionClass();
+  
   /**
    * The authorization types.
    */
   enum AuthorizationType {
     STATE, COUNTY, EITHER, NONE;
   }
+  
+  /**
+   * The admission classes: cheap reads, writes (including audit board 
+   * submissions), and heavy jobs such as uploads, imports, bulk downloads 
+   * and reports.
+   */
+  enum AdmissionClass {
+    READ, WRITE, HEAVY;
+  }
 }
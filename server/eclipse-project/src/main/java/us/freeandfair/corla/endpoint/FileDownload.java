@@ -67,6 +67,14 @@ public class FileDownload extends AbstractEndpoint {
   public String endpointName() {
     return "/download-file";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
 
   /**
    * This endpoint requires either authorization, but only allows downloads
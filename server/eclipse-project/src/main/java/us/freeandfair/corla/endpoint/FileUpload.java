@@ -91,6 +91,14 @@ public class FileUpload extends AbstractEndpoint {
   public String endpointName() {
     return "/upload-file";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /**
    * This endpoint requires county authorization.
@@ -23,6 +23,8 @@ import java.util.Set;
 
 import javax.persistence.PersistenceException;
 
+import org.eclipse.jetty.http.HttpStatus;
+
 import com.google.gson.JsonParseException;
 
 import spark.Request;
@@ -50,6 +52,21 @@ import us.freeandfair.corla.persistence.Persistence;
  */
 @SuppressWarnings("PMD.AtLeastOneConstructor")
 public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
+  /**
+   * The result message for a successful hand count selection.
+   */
+  private static final String HAND_COUNT_SELECTED = "Contests selected for hand count";
+  
+  /**
+   * The error message for invalid contest selection data.
+   */
+  private static final String INVALID_SELECTION = "Invalid contest selection data";
+  
+  /**
+   * The error message for a contest selection that cannot be saved.
+   */
+  private static final String UNABLE_TO_SAVE = "Unable to save contest selection";
+  
   /**
    * The event to return for this endpoint.
    */
@@ -70,6 +87,14 @@ public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
   public String endpointName() {
     return "/hand-count";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /**
    * @return STATE authorization is necessary for this endpoint.
@@ -106,36 +131,96 @@ public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
     try {
       final ContestToAudit[] supplied_ctas = 
           Main.GSON.fromJson(the_request.body(), ContestToAudit[].class);
-      final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
-      if (dosdb == null) {
-        serverError(the_response, "Could not select contests");
+      if (AsyncJobs.requested(the_request)) {
+        // the job takes the DoS dashboard event when it finishes
+        final AsyncJobs.Work work = job -> handCount(job, supplied_ctas);
+        my_event.set(null);
+        accepted(the_response, AsyncJobs.submit(endpointName(), null, the_request, work));
       } else {
-        boolean hand_count = false;
-        final Set<County> hand_count_counties = new HashSet<>();
-        for (final ContestToAudit c : fixReasons(dosdb, supplied_ctas)) {
-          if (c.audit() == AuditType.HAND_COUNT &&
-              dosdb.updateContestToAudit(c)) {
-            hand_count = true;
-            hand_count_counties.add(c.contest().county());
-          }
-        }
-        if (hand_count) {
-          updateStateMachines(the_response, hand_count_counties);
+        final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
+        if (dosdb == null) {
+          serverError(the_response, "Could not select contests");
         } else {
-          // bad data was submitted for hand count selection
-          badDataContents(the_response, "Invalid contest selection data");
+          my_event.set(selectForHandCount(dosdb, supplied_ctas));
         }
+        Persistence.saveOrUpdate(dosdb);
+        ok(the_response, HAND_COUNT_SELECTED);
       }
-      Persistence.saveOrUpdate(dosdb);
-      ok(the_response, "Contests selected for hand count");
-    } catch (final JsonParseException e) {
-      badDataContents(the_response, "Invalid contest selection data");
+    } catch (final JsonParseException | IllegalArgumentException e) {
+      badDataContents(the_response, INVALID_SELECTION);
+    } catch (final IllegalStateException e) {
+      illegalTransition(the_response, e.getMessage());
     } catch (final PersistenceException e) {
-      serverError(the_response, "Unable to save contest selection");
+      serverError(the_response, UNABLE_TO_SAVE);
     }
     return my_endpoint_result.get();
   }
   
+  /**
+   * Indicate that a contest must be hand-counted, as an asynchronous job, in
+   * a single transaction that also takes the DoS dashboard event.
+   * 
+   * @param the_job The job.
+   * @param the_supplied_ctas The supplied CTAs.
+   */
+  @SuppressWarnings("PMD.UseVarargs")
+  private synchronized void handCount(final AsyncJob the_job, 
+                                      final ContestToAudit[] the_supplied_ctas) {
+    the_job.setTotal(1);
+    try {
+      Persistence.beginTransaction();
+      final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
+      if (dosdb == null) {
+        the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, "Could not select contests");
+      } else {
+        final ASMEvent event = selectForHandCount(dosdb, the_supplied_ctas);
+        Persistence.saveOrUpdate(dosdb);
+        if (event != null) {
+          stepDoSDashboardASM(event);
+        }
+        Persistence.commitTransaction();
+        the_job.succeed(HAND_COUNT_SELECTED);
+      }
+    } catch (final IllegalArgumentException e) {
+      the_job.fail(HttpStatus.UNPROCESSABLE_ENTITY_422, INVALID_SELECTION);
+    } catch (final IllegalStateException e) {
+      the_job.fail(HttpStatus.FORBIDDEN_403, e.getMessage());
+    } catch (final PersistenceException e) {
+      the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, UNABLE_TO_SAVE);
+    }
+  }
+  
+  /**
+   * Selects the supplied contests for hand count and updates the ASMs of the
+   * counties where they are, within the current transaction.
+   * 
+   * @param the_dosdb The DoS dashboard.
+   * @param the_supplied_ctas The supplied CTAs.
+   * @return the DoS dashboard event to take, or null if there is none.
+   * @exception IllegalArgumentException if no contest is selected for hand
+   * count.
+   * @exception IllegalStateException if a county is in a state in which its
+   * contests cannot be changed to hand count.
+   */
+  @SuppressWarnings("PMD.UseVarargs")
+  private ASMEvent selectForHandCount(final DoSDashboard the_dosdb,
+                                      final ContestToAudit[] the_supplied_ctas) {
+    boolean hand_count = false;
+    final Set<County> hand_count_counties = new HashSet<>();
+    for (final ContestToAudit c : fixReasons(the_dosdb, the_supplied_ctas)) {
+      if (c.audit() == AuditType.HAND_COUNT &&
+          the_dosdb.updateContestToAudit(c)) {
+        hand_count = true;
+        hand_count_counties.add(c.contest().county());
+      }
+    }
+    if (!hand_count) {
+      // bad data was submitted for hand count selection
+      throw new IllegalArgumentException(INVALID_SELECTION);
+    }
+    return updateStateMachines(hand_count_counties);
+  }
+  
   /**
    * Updates the supplied CTAs with the reasons that were originally specified 
    * on the DoS dashboard.
@@ -175,11 +260,12 @@ public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
    * Currently, this aborts the audit entirely in those counties 
    * (if it is still running). This may also end the audit on the DoS dashboard.
    * 
-   * @param the_response The response (for error reporting).
    * @param the_counties The counties.
+   * @return the DoS dashboard event to take, or null if there is none.
+   * @exception IllegalStateException if a county is in a state in which its
+   * contests cannot be changed to hand count.
    */
-  private void updateStateMachines(final Response the_response, 
-                                   final Set<County> the_counties) {
+  private ASMEvent updateStateMachines(final Set<County> the_counties) {
     boolean aborted_audit = false;
     // for each county, if the audit is actually running, abort it
     for (final County c : the_counties) {
@@ -201,12 +287,10 @@ public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
       } else if (!county_asm.isInFinalState() || !audit_asm.isInFinalState()) {
         // this was done in an invalid state - it can only happen if the audit is
         // either underway, or over
-        illegalTransition(the_response,
-                          "attempt to change contest to hand count for county " + 
-                          c.id() + " in invalid state (" + county_asm.currentState() +
-                          ", " + audit_asm.currentState() + ")");
-        // must halt explicitly on an illegal transition call
-        halt(the_response);
+        throw new IllegalStateException("attempt to change contest to hand count for " + 
+                                        "county " + c.id() + " in invalid state (" + 
+                                        county_asm.currentState() + ", " + 
+                                        audit_asm.currentState() + ")");
       }
     }
    
@@ -214,6 +298,7 @@ public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
     // DOS_AUDIT_COMPLETE_EVENT, depending on whether a county state changed and
     // whether all counties are done
     
+    ASMEvent result = null;
     if (aborted_audit) {
       boolean all_done = true;
       for (final County c : Persistence.getAll(County.class)) {
@@ -221,14 +306,13 @@ public class IndicateHandCount extends AbstractDoSDashboardEndpoint {
             ASMUtilities.asmFor(CountyDashboardASM.class, c.id().toString()).isInFinalState();
       }
       if (all_done) {
-        my_event.set(DOS_AUDIT_COMPLETE_EVENT);
+        result = DOS_AUDIT_COMPLETE_EVENT;
       } else {
-        my_event.set(DOS_COUNTY_AUDIT_COMPLETE_EVENT);
+        result = DOS_COUNTY_AUDIT_COMPLETE_EVENT;
       }
-    } else {
-      // no county's audit was actually aborted, so from the DoS dashboard ASM 
-      // perspective, this is a no-op
-      my_event.set(null);
     }
+    // if no county's audit was actually aborted, then from the DoS dashboard 
+    // ASM perspective, this is a no-op
+    return result;
   }
 }
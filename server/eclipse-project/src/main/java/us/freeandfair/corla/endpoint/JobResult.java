@@ -0,0 +1,141 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.time.Instant;
+
+import org.apache.cxf.attachment.Rfc5987Util;
+import org.eclipse.jetty.http.HttpStatus;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.json.Result;
+import us.freeandfair.corla.model.LogEntry;
+import us.freeandfair.corla.util.SparkHelper;
+
+/**
+ * The endpoint that sends the result of a finished asynchronous job: the
+ * artifact it generated, if any, and otherwise its result message, with 
+ * the status the response would have had if the work had been done within 
+ * the request that submitted the job.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class JobResult extends AbstractEndpoint {
+  /**
+   * The path of this endpoint, to which a job ID is appended.
+   */
+  public static final String PATH = "/job-result/";
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.GET;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return PATH + ":id";
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
+  /**
+   * @return STATE authorization is necessary for this endpoint, as it is
+   * for all the endpoints that submit jobs.
+   */
+  @Override
+  public AuthorizationType requiredAuthorization() {
+    return AuthorizationType.STATE;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("PMD.ConfusingTernary")
+  public String endpointBody(final Request the_request, final Response the_response) {
+    final AsyncJob job = AsyncJobs.get(the_request.params(":id"));
+    if (job == null) {
+      dataNotFound(the_response, "job not found");
+    } else if (!job.isFinished()) {
+      the_response.header("Retry-After", RETRY_AFTER_DELAY);
+      respond(the_response, HttpStatus.CONFLICT_409, "job " + job.id() + " has not finished");
+    } else if (job.artifact() != null) {
+      sendArtifact(the_response, job);
+    } else if (HttpStatus.isSuccess(job.status())) {
+      ok(the_response, job.message());
+    } else {
+      respond(the_response, job.status(), job.message());
+    }
+    return my_endpoint_result.get();
+  }
+  
+  /**
+   * Sends the artifact generated by a job.
+   * 
+   * @param the_response The response.
+   * @param the_job The job.
+   */
+  private void sendArtifact(final Response the_response, final AsyncJob the_job) {
+    the_response.type(the_job.contentType());
+    try {
+      the_response.raw().setHeader("Content-Disposition", "attachment; filename=\"" + 
+          Rfc5987Util.encode(the_job.filename(), "UTF-8") + "\"");
+    } catch (final UnsupportedEncodingException e) {
+      serverError(the_response, "UTF-8 is unsupported (this should never happen)");
+    }
+    
+    try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream()) {
+      Files.copy(the_job.artifact(), os);
+      os.flush();
+      ok(the_response);
+    } catch (final IOException e) {
+      serverError(the_response, "Unable to stream response");
+    }
+  }
+  
+  /**
+   * Indicates and logs a response with the specified status, and halts.
+   * 
+   * @param the_response The response.
+   * @param the_status The status.
+   * @param the_body The body of the response.
+   */
+  private void respond(final Response the_response, final int the_status, 
+                       final String the_body) {
+    my_log_entries.get().add(new LogEntry(the_status, "job result on " + endpointName() + 
+                                          ": " + the_body, Instant.now()));
+    my_status.set(the_status);
+    my_endpoint_result.set(Main.GSON.toJson(new Result(the_body)));
+    halt(the_response);
+  }
+}
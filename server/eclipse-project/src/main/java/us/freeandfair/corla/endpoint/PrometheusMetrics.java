@@ -0,0 +1,96 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.log4j.Level;
+
+import spark.Request;
+import spark.Response;
+
+import us.freeandfair.corla.util.Metrics;
+import us.freeandfair.corla.util.SparkHelper;
+
+/**
+ * The endpoint for obtaining the server metrics (request phase latencies, 
+ * transaction retries, halts and imports) in Prometheus text format.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// endpoints don't need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class PrometheusMetrics extends AbstractDoSDashboardEndpoint {
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public EndpointType endpointType() {
+    return EndpointType.GET;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String endpointName() {
+    return "/metrics";
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Level logLevel() {
+    return Level.DEBUG;
+  }
+  
+  /**
+   * Provides the server metrics.
+   * 
+   * @param the_request The request.
+   * @param the_response The response.
+   */
+  @Override
+  public String endpointBody(final Request the_request, final Response the_response) {
+    the_response.type(Metrics.CONTENT_TYPE);
+    try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+             SparkHelper.getRaw(the_response).getOutputStream(), StandardCharsets.UTF_8))) {
+      bw.write(Metrics.prometheus());
+      bw.flush();
+      ok(the_response);
+    } catch (final IOException e) {
+      serverError(the_response, "Unable to stream response");
+    }
+    return my_endpoint_result.get();
+  }
+
+  /**
+   * This endpoint requires STATE authorization.
+   */
+  @Override
+  public AuthorizationType requiredAuthorization() {
+    return AuthorizationType.STATE;
+  }
+}
@@ -37,6 +37,14 @@ public class PublishDataToAudit extends AbstractDoSDashboardEndpoint {
   public String endpointName() {
     return "/publish-data-to-audit";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /**
    * @return STATE authorization is necessary for this endpoint.
@@ -54,6 +54,14 @@ public class ResetDatabase extends AbstractEndpoint {
   public String endpointName() {
     return "/reset-database";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /** 
    * {@inheritDoc}
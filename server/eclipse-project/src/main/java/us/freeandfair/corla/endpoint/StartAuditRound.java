@@ -17,10 +17,20 @@ import static us.freeandfair.corla.asm.ASMState.DoSDashboardState.RANDOM_SEED_PU
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.persistence.PersistenceException;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.eclipse.jetty.http.HttpStatus;
+
 import com.google.gson.JsonParseException;
 
 import spark.Request;
@@ -46,13 +56,32 @@ import us.freeandfair.corla.util.SuppressFBWarnings;
  */
 @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.StdCyclomaticComplexity",
                    "PMD.AtLeastOneConstructor", "PMD.ModifiedCyclomaticComplexity",
-                   "PMD.NPathComplexity"})
+                   "PMD.NPathComplexity", "PMD.GodClass", "PMD.ExcessiveImports"})
 public class StartAuditRound extends AbstractDoSDashboardEndpoint {
   /**
    * The "county " string.
    */
   private static final String COUNTY = "county ";
   
+  /**
+   * The name of the property that sets the number of threads used to
+   * start round 1.
+   */
+  private static final String ROUND_START_THREADS_PROPERTY = "round_start_threads";
+  
+  /**
+   * The default maximum number of threads used to start round 1.
+   */
+  private static final int DEFAULT_ROUND_START_THREADS = 4;
+  
+  /**
+   * The county dashboard states in which round 1 has already been started.
+   */
+  private static final Set<CountyDashboardState> STARTED_STATES = 
+      EnumSet.of(CountyDashboardState.COUNTY_AUDIT_UNDERWAY,
+                 CountyDashboardState.COUNTY_AUDIT_COMPLETE,
+                 CountyDashboardState.DEADLINE_MISSED);
+  
   /**
    * The event to return for this endpoint.
    */
@@ -73,6 +102,14 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
   public String endpointName() {
     return "/start-audit-round";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
 
   /**
    * @return STATE authorization is necessary for this endpoint.
@@ -103,107 +140,339 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
   @Override
   public String endpointBody(final Request the_request,
                          final Response the_response) {
-    if (my_asm.get().currentState() == RANDOM_SEED_PUBLISHED) {
+    final boolean round_one = my_asm.get().currentState() == RANDOM_SEED_PUBLISHED;
+    if (AsyncJobs.requested(the_request)) {
+      return submitJob(the_request, the_response, round_one);
+    }
+    final AsyncJob job = AsyncJobs.active(endpointName());
+    if (job != null) {
+      illegalTransition(the_response, 
+                        "an audit round is already being started by job " + job.id());
+    }
+    
+    my_event.set(DOS_START_ROUND_EVENT);
+    if (round_one) {
       // the audit hasn't started yet, so start round 1 and ignore the parameters
       // we were sent
-      my_event.set(DOS_START_ROUND_EVENT);
       return startRoundOne(the_request, the_response);
     } else {
       // start a subsequent round
-      my_event.set(DOS_START_ROUND_EVENT);
       return startSubsequentRound(the_request, the_response);
     }
   }
   
   /**
-   * Starts the first audit round.
+   * Submits an asynchronous job that starts an audit round; the job takes
+   * the DoS dashboard event when it finishes, so this request does not. If 
+   * a job starting an audit round is already queued or running, that job is
+   * sent instead.
+   * 
+   * @param the_request The HTTP request.
+   * @param the_response The HTTP response.
+   * @param the_round_one true to start round 1, false to start a subsequent 
+   * round.
+   * @return the result for endpoint.
+   */
+  private String submitJob(final Request the_request, final Response the_response,
+                           final boolean the_round_one) {
+    if (!DISABLE_ASM && 
+        !my_asm.get().enabledASMEvents().contains(DOS_START_ROUND_EVENT)) {
+      illegalTransition(the_response,
+                        endpointName() + " attempted to apply illegal event " + 
+                        DOS_START_ROUND_EVENT + " from state " + 
+                        my_asm.get().currentState());
+    }
+    
+    final AsyncJob job;
+    if (the_round_one) {
+      job = AsyncJobs.submit(endpointName(), endpointName(), the_request, 
+                             StartAuditRound::startRoundOne);
+    } else {
+      final SubmittedAuditRoundStart start = parseRoundStart(the_request, the_response);
+      final AsyncJobs.Work work = the_job -> startSubsequentRound(the_job, start);
+      job = AsyncJobs.submit(endpointName(), endpointName(), the_request, work);
+    }
+    my_event.set(null);
+    accepted(the_response, job);
+    return my_endpoint_result.get();
+  }
+  
+  /**
+   * Starts the first audit round. Each county's round is started in its own
+   * transaction, on a bounded pool of worker threads; the counties' results
+   * are collected and the DoS dashboard event is chosen once all counties 
+   * are done.
    * 
    * @param the_request The HTTP request.
    * @param the_response The HTTP response.
    * @return the result for endpoint.
    */
+  @SuppressWarnings("PMD.ConfusingTernary")
   public String startRoundOne(final Request the_request, final Response the_response) {
     // update every county dashboard with a list of ballots to audit
+    final List<Long> county_ids = new ArrayList<>();
     try {
-      final List<CountyDashboard> cdbs = Persistence.getAll(CountyDashboard.class);
-      
-      // this flag starts off true if we're going to conjoin it with all the ASM
-      // states, and false otherwise as we just assume audit reasonableness in the 
-      // absence of ASMs
-      boolean audit_complete = !DISABLE_ASM;
-      
-      for (final CountyDashboard cdb : cdbs) {
+      for (final CountyDashboard cdb : Persistence.getAll(CountyDashboard.class)) {
+        county_ids.add(cdb.id());
+      }
+    } catch (final PersistenceException e) {
+      serverError(the_response, "could not start round 1");
+    }
+    
+    List<CountyRoundStart> results = new ArrayList<>();
+    try {
+      results = startRoundOneForCounties(county_ids, null);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      serverError(the_response, "interrupted while starting round 1");
+    } catch (final ExecutionException e) {
+      serverError(the_response, "could not start round 1: " + e.getCause());
+    }
+    
+    final RoundOneOutcome outcome = new RoundOneOutcome(results);
+    if (!outcome.failed().isEmpty()) {
+      // the counties that did start have committed their rounds; starting
+      // round 1 again skips them and retries only the failed counties
+      serverError(the_response, "could not start round 1 for counties " + outcome.failed());
+    } else if (!outcome.illegalTransitions().isEmpty()) {
+      illegalTransition(the_response, String.join("; ", outcome.illegalTransitions()));
+    } else if (outcome.complete()) {
+      my_event.set(DOS_AUDIT_COMPLETE_EVENT);
+      ok(the_response, "audit complete");
+    } else {
+      ok(the_response, "round 1 started");
+    }
+    
+    return my_endpoint_result.get();
+  }
+  
+  /**
+   * Starts the first audit round as an asynchronous job, reporting progress
+   * as each county's round is started, then takes the DoS dashboard event
+   * in a transaction of its own.
+   * 
+   * @param the_job The job.
+   */
+  @SuppressWarnings("PMD.ConfusingTernary")
+  private static void startRoundOne(final AsyncJob the_job) {
+    final List<Long> county_ids = new ArrayList<>();
+    Persistence.beginReadOnlyTransaction();
+    for (final CountyDashboard cdb : Persistence.getAll(CountyDashboard.class)) {
+      county_ids.add(cdb.id());
+    }
+    Persistence.rollbackTransaction();
+    the_job.setTotal(county_ids.size());
+    
+    try {
+      final RoundOneOutcome outcome = 
+          new RoundOneOutcome(startRoundOneForCounties(county_ids, the_job));
+      if (!outcome.failed().isEmpty()) {
+        // as in a request, starting round 1 again retries only the failed counties
+        the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, 
+                     "could not start round 1 for counties " + outcome.failed());
+      } else if (!outcome.illegalTransitions().isEmpty()) {
+        the_job.fail(HttpStatus.FORBIDDEN_403, 
+                     String.join("; ", outcome.illegalTransitions()));
+      } else if (outcome.complete()) {
+        finishJob(the_job, DOS_AUDIT_COMPLETE_EVENT, "audit complete");
+      } else {
+        finishJob(the_job, DOS_START_ROUND_EVENT, "round 1 started");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, 
+                   "interrupted while starting round 1");
+    } catch (final ExecutionException e) {
+      the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, 
+                   "could not start round 1: " + e.getCause());
+    }
+  }
+  
+  /**
+   * Finishes an asynchronous job that started an audit round, by taking the 
+   * specified DoS dashboard event in a transaction of its own. 
+   * 
+   * @param the_job The job.
+   * @param the_event The event.
+   * @param the_message The result message if the job succeeds.
+   */
+  private static void finishJob(final AsyncJob the_job, final ASMEvent the_event,
+                                final String the_message) {
+    try {
+      Persistence.beginTransaction();
+      stepDoSDashboardASM(the_event);
+      Persistence.commitTransaction();
+      the_job.succeed(the_message);
+    } catch (final IllegalStateException e) {
+      the_job.fail(HttpStatus.FORBIDDEN_403, e.getMessage());
+    } catch (final PersistenceException e) {
+      the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, 
+                   "could not save the DoS dashboard state");
+    }
+  }
+  
+  /**
+   * Starts round 1 for the counties with the specified IDs, each in its own
+   * transaction, on a bounded pool of worker threads.
+   * 
+   * @param the_county_ids The county IDs.
+   * @param the_job The job to which to report progress, or null if there
+   * is none.
+   * @return the results of the round starts.
+   * @exception InterruptedException if interrupted while waiting for the 
+   * round starts.
+   * @exception ExecutionException if a round start throws an exception.
+   */
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static List<CountyRoundStart> 
+      startRoundOneForCounties(final List<Long> the_county_ids, final AsyncJob the_job)
+      throws InterruptedException, ExecutionException {
+    final List<Callable<CountyRoundStart>> tasks = new ArrayList<>();
+    for (final Long county_id : the_county_ids) {
+      tasks.add(() -> {
+        final CountyRoundStart result = startRoundOneForCounty(county_id);
+        if (the_job != null) {
+          the_job.advance();
+        }
+        return result;
+      });
+    }
+    
+    final ExecutorService executor = 
+        Executors.newFixedThreadPool(Math.max(1, Math.min(tasks.size(), roundStartThreads())));
+    final List<CountyRoundStart> results = new ArrayList<>();
+    try {
+      for (final Future<CountyRoundStart> future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return results;
+  }
+  
+  /**
+   * @return the number of worker threads to use when starting round 1,
+   * from the system properties if specified there.
+   */
+  private static int roundStartThreads() {
+    int result = Math.min(Runtime.getRuntime().availableProcessors(), 
+                          DEFAULT_ROUND_START_THREADS);
+    try {
+      result = Integer.parseInt(Main.properties().getProperty(ROUND_START_THREADS_PROPERTY, 
+                                                              String.valueOf(result)));
+    } catch (final NumberFormatException e) {
+      Main.LOGGER.error("invalid value for " + ROUND_START_THREADS_PROPERTY + 
+                        ", using " + result + " threads");
+    }
+    return result;
+  }
+  
+  /**
+   * Starts round 1 for the county with the specified ID, in a transaction
+   * of its own on the calling thread.
+   * 
+   * @param the_county_id The county ID.
+   * @return the result of the round start.
+   */
+  private static CountyRoundStart startRoundOneForCounty(final Long the_county_id) {
+    boolean complete = false;
+    boolean failed = false;
+    String illegal_transition = null;
+    try {
+      Persistence.beginTransaction();
+      complete = 
+          startRoundOneForCounty(Persistence.getByID(the_county_id, CountyDashboard.class));
+      Persistence.commitTransaction();
+    } catch (final IllegalArgumentException | PersistenceException e) {
+      Main.LOGGER.error("could not start round 1 for county " + the_county_id + ": " + 
+                        ExceptionUtils.getStackTrace(e));
+      failed = true;
+    } catch (final IllegalStateException e) {
+      illegal_transition = e.getMessage();
+    } finally {
+      if (Persistence.isSessionOpen() && Persistence.canTransactionRollback()) {
         try {
-          if (cdb.cvrFile() == null || cdb.manifestFile() == null) {
-            Main.LOGGER.info(COUNTY + cdb.id() + " missed the file upload deadline");
-          } else {
-            // find the initial window
-            final boolean started = ComparisonAuditController.initializeAuditData(cdb);
-            if (started) {
-              Main.LOGGER.info(COUNTY + cdb.id() + " estimated to audit " + 
-                               cdb.estimatedSamplesToAudit() + " ballots in round 1");
-            } else if (cdb.drivingContests().isEmpty()) {
-              Main.LOGGER.info(COUNTY + cdb.id() + " has no driving contests, its " +
-                               "audit is complete.");
-            } else if (cdb.estimatedSamplesToAudit() == 0) {
-              Main.LOGGER.info(COUNTY + cdb.id() + " needs to audit 0 ballots to " +
-                               "achieve its risk limit, its audit is complete.");
-            } else {
-              Main.LOGGER.error("unable to start audit for county " + cdb.id());
-            }
-            Persistence.saveOrUpdate(cdb);
-          } 
-          // update the ASMs for the county and audit board
-          if (!DISABLE_ASM) {
-            final CountyDashboardASM asm = 
-                ASMUtilities.asmFor(CountyDashboardASM.class, String.valueOf(cdb.id()));
-            asm.stepEvent(COUNTY_START_AUDIT_EVENT);
-            final ASMEvent audit_event;
-            if (asm.currentState().equals(CountyDashboardState.COUNTY_AUDIT_UNDERWAY)) {
-              if (cdb.comparisonAudits().isEmpty()) {
-                // the county made its deadline but was assigned no contests to audit
-                audit_event = NO_CONTESTS_TO_AUDIT_EVENT;
-                asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
-              } else if (cdb.estimatedSamplesToAudit() <= 0) {
-                // the county made its deadline but has already achieved its risk limit
-                audit_event = RISK_LIMIT_ACHIEVED_EVENT;
-                asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
-              } else {
-                // the audit started normally
-                audit_event = ROUND_START_EVENT;
-              }
-            } else {
-              // the county missed its deadline
-              audit_event = COUNTY_DEADLINE_MISSED_EVENT;
-            }
-            ASMUtilities.step(audit_event, AuditBoardDashboardASM.class,
-                              String.valueOf(cdb.id()));
-            ASMUtilities.save(asm);
-            
-            // figure out whether this county is done, or whether there's an audit to run
-            audit_complete &= asm.isInFinalState();
-          }
-        } catch (final IllegalArgumentException e) {
-          e.printStackTrace(System.out);
-          serverError(the_response, "could not start round 1 for county " + 
-                      cdb.id());
-          Main.LOGGER.info("could not start round 1 for county " + cdb.id());
-        } catch (final IllegalStateException e) {
-          illegalTransition(the_response, e.getMessage());
+          Persistence.rollbackTransaction();
+        } catch (final PersistenceException e) {
+          // not much we can do about it
         }
       }
-      
-      if (audit_complete) {
-        my_event.set(DOS_AUDIT_COMPLETE_EVENT);
-        ok(the_response, "audit complete");
+    }
+    return new CountyRoundStart(the_county_id, complete, failed, illegal_transition);
+  }
+  
+  /**
+   * Starts round 1 for the specified county dashboard, within the current 
+   * transaction.
+   * 
+   * @param the_cdb The county dashboard.
+   * @return true if the county's audit is complete after starting round 1, 
+   * false otherwise.
+   */
+  private static boolean startRoundOneForCounty(final CountyDashboard the_cdb) {
+    CountyDashboardASM asm = null;
+    if (!DISABLE_ASM) {
+      asm = ASMUtilities.asmFor(CountyDashboardASM.class, String.valueOf(the_cdb.id()));
+      if (STARTED_STATES.contains(asm.currentState())) {
+        // round 1 was already started for this county by an earlier, partially 
+        // failed, attempt
+        Main.LOGGER.info(COUNTY + the_cdb.id() + " has already started round 1");
+        return asm.isInFinalState();
+      }
+    }
+    
+    if (the_cdb.cvrFile() == null || the_cdb.manifestFile() == null) {
+      Main.LOGGER.info(COUNTY + the_cdb.id() + " missed the file upload deadline");
+    } else {
+      // find the initial window
+      final boolean started = ComparisonAuditController.initializeAuditData(the_cdb);
+      if (started) {
+        Main.LOGGER.info(COUNTY + the_cdb.id() + " estimated to audit " + 
+                         the_cdb.estimatedSamplesToAudit() + " ballots in round 1");
+      } else if (the_cdb.drivingContests().isEmpty()) {
+        Main.LOGGER.info(COUNTY + the_cdb.id() + " has no driving contests, its " +
+                         "audit is complete.");
+      } else if (the_cdb.estimatedSamplesToAudit() == 0) {
+        Main.LOGGER.info(COUNTY + the_cdb.id() + " needs to audit 0 ballots to " +
+                         "achieve its risk limit, its audit is complete.");
       } else {
-        ok(the_response, "round 1 started");
+        Main.LOGGER.error("unable to start audit for county " + the_cdb.id());
       }
-    } catch (final PersistenceException e) {
-      serverError(the_response, "could not start round 1");
+      Persistence.saveOrUpdate(the_cdb);
+    } 
+    
+    // update the ASMs for the county and audit board
+    boolean result = false;
+    if (asm != null) {
+      asm.stepEvent(COUNTY_START_AUDIT_EVENT);
+      final ASMEvent audit_event;
+      if (asm.currentState().equals(CountyDashboardState.COUNTY_AUDIT_UNDERWAY)) {
+        if (the_cdb.comparisonAudits().isEmpty()) {
+          // the county made its deadline but was assigned no contests to audit
+          audit_event = NO_CONTESTS_TO_AUDIT_EVENT;
+          asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
+        } else if (the_cdb.estimatedSamplesToAudit() <= 0) {
+          // the county made its deadline but has already achieved its risk limit
+          audit_event = RISK_LIMIT_ACHIEVED_EVENT;
+          asm.stepEvent(COUNTY_AUDIT_COMPLETE_EVENT);
+        } else {
+          // the audit started normally
+          audit_event = ROUND_START_EVENT;
+        }
+      } else {
+        // the county missed its deadline
+        audit_event = COUNTY_DEADLINE_MISSED_EVENT;
+      }
+      ASMUtilities.step(audit_event, AuditBoardDashboardASM.class,
+                        String.valueOf(the_cdb.id()));
+      ASMUtilities.save(asm);
+      
+      // figure out whether this county is done, or whether there's an audit to run
+      result = asm.isInFinalState();
     }
     
-    return my_endpoint_result.get();
+    return result;
   }
 
   /**
@@ -217,78 +486,262 @@ public class StartAuditRound extends AbstractDoSDashboardEndpoint {
   // badDataContents() would bail on the method before it happened.
   @SuppressFBWarnings("NP_NULL_ON_SOME_PATH")
   public String startSubsequentRound(final Request the_request, final Response the_response) {
-    SubmittedAuditRoundStart start = null;
+    final SubmittedAuditRoundStart start = parseRoundStart(the_request, the_response);
+    try {
+      final String violation = startSubsequentRound(start);
+      if (violation != null) {
+        invariantViolation(the_response, violation);
+      }
+      ok(the_response, "new audit round started");
+    } catch (final PersistenceException e) {
+      serverError(the_response, "could not start new audit round");
+    }
+    
+    return my_endpoint_result.get();
+  }
+  
+  /**
+   * Starts a subsequent audit round as an asynchronous job, in a single 
+   * transaction that also takes the DoS dashboard event.
+   * 
+   * @param the_job The job.
+   * @param the_start The round start parameters.
+   */
+  private static void startSubsequentRound(final AsyncJob the_job,
+                                           final SubmittedAuditRoundStart the_start) {
+    the_job.setTotal(1);
     try {
-      start = Main.GSON.fromJson(the_request.body(), SubmittedAuditRoundStart.class);
-      if (start == null) {
+      Persistence.beginTransaction();
+      final String violation = startSubsequentRound(the_start);
+      if (violation == null) {
+        finishJob(the_job, DOS_START_ROUND_EVENT, "new audit round started");
+      } else {
+        the_job.fail(HttpStatus.BAD_REQUEST_400, violation);
+      }
+    } catch (final PersistenceException e) {
+      the_job.fail(HttpStatus.INTERNAL_SERVER_ERROR_500, "could not start new audit round");
+    }
+  }
+  
+  /**
+   * Parses the round start parameters of a request.
+   * 
+   * @param the_request The HTTP request.
+   * @param the_response The HTTP response.
+   * @return the round start parameters.
+   */
+  private SubmittedAuditRoundStart parseRoundStart(final Request the_request,
+                                                   final Response the_response) {
+    SubmittedAuditRoundStart result = null;
+    try {
+      result = Main.GSON.fromJson(the_request.body(), SubmittedAuditRoundStart.class);
+      if (result == null) {
         badDataContents(the_response, "malformed request data");
       }
     } catch (final JsonParseException e) {
       badDataContents(the_response, "malformed request data: " + e.getMessage());
     }
-    
-    try {
-      // first, figure out what counties we need to do this for, if the list is limited
-      final List<CountyDashboard> cdbs;
-      if (start.countyBallots() == null || start.countyBallots().isEmpty()) {
-        cdbs = Persistence.getAll(CountyDashboard.class);
+    return result;
+  }
+  
+  /**
+   * Starts a subsequent audit round for the counties specified by the round
+   * start parameters, within the current transaction.
+   * 
+   * @param the_start The round start parameters.
+   * @return null if the round was started, or a description of the invariant
+   * violated if a county is in the middle of a round; in the latter case, the
+   * transaction must be rolled back.
+   */
+  private static String startSubsequentRound(final SubmittedAuditRoundStart the_start) {
+    // first, figure out what counties we need to do this for, if the list is limited
+    final List<CountyDashboard> cdbs;
+    if (the_start.countyBallots() == null || the_start.countyBallots().isEmpty()) {
+      cdbs = Persistence.getAll(CountyDashboard.class);
+    } else {
+      cdbs = new ArrayList<>();
+      for (final Long id : the_start.countyBallots().keySet()) {
+        cdbs.add(Persistence.getByID(id, CountyDashboard.class));
+      }
+    }
+  
+    for (final CountyDashboard cdb : cdbs) {
+      final AuditBoardDashboardASM asm = 
+          ASMUtilities.asmFor(AuditBoardDashboardASM.class, cdb.id().toString());
+      if (asm.isInInitialState() || asm.isInFinalState()) {
+        // there is no audit happening in this county, so go to the next one
+        Main.LOGGER.debug("no audit ongoing in county " + cdb.id() + 
+                         ", skipping round start");
+        continue;
+      }
+      // if the county is in the middle of a round, error out
+      if (cdb.currentRound() != null) {
+        return "audit round already in progress for county " + cdb.id();
+      }
+      
+      final ASMEvent audit_event;
+      final boolean round_started;
+      final BigDecimal multiplier;
+      if (the_start.multiplier() == null) {
+        multiplier = BigDecimal.ONE;
       } else {
-        cdbs = new ArrayList<>();
-        for (final Long id : start.countyBallots().keySet()) {
-          cdbs.add(Persistence.getByID(id, CountyDashboard.class));
-        }
+        multiplier = the_start.multiplier();
+      }
+      if (the_start.useEstimates()) {
+        round_started = 
+            ComparisonAuditController.startNewRoundFromEstimates(cdb, multiplier);
+      } else {
+        round_started = ComparisonAuditController.
+            startNewRoundOfLength(cdb, the_start.countyBallots().get(cdb.id()), multiplier);
+      }
+      if (round_started) {
+        Main.LOGGER.debug("round started for county " + cdb.id());       
+        audit_event = ROUND_START_EVENT;
+      } else {
+        // we don't know why the round didn't start, so we need to abort the audit
+        Main.LOGGER.debug("no round started for county " + cdb.id());       
+        audit_event = ABORT_AUDIT_EVENT;
       }
+      
+      // update the ASM for the audit board
+      if (!DISABLE_ASM) {
+        asm.stepEvent(audit_event);
+        ASMUtilities.save(asm);
+      }
+    }
+    return null;
+  }
+  
+  /**
+   * The outcome of starting round 1 for all the counties.
+   */
+  private static class RoundOneOutcome {
+    /**
+     * The IDs of the counties for which starting the round failed.
+     */
+    private final List<Long> my_failed = new ArrayList<>();
     
-      for (final CountyDashboard cdb : cdbs) {
-        final AuditBoardDashboardASM asm = 
-            ASMUtilities.asmFor(AuditBoardDashboardASM.class, cdb.id().toString());
-        if (asm.isInInitialState() || asm.isInFinalState()) {
-          // there is no audit happening in this county, so go to the next one
-          Main.LOGGER.debug("no audit ongoing in county " + cdb.id() + 
-                           ", skipping round start");
-          continue;
-        }
-        // if the county is in the middle of a round, error out
-        if (cdb.currentRound() != null) {
-          invariantViolation(the_response, 
-                             "audit round already in progress for county " + cdb.id());
-        }
-        
-        final ASMEvent audit_event;
-        final boolean round_started;
-        final BigDecimal multiplier;
-        if (start.multiplier() == null) {
-          multiplier = BigDecimal.ONE;
-        } else {
-          multiplier = start.multiplier();
-        }
-        if (start.useEstimates()) {
-          round_started = 
-              ComparisonAuditController.startNewRoundFromEstimates(cdb, multiplier);
-        } else {
-          round_started = ComparisonAuditController.
-              startNewRoundOfLength(cdb, start.countyBallots().get(cdb.id()), multiplier);
-        }
-        if (round_started) {
-          Main.LOGGER.debug("round started for county " + cdb.id());       
-          audit_event = ROUND_START_EVENT;
-        } else {
-          // we don't know why the round didn't start, so we need to abort the audit
-          Main.LOGGER.debug("no round started for county " + cdb.id());       
-          audit_event = ABORT_AUDIT_EVENT;
-        }
-        
-        // update the ASM for the audit board
-        if (!DISABLE_ASM) {
-          asm.stepEvent(audit_event);
-          ASMUtilities.save(asm);
+    /**
+     * The descriptions of the illegal transitions attempted.
+     */
+    private final List<String> my_illegal_transitions = new ArrayList<>();
+    
+    /**
+     * A flag indicating whether the audit is complete in every county.
+     */
+    private final boolean my_complete;
+    
+    /**
+     * Constructs a new RoundOneOutcome.
+     * 
+     * @param the_results The results of starting round 1 for each county.
+     */
+    RoundOneOutcome(final List<CountyRoundStart> the_results) {
+      // this flag starts off true if we're going to conjoin it with all the ASM
+      // states, and false otherwise as we just assume audit reasonableness in the 
+      // absence of ASMs
+      boolean complete = !DISABLE_ASM;
+      for (final CountyRoundStart result : the_results) {
+        if (result.failed()) {
+          my_failed.add(result.countyID());
+        } else if (result.illegalTransition() != null) {
+          my_illegal_transitions.add(result.illegalTransition());
         }
-      }      
-      ok(the_response, "new audit round started");
-    } catch (final PersistenceException e) {
-      serverError(the_response, "could not start new audit round");
+        complete &= result.complete();
+      }
+      my_complete = complete;
     }
     
-    return my_endpoint_result.get();
+    /**
+     * @return the IDs of the counties for which starting the round failed.
+     */
+    public List<Long> failed() {
+      return my_failed;
+    }
+    
+    /**
+     * @return the descriptions of the illegal transitions attempted.
+     */
+    public List<String> illegalTransitions() {
+      return my_illegal_transitions;
+    }
+    
+    /**
+     * @return true if the audit is complete in every county, false otherwise.
+     */
+    public boolean complete() {
+      return my_complete;
+    }
+  }
+  
+  /**
+   * The result of starting round 1 for a single county.
+   */
+  private static class CountyRoundStart {
+    /**
+     * The county ID.
+     */
+    private final Long my_county_id;
+    
+    /**
+     * A flag indicating whether the county's audit is complete.
+     */
+    private final boolean my_complete;
+    
+    /**
+     * A flag indicating whether starting the round failed.
+     */
+    private final boolean my_failed;
+    
+    /**
+     * The description of the illegal transition attempted, if any.
+     */
+    private final String my_illegal_transition;
+    
+    /**
+     * Constructs a new CountyRoundStart.
+     * 
+     * @param the_county_id The county ID.
+     * @param the_complete true if the county's audit is complete, false otherwise.
+     * @param the_failed true if starting the round failed, false otherwise.
+     * @param the_illegal_transition The description of the illegal transition 
+     * attempted, or null if there was none.
+     */
+    CountyRoundStart(final Long the_county_id, final boolean the_complete,
+                     final boolean the_failed, final String the_illegal_transition) {
+      my_county_id = the_county_id;
+      my_complete = the_complete;
+      my_failed = the_failed;
+      my_illegal_transition = the_illegal_transition;
+    }
+    
+    /**
+     * @return the county ID.
+     */
+    public Long countyID() {
+      return my_county_id;
+    }
+    
+    /**
+     * @return true if the county's audit is complete, false otherwise.
+     */
+    public boolean complete() {
+      return my_complete;
+    }
+    
+    /**
+     * @return true if starting the round failed, false otherwise.
+     */
+    public boolean failed() {
+      return my_failed;
+    }
+    
+    /**
+     * @return the description of the illegal transition attempted, or null
+     * if there was none.
+     */
+    public String illegalTransition() {
+      return my_illegal_transition;
+    }
   }
 }
@@ -15,6 +15,8 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
@@ -29,6 +31,7 @@ import us.freeandfair.corla.asm.ASMState;
 import us.freeandfair.corla.asm.ASMState.DoSDashboardState;
 import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.DoSDashboardASM;
+import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.report.StateReport;
 import us.freeandfair.corla.util.SparkHelper;
 
@@ -50,6 +53,17 @@ public class StateReportDownload extends AbstractEndpoint {
                     DoSDashboardState.DOS_AUDIT_COMPLETE,
                     DoSDashboardState.AUDIT_RESULTS_PUBLISHED);
   
+  /**
+   * The content type of PDF reports.
+   */
+  private static final String PDF_TYPE = "application/pdf";
+  
+  /**
+   * The content type of Excel reports.
+   */
+  private static final String EXCEL_TYPE = 
+      "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+  
   /**
    * {@inheritDoc}
    */
@@ -65,6 +79,22 @@ public class StateReportDownload extends AbstractEndpoint {
   public String endpointName() {
     return "/state-report";
   }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AdmissionClass admissionClass() {
+    return AdmissionClass.HEAVY;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean readOnly() {
+    return true;
+  }
 
   /**
    * This endpoint requires any kind of authentication.
@@ -89,24 +119,28 @@ public class StateReportDownload extends AbstractEndpoint {
     }
     
     final boolean pdf = "pdf".equalsIgnoreCase(the_request.queryParams("file_type"));
+    if (AsyncJobs.requested(the_request)) {
+      // generate the report in a job, keyed so that identical requests share it
+      final AsyncJobs.Work work = job -> generateReport(job, pdf);
+      accepted(the_response, 
+               AsyncJobs.submit(endpointName(), endpointName() + "?pdf=" + pdf, 
+                                the_request, work));
+      return my_endpoint_result.get();
+    }
+    
     final StateReport sr = new StateReport();
     byte[] file = new byte[0];
     String filename = "";
     
     if (pdf) {
-      the_response.type("application/pdf");
+      the_response.type(PDF_TYPE);
       filename = sr.filenamePDF();
       file = sr.generatePDF();
     } else {
-      the_response.type("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+      the_response.type(EXCEL_TYPE);
       // the file name should be constructed from the election type and date, and
       // the county name and round
       filename = sr.filenameExcel();
-      try {
-        file = sr.generateExcel();
-      } catch (final IOException e) {
-        serverError(the_response, "Unable to generate Excel file");
-      }
     }
     
     try {
@@ -118,7 +152,12 @@ public class StateReportDownload extends AbstractEndpoint {
     
     try (OutputStream os = SparkHelper.getRaw(the_response).getOutputStream();
          BufferedOutputStream bos = new BufferedOutputStream(os)) {
-      bos.write(file);
+      if (pdf) {
+        bos.write(file);
+      } else {
+        // the workbook is streamed, not held in memory
+        sr.generateExcel(bos);
+      }
       bos.flush();
       ok(the_response);
     } catch (final IOException | PersistenceException e) {
@@ -127,4 +166,46 @@ public class StateReportDownload extends AbstractEndpoint {
     
     return my_endpoint_result.get();
   }
+  
+  /**
+   * Generates the state report, as the artifact of an asynchronous job, in
+   * a read-only transaction of its own.
+   * 
+   * @param the_job The job.
+   * @param the_pdf true to generate a PDF report, false to generate an Excel
+   * report.
+   * @exception IOException if the report cannot be written.
+   */
+  private static void generateReport(final AsyncJob the_job, final boolean the_pdf)
+      throws IOException {
+    the_job.setTotal(1);
+    Persistence.beginReadOnlyTransaction();
+    final StateReport sr = new StateReport();
+    final Path file;
+    if (the_pdf) {
+      file = Files.createTempFile("state-report-", ".pdf");
+    } else {
+      file = Files.createTempFile("state-report-", ".xlsx");
+    }
+    boolean written = false;
+    try (OutputStream os = Files.newOutputStream(file);
+         BufferedOutputStream bos = new BufferedOutputStream(os)) {
+      if (the_pdf) {
+        bos.write(sr.generatePDF());
+      } else {
+        sr.generateExcel(bos);
+      }
+      written = true;
+    } finally {
+      if (!written) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Persistence.rollbackTransaction();
+    if (the_pdf) {
+      the_job.succeed(file, PDF_TYPE, sr.filenamePDF());
+    } else {
+      the_job.succeed(file, EXCEL_TYPE, sr.filenameExcel());
+    }
+  }
 }
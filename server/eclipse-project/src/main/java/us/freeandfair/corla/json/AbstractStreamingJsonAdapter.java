@@ -0,0 +1,245 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A JSON adapter for a high-volume type, which writes objects of the type
+ * without reflection and reads them by reflection. Subclasses are attached
+ * to their types with the JsonAdapter annotation, and must write exactly
+ * what reflective serialization would: the fields named in fieldNames(), in
+ * declaration order, with null fields omitted.
+ * 
+ * @param <T> The adapted type.
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public abstract class AbstractStreamingJsonAdapter<T> implements TypeAdapterFactory {
+  /**
+   * The adapted class.
+   */
+  private final Class<T> my_class;
+
+  /**
+   * Constructs a new AbstractStreamingJsonAdapter.
+   * 
+   * @param the_class The adapted class.
+   */
+  protected AbstractStreamingJsonAdapter(final Class<T> the_class) {
+    my_class = the_class;
+  }
+
+  /**
+   * @return the adapted class.
+   */
+  public Class<T> adaptedClass() {
+    return my_class;
+  }
+
+  /**
+   * @return the names of the fields written by this adapter, in the order
+   * in which they are written.
+   */
+  public abstract List<String> fieldNames();
+
+  /**
+   * Writes an object of the adapted type.
+   * 
+   * @param the_gson The Gson for which the object is written, used to write
+   * values of types that have their own adapters.
+   * @param the_writer The JSON writer.
+   * @param the_object The object to write, which is not null.
+   * @exception IOException if the object cannot be written.
+   */
+  public abstract void write(Gson the_gson, JsonWriter the_writer, T the_object)
+      throws IOException;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S> TypeAdapter<S> create(final Gson the_gson, final TypeToken<S> the_type) {
+    TypeAdapter<S> result = null;
+    if (my_class.equals(the_type.getRawType())) {
+      result = (TypeAdapter<S>)
+          new Adapter<T>(this, the_gson,
+                         the_gson.getDelegateAdapter(this, TypeToken.get(my_class)));
+    }
+    return result;
+  }
+
+  /**
+   * Writes a value exactly as reflective serialization would, without
+   * reflection for strings, numbers, booleans, enums, instants, maps and
+   * collections; other values are written by their own adapters.
+   * 
+   * @param the_gson The Gson for which the value is written.
+   * @param the_writer The JSON writer.
+   * @param the_value The value.
+   * @exception IOException if the value cannot be written.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  protected static void writeValue(final Gson the_gson, final JsonWriter the_writer,
+                                   final Object the_value)
+      throws IOException {
+    if (the_value instanceof Map) {
+      writeMap(the_gson, the_writer, (Map<?, ?>) the_value);
+    } else if (the_value instanceof Collection) {
+      the_writer.beginArray();
+      for (final Object element : (Collection<?>) the_value) {
+        writeValue(the_gson, the_writer, element);
+      }
+      the_writer.endArray();
+    } else if (!writeScalar(the_writer, the_value)) {
+      final TypeAdapter adapter = the_gson.getAdapter(the_value.getClass());
+      adapter.write(the_writer, the_value);
+    }
+  }
+
+  /**
+   * Writes a value exactly as reflective serialization would, if it is null,
+   * a string, a number, a boolean, an enum or an instant.
+   * 
+   * @param the_writer The JSON writer.
+   * @param the_value The value.
+   * @return true if the value was written, false otherwise.
+   * @exception IOException if the value cannot be written.
+   */
+  private static boolean writeScalar(final JsonWriter the_writer, final Object the_value)
+      throws IOException {
+    boolean result = true;
+    if (the_value == null) {
+      // this also omits the name of a null field
+      the_writer.nullValue();
+    } else if (the_value instanceof String) {
+      the_writer.value((String) the_value);
+    } else if (the_value instanceof Number) {
+      the_writer.value((Number) the_value);
+    } else if (the_value instanceof Boolean) {
+      the_writer.value((Boolean) the_value);
+    } else if (the_value instanceof Enum) {
+      the_writer.value(((Enum<?>) the_value).name());
+    } else if (the_value instanceof Instant) {
+      // as written by InstantTypeAdapter
+      the_writer.value(the_value.toString());
+    } else {
+      result = false;
+    }
+    return result;
+  }
+
+  /**
+   * Writes a named field exactly as reflective serialization would.
+   * 
+   * @param the_gson The Gson for which the field is written.
+   * @param the_writer The JSON writer.
+   * @param the_name The name of the field.
+   * @param the_value The value of the field.
+   * @exception IOException if the field cannot be written.
+   */
+  protected static void writeField(final Gson the_gson, final JsonWriter the_writer,
+                                   final String the_name, final Object the_value)
+      throws IOException {
+    the_writer.name(the_name);
+    writeValue(the_gson, the_writer, the_value);
+  }
+
+  /**
+   * Writes a map as a JSON object, with its keys converted to strings,
+   * exactly as reflective serialization would.
+   * 
+   * @param the_gson The Gson for which the map is written.
+   * @param the_writer The JSON writer.
+   * @param the_map The map.
+   * @exception IOException if the map cannot be written.
+   */
+  private static void writeMap(final Gson the_gson, final JsonWriter the_writer,
+                               final Map<?, ?> the_map)
+      throws IOException {
+    the_writer.beginObject();
+    for (final Map.Entry<?, ?> entry : the_map.entrySet()) {
+      the_writer.name(String.valueOf(entry.getKey()));
+      writeValue(the_gson, the_writer, entry.getValue());
+    }
+    the_writer.endObject();
+  }
+
+  /**
+   * The type adapter created for a particular Gson.
+   * 
+   * @param <T> The adapted type.
+   */
+  private static class Adapter<T> extends TypeAdapter<T> {
+    /**
+     * The streaming adapter that writes objects.
+     */
+    private final AbstractStreamingJsonAdapter<T> my_writer;
+
+    /**
+     * The Gson.
+     */
+    private final Gson my_gson;
+
+    /**
+     * The reflective adapter that reads objects.
+     */
+    private final TypeAdapter<T> my_reader;
+
+    /**
+     * Constructs a new Adapter.
+     * 
+     * @param the_writer The streaming adapter that writes objects.
+     * @param the_gson The Gson.
+     * @param the_reader The reflective adapter that reads objects.
+     */
+    Adapter(final AbstractStreamingJsonAdapter<T> the_writer, final Gson the_gson,
+            final TypeAdapter<T> the_reader) {
+      super();
+      my_writer = the_writer;
+      my_gson = the_gson;
+      my_reader = the_reader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final JsonWriter the_writer, final T the_object) throws IOException {
+      if (the_object == null) {
+        the_writer.nullValue();
+      } else {
+        my_writer.write(my_gson, the_writer, the_object);
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T read(final JsonReader the_reader) throws IOException {
+      return my_reader.read(the_reader);
+    }
+  }
+}
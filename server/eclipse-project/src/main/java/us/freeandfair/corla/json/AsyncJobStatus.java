@@ -0,0 +1,117 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.time.Instant;
+
+import us.freeandfair.corla.util.SuppressFBWarnings;
+
+/**
+ * The status of an asynchronous job, as sent to clients.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField"})
+@SuppressFBWarnings(value = {"URF_UNREAD_FIELD"}, justification = "Field is read by Gson.")
+public class AsyncJobStatus {
+  /**
+   * The job ID.
+   */
+  private final String my_id;
+
+  /**
+   * The job name.
+   */
+  private final String my_name;
+
+  /**
+   * The job state.
+   */
+  private final String my_state;
+
+  /**
+   * The number of steps completed.
+   */
+  private final long my_completed;
+
+  /**
+   * The total number of steps, or 0 if unknown.
+   */
+  private final long my_total;
+
+  /**
+   * The HTTP status of the job's outcome, or null if it has not finished.
+   */
+  private final Integer my_status;
+
+  /**
+   * The result message, or null if the job has not finished.
+   */
+  private final String my_message;
+
+  /**
+   * The time the job was submitted.
+   */
+  private final Instant my_submitted;
+
+  /**
+   * The time the job started, or null if it has not.
+   */
+  private final Instant my_started;
+
+  /**
+   * The time the job finished, or null if it has not.
+   */
+  private final Instant my_finished;
+
+  /**
+   * The path from which the result can be fetched, or null if the job has
+   * not finished.
+   */
+  private final String my_result;
+
+  /**
+   * Constructs a new AsyncJobStatus.
+   * 
+   * @param the_id The job ID.
+   * @param the_name The job name.
+   * @param the_state The job state.
+   * @param the_completed The number of steps completed.
+   * @param the_total The total number of steps, or 0 if unknown.
+   * @param the_status The HTTP status of the outcome, or null.
+   * @param the_message The result message, or null.
+   * @param the_submitted The time the job was submitted.
+   * @param the_started The time the job started, or null.
+   * @param the_finished The time the job finished, or null.
+   * @param the_result The path from which the result can be fetched, or null.
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public AsyncJobStatus(final String the_id, final String the_name,
+                        final String the_state, final long the_completed,
+                        final long the_total, final Integer the_status,
+                        final String the_message, final Instant the_submitted,
+                        final Instant the_started, final Instant the_finished,
+                        final String the_result) {
+    my_id = the_id;
+    my_name = the_name;
+    my_state = the_state;
+    my_completed = the_completed;
+    my_total = the_total;
+    my_status = the_status;
+    my_message = the_message;
+    my_submitted = the_submitted;
+    my_started = the_started;
+    my_finished = the_finished;
+    my_result = the_result;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import us.freeandfair.corla.model.BallotManifestInfo;
+
+/**
+ * JSON adapter for ballot manifest information, which writes it without
+ * reflection.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class BallotManifestInfoJsonAdapter 
+    extends AbstractStreamingJsonAdapter<BallotManifestInfo> {
+  /**
+   * The "id" string (for JSON serialization).
+   */
+  private static final String ID = "id";
+  
+  /**
+   * The "county_id" string (for JSON serialization).
+   */
+  private static final String COUNTY_ID = "county_id";
+  
+  /**
+   * The "scanner_id" string (for JSON serialization).
+   */
+  private static final String SCANNER_ID = "scanner_id";
+  
+  /**
+   * The "batch_id" string (for JSON serialization).
+   */
+  private static final String BATCH_ID = "batch_id";
+  
+  /**
+   * The "batch_size" string (for JSON serialization).
+   */
+  private static final String BATCH_SIZE = "batch_size";
+  
+  /**
+   * The "storage_location" string (for JSON serialization).
+   */
+  private static final String STORAGE_LOCATION = "storage_location";
+  
+  /**
+   * The names of the fields, in the order they are written.
+   */
+  private static final List<String> FIELD_NAMES = 
+      Collections.unmodifiableList(Arrays.asList(ID, COUNTY_ID, SCANNER_ID, BATCH_ID,
+                                                 BATCH_SIZE, STORAGE_LOCATION));
+  
+  /**
+   * Constructs a new BallotManifestInfoJsonAdapter.
+   */
+  public BallotManifestInfoJsonAdapter() {
+    super(BallotManifestInfo.class);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> fieldNames() {
+    return FIELD_NAMES;
+  }
+  
+  /**
+   * Writes a ballot manifest information object.
+   * 
+   * @param the_gson The Gson.
+   * @param the_writer The JSON writer.
+   * @param the_bmi The object to write.
+   */
+  @Override
+  public void write(final Gson the_gson, final JsonWriter the_writer, 
+                    final BallotManifestInfo the_bmi)
+      throws IOException {
+    the_writer.beginObject();
+    the_writer.name(ID).value(the_bmi.id());
+    the_writer.name(COUNTY_ID).value(the_bmi.countyID());
+    the_writer.name(SCANNER_ID).value(the_bmi.scannerID());
+    the_writer.name(BATCH_ID).value(the_bmi.batchID());
+    the_writer.name(BATCH_SIZE).value(the_bmi.batchSize());
+    the_writer.name(STORAGE_LOCATION).value(the_bmi.storageLocation());
+    the_writer.endObject();
+  }
+}
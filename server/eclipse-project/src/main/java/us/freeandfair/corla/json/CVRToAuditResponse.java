@@ -14,6 +14,8 @@ package us.freeandfair.corla.json;
 import java.io.Serializable;
 import java.util.Comparator;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import us.freeandfair.corla.util.SuppressFBWarnings;
 
 /**
@@ -25,6 +27,7 @@ import us.freeandfair.corla.util.SuppressFBWarnings;
 @SuppressWarnings({"PMD.UnusedPrivateField", "PMD.SingularField"})
 @SuppressFBWarnings(value = {"URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD"}, 
                     justification = "Field is read by Gson.")
+@JsonAdapter(CVRToAuditResponseJsonAdapter.class)
 public class CVRToAuditResponse {
   /**
    * The (first) audit sequence number.
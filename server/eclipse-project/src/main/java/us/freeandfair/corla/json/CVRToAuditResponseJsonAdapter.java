@@ -0,0 +1,128 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JSON adapter for ballot to audit list entries, which writes them without
+ * reflection.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class CVRToAuditResponseJsonAdapter 
+    extends AbstractStreamingJsonAdapter<CVRToAuditResponse> {
+  /**
+   * The "audit_sequence_number" string (for JSON serialization).
+   */
+  private static final String AUDIT_SEQUENCE_NUMBER = "audit_sequence_number";
+  
+  /**
+   * The "scanner_id" string (for JSON serialization).
+   */
+  private static final String SCANNER_ID = "scanner_id";
+  
+  /**
+   * The "batch_id" string (for JSON serialization).
+   */
+  private static final String BATCH_ID = "batch_id";
+  
+  /**
+   * The "record_id" string (for JSON serialization).
+   */
+  private static final String RECORD_ID = "record_id";
+  
+  /**
+   * The "imprinted_id" string (for JSON serialization).
+   */
+  private static final String IMPRINTED_ID = "imprinted_id";
+  
+  /**
+   * The "cvr_number" string (for JSON serialization).
+   */
+  private static final String CVR_NUMBER = "cvr_number";
+  
+  /**
+   * The "db_id" string (for JSON serialization).
+   */
+  private static final String DB_ID = "db_id";
+  
+  /**
+   * The "ballot_type" string (for JSON serialization).
+   */
+  private static final String BALLOT_TYPE = "ballot_type";
+  
+  /**
+   * The "storage_location" string (for JSON serialization).
+   */
+  private static final String STORAGE_LOCATION = "storage_location";
+  
+  /**
+   * The "audited" string (for JSON serialization).
+   */
+  private static final String AUDITED = "audited";
+  
+  /**
+   * The names of the fields, in the order they are written.
+   */
+  private static final List<String> FIELD_NAMES = 
+      Collections.unmodifiableList(Arrays.asList(AUDIT_SEQUENCE_NUMBER, SCANNER_ID, BATCH_ID,
+                                                 RECORD_ID, IMPRINTED_ID, CVR_NUMBER, DB_ID,
+                                                 BALLOT_TYPE, STORAGE_LOCATION, AUDITED));
+  
+  /**
+   * Constructs a new CVRToAuditResponseJsonAdapter.
+   */
+  public CVRToAuditResponseJsonAdapter() {
+    super(CVRToAuditResponse.class);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> fieldNames() {
+    return FIELD_NAMES;
+  }
+  
+  /**
+   * Writes a ballot to audit list entry.
+   * 
+   * @param the_gson The Gson.
+   * @param the_writer The JSON writer.
+   * @param the_response The object to write.
+   */
+  @Override
+  public void write(final Gson the_gson, final JsonWriter the_writer, 
+                    final CVRToAuditResponse the_response)
+      throws IOException {
+    the_writer.beginObject();
+    the_writer.name(AUDIT_SEQUENCE_NUMBER).value(the_response.my_audit_sequence_number);
+    the_writer.name(SCANNER_ID).value(the_response.my_scanner_id);
+    the_writer.name(BATCH_ID).value(the_response.my_batch_id);
+    the_writer.name(RECORD_ID).value(the_response.my_record_id);
+    the_writer.name(IMPRINTED_ID).value(the_response.my_imprinted_id);
+    the_writer.name(CVR_NUMBER).value(the_response.my_cvr_number);
+    the_writer.name(DB_ID).value(the_response.my_db_id);
+    the_writer.name(BALLOT_TYPE).value(the_response.my_ballot_type);
+    the_writer.name(STORAGE_LOCATION).value(the_response.my_storage_location);
+    the_writer.name(AUDITED).value(the_response.my_audited);
+    the_writer.endObject();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+
+import us.freeandfair.corla.util.SuppressFBWarnings;
+
+/**
+ * The response generated when second-level and query cache statistics 
+ * are requested.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField"})
+@SuppressFBWarnings(value = {"URF_UNREAD_FIELD"}, justification = "Field is read by Gson.")
+public class CacheStatisticsResponse {
+  /**
+   * A flag indicating whether statistics are being collected.
+   */
+  private final boolean my_statistics_enabled;
+  
+  /**
+   * The statistics for the second-level cache as a whole.
+   */
+  private final RegionStatistics my_second_level_cache;
+  
+  /**
+   * The statistics for the query cache.
+   */
+  private final RegionStatistics my_query_cache;
+  
+  /**
+   * The statistics for each second-level cache region, by region name.
+   */
+  private final SortedMap<String, RegionStatistics> my_regions;
+  
+  /**
+   * Constructs a new CacheStatisticsResponse.
+   * 
+   * @param the_statistics_enabled true if statistics are being collected,
+   * false otherwise.
+   * @param the_second_level_cache The second-level cache statistics.
+   * @param the_query_cache The query cache statistics.
+   * @param the_regions The per-region statistics.
+   */
+  protected CacheStatisticsResponse(final boolean the_statistics_enabled,
+                                    final RegionStatistics the_second_level_cache,
+                                    final RegionStatistics the_query_cache,
+                                    final SortedMap<String, RegionStatistics> the_regions) {
+    my_statistics_enabled = the_statistics_enabled;
+    my_second_level_cache = the_second_level_cache;
+    my_query_cache = the_query_cache;
+    my_regions = the_regions;
+  }
+  
+  /**
+   * Creates a CacheStatisticsResponse from the specified Hibernate statistics.
+   * 
+   * @param the_statistics The statistics.
+   * @return the response.
+   */
+  public static CacheStatisticsResponse createResponse(final Statistics the_statistics) {
+    final SortedMap<String, RegionStatistics> regions = new TreeMap<>();
+    for (final String name : the_statistics.getSecondLevelCacheRegionNames()) {
+      final SecondLevelCacheStatistics region = 
+          the_statistics.getSecondLevelCacheStatistics(name);
+      if (region != null) {
+        regions.put(name, new RegionStatistics(region.getHitCount(), 
+                                               region.getMissCount(),
+                                               region.getPutCount(),
+                                               region.getElementCountInMemory()));
+      }
+    }
+    return new CacheStatisticsResponse(the_statistics.isStatisticsEnabled(),
+        new RegionStatistics(the_statistics.getSecondLevelCacheHitCount(),
+                             the_statistics.getSecondLevelCacheMissCount(),
+                             the_statistics.getSecondLevelCachePutCount(),
+                             null),
+        new RegionStatistics(the_statistics.getQueryCacheHitCount(),
+                             the_statistics.getQueryCacheMissCount(),
+                             the_statistics.getQueryCachePutCount(),
+                             null),
+        regions);
+  }
+  
+  /**
+   * The hit, miss and put counts for a cache or cache region.
+   */
+  @SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField"})
+  @SuppressFBWarnings(value = {"URF_UNREAD_FIELD"}, 
+                      justification = "Field is read by Gson.")
+  public static class RegionStatistics {
+    /**
+     * The hit count.
+     */
+    private final long my_hits;
+    
+    /**
+     * The miss count.
+     */
+    private final long my_misses;
+    
+    /**
+     * The put count.
+     */
+    private final long my_puts;
+    
+    /**
+     * The number of elements in memory, if known.
+     */
+    private final Long my_elements_in_memory;
+    
+    /**
+     * Constructs a new RegionStatistics.
+     * 
+     * @param the_hits The hit count.
+     * @param the_misses The miss count.
+     * @param the_puts The put count.
+     * @param the_elements_in_memory The number of elements in memory, or null
+     * if it is not known.
+     */
+    public RegionStatistics(final long the_hits, final long the_misses,
+                            final long the_puts, final Long the_elements_in_memory) {
+      my_hits = the_hits;
+      my_misses = the_misses;
+      my_puts = the_puts;
+      my_elements_in_memory = the_elements_in_memory;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import us.freeandfair.corla.model.CastVoteRecord;
+
+/**
+ * JSON adapter for cast vote records, which writes them without reflection.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class CastVoteRecordJsonAdapter 
+    extends AbstractStreamingJsonAdapter<CastVoteRecord> {
+  /**
+   * The "id" string (for JSON serialization).
+   */
+  private static final String ID = "id";
+  
+  /**
+   * The "record_type" string (for JSON serialization).
+   */
+  private static final String RECORD_TYPE = "record_type";
+  
+  /**
+   * The "timestamp" string (for JSON serialization).
+   */
+  private static final String TIMESTAMP = "timestamp";
+  
+  /**
+   * The "county_id" string (for JSON serialization).
+   */
+  private static final String COUNTY_ID = "county_id";
+  
+  /**
+   * The "cvr_number" string (for JSON serialization).
+   */
+  private static final String CVR_NUMBER = "cvr_number";
+  
+  /**
+   * The "sequence_number" string (for JSON serialization).
+   */
+  private static final String SEQUENCE_NUMBER = "sequence_number";
+  
+  /**
+   * The "scanner_id" string (for JSON serialization).
+   */
+  private static final String SCANNER_ID = "scanner_id";
+  
+  /**
+   * The "batch_id" string (for JSON serialization).
+   */
+  private static final String BATCH_ID = "batch_id";
+  
+  /**
+   * The "record_id" string (for JSON serialization).
+   */
+  private static final String RECORD_ID = "record_id";
+  
+  /**
+   * The "imprinted_id" string (for JSON serialization).
+   */
+  private static final String IMPRINTED_ID = "imprinted_id";
+  
+  /**
+   * The "ballot_type" string (for JSON serialization).
+   */
+  private static final String BALLOT_TYPE = "ballot_type";
+  
+  /**
+   * The "contest_info" string (for JSON serialization).
+   */
+  private static final String CONTEST_INFO = "contest_info";
+  
+  /**
+   * The names of the fields, in the order they are written.
+   */
+  private static final List<String> FIELD_NAMES = 
+      Collections.unmodifiableList(Arrays.asList(ID, RECORD_TYPE, TIMESTAMP, COUNTY_ID,
+                                                 CVR_NUMBER, SEQUENCE_NUMBER, SCANNER_ID,
+                                                 BATCH_ID, RECORD_ID, IMPRINTED_ID,
+                                                 BALLOT_TYPE, CONTEST_INFO));
+  
+  /**
+   * Constructs a new CastVoteRecordJsonAdapter.
+   */
+  public CastVoteRecordJsonAdapter() {
+    super(CastVoteRecord.class);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> fieldNames() {
+    return FIELD_NAMES;
+  }
+  
+  /**
+   * Writes a cast vote record object.
+   * 
+   * @param the_gson The Gson.
+   * @param the_writer The JSON writer.
+   * @param the_cvr The object to write.
+   */
+  @Override
+  public void write(final Gson the_gson, final JsonWriter the_writer, 
+                    final CastVoteRecord the_cvr)
+      throws IOException {
+    the_writer.beginObject();
+    the_writer.name(ID).value(the_cvr.id());
+    writeField(the_gson, the_writer, RECORD_TYPE, the_cvr.recordType());
+    writeField(the_gson, the_writer, TIMESTAMP, the_cvr.timestamp());
+    the_writer.name(COUNTY_ID).value(the_cvr.countyID());
+    the_writer.name(CVR_NUMBER).value(the_cvr.cvrNumber());
+    the_writer.name(SEQUENCE_NUMBER).value(the_cvr.sequenceNumber());
+    the_writer.name(SCANNER_ID).value(the_cvr.scannerID());
+    the_writer.name(BATCH_ID).value(the_cvr.batchID());
+    the_writer.name(RECORD_ID).value(the_cvr.recordID());
+    the_writer.name(IMPRINTED_ID).value(the_cvr.imprintedID());
+    the_writer.name(BALLOT_TYPE).value(the_cvr.ballotType());
+    writeField(the_gson, the_writer, CONTEST_INFO, the_cvr.contestInfo());
+    the_writer.endObject();
+  }
+}
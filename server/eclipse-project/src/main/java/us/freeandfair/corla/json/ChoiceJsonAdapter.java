@@ -0,0 +1,91 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import us.freeandfair.corla.model.Choice;
+
+/**
+ * JSON adapter for contest choices, which writes them without reflection.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class ChoiceJsonAdapter extends AbstractStreamingJsonAdapter<Choice> {
+  /**
+   * The "name" string (for JSON serialization).
+   */
+  private static final String NAME = "name";
+  
+  /**
+   * The "description" string (for JSON serialization).
+   */
+  private static final String DESCRIPTION = "description";
+  
+  /**
+   * The "qualified_write_in" string (for JSON serialization).
+   */
+  private static final String QUALIFIED_WRITE_IN = "qualified_write_in";
+  
+  /**
+   * The "fictitious" string (for JSON serialization).
+   */
+  private static final String FICTITIOUS = "fictitious";
+  
+  /**
+   * The names of the fields, in the order they are written.
+   */
+  private static final List<String> FIELD_NAMES = 
+      Collections.unmodifiableList(Arrays.asList(NAME, DESCRIPTION, QUALIFIED_WRITE_IN,
+                                                 FICTITIOUS));
+  
+  /**
+   * Constructs a new ChoiceJsonAdapter.
+   */
+  public ChoiceJsonAdapter() {
+    super(Choice.class);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> fieldNames() {
+    return FIELD_NAMES;
+  }
+  
+  /**
+   * Writes a contest choice object.
+   * 
+   * @param the_gson The Gson.
+   * @param the_writer The JSON writer.
+   * @param the_choice The object to write.
+   */
+  @Override
+  public void write(final Gson the_gson, final JsonWriter the_writer, 
+                    final Choice the_choice)
+      throws IOException {
+    the_writer.beginObject();
+    the_writer.name(NAME).value(the_choice.name());
+    the_writer.name(DESCRIPTION).value(the_choice.description());
+    the_writer.name(QUALIFIED_WRITE_IN).value(the_choice.qualifiedWriteIn());
+    the_writer.name(FICTITIOUS).value(the_choice.fictitious());
+    the_writer.endObject();
+  }
+}
@@ -74,6 +74,11 @@ public final class ContestJsonAdapter extends TypeAdapter<Contest> {
    */
   private static final String SEQUENCE_NUMBER = "sequence_number";
   
+  /**
+   * The adapter for choices.
+   */
+  private static final ChoiceJsonAdapter CHOICE_ADAPTER = new ChoiceJsonAdapter();
+  
   /**
    * Writes a contest object.
    * 
@@ -94,7 +99,7 @@ public final class ContestJsonAdapter extends TypeAdapter<Contest> {
     the_writer.beginArray();
     for (final Choice c : the_contest.choices()) {
       if (!c.fictitious()) {
-        the_writer.jsonValue(Main.GSON.toJson(Persistence.unproxy(c)));
+        CHOICE_ADAPTER.write(Main.GSON, the_writer, c);
       }
     }
     the_writer.endArray();
@@ -21,6 +21,8 @@ import java.util.TreeMap;
 
 import javax.persistence.PersistenceException;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import us.freeandfair.corla.asm.ASMState;
 import us.freeandfair.corla.asm.ASMUtilities;
 import us.freeandfair.corla.asm.AuditBoardDashboardASM;
@@ -52,127 +54,128 @@ import us.freeandfair.corla.util.SuppressFBWarnings;
 @SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField",
     "PMD.CyclomaticComplexity", "PMD.TooManyFields"})
 @SuppressFBWarnings(value = {"URF_UNREAD_FIELD"}, justification = "Field is read by Gson.")
+@JsonAdapter(CountyDashboardRefreshResponseJsonAdapter.class)
 public class CountyDashboardRefreshResponse {
   /**
    * The county ID.
    */
-  private final Long my_id;
+  protected final Long my_id;
   
   /**
    * The ASM state.
    */
-  private final ASMState my_asm_state;
+  protected final ASMState my_asm_state;
   
   /**
    * The audit board ASM state.
    */
-  private final ASMState my_audit_board_asm_state;
+  protected final ASMState my_audit_board_asm_state;
   
   /**
    * The general information.
    * @todo this needs to be connected to something
    */
-  private final SortedMap<String, String> my_general_information;
+  protected final SortedMap<String, String> my_general_information;
   
   /**
    * The audit board members.
    */
-  private final AuditBoard my_audit_board;
+  protected final AuditBoard my_audit_board;
   
   /**
    * The ballot manifest file.
    */
-  private final UploadedFile my_ballot_manifest_file;
+  protected final UploadedFile my_ballot_manifest_file;
   
   /**
    * The CVR export file.
    */
-  private final UploadedFile my_cvr_export_file;
+  protected final UploadedFile my_cvr_export_file;
   
   /**
    * The contests on the ballot (by ID).
    */
-  private final List<Long> my_contests;
+  protected final List<Long> my_contests;
   
   /**
    * The contests under audit, with reasons.
    */
-  private final SortedMap<Long, String> my_contests_under_audit;
+  protected final SortedMap<Long, String> my_contests_under_audit;
   
   /**
    * The date and time of the audit. 
    */
-  private final Instant my_audit_time;
+  protected final Instant my_audit_time;
   
   /**
    * The estimated number of ballots to audit.
    */
-  private final Integer my_estimated_ballots_to_audit;
+  protected final Integer my_estimated_ballots_to_audit;
   
   /**
    * The optimistic number of ballots to audit.
    */
-  private final Integer my_optimistic_ballots_to_audit;
+  protected final Integer my_optimistic_ballots_to_audit;
   
   /**
    * The ballots remaining in the round.
    */
-  private final Integer my_ballots_remaining_in_round;
+  protected final Integer my_ballots_remaining_in_round;
   
   /**
    * The number of ballots represented by the uploaded ballot manifest.
    */
-  private final Integer my_ballot_manifest_count;
+  protected final Integer my_ballot_manifest_count;
   
   /**
    * The number of cvrs in the uploaded CVR export.
    */
-  private final Integer my_cvr_export_count;
+  protected final Integer my_cvr_export_count;
   
   /**
    * The CVR import status.
    */
-  private final ImportStatus my_cvr_import_status; 
+  protected final ImportStatus my_cvr_import_status; 
   
   /**
    * The number of ballots audited.
    */
-  private final Integer my_audited_ballot_count;
+  protected final Integer my_audited_ballot_count;
   
   /**
    * The numbers of discrepancies found, mapped by audit selection.
    */
-  private final Map<AuditSelection, Integer> my_discrepancy_count;
+  protected final Map<AuditSelection, Integer> my_discrepancy_count;
   
   /**
    * The number of disagreements found, mapped by audit selection.
    */
-  private final Map<AuditSelection, Integer> my_disagreement_count;
+  protected final Map<AuditSelection, Integer> my_disagreement_count;
 
   /**
    * The current ballot under audit.
    */
-  private final Long my_ballot_under_audit_id;
+  protected final Long my_ballot_under_audit_id;
   
   /**
    * The audited prefix length.
    */
-  private final Integer my_audited_prefix_length;
+  protected final Integer my_audited_prefix_length;
   
   /**
    * The audit rounds.
    */
-  private final List<Round> my_rounds;
+  protected final List<Round> my_rounds;
   
   /** 
    * The current audit round.
    */
-  private final Round my_current_round;
+  protected final Round my_current_round;
   
   /**
    * The audit info.
    */
-  private final AuditInfo my_audit_info;
+  protected final AuditInfo my_audit_info;
   
   /**
    * Constructs a new CountyDashboardRefreshResponse.
@@ -356,10 +359,15 @@ public class CountyDashboardRefreshResponse {
   
   /**
    * Gets the abbreviated CountyDashboardRefreshResponse for the specified County 
-   * dashboard. The abbreviated response leaves out information about contests,
-   * general information, audit board information, and specific ballots to audit.
+   * dashboard, with the county and ASM states already loaded (for example, 
+   * those of all counties at once). The abbreviated response leaves out 
+   * information about contests, general information, audit board information,
+   * and specific ballots to audit.
    * 
+   * @param the_county The county.
    * @param the_dashboard The dashboard.
+   * @param the_asm_state The county dashboard ASM state.
+   * @param the_audit_board_asm_state The audit board dashboard ASM state.
    * @return the response.
    * @exception NullPointerException if necessary information to construct the
    * response does not exist.
@@ -368,19 +376,11 @@ public class CountyDashboardRefreshResponse {
   // so we are ignoring the cyclomatic complexity checks for now
   @SuppressWarnings({"PMD.NPathComplexity", "PMD.CyclomaticComplexity"})
   public static CountyDashboardRefreshResponse 
-      createAbbreviatedResponse(final CountyDashboard the_dashboard) {
-    final Long county_id = the_dashboard.id();
-    final County county = Persistence.getByID(county_id, County.class);
-
-    if (county == null) {
-      throw new PersistenceException("unable to read county dashboard state");
-    }
-
-    // ASM states
-    final CountyDashboardASM asm = ASMUtilities.asmFor(CountyDashboardASM.class, 
-                                                       county_id.toString());
-    final AuditBoardDashboardASM audit_board_asm = 
-        ASMUtilities.asmFor(AuditBoardDashboardASM.class, county_id.toString());
+      createAbbreviatedResponse(final County the_county,
+                                final CountyDashboard the_dashboard,
+                                final ASMState the_asm_state,
+                                final ASMState the_audit_board_asm_state) {
+    final Long county_id = the_county.id();
     
     // sanitized rounds
     
@@ -394,8 +394,8 @@ public class CountyDashboardRefreshResponse {
     }
     
     return new CountyDashboardRefreshResponse(county_id, 
-                                              asm.currentState(),
-                                              audit_board_asm.currentState(),
+                                              the_asm_state,
+                                              the_audit_board_asm_state,
                                               null,
                                               the_dashboard.currentAuditBoard(),
                                               the_dashboard.manifestFile(),
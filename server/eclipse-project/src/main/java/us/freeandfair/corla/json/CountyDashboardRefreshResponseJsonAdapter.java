@@ -0,0 +1,227 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JSON adapter for county dashboard refresh responses, which writes them
+ * without reflection.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class CountyDashboardRefreshResponseJsonAdapter 
+    extends AbstractStreamingJsonAdapter<CountyDashboardRefreshResponse> {
+  /**
+   * The "id" string (for JSON serialization).
+   */
+  private static final String ID = "id";
+  
+  /**
+   * The "asm_state" string (for JSON serialization).
+   */
+  private static final String ASM_STATE = "asm_state";
+  
+  /**
+   * The "audit_board_asm_state" string (for JSON serialization).
+   */
+  private static final String AUDIT_BOARD_ASM_STATE = "audit_board_asm_state";
+  
+  /**
+   * The "general_information" string (for JSON serialization).
+   */
+  private static final String GENERAL_INFORMATION = "general_information";
+  
+  /**
+   * The "audit_board" string (for JSON serialization).
+   */
+  private static final String AUDIT_BOARD = "audit_board";
+  
+  /**
+   * The "ballot_manifest_file" string (for JSON serialization).
+   */
+  private static final String BALLOT_MANIFEST_FILE = "ballot_manifest_file";
+  
+  /**
+   * The "cvr_export_file" string (for JSON serialization).
+   */
+  private static final String CVR_EXPORT_FILE = "cvr_export_file";
+  
+  /**
+   * The "contests" string (for JSON serialization).
+   */
+  private static final String CONTESTS = "contests";
+  
+  /**
+   * The "contests_under_audit" string (for JSON serialization).
+   */
+  private static final String CONTESTS_UNDER_AUDIT = "contests_under_audit";
+  
+  /**
+   * The "audit_time" string (for JSON serialization).
+   */
+  private static final String AUDIT_TIME = "audit_time";
+  
+  /**
+   * The "estimated_ballots_to_audit" string (for JSON serialization).
+   */
+  private static final String ESTIMATED_BALLOTS_TO_AUDIT = "estimated_ballots_to_audit";
+  
+  /**
+   * The "optimistic_ballots_to_audit" string (for JSON serialization).
+   */
+  private static final String OPTIMISTIC_BALLOTS_TO_AUDIT = "optimistic_ballots_to_audit";
+  
+  /**
+   * The "ballots_remaining_in_round" string (for JSON serialization).
+   */
+  private static final String BALLOTS_REMAINING_IN_ROUND = "ballots_remaining_in_round";
+  
+  /**
+   * The "ballot_manifest_count" string (for JSON serialization).
+   */
+  private static final String BALLOT_MANIFEST_COUNT = "ballot_manifest_count";
+  
+  /**
+   * The "cvr_export_count" string (for JSON serialization).
+   */
+  private static final String CVR_EXPORT_COUNT = "cvr_export_count";
+  
+  /**
+   * The "cvr_import_status" string (for JSON serialization).
+   */
+  private static final String CVR_IMPORT_STATUS = "cvr_import_status";
+  
+  /**
+   * The "audited_ballot_count" string (for JSON serialization).
+   */
+  private static final String AUDITED_BALLOT_COUNT = "audited_ballot_count";
+  
+  /**
+   * The "discrepancy_count" string (for JSON serialization).
+   */
+  private static final String DISCREPANCY_COUNT = "discrepancy_count";
+  
+  /**
+   * The "disagreement_count" string (for JSON serialization).
+   */
+  private static final String DISAGREEMENT_COUNT = "disagreement_count";
+  
+  /**
+   * The "ballot_under_audit_id" string (for JSON serialization).
+   */
+  private static final String BALLOT_UNDER_AUDIT_ID = "ballot_under_audit_id";
+  
+  /**
+   * The "audited_prefix_length" string (for JSON serialization).
+   */
+  private static final String AUDITED_PREFIX_LENGTH = "audited_prefix_length";
+  
+  /**
+   * The "rounds" string (for JSON serialization).
+   */
+  private static final String ROUNDS = "rounds";
+  
+  /**
+   * The "current_round" string (for JSON serialization).
+   */
+  private static final String CURRENT_ROUND = "current_round";
+  
+  /**
+   * The "audit_info" string (for JSON serialization).
+   */
+  private static final String AUDIT_INFO = "audit_info";
+  
+  /**
+   * The names of the fields, in the order they are written.
+   */
+  private static final List<String> FIELD_NAMES = 
+      Collections.unmodifiableList(Arrays.asList(ID, ASM_STATE, AUDIT_BOARD_ASM_STATE,
+                                                 GENERAL_INFORMATION, AUDIT_BOARD,
+                                                 BALLOT_MANIFEST_FILE, CVR_EXPORT_FILE,
+                                                 CONTESTS, CONTESTS_UNDER_AUDIT, AUDIT_TIME,
+                                                 ESTIMATED_BALLOTS_TO_AUDIT,
+                                                 OPTIMISTIC_BALLOTS_TO_AUDIT,
+                                                 BALLOTS_REMAINING_IN_ROUND,
+                                                 BALLOT_MANIFEST_COUNT, CVR_EXPORT_COUNT,
+                                                 CVR_IMPORT_STATUS, AUDITED_BALLOT_COUNT,
+                                                 DISCREPANCY_COUNT, DISAGREEMENT_COUNT,
+                                                 BALLOT_UNDER_AUDIT_ID, AUDITED_PREFIX_LENGTH,
+                                                 ROUNDS, CURRENT_ROUND, AUDIT_INFO));
+  
+  /**
+   * Constructs a new CountyDashboardRefreshResponseJsonAdapter.
+   */
+  public CountyDashboardRefreshResponseJsonAdapter() {
+    super(CountyDashboardRefreshResponse.class);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> fieldNames() {
+    return FIELD_NAMES;
+  }
+  
+  /**
+   * Writes a county dashboard refresh response.
+   * 
+   * @param the_gson The Gson.
+   * @param the_writer The JSON writer.
+   * @param the_response The object to write.
+   */
+  @Override
+  public void write(final Gson the_gson, final JsonWriter the_writer, 
+                    final CountyDashboardRefreshResponse the_response)
+      throws IOException {
+    the_writer.beginObject();
+    the_writer.name(ID).value(the_response.my_id);
+    writeField(the_gson, the_writer, ASM_STATE, the_response.my_asm_state);
+    writeField(the_gson, the_writer, AUDIT_BOARD_ASM_STATE,
+               the_response.my_audit_board_asm_state);
+    writeField(the_gson, the_writer, GENERAL_INFORMATION, the_response.my_general_information);
+    writeField(the_gson, the_writer, AUDIT_BOARD, the_response.my_audit_board);
+    writeField(the_gson, the_writer, BALLOT_MANIFEST_FILE,
+               the_response.my_ballot_manifest_file);
+    writeField(the_gson, the_writer, CVR_EXPORT_FILE, the_response.my_cvr_export_file);
+    writeField(the_gson, the_writer, CONTESTS, the_response.my_contests);
+    writeField(the_gson, the_writer, CONTESTS_UNDER_AUDIT,
+               the_response.my_contests_under_audit);
+    writeField(the_gson, the_writer, AUDIT_TIME, the_response.my_audit_time);
+    the_writer.name(ESTIMATED_BALLOTS_TO_AUDIT).
+        value(the_response.my_estimated_ballots_to_audit);
+    the_writer.name(OPTIMISTIC_BALLOTS_TO_AUDIT).
+        value(the_response.my_optimistic_ballots_to_audit);
+    the_writer.name(BALLOTS_REMAINING_IN_ROUND).
+        value(the_response.my_ballots_remaining_in_round);
+    the_writer.name(BALLOT_MANIFEST_COUNT).value(the_response.my_ballot_manifest_count);
+    the_writer.name(CVR_EXPORT_COUNT).value(the_response.my_cvr_export_count);
+    writeField(the_gson, the_writer, CVR_IMPORT_STATUS, the_response.my_cvr_import_status);
+    the_writer.name(AUDITED_BALLOT_COUNT).value(the_response.my_audited_ballot_count);
+    writeField(the_gson, the_writer, DISCREPANCY_COUNT, the_response.my_discrepancy_count);
+    writeField(the_gson, the_writer, DISAGREEMENT_COUNT, the_response.my_disagreement_count);
+    the_writer.name(BALLOT_UNDER_AUDIT_ID).value(the_response.my_ballot_under_audit_id);
+    the_writer.name(AUDITED_PREFIX_LENGTH).value(the_response.my_audited_prefix_length);
+    writeField(the_gson, the_writer, ROUNDS, the_response.my_rounds);
+    writeField(the_gson, the_writer, CURRENT_ROUND, the_response.my_current_round);
+    writeField(the_gson, the_writer, AUDIT_INFO, the_response.my_audit_info);
+    the_writer.endObject();
+  }
+}
@@ -0,0 +1,442 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import us.freeandfair.corla.asm.DoSDashboardASM;
+import us.freeandfair.corla.asm.PersistentASMState;
+import us.freeandfair.corla.model.BallotManifestInfo;
+import us.freeandfair.corla.model.CVRAuditInfo;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CountyContestComparisonAudit;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.model.DoSDashboard;
+import us.freeandfair.corla.model.LogEntry;
+import us.freeandfair.corla.persistence.EntityChanges;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.persistence.PersistentEntity;
+
+/**
+ * A cache of serialized dashboard refresh responses. Each cached response is
+ * tagged with the version of the dashboard it was built from and with
+ * generation counters that are advanced whenever a transaction that changes
+ * an entity the response depends on commits; a cached response is served
+ * only while its tag matches the current one. The generations for a request
+ * are captured before its transaction begins, so that a response is never
+ * tagged with generations newer than the data it is built from, and a
+ * response built concurrently with a commit is never served once that
+ * commit is visible. Because the generations count commits on this server's
+ * main database, nothing is cached or tagged when read-only transactions run
+ * on a replica that may lag behind it. Listeners can be registered to learn
+ * which dashboards each commit changes.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class DashboardRefreshCache {
+  /**
+   * The current generations of changes; replaced, never modified, when a
+   * commit advances them.
+   */
+  private static final AtomicReference<Generations> GENERATIONS =
+      new AtomicReference<>(new Generations(0, 0, new HashMap<>()));
+
+  /**
+   * The generations captured for the request on the current thread, or null
+   * if responses must not be cached or tagged.
+   */
+  private static final ThreadLocal<Generations> CAPTURED = new ThreadLocal<>();
+
+  /**
+   * The cached county dashboard refresh responses, by county ID.
+   */
+  private static final Map<Long, Entry> COUNTY_RESPONSES = new ConcurrentHashMap<>();
+
+  /**
+   * The cached DoS dashboard refresh response.
+   */
+  private static final AtomicReference<Entry> DOS_RESPONSE = new AtomicReference<>();
+
+  /**
+   * The registered listeners.
+   */
+  private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+  static {
+    EntityChanges.addListener(DashboardRefreshCache::invalidate);
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private DashboardRefreshCache() {
+    // do nothing
+  }
+
+  /**
+   * Captures the current generations for the request on the current thread.
+   * This must be called before the request's transaction reads anything, 
+   * and the tags and responses for the request are based on the captured 
+   * generations.
+   */
+  public static void capture() {
+    if (Persistence.readsMayLag()) {
+      CAPTURED.remove();
+    } else {
+      CAPTURED.set(GENERATIONS.get());
+    }
+  }
+
+  /**
+   * Gets the serialized refresh response for the specified county dashboard,
+   * from the cache if possible.
+   * 
+   * @param the_dashboard The dashboard.
+   * @param the_builder A builder for the serialized response, used if there
+   * is no current cached response.
+   * @return the serialized response.
+   */
+  public static String countyResponse(final CountyDashboard the_dashboard,
+                                      final Supplier<String> the_builder) {
+    final String tag = countyTag(the_dashboard);
+    if (tag == null) {
+      return the_builder.get();
+    }
+    Entry entry = COUNTY_RESPONSES.get(the_dashboard.id());
+    if (entry == null || !entry.tag().equals(tag)) {
+      entry = new Entry(tag, the_builder.get());
+      COUNTY_RESPONSES.put(the_dashboard.id(), entry);
+    }
+    return entry.json();
+  }
+
+  /**
+   * Gets the serialized refresh response for the DoS dashboard, from the
+   * cache if possible.
+   * 
+   * @param the_dashboard The dashboard.
+   * @param the_builder A builder for the serialized response, used if there
+   * is no current cached response.
+   * @return the serialized response.
+   */
+  public static String dosResponse(final DoSDashboard the_dashboard,
+                                   final Supplier<String> the_builder) {
+    final String tag = dosTag(the_dashboard);
+    if (tag == null) {
+      return the_builder.get();
+    }
+    Entry entry = DOS_RESPONSE.get();
+    if (entry == null || !entry.tag().equals(tag)) {
+      entry = new Entry(tag, the_builder.get());
+      DOS_RESPONSE.set(entry);
+    }
+    return entry.json();
+  }
+
+  /**
+   * Registers a listener to be notified, on the committing thread, of the 
+   * dashboards changed by each commit.
+   * 
+   * @param the_listener The listener.
+   */
+  public static void addListener(final Listener the_listener) {
+    LISTENERS.add(the_listener);
+  }
+
+  /**
+   * @param the_dashboard The county dashboard.
+   * @return the tag for the refresh response of the county dashboard, based
+   * on the generations captured for the current request, or null if the
+   * response must not be cached or tagged.
+   */
+  public static String countyTag(final CountyDashboard the_dashboard) {
+    final Generations captured = CAPTURED.get();
+    String result = null;
+    if (captured != null) {
+      result = captured.global() + "-" + captured.county(the_dashboard.id()) + 
+               "-" + the_dashboard.version();
+    }
+    return result;
+  }
+
+  /**
+   * @param the_dashboard The DoS dashboard.
+   * @return the tag for the refresh response of the DoS dashboard, based on
+   * the generations captured for the current request, or null if the 
+   * response must not be cached or tagged.
+   */
+  public static String dosTag(final DoSDashboard the_dashboard) {
+    final Generations captured = CAPTURED.get();
+    String result = null;
+    if (captured != null) {
+      result = captured.global() + "-" + captured.dos() + "-" + the_dashboard.version();
+    }
+    return result;
+  }
+
+  /**
+   * Advances the generations affected by the specified committed changes.
+   * Changes to county dashboards and their state machines affect the
+   * corresponding county dashboard and the DoS dashboard; changes to the
+   * DoS dashboard state machine and to county contest audits affect only
+   * the DoS dashboard; changes to ballot-level data affect neither, because
+   * they are always accompanied by changes to dashboards; and any other
+   * changes affect all dashboards.
+   * 
+   * @param the_changes The changes.
+   */
+  private static void invalidate(final EntityChanges the_changes) {
+    final Affected affected = new Affected();
+    for (final PersistentEntity entity : the_changes.entities()) {
+      affected.add(entity);
+    }
+    
+    GENERATIONS.updateAndGet(generations -> generations.advance(affected));
+    if (affected.allCounties() || affected.dos()) {
+      for (final Listener listener : LISTENERS) {
+        listener.dashboardsChanged(affected.counties(), affected.allCounties());
+      }
+    }
+  }
+
+  /**
+   * A listener for changes to dashboards.
+   */
+  public interface Listener {
+    /**
+     * Notifies the listener that a commit has changed dashboards. The DoS
+     * dashboard changes whenever any dashboard does.
+     * 
+     * @param the_county_ids The IDs of the changed county dashboards.
+     * @param the_all_counties true if all county dashboards may have changed,
+     * false otherwise.
+     */
+    void dashboardsChanged(Set<Long> the_county_ids, boolean the_all_counties);
+  }
+
+  /**
+   * The dashboards affected by a set of changes.
+   */
+  private static class Affected {
+    /**
+     * The IDs of the affected county dashboards.
+     */
+    private final Set<Long> my_counties = new HashSet<>();
+
+    /**
+     * A flag indicating whether all dashboards are affected.
+     */
+    private boolean my_all_counties;
+
+    /**
+     * A flag indicating whether the DoS dashboard is affected.
+     */
+    private boolean my_dos;
+
+    /**
+     * Adds the dashboards affected by a change to the specified entity.
+     * 
+     * @param the_entity The entity.
+     */
+    public void add(final PersistentEntity the_entity) {
+      if (the_entity instanceof CountyDashboard) {
+        my_counties.add(the_entity.id());
+        my_dos = true;
+      } else if (the_entity instanceof PersistentASMState) {
+        addASM((PersistentASMState) the_entity);
+      } else if (the_entity instanceof CountyContestComparisonAudit) {
+        my_dos = true;
+      } else if (!isBallotData(the_entity)) {
+        my_all_counties = true;
+      }
+    }
+
+    /**
+     * Adds the dashboards affected by a change to the specified ASM state.
+     * 
+     * @param the_state The ASM state.
+     */
+    private void addASM(final PersistentASMState the_state) {
+      my_dos = true;
+      if (!DoSDashboardASM.IDENTITY.equals(the_state.asmIdentity())) {
+        try {
+          my_counties.add(Long.valueOf(the_state.asmIdentity()));
+        } catch (final NumberFormatException e) {
+          // we don't know which dashboard this is, so it could be any of them
+          my_all_counties = true;
+        }
+      }
+    }
+
+    /**
+     * @param the_entity An entity.
+     * @return true if the entity is ballot-level data, false otherwise.
+     */
+    private static boolean isBallotData(final PersistentEntity the_entity) {
+      return the_entity instanceof LogEntry ||
+             the_entity instanceof CastVoteRecord ||
+             the_entity instanceof CVRAuditInfo ||
+             the_entity instanceof BallotManifestInfo;
+    }
+
+    /**
+     * @return the IDs of the affected county dashboards.
+     */
+    public Set<Long> counties() {
+      return my_counties;
+    }
+
+    /**
+     * @return true if all dashboards are affected, false otherwise.
+     */
+    public boolean allCounties() {
+      return my_all_counties;
+    }
+
+    /**
+     * @return true if the DoS dashboard is affected, false otherwise.
+     */
+    public boolean dos() {
+      return my_dos;
+    }
+  }
+
+  /**
+   * An immutable set of generations.
+   */
+  private static class Generations {
+    /**
+     * The generation of changes that affect all dashboards.
+     */
+    private final long my_global;
+
+    /**
+     * The generation of changes that affect the DoS dashboard.
+     */
+    private final long my_dos;
+
+    /**
+     * The generations of changes that affect each county dashboard; a
+     * county that does not appear is at generation 0.
+     */
+    private final Map<Long, Long> my_counties;
+
+    /**
+     * Constructs a new Generations.
+     * 
+     * @param the_global The global generation.
+     * @param the_dos The DoS dashboard generation.
+     * @param the_counties The county dashboard generations, which are not
+     * copied.
+     */
+    Generations(final long the_global, final long the_dos,
+                final Map<Long, Long> the_counties) {
+      my_global = the_global;
+      my_dos = the_dos;
+      my_counties = the_counties;
+    }
+
+    /**
+     * @return the global generation.
+     */
+    public long global() {
+      return my_global;
+    }
+
+    /**
+     * @return the DoS dashboard generation.
+     */
+    public long dos() {
+      return my_dos;
+    }
+
+    /**
+     * @param the_county_id A county ID.
+     * @return the generation of the county's dashboard.
+     */
+    public long county(final Long the_county_id) {
+      return my_counties.getOrDefault(the_county_id, 0L);
+    }
+
+    /**
+     * @param the_affected The dashboards affected by a commit.
+     * @return the generations after the commit.
+     */
+    public Generations advance(final Affected the_affected) {
+      long global = my_global;
+      if (the_affected.allCounties()) {
+        global = global + 1;
+      }
+      long dos = my_dos;
+      if (the_affected.dos()) {
+        dos = dos + 1;
+      }
+      Map<Long, Long> counties = my_counties;
+      if (!the_affected.counties().isEmpty()) {
+        counties = new HashMap<>(my_counties);
+        for (final Long county : the_affected.counties()) {
+          counties.merge(county, 1L, Long::sum);
+        }
+      }
+      return new Generations(global, dos, counties);
+    }
+  }
+
+  /**
+   * A cached response and its tag.
+   */
+  private static class Entry {
+    /**
+     * The tag.
+     */
+    private final String my_tag;
+
+    /**
+     * The serialized response.
+     */
+    private final String my_json;
+
+    /**
+     * Constructs a new Entry.
+     * 
+     * @param the_tag The tag.
+     * @param the_json The serialized response.
+     */
+    Entry(final String the_tag, final String the_json) {
+      my_tag = the_tag;
+      my_json = the_json;
+    }
+
+    /**
+     * @return the tag.
+     */
+    public String tag() {
+      return my_tag;
+    }
+
+    /**
+     * @return the serialized response.
+     */
+    public String json() {
+      return my_json;
+    }
+  }
+}
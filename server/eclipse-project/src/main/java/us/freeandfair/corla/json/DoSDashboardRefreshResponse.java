@@ -14,19 +14,28 @@ package us.freeandfair.corla.json;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import javax.persistence.PersistenceException;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import us.freeandfair.corla.asm.ASMState;
 import us.freeandfair.corla.asm.ASMUtilities;
+import us.freeandfair.corla.asm.AbstractStateMachine;
+import us.freeandfair.corla.asm.AuditBoardDashboardASM;
+import us.freeandfair.corla.asm.CountyDashboardASM;
 import us.freeandfair.corla.asm.DoSDashboardASM;
+import us.freeandfair.corla.asm.PersistentASMState;
 import us.freeandfair.corla.model.AuditInfo;
 import us.freeandfair.corla.model.AuditReason;
 import us.freeandfair.corla.model.AuditType;
+import us.freeandfair.corla.model.Contest;
 import us.freeandfair.corla.model.ContestToAudit;
 import us.freeandfair.corla.model.County;
 import us.freeandfair.corla.model.CountyContestComparisonAudit;
@@ -34,6 +43,8 @@ import us.freeandfair.corla.model.CountyDashboard;
 import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.CountyContestComparisonAuditQueries;
+import us.freeandfair.corla.query.CountyDashboardQueries;
+import us.freeandfair.corla.query.PersistentASMStateQueries;
 import us.freeandfair.corla.util.SuppressFBWarnings;
 
 /**
@@ -42,7 +53,9 @@ import us.freeandfair.corla.util.SuppressFBWarnings;
  * @author Daniel M. Zimmerman <dmz@freeandfair.us>
  * @version 1.0.0
  */
-@SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField"})
+@JsonAdapter(DoSDashboardRefreshResponseJsonAdapter.class)
+@SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField",
+    "PMD.ExcessiveImports"})
 @SuppressFBWarnings({"URF_UNREAD_FIELD",
 // Justification: Field is read by Gson.
     "SF_SWITCH_NO_DEFAULT"})
@@ -52,52 +65,52 @@ public class DoSDashboardRefreshResponse {
   /**
    * The ASM state.
    */
-  private final ASMState my_asm_state;
+  protected final ASMState my_asm_state;
   
   /**
    * A map from audited contests to audit reasons.
    */
-  private final SortedMap<Long, AuditReason> my_audited_contests;
+  protected final SortedMap<Long, AuditReason> my_audited_contests;
   
   /**
    * A map from audited contests to estimated ballots left to audit.
    */
-  private final SortedMap<Long, Integer> my_estimated_ballots_to_audit;
+  protected final SortedMap<Long, Integer> my_estimated_ballots_to_audit;
   
   /**
    * A map from audited contests to optimistic ballots left to audit.
    */
-  private final SortedMap<Long, Integer> my_optimistic_ballots_to_audit;
+  protected final SortedMap<Long, Integer> my_optimistic_ballots_to_audit;
   
   /**
    * A map from audited contests to discrepancy count maps.
    */
-  private final SortedMap<Long, Map<Integer, Integer>> my_discrepancy_count;
+  protected final SortedMap<Long, Map<Integer, Integer>> my_discrepancy_count;
   
   /**
    * A map from county IDs to county status.
    */
-  private final SortedMap<Long, CountyDashboardRefreshResponse> my_county_status;
+  protected final SortedMap<Long, CountyDashboardRefreshResponse> my_county_status;
   
   /**
    * A set of contests selected for full hand count.
    */
-  private final List<Long> my_hand_count_contests;
+  protected final List<Long> my_hand_count_contests;
   
   /**
    * The audit info.
    */
-  private final AuditInfo my_audit_info;
+  protected final AuditInfo my_audit_info;
   
   /**
    * The audit reasons for the contests under audit.
    */
-  private final SortedMap<Long, AuditReason> my_audit_reasons;
+  protected final SortedMap<Long, AuditReason> my_audit_reasons;
   
   /**
    * The audit types for the contests under audit.
    */
-  private final SortedMap<Long, AuditType> my_audit_types;
+  protected final SortedMap<Long, AuditType> my_audit_types;
   
   /**
    * Constructs a new DosDashboardRefreshResponse.
@@ -165,6 +178,8 @@ public class DoSDashboardRefreshResponse {
     final SortedMap<Long, AuditType> audit_types = 
         new TreeMap<Long, AuditType>();
     
+    final Map<Long, List<CountyContestComparisonAudit>> comparison_audits = 
+        comparisonAudits(the_dashboard);
     for (final ContestToAudit cta : the_dashboard.contestsToAudit()) {
       if (cta.audit() != AuditType.NONE) {
         audit_reasons.put(cta.contest().id(), cta.reason());
@@ -177,7 +192,8 @@ public class DoSDashboardRefreshResponse {
           int estimated = Integer.MIN_VALUE;
           audited_contests.put(cta.contest().id(), cta.reason());
           for (final CountyContestComparisonAudit ccca : 
-               CountyContestComparisonAuditQueries.matching(cta.contest())) {
+               comparison_audits.getOrDefault(cta.contest().id(), 
+                                              new ArrayList<>())) {
             optimistic = 
                 Math.max(optimistic, 
                          Math.max(0, ccca.optimisticSamplesToAudit() - 
@@ -230,7 +246,38 @@ public class DoSDashboardRefreshResponse {
   }
   
   /**
-   * Gets the county statuses for all counties in the database.
+   * Gets the county contest comparison audits for all the contests of the 
+   * specified dashboard that are under comparison audit, with a single query.
+   * 
+   * @param the_dashboard The dashboard.
+   * @return a map from contest identifiers to comparison audits.
+   */
+  private static Map<Long, List<CountyContestComparisonAudit>> 
+      comparisonAudits(final DoSDashboard the_dashboard) {
+    final Set<Contest> contests = new HashSet<>();
+    for (final ContestToAudit cta : the_dashboard.contestsToAudit()) {
+      if (cta.audit() == AuditType.COMPARISON) {
+        contests.add(cta.contest());
+      }
+    }
+    
+    final List<CountyContestComparisonAudit> cccas = 
+        CountyContestComparisonAuditQueries.matching(contests);
+    if (cccas == null) {
+      throw new PersistenceException("unable to read county comparison audits.");
+    }
+    final Map<Long, List<CountyContestComparisonAudit>> result = new HashMap<>();
+    for (final CountyContestComparisonAudit ccca : cccas) {
+      result.computeIfAbsent(ccca.contest().id(), the_id -> new ArrayList<>()).add(ccca);
+    }
+    return result;
+  }
+  
+  /**
+   * Gets the county statuses for all counties in the database. The counties,
+   * county dashboards (with everything their statuses include) and ASM 
+   * states are loaded with a fixed number of queries, rather than some
+   * number per county.
    * 
    * @return a map from county identifiers to statuses.
    */
@@ -238,17 +285,54 @@ public class DoSDashboardRefreshResponse {
     final SortedMap<Long, CountyDashboardRefreshResponse> status_map = 
         new TreeMap<Long, CountyDashboardRefreshResponse>();
     final List<County> counties = Persistence.getAll(County.class);
+    final Map<Long, CountyDashboard> dashboards = new HashMap<>();
+    for (final CountyDashboard db : CountyDashboardQueries.allWithStatus()) {
+      dashboards.put(db.id(), db);
+    }
+    final Map<String, PersistentASMState> asm_states = 
+        PersistentASMStateQueries.getAll(CountyDashboardASM.class);
+    final Map<String, PersistentASMState> audit_board_asm_states = 
+        PersistentASMStateQueries.getAll(AuditBoardDashboardASM.class);
     
     for (final County c : counties) {
-      final CountyDashboard db = Persistence.getByID(c.id(), CountyDashboard.class);
+      final CountyDashboard db = dashboards.get(c.id());
       if (db == null) {
         throw new PersistenceException("unable to read county dashboard state.");
-      } else {   
+      } else {
+        final String identity = db.id().toString();
         status_map.put(db.id(), 
-                       CountyDashboardRefreshResponse.createAbbreviatedResponse(db));
+                       CountyDashboardRefreshResponse.createAbbreviatedResponse(
+                           c, db, 
+                           asmState(asm_states, CountyDashboardASM.class, identity),
+                           asmState(audit_board_asm_states, AuditBoardDashboardASM.class,
+                                    identity)));
       }
     }
     
     return status_map;
   }
+  
+  /**
+   * Gets the current state of an ASM from a map of loaded ASM states,
+   * falling back to loading the ASM individually if its state is not in 
+   * the map.
+   * 
+   * @param the_states The loaded ASM states, by identity.
+   * @param the_class The class of the ASM.
+   * @param the_identity The identity of the ASM.
+   * @return the current state.
+   */
+  private static ASMState asmState(final Map<String, PersistentASMState> the_states,
+                                   final Class<? extends AbstractStateMachine> the_class,
+                                   final String the_identity) {
+    final PersistentASMState state = the_states.get(the_identity);
+    ASMState result = null;
+    if (state != null) {
+      result = PersistentASMState.asmStateFor(state);
+    }
+    if (result == null) {
+      result = ASMUtilities.asmFor(the_class, the_identity).currentState();
+    }
+    return result;
+  }
 }
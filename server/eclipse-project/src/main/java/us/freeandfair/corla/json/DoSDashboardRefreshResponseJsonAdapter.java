@@ -0,0 +1,133 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JSON adapter for DoS dashboard refresh responses, which writes them
+ * without reflection.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class DoSDashboardRefreshResponseJsonAdapter 
+    extends AbstractStreamingJsonAdapter<DoSDashboardRefreshResponse> {
+  /**
+   * The "asm_state" string (for JSON serialization).
+   */
+  private static final String ASM_STATE = "asm_state";
+  
+  /**
+   * The "audited_contests" string (for JSON serialization).
+   */
+  private static final String AUDITED_CONTESTS = "audited_contests";
+  
+  /**
+   * The "estimated_ballots_to_audit" string (for JSON serialization).
+   */
+  private static final String ESTIMATED_BALLOTS_TO_AUDIT = "estimated_ballots_to_audit";
+  
+  /**
+   * The "optimistic_ballots_to_audit" string (for JSON serialization).
+   */
+  private static final String OPTIMISTIC_BALLOTS_TO_AUDIT = "optimistic_ballots_to_audit";
+  
+  /**
+   * The "discrepancy_count" string (for JSON serialization).
+   */
+  private static final String DISCREPANCY_COUNT = "discrepancy_count";
+  
+  /**
+   * The "county_status" string (for JSON serialization).
+   */
+  private static final String COUNTY_STATUS = "county_status";
+  
+  /**
+   * The "hand_count_contests" string (for JSON serialization).
+   */
+  private static final String HAND_COUNT_CONTESTS = "hand_count_contests";
+  
+  /**
+   * The "audit_info" string (for JSON serialization).
+   */
+  private static final String AUDIT_INFO = "audit_info";
+  
+  /**
+   * The "audit_reasons" string (for JSON serialization).
+   */
+  private static final String AUDIT_REASONS = "audit_reasons";
+  
+  /**
+   * The "audit_types" string (for JSON serialization).
+   */
+  private static final String AUDIT_TYPES = "audit_types";
+  
+  /**
+   * The names of the fields, in the order they are written.
+   */
+  private static final List<String> FIELD_NAMES = 
+      Collections.unmodifiableList(Arrays.asList(ASM_STATE, AUDITED_CONTESTS,
+                                                 ESTIMATED_BALLOTS_TO_AUDIT,
+                                                 OPTIMISTIC_BALLOTS_TO_AUDIT,
+                                                 DISCREPANCY_COUNT, COUNTY_STATUS,
+                                                 HAND_COUNT_CONTESTS, AUDIT_INFO,
+                                                 AUDIT_REASONS, AUDIT_TYPES));
+  
+  /**
+   * Constructs a new DoSDashboardRefreshResponseJsonAdapter.
+   */
+  public DoSDashboardRefreshResponseJsonAdapter() {
+    super(DoSDashboardRefreshResponse.class);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> fieldNames() {
+    return FIELD_NAMES;
+  }
+  
+  /**
+   * Writes a DoS dashboard refresh response.
+   * 
+   * @param the_gson The Gson.
+   * @param the_writer The JSON writer.
+   * @param the_response The object to write.
+   */
+  @Override
+  public void write(final Gson the_gson, final JsonWriter the_writer, 
+                    final DoSDashboardRefreshResponse the_response)
+      throws IOException {
+    the_writer.beginObject();
+    writeField(the_gson, the_writer, ASM_STATE, the_response.my_asm_state);
+    writeField(the_gson, the_writer, AUDITED_CONTESTS, the_response.my_audited_contests);
+    writeField(the_gson, the_writer, ESTIMATED_BALLOTS_TO_AUDIT,
+               the_response.my_estimated_ballots_to_audit);
+    writeField(the_gson, the_writer, OPTIMISTIC_BALLOTS_TO_AUDIT,
+               the_response.my_optimistic_ballots_to_audit);
+    writeField(the_gson, the_writer, DISCREPANCY_COUNT, the_response.my_discrepancy_count);
+    writeField(the_gson, the_writer, COUNTY_STATUS, the_response.my_county_status);
+    writeField(the_gson, the_writer, HAND_COUNT_CONTESTS, the_response.my_hand_count_contests);
+    writeField(the_gson, the_writer, AUDIT_INFO, the_response.my_audit_info);
+    writeField(the_gson, the_writer, AUDIT_REASONS, the_response.my_audit_reasons);
+    writeField(the_gson, the_writer, AUDIT_TYPES, the_response.my_audit_types);
+    the_writer.endObject();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.util.SortedMap;
+
+import us.freeandfair.corla.persistence.RequestStatistics;
+import us.freeandfair.corla.persistence.RequestStatistics.Aggregate;
+import us.freeandfair.corla.util.SuppressFBWarnings;
+
+/**
+ * The response generated when per-endpoint database statistics are requested.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings({"unused", "PMD.UnusedPrivateField", "PMD.SingularField"})
+@SuppressFBWarnings(value = {"URF_UNREAD_FIELD"}, justification = "Field is read by Gson.")
+public class RequestStatisticsResponse {
+  /**
+   * A flag indicating whether statistics are being collected.
+   */
+  private final boolean my_statistics_enabled;
+  
+  /**
+   * The aggregate statistics, by endpoint name.
+   */
+  private final SortedMap<String, Aggregate> my_endpoints;
+  
+  /**
+   * Constructs a new RequestStatisticsResponse.
+   * 
+   * @param the_statistics_enabled true if statistics are being collected,
+   * false otherwise.
+   * @param the_endpoints The aggregate statistics, by endpoint name.
+   */
+  protected RequestStatisticsResponse(final boolean the_statistics_enabled,
+                                      final SortedMap<String, Aggregate> the_endpoints) {
+    my_statistics_enabled = the_statistics_enabled;
+    my_endpoints = the_endpoints;
+  }
+  
+  /**
+   * Creates a RequestStatisticsResponse from the current request statistics.
+   * 
+   * @return the response.
+   */
+  public static RequestStatisticsResponse createResponse() {
+    return new RequestStatisticsResponse(RequestStatistics.isEnabled(),
+                                         RequestStatistics.aggregates());
+  }
+}
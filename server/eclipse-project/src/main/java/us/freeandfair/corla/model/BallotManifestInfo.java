@@ -25,8 +25,13 @@ import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Immutable;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import us.freeandfair.corla.json.BallotManifestInfoJsonAdapter;
 import us.freeandfair.corla.persistence.PersistentEntity;
 
 /**
@@ -38,10 +43,12 @@ import us.freeandfair.corla.persistence.PersistentEntity;
 @Entity
 @Immutable // this is a Hibernate-specific annotation, but there is no JPA alternative
 @Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Table(name = "ballot_manifest_info",
        indexes = { @Index(name = "idx_bmi_county", columnList = "county_id") })
 // this class has many fields that would normally be declared final, but
 // cannot be for compatibility with Hibernate and JPA.
+@JsonAdapter(BallotManifestInfoJsonAdapter.class)
 @SuppressWarnings("PMD.ImmutableField")
 public class BallotManifestInfo implements PersistentEntity, Serializable {
   /**
@@ -74,6 +74,14 @@ public class CVRContestInfo implements Serializable {
   @Column(name = "choices", columnDefinition = "text")
   @Convert(converter = StringListConverter.class)
   private List<String> my_choices = new ArrayList<>();
+  
+  /**
+   * The ID of the county of the cast vote record containing this record; 
+   * this duplicates the county of the cast vote record so that this 
+   * record's table can be partitioned by county.
+   */
+  @Column(name = "county_id", updatable = false)
+  private Long my_county_id;
 
   /**
    * Constructs an empty CVRContestInfo, solely for persistence.
@@ -137,6 +145,23 @@ public class CVRContestInfo implements Serializable {
     return Collections.unmodifiableList(my_choices);
   }
   
+  /**
+   * @return the ID of the county of the cast vote record containing this
+   * record.
+   */
+  public Long countyID() {
+    return my_county_id;
+  }
+  
+  /**
+   * Sets the ID of the county of the cast vote record containing this record.
+   * 
+   * @param the_county_id The county ID.
+   */
+  public void setCountyID(final Long the_county_id) {
+    my_county_id = the_county_id;
+  }
+  
   /**
    * @return a String representation of this cast vote record.
    */
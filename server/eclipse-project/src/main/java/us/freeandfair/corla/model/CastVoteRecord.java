@@ -39,6 +39,9 @@ import javax.persistence.Version;
 
 import org.hibernate.annotations.Immutable;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import us.freeandfair.corla.json.CastVoteRecordJsonAdapter;
 import us.freeandfair.corla.persistence.PersistentEntity;
 import us.freeandfair.corla.util.SuppressFBWarnings;
 
@@ -62,6 +65,7 @@ import us.freeandfair.corla.util.SuppressFBWarnings;
                           columnList = "county_id, sequence_number, record_type"),
                    @Index(name = "idx_cvr_county_imprinted_id_type",
                           columnList = "county_id, imprinted_id, record_type")})
+@JsonAdapter(CastVoteRecordJsonAdapter.class)
 // this class has many fields that would normally be declared final, but
 // cannot be for compatibility with Hibernate and JPA.
 @SuppressWarnings("PMD.ImmutableField")
@@ -217,7 +221,10 @@ public class CastVoteRecord implements PersistentEntity, Serializable {
     my_imprinted_id = the_imprinted_id;
     my_ballot_type = the_ballot_type;
     if (the_contest_info != null) {
-      my_contest_info.addAll(the_contest_info);
+      for (final CVRContestInfo ci : the_contest_info) {
+        ci.setCountyID(the_county_id);
+        my_contest_info.add(ci);
+      }
     }
   }
 
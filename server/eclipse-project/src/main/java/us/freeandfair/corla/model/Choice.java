@@ -19,6 +19,10 @@ import java.io.Serializable;
 
 import javax.persistence.Embeddable;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import us.freeandfair.corla.json.ChoiceJsonAdapter;
+
 /**
  * A contest choice; has a name and a description.
  * 
@@ -26,6 +30,7 @@ import javax.persistence.Embeddable;
  * @version 1.0.0
  */
 @Embeddable
+@JsonAdapter(ChoiceJsonAdapter.class)
 public class Choice implements Serializable {
   /**
    * The serialVersionUID.
@@ -24,6 +24,8 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Immutable;
 
 import us.freeandfair.corla.persistence.PersistentEntity;
@@ -37,6 +39,7 @@ import us.freeandfair.corla.persistence.PersistentEntity;
 @Entity
 @Immutable // this is a Hibernate-specific annotation, but there is no JPA alternative
 @Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Table(name = "county")
 // this class has many fields that would normally be declared final, but
 // cannot be for compatibility with Hibernate and JPA.
@@ -274,6 +274,14 @@ public class CountyDashboard implements PersistentEntity {
   @Convert(converter = AuditSelectionIntegerMapConverter.class)
   private Map<AuditSelection, Integer> my_disagreements = new HashMap<>();
   
+  /**
+   * The IDs of all CVRs that have been in the ballot sequence of any audit
+   * round, used to deduplicate new rounds against previous ones. This is
+   * derived from the rounds when first needed, maintained as new rounds 
+   * start, and not persisted.
+   */
+  private transient Set<Long> my_cvr_ids_in_rounds;
+  
   /**
    * Constructs an empty county dashboard, solely for persistence.
    */
@@ -482,6 +490,24 @@ public class CountyDashboard implements PersistentEntity {
                                   the_ballots_to_audit,
                                   the_audit_subsequence);
     my_rounds.add(round);
+    if (my_cvr_ids_in_rounds != null) {
+      my_cvr_ids_in_rounds.addAll(the_ballots_to_audit);
+    }
+  }
+  
+  /**
+   * @return the IDs of all CVRs that have been in the ballot sequence of 
+   * any audit round on this dashboard, including the current round.
+   */
+  public Set<Long> cvrIDsInRounds() {
+    if (my_cvr_ids_in_rounds == null) {
+      final Set<Long> ids = new HashSet<>();
+      for (final Round round : my_rounds) {
+        ids.addAll(round.ballotSequence());
+      }
+      my_cvr_ids_in_rounds = ids;
+    }
+    return Collections.unmodifiableSet(my_cvr_ids_in_rounds);
   }
   
   /**
@@ -32,6 +32,8 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Immutable;
 
 import us.freeandfair.corla.Main;
@@ -46,6 +48,7 @@ import us.freeandfair.corla.persistence.PersistentEntity;
 @Entity
 @Immutable // this is a Hibernate-specific annotation, but there is no JPA alternative
 @Cacheable(true)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 @Table(name = "log")
 //this class has many fields that would normally be declared final, but
 //cannot be for compatibility with Hibernate and JPA.
@@ -171,6 +174,44 @@ public class LogEntry implements PersistentEntity, Serializable {
     my_timestamp = the_timestamp;
   }
   
+  /**
+   * Constructs a new, unhashed log entry with the specified information,
+   * including authentication data and client host; such a log entry cannot 
+   * be persisted, and is useful only for subsequently building a persistable
+   * log entry with the (unhashed entry, previous entry) constructor.
+   * 
+   * @param the_result_code The result code.
+   * @param the_information The information.
+   * @param the_authentication_data The authentication data, if any.
+   * @param the_client_host The client host, if any.
+   * @param the_timestamp The timestamp.
+   */
+  public LogEntry(final Integer the_result_code, final String the_information,
+                  final String the_authentication_data, final String the_client_host,
+                  final Instant the_timestamp) {
+    super();
+    my_result_code = the_result_code;
+    my_information = the_information;
+    my_authentication_data = the_authentication_data;
+    my_client_host = the_client_host;
+    my_timestamp = the_timestamp;
+  }
+  
+  /**
+   * Constructs a new log entry with the information in the specified unhashed 
+   * log entry, chained to the specified previous entry. If the previous 
+   * entry is null, it is assumed that this is the beginning of a new log hash 
+   * chain.
+   * 
+   * @param the_unhashed_entry The unhashed log entry.
+   * @param the_previous_entry The previous log entry.
+   */
+  public LogEntry(final LogEntry the_unhashed_entry, final LogEntry the_previous_entry) {
+    this(the_unhashed_entry.resultCode(), the_unhashed_entry.information(),
+         the_unhashed_entry.authenticationData(), the_unhashed_entry.clientHost(),
+         the_unhashed_entry.timestamp(), the_previous_entry);
+  }
+  
   /**
    * {@inheritDoc}
    */
@@ -205,17 +246,30 @@ public class LogEntry implements PersistentEntity, Serializable {
    * returns the root hash.
    */
   private String calculateHash(final LogEntry the_previous_entry) {
-    String result = ROOT_HASH;
-    final StringBuilder hash_input = new StringBuilder(hashString());
-    if (the_previous_entry == null) {
-      hash_input.append(ROOT_HASH);
-    } else {
-      hash_input.append(the_previous_entry.hash());
+    String previous_hash = ROOT_HASH;
+    if (the_previous_entry != null) {
+      previous_hash = the_previous_entry.hash();
     }
+    return chainHash(hashString(), previous_hash);
+  }
+  
+  /**
+   * Generates a hash chain entry from the hash string of a log entry and
+   * the hash of the previous log entry.
+   * 
+   * @param the_hash_string The hash string of the log entry.
+   * @param the_previous_hash The hash of the previous log entry, or the 
+   * root hash if there is no previous entry.
+   * @return the hash. If the hash cannot be calculated, this method
+   * returns the root hash.
+   */
+  public static String chainHash(final String the_hash_string, 
+                                 final String the_previous_hash) {
+    String result = ROOT_HASH;
     try {      
       final MessageDigest md = MessageDigest.getInstance("SHA-256");
       final BigInteger bi = 
-          new BigInteger(1, md.digest(hash_input.toString().
+          new BigInteger(1, md.digest((the_hash_string + the_previous_hash).
                                       getBytes(Charset.forName("UTF-8"))));
       result = String.format("%0" + (md.digest().length << 1) + "X", bi);
     } catch (final NoSuchAlgorithmException e) {
@@ -280,10 +334,25 @@ public class LogEntry implements PersistentEntity, Serializable {
    * @return the String.
    */
   public final String hashString() {
+    return hashString(my_result_code, my_information, my_timestamp);
+  }
+  
+  /**
+   * Returns a String based on the specified log entry data and used as part
+   * of the hash computation.
+   * 
+   * @param the_result_code The result code.
+   * @param the_information The information.
+   * @param the_timestamp The timestamp.
+   * @return the String.
+   */
+  public static String hashString(final Integer the_result_code,
+                                  final String the_information,
+                                  final Instant the_timestamp) {
     final StringBuilder hash_input = new StringBuilder();
-    hash_input.append(my_result_code.toString());
-    hash_input.append(my_information);
-    hash_input.append(my_timestamp.toString());
+    hash_input.append(the_result_code.toString());
+    hash_input.append(the_information);
+    hash_input.append(the_timestamp.toString());
     return hash_input.toString();
   }
   
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,7 +31,8 @@ import javax.persistence.Embeddable;
 
 import us.freeandfair.corla.persistence.AuditSelectionIntegerMapConverter;
 import us.freeandfair.corla.persistence.ElectorListConverter;
-import us.freeandfair.corla.persistence.LongListConverter;
+import us.freeandfair.corla.persistence.PackedLongListConverter;
+import us.freeandfair.corla.util.LongArrayList;
 
 /**
  * Information about an audit round. 
@@ -111,7 +113,7 @@ public class Round implements Serializable {
    */
   @Column(nullable = false, updatable = false,
           name = "ballot_sequence", columnDefinition = TEXT)
-  @Convert(converter = LongListConverter.class)
+  @Convert(converter = PackedLongListConverter.class)
   private List<Long> my_ballot_sequence;
   
   /**
@@ -120,7 +122,7 @@ public class Round implements Serializable {
    */
   @Column(nullable = false, updatable = false,
           name = "audit_subsequence", columnDefinition = TEXT)
-  @Convert(converter = LongListConverter.class)
+  @Convert(converter = PackedLongListConverter.class)
   private List<Long> my_audit_subsequence;
   
   /**
@@ -184,8 +186,8 @@ public class Round implements Serializable {
     my_start_audited_prefix_length = the_start_audited_prefix_length;
     my_actual_audited_prefix_length = the_start_audited_prefix_length;
     my_previous_ballots_audited = the_previous_ballots_audited;
-    my_ballot_sequence = the_ballot_sequence;
-    my_audit_subsequence = the_audit_subsequence;
+    my_ballot_sequence = new LongArrayList(the_ballot_sequence);
+    my_audit_subsequence = new LongArrayList(the_audit_subsequence);
   }
   
   /**
@@ -286,6 +288,21 @@ public class Round implements Serializable {
     return my_audit_subsequence;
   }
   
+  /**
+   * Computes the number of times each CVR ID appears in the audit 
+   * subsequence for this round, in a single pass over the subsequence.
+   * 
+   * @return a map from each CVR ID in the audit subsequence to its 
+   * multiplicity, iterating in order of first appearance.
+   */
+  public Map<Long, Integer> auditSubsequenceMultiplicities() {
+    final Map<Long, Integer> result = new LinkedHashMap<>();
+    for (final Long cvr_id : my_audit_subsequence) {
+      result.merge(cvr_id, 1, Integer::sum);
+    }
+    return result;
+  }
+  
   /**
    * Adds an audited ballot.
    */
@@ -0,0 +1,160 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.hibernate.type.Type;
+
+/**
+ * A Hibernate interceptor that records the entities changed by the current
+ * transaction of a session and, when the transaction completes, publishes
+ * them as EntityChanges unless the transaction was rolled back. An entity
+ * whose collections change is recorded as changed. Hibernate creates one
+ * instance of this interceptor per session.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class ChangeTrackingInterceptor extends EmptyInterceptor {
+  /**
+   * The serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The entities changed by the current transaction.
+   */
+  private transient Set<PersistentEntity> my_changed =
+      Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean onFlushDirty(final Object the_entity, final Serializable the_id,
+                              final Object[] the_current_state,
+                              final Object[] the_previous_state,
+                              final String[] the_property_names,
+                              final Type[] the_types) {
+    record(the_entity);
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean onSave(final Object the_entity, final Serializable the_id,
+                        final Object[] the_state, final String[] the_property_names,
+                        final Type[] the_types) {
+    record(the_entity);
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onDelete(final Object the_entity, final Serializable the_id,
+                       final Object[] the_state, final String[] the_property_names,
+                       final Type[] the_types) {
+    record(the_entity);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onCollectionRecreate(final Object the_collection, final Serializable the_key) {
+    recordOwner(the_collection);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onCollectionRemove(final Object the_collection, final Serializable the_key) {
+    recordOwner(the_collection);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onCollectionUpdate(final Object the_collection, final Serializable the_key) {
+    recordOwner(the_collection);
+  }
+
+  /**
+   * Publishes the changes made by the completed transaction, unless it was
+   * rolled back, and starts recording afresh.
+   * 
+   * @param the_transaction The transaction.
+   */
+  @Override
+  public void afterTransactionCompletion(final Transaction the_transaction) {
+    final Set<PersistentEntity> changed = my_changed;
+    my_changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (!changed.isEmpty() && !rolledBack(the_transaction)) {
+      EntityChanges.publish(new EntityChanges(changed));
+    }
+  }
+
+  /**
+   * Records the specified entity as changed, if it is a persistent entity.
+   * 
+   * @param the_entity The entity.
+   */
+  private void record(final Object the_entity) {
+    if (the_entity instanceof PersistentEntity) {
+      my_changed.add((PersistentEntity) the_entity);
+    }
+  }
+
+  /**
+   * Records the owner of the specified collection as changed.
+   * 
+   * @param the_collection The collection.
+   */
+  private void recordOwner(final Object the_collection) {
+    if (the_collection instanceof PersistentCollection) {
+      record(((PersistentCollection) the_collection).getOwner());
+    }
+  }
+
+  /**
+   * Determines whether a transaction was rolled back; a transaction whose
+   * outcome is unknown is treated as committed, so that listeners err on
+   * the side of seeing changes.
+   * 
+   * @param the_transaction The transaction.
+   * @return true if the transaction was rolled back, false otherwise.
+   */
+  private boolean rolledBack(final Transaction the_transaction) {
+    boolean result = false;
+    if (the_transaction != null) {
+      final TransactionStatus status = the_transaction.getStatus();
+      result = status == TransactionStatus.ROLLED_BACK ||
+               status == TransactionStatus.FAILED_COMMIT;
+    }
+    return result;
+  }
+}
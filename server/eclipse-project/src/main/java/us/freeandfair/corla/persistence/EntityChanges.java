@@ -0,0 +1,133 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.hibernate.Hibernate;
+
+import us.freeandfair.corla.Main;
+
+/**
+ * The set of entities changed (saved, updated or deleted) by a committed
+ * transaction. Listeners registered with this class are notified, on the
+ * committing thread, after each transaction that changes entities commits;
+ * they must therefore be quick, and must not use the persistence system.
+ * This class also counts, for each entity class, the committed transactions
+ * that changed entities of that class; together with the epoch in which they
+ * are counted, these generations identify versions of the data cheaply.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class EntityChanges {
+  /**
+   * The epoch in which generations are counted, which is unique to each run
+   * of the server.
+   */
+  public static final String EPOCH = 
+      Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  
+  /**
+   * The generations of the entity classes.
+   */
+  private static final Map<Class<?>, AtomicLong> GENERATIONS = new ConcurrentHashMap<>();
+  
+  /**
+   * The registered listeners.
+   */
+  private static final List<Consumer<EntityChanges>> LISTENERS =
+      new CopyOnWriteArrayList<>();
+
+  /**
+   * The changed entities.
+   */
+  private final Set<PersistentEntity> my_entities;
+
+  /**
+   * Constructs a new EntityChanges.
+   * 
+   * @param the_entities The changed entities.
+   */
+  public EntityChanges(final Set<PersistentEntity> the_entities) {
+    my_entities = Collections.unmodifiableSet(the_entities);
+  }
+
+  /**
+   * Registers a listener to be notified of committed changes.
+   * 
+   * @param the_listener The listener.
+   */
+  public static void addListener(final Consumer<EntityChanges> the_listener) {
+    LISTENERS.add(the_listener);
+  }
+
+  /**
+   * @param the_class An entity class.
+   * @return the number of committed transactions, in this epoch, that have 
+   * changed entities of the class.
+   */
+  public static long generation(final Class<?> the_class) {
+    return generationCounter(the_class).get();
+  }
+  
+  /**
+   * @param the_class An entity class.
+   * @return the generation counter for the class.
+   */
+  private static AtomicLong generationCounter(final Class<?> the_class) {
+    return GENERATIONS.computeIfAbsent(the_class, c -> new AtomicLong());
+  }
+  
+  /**
+   * Advances the generations of the classes of the changed entities, then 
+   * notifies all registered listeners of the specified committed changes.
+   * A listener that throws an exception does not prevent the notification
+   * of the others.
+   * 
+   * @param the_changes The changes.
+   */
+  // we must protect the committing thread from misbehaving listeners
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public static void publish(final EntityChanges the_changes) {
+    final Set<Class<?>> classes = new HashSet<>();
+    for (final PersistentEntity entity : the_changes.entities()) {
+      classes.add(Hibernate.getClass(entity));
+    }
+    for (final Class<?> c : classes) {
+      generationCounter(c).incrementAndGet();
+    }
+    for (final Consumer<EntityChanges> listener : LISTENERS) {
+      try {
+        listener.accept(the_changes);
+      } catch (final RuntimeException e) {
+        Main.LOGGER.error("entity change listener failed: " + e);
+      }
+    }
+  }
+
+  /**
+   * @return the changed entities. The returned entities must not be used
+   * to navigate lazy associations, because their sessions may be closed.
+   */
+  public Set<PersistentEntity> entities() {
+    return my_entities;
+  }
+}
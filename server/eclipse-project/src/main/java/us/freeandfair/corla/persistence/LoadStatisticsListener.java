@@ -0,0 +1,61 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * A Hibernate event listener that records entity loads and collection
+ * fetches in the request statistics of the thread on which they happen.
+ * An entity load is counted each time an entity is built from a database
+ * row; a collection fetch is counted each time an uninitialized collection
+ * is fetched on its own (collections fetched along with their owners, by
+ * fetch joins, are not). Unlike the contents of a persistence context, these
+ * counts are not reduced when a session is cleared, so they also show the
+ * loads of streaming endpoints.
+ *
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class LoadStatisticsListener
+    implements PostLoadEventListener, InitializeCollectionEventListener {
+  /**
+   * The serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onPostLoad(final PostLoadEvent the_event) {
+    final RequestStatistics stats = RequestStatistics.current();
+    if (stats != null) {
+      stats.entityLoaded();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onInitializeCollection(final InitializeCollectionEvent the_event) {
+    final RequestStatistics stats = RequestStatistics.current();
+    if (stats != null) {
+      stats.collectionFetched();
+    }
+  }
+}
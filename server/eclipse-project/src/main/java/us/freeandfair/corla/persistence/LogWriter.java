@@ -0,0 +1,390 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.persistence.PersistenceException;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.LogEntry;
+import us.freeandfair.corla.query.LogEntryQueries;
+import us.freeandfair.corla.util.ExponentialBackoffHelper;
+
+/**
+ * The single writer of the hash-chained log. Request threads append unhashed
+ * log entries to a lock-free queue; a dedicated writer thread keeps the head
+ * of the hash chain in memory, chains the queued entries to it in order, and
+ * persists them in batches, each in its own transaction. The entries appended
+ * together are always contiguous in the log, but they are not persisted
+ * atomically with the changes they describe; a request that committed changes
+ * and whose entries cannot be persisted is treated as failed (see
+ * AbstractEndpoint). When the log is deleted (by a database reset), the
+ * writer must be suspended around the deletion and reset once it has
+ * committed, so that the chain starts afresh.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// the writer thread is the point of this class
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class LogWriter {
+  /**
+   * The maximum number of log entries to persist in one transaction (this
+   * may be exceeded if a larger group of entries is appended at once).
+   */
+  public static final int BATCH_SIZE = 100;
+
+  /**
+   * The number of times to try persisting a batch before giving up on it.
+   */
+  public static final int MAX_ATTEMPTS = 5;
+
+  /**
+   * The unit delay between attempts to persist a batch, in milliseconds.
+   */
+  public static final long RETRY_DELAY_MSEC = 100;
+
+  /**
+   * The queue of appended groups of entries.
+   */
+  private static final Queue<PendingEntries> QUEUE = new ConcurrentLinkedQueue<>();
+
+  /**
+   * The permit to write; the writer thread holds it while it writes a batch,
+   * and it is held by others while the writer is suspended.
+   */
+  private static final Semaphore WRITE_PERMIT = new Semaphore(1);
+
+  /**
+   * The writer thread.
+   */
+  private static Thread writer_thread;
+
+  /**
+   * The store to which entries are persisted.
+   */
+  private static Store store = new DatabaseStore();
+
+  /**
+   * The last log entry persisted, or null if it must be loaded from the
+   * store; accessed only while holding the write permit.
+   */
+  private static LogEntry chain_head;
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private LogWriter() {
+    // do nothing
+  }
+
+  /**
+   * Appends the specified unhashed log entries to the log.
+   * 
+   * @param the_entries The unhashed log entries, in order.
+   * @return a future that completes when the entries have been persisted,
+   * or completes exceptionally if they cannot be persisted.
+   */
+  public static CompletableFuture<Void> append(final List<LogEntry> the_entries) {
+    final PendingEntries pending = new PendingEntries(new ArrayList<>(the_entries));
+    QUEUE.add(pending);
+    LockSupport.unpark(writerThread());
+    return pending.future();
+  }
+
+  /**
+   * Suspends the writer, waiting for any batch it is writing to be persisted;
+   * entries appended while it is suspended are queued. Every call to this 
+   * method must be followed by a call to resume(), on any thread.
+   */
+  public static void suspend() {
+    WRITE_PERMIT.acquireUninterruptibly();
+  }
+
+  /**
+   * Resumes the writer after a call to suspend().
+   */
+  public static void resume() {
+    WRITE_PERMIT.release();
+    LockSupport.unpark(writerThread());
+  }
+
+  /**
+   * Resets the writer after the log has been deleted: the chain head is
+   * forgotten, so that the next entry starts a new chain. Entries still
+   * queued are kept, and become the first entries of the new chain; some
+   * of them may describe changes committed after the deletion's snapshot,
+   * which survive it. The writer must be suspended.
+   */
+  // a null chain head means that it must be reloaded
+  @SuppressWarnings("PMD.NullAssignment")
+  public static void reset() {
+    chain_head = null;
+  }
+
+  /**
+   * Sets the store to which entries are persisted; this is used by tests, 
+   * which have no database. The writer must be suspended.
+   * 
+   * @param the_store The store.
+   */
+  @SuppressWarnings("PMD.NullAssignment")
+  public static void setStore(final Store the_store) {
+    store = the_store;
+    chain_head = null;
+  }
+
+  /**
+   * @return the writer thread, which is started if necessary.
+   */
+  private static synchronized Thread writerThread() {
+    if (writer_thread == null) {
+      writer_thread = new Thread(LogWriter::run, "log-writer");
+      writer_thread.setDaemon(true);
+      writer_thread.start();
+    }
+    return writer_thread;
+  }
+
+  /**
+   * The main loop of the writer thread.
+   */
+  private static void run() {
+    final List<PendingEntries> batch = new ArrayList<>();
+    while (true) {
+      WRITE_PERMIT.acquireUninterruptibly();
+      try {
+        int size = 0;
+        PendingEntries pending = QUEUE.poll();
+        while (pending != null) {
+          batch.add(pending);
+          size = size + pending.entries().size();
+          if (size >= BATCH_SIZE) {
+            break;
+          }
+          pending = QUEUE.poll();
+        }
+        if (!batch.isEmpty()) {
+          writeBatch(batch);
+        }
+      } finally {
+        WRITE_PERMIT.release();
+      }
+      if (batch.isEmpty()) {
+        // any entries appended (or resumption) since the poll have unparked us
+        LockSupport.park();
+      } else {
+        batch.clear();
+      }
+    }
+  }
+
+  /**
+   * Persists the specified batch of entries, retrying with exponential
+   * backoff if necessary, and completes their futures.
+   * 
+   * @param the_batch The batch.
+   */
+  private static void writeBatch(final List<PendingEntries> the_batch) {
+    int attempts = 0;
+    boolean written = false;
+    while (!written && attempts < MAX_ATTEMPTS) {
+      attempts = attempts + 1;
+      written = tryWriteBatch(the_batch);
+      if (!written) {
+        try {
+          Thread.sleep(ExponentialBackoffHelper.exponentialBackoff(attempts,
+                                                                   RETRY_DELAY_MSEC));
+        } catch (final InterruptedException e) {
+          // we were interrupted, just try again
+          Main.LOGGER.debug("log writer interrupted during backoff");
+        }
+      }
+    }
+    for (final PendingEntries pending : the_batch) {
+      if (written) {
+        pending.future().complete(null);
+      } else {
+        pending.future().completeExceptionally(
+            new PersistenceException("could not persist log entries after " +
+                                     attempts + " attempts"));
+      }
+    }
+    if (!written) {
+      Main.LOGGER.error("could not persist " + the_batch.size() +
+                        " groups of log entries, giving up");
+    }
+  }
+
+  /**
+   * Makes one attempt to persist the specified batch of entries.
+   * 
+   * @param the_batch The batch.
+   * @return true if the attempt succeeded, false otherwise.
+   */
+  // a null chain head means that it must be reloaded
+  @SuppressWarnings("PMD.NullAssignment")
+  private static boolean tryWriteBatch(final List<PendingEntries> the_batch) {
+    boolean result = false;
+    try {
+      LogEntry head = chain_head;
+      if (head == null) {
+        head = store.last();
+      }
+      final List<LogEntry> chained = new ArrayList<>();
+      for (final PendingEntries pending : the_batch) {
+        for (final LogEntry entry : pending.entries()) {
+          final LogEntry real_entry = new LogEntry(entry, head);
+          chained.add(real_entry);
+          head = real_entry;
+        }
+      }
+      store.save(chained);
+      chain_head = head;
+      result = true;
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not persist log entries: " + e.getMessage());
+      // reload the chain head from the store on the next attempt
+      chain_head = null;
+    }
+    return result;
+  }
+
+  /**
+   * A group of appended entries and the future to complete when they
+   * are persisted.
+   */
+  private static class PendingEntries {
+    /**
+     * The entries.
+     */
+    private final List<LogEntry> my_entries;
+
+    /**
+     * The future.
+     */
+    private final CompletableFuture<Void> my_future = new CompletableFuture<>();
+
+    /**
+     * Constructs a new PendingEntries.
+     * 
+     * @param the_entries The entries.
+     */
+    PendingEntries(final List<LogEntry> the_entries) {
+      my_entries = the_entries;
+    }
+
+    /**
+     * @return the entries.
+     */
+    public List<LogEntry> entries() {
+      return my_entries;
+    }
+
+    /**
+     * @return the future.
+     */
+    public CompletableFuture<Void> future() {
+      return my_future;
+    }
+  }
+
+  /**
+   * The store of the log: the database, except in tests.
+   */
+  public interface Store {
+    /**
+     * @return the last log entry persisted, or null if there is none.
+     * @exception PersistenceException if the store cannot be read.
+     */
+    LogEntry last();
+
+    /**
+     * Persists the specified hash-chained entries, all or none of them.
+     * 
+     * @param the_entries The entries, in order.
+     * @exception PersistenceException if the entries cannot be persisted.
+     */
+    void save(List<LogEntry> the_entries);
+  }
+
+  /**
+   * The database store of the log.
+   */
+  private static class DatabaseStore implements Store {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogEntry last() {
+      beginTransaction();
+      try {
+        return LogEntryQueries.last();
+      } finally {
+        rollback();
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(final List<LogEntry> the_entries) {
+      beginTransaction();
+      boolean committed = false;
+      try {
+        for (final LogEntry entry : the_entries) {
+          Persistence.save(entry);
+        }
+        Persistence.commitTransaction();
+        committed = true;
+      } finally {
+        if (!committed) {
+          rollback();
+        }
+      }
+    }
+
+    /**
+     * Begins a transaction.
+     * 
+     * @exception PersistenceException if there is no database.
+     */
+    private void beginTransaction() {
+      if (!Persistence.hasDB()) {
+        throw new PersistenceException("no database");
+      }
+      Persistence.beginTransaction();
+    }
+
+    /**
+     * Rolls back the current transaction, if possible.
+     */
+    private void rollback() {
+      if (Persistence.canTransactionRollback()) {
+        try {
+          Persistence.rollbackTransaction();
+        } catch (final PersistenceException ex) {
+          // not much we can do about it
+          Main.LOGGER.debug("could not roll back log transaction");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.Base64;
+import java.util.List;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import us.freeandfair.corla.util.LongArrayList;
+
+/**
+ * A converter between lists of Longs and compact text representations of
+ * such lists, for database efficiency. The list is stored as its length
+ * followed by the differences between consecutive elements (the first 
+ * element is stored as its difference from 0), each zigzag-encoded as a 
+ * variable-length integer; the resulting bytes are stored in Base64. Lists 
+ * of IDs that are close together, or in increasing order, therefore take
+ * only a byte or two per element. Columns written in the older JSON array 
+ * representation are still read correctly.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@Converter
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class PackedLongListConverter implements AttributeConverter<List<Long>, String> {
+  /**
+   * The first character of a list stored in the older JSON representation.
+   */
+  private static final char JSON_ARRAY_START = '[';
+  
+  /**
+   * The number of payload bits in each byte of a variable-length integer.
+   */
+  private static final int VARINT_SHIFT = 7;
+  
+  /**
+   * The mask for the payload bits of a variable-length integer byte.
+   */
+  private static final int VARINT_PAYLOAD = 0x7F;
+  
+  /**
+   * The flag indicating that a variable-length integer continues in the
+   * next byte.
+   */
+  private static final int VARINT_CONTINUES = 0x80;
+  
+  /**
+   * The type information for a list of Long.
+   */
+  private static final Type LONG_LIST = new TypeToken<List<Long>>() { }.getType();
+  
+  /**
+   * The Gson instance used to read the older JSON representation.
+   */
+  private static final Gson GSON = 
+      new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+  
+  /**
+   * Converts the specified list of Longs to a database column entry.
+   * 
+   * @param the_list The list of Longs.
+   */
+  @Override
+  public String convertToDatabaseColumn(final List<Long> the_list) {
+    if (the_list == null) {
+      return null;
+    }
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(the_list.size() * 2 + 2);
+    writeVarint(bytes, the_list.size());
+    long previous = 0;
+    for (final Long l : the_list) {
+      final long delta = l - previous;
+      // zigzag encoding, so that small negative deltas are also small
+      writeVarint(bytes, (delta << 1) ^ (delta >> (Long.SIZE - 1)));
+      previous = l;
+    }
+    return Base64.getEncoder().encodeToString(bytes.toByteArray());
+  }
+
+  /**
+   * Converts the specified database column entry to a list of Longs. The 
+   * resulting list is unmodifiable.
+   * 
+   * @param the_column The column entry.
+   * @exception IllegalArgumentException if the column entry is malformed.
+   */
+  @Override
+  public List<Long> convertToEntityAttribute(final String the_column) {
+    if (the_column == null) {
+      return null;
+    }
+    if (!the_column.isEmpty() && the_column.charAt(0) == JSON_ARRAY_START) {
+      return new LongArrayList(GSON.<List<Long>>fromJson(the_column, LONG_LIST));
+    }
+    
+    final byte[] bytes = Base64.getDecoder().decode(the_column);
+    final int[] position = {0};
+    final long size = readVarint(bytes, position);
+    if (size < 0 || bytes.length < size) {
+      throw new IllegalArgumentException("invalid packed list length " + size);
+    }
+    final long[] elements = new long[(int) size];
+    long previous = 0;
+    for (int i = 0; i < elements.length; i++) {
+      final long zigzag = readVarint(bytes, position);
+      previous = previous + ((zigzag >>> 1) ^ -(zigzag & 1));
+      elements[i] = previous;
+    }
+    if (position[0] != bytes.length) {
+      throw new IllegalArgumentException("trailing data in packed list");
+    }
+    return new LongArrayList(elements);
+  }
+  
+  /**
+   * Writes the specified value as an unsigned variable-length integer.
+   * 
+   * @param the_stream The stream to write to.
+   * @param the_value The value.
+   */
+  private static void writeVarint(final ByteArrayOutputStream the_stream, 
+                                  final long the_value) {
+    long value = the_value;
+    while ((value & ~VARINT_PAYLOAD) != 0) {
+      the_stream.write((int) (value & VARINT_PAYLOAD) | VARINT_CONTINUES);
+      value = value >>> VARINT_SHIFT;
+    }
+    the_stream.write((int) value);
+  }
+  
+  /**
+   * Reads an unsigned variable-length integer from the specified position 
+   * of the specified bytes, advancing the position past it.
+   * 
+   * @param the_bytes The bytes.
+   * @param the_position A single-element array containing the position;
+   * it is updated by this method.
+   * @return the value read.
+   * @exception IllegalArgumentException if the bytes do not contain a 
+   * well-formed variable-length integer at the position.
+   */
+  @SuppressWarnings("PMD.UseVarargs")
+  private static long readVarint(final byte[] the_bytes, final int[] the_position) {
+    long result = 0;
+    int shift = 0;
+    int b;
+    do {
+      if (the_position[0] >= the_bytes.length || shift >= Long.SIZE) {
+        throw new IllegalArgumentException("malformed packed list");
+      }
+      b = the_bytes[the_position[0]];
+      the_position[0] = the_position[0] + 1;
+      result = result | (long) (b & VARINT_PAYLOAD) << shift;
+      shift = shift + VARINT_SHIFT;
+    } while ((b & VARINT_CONTINUES) != 0);
+    return result;
+  }
+}
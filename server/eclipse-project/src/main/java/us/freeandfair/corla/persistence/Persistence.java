@@ -15,10 +15,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.sql.Blob;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Scanner;
 import java.util.stream.Stream;
@@ -30,6 +32,7 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 
+import org.hibernate.FlushMode;
 import org.hibernate.Hibernate;
 import org.hibernate.HibernateException;
 import org.hibernate.ObjectNotFoundException;
@@ -41,8 +44,12 @@ import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Environment;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
 import org.hibernate.query.Query;
 import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.hibernate.stat.Statistics;
 
 import us.freeandfair.corla.Main;
 
@@ -52,7 +59,7 @@ import us.freeandfair.corla.Main;
  * @author Daniel M. Zimmerman <dmz@freeandfair.us>
  * @version 1.0.0
  */
-@SuppressWarnings({"PMD.ExcessiveImports", "PMD.GodClass"})
+@SuppressWarnings({"PMD.ExcessiveImports", "PMD.GodClass", "PMD.TooManyMethods"})
 public final class Persistence {
   /**
    * The path to the resource containing the list of entity classes.
@@ -70,6 +77,12 @@ public final class Persistence {
    */
   public static final String FALSE = "false";
   
+  /**
+   * The name of the property indicating that the cast vote record tables
+   * are partitioned by county (see script/partition-cvrs.sql).
+   */
+  public static final String CVR_PARTITIONING_PROPERTY = "cvr_partitioning";
+  
   /**
    * The "NO SESSION" constant.
    */
@@ -95,6 +108,18 @@ public final class Persistence {
    */
   private static SessionFactory session_factory;
   
+  /**
+   * The session factory for read-only transactions, if one is configured;
+   * if not, read-only transactions use the main session factory.
+   */
+  private static SessionFactory read_only_session_factory;
+  
+  /**
+   * A flag indicating whether the read-only session factory connects to a
+   * different database (such as a streaming replica) than the main one.
+   */
+  private static boolean read_only_replica;
+  
   /**
    * A thread-local containing the active session on this thread.
    */
@@ -112,6 +137,15 @@ public final class Persistence {
     // do nothing
   }
     
+  /**
+   * @return true if read-only transactions may see data older than that
+   * committed by the main session factory (because they run on a different
+   * database, such as a streaming replica), false otherwise.
+   */
+  public static synchronized boolean readsMayLag() {
+    return read_only_replica;
+  }
+    
   /**
    * @return true if database persistence is enabled, false otherwise.
    */
@@ -211,9 +245,15 @@ public final class Persistence {
       settings.put("hibernate.c3p0.privilegeSpawnedThreads", TRUE);
       settings.put("hibernate.c3p0.contextClassLoaderSource", "none");
       
-      // automatic schema generation
-      settings.put(Environment.HBM2DDL_AUTO, 
-                   system_properties.getProperty("hibernate.hbm2ddl.auto", ""));
+      // automatic schema generation; Hibernate cannot maintain partitioned 
+      // tables, so it does not touch the schema when CVRs are partitioned
+      if (cvrsPartitioned()) {
+        Main.LOGGER.info("cast vote records are partitioned, schema generation disabled");
+        settings.put(Environment.HBM2DDL_AUTO, "none");
+      } else {
+        settings.put(Environment.HBM2DDL_AUTO, 
+                     system_properties.getProperty("hibernate.hbm2ddl.auto", ""));
+      }
       
       // sql debugging
       settings.put(Environment.SHOW_SQL, 
@@ -239,8 +279,14 @@ public final class Persistence {
       settings.put(Environment.CACHE_PROVIDER_CONFIG, "org.hibernate.cache.EhCacheProvider");
       settings.put(Environment.CACHE_REGION_FACTORY, 
                    "org.hibernate.cache.ehcache.EhCacheRegionFactory");
-      settings.put(Environment.USE_SECOND_LEVEL_CACHE, FALSE);
-      settings.put(Environment.USE_QUERY_CACHE, FALSE);
+      // second-level and query caching are opt-in; the regions are configured
+      // in ehcache.xml
+      final String use_cache = 
+          system_properties.getProperty("hibernate.cache.use_second_level_cache", FALSE);
+      settings.put(Environment.USE_SECOND_LEVEL_CACHE, use_cache);
+      settings.put(Environment.USE_QUERY_CACHE, 
+                   system_properties.getProperty("hibernate.cache.use_query_cache", 
+                                                 FALSE));
       // IMPORTANT: the USE_DIRECT_REFERENCE_CACHE_ENTRIES setting is FALSE to address
       // Hibernate bug HHH-11169, and must not be changed until/unless that bug is 
       // resolved
@@ -261,7 +307,23 @@ public final class Persistence {
       settings.put(Environment.CREATE_EMPTY_COMPOSITES_ENABLED, TRUE);
       
       // statistics
-      settings.put(Environment.GENERATE_STATISTICS, FALSE);
+      // statistics (by default, generated only when caching is enabled, so that
+      // cache hit/miss counts are available)
+      settings.put(Environment.GENERATE_STATISTICS, 
+                   system_properties.getProperty("hibernate.generate_statistics", 
+                                                 use_cache));
+      
+      // per-request statistics, gathered by a listener on each session
+      RequestStatistics.configure(system_properties);
+      if (RequestStatistics.isEnabled()) {
+        settings.put(Environment.AUTO_SESSION_EVENTS_LISTENER, 
+                     StatisticsSessionEventListener.class.getName());
+      }
+      
+      // change tracking, so that caches and subscribers can learn of 
+      // committed changes to entities
+      settings.put(Environment.SESSION_SCOPED_INTERCEPTOR, 
+                   ChangeTrackingInterceptor.class.getName());
       
       // apply settings
       rb.applySettings(settings);
@@ -269,33 +331,11 @@ public final class Persistence {
       // create registry
       service_registry = rb.build();
       
-      // create metadata sources and metadata
-      final MetadataSources sources = new MetadataSources(service_registry);
-      try (InputStream entity_stream = 
-               ClassLoader.getSystemResourceAsStream(ENTITY_CLASSES)) {
-        if (entity_stream == null) {
-          Main.LOGGER.error("could not load list of entity classes");          
-        } else {
-          final Scanner scanner = new Scanner(entity_stream, "UTF-8");
-          while (scanner.hasNextLine()) {
-            final String entity_class = scanner.nextLine();
-            try {
-              sources.addAnnotatedClass(Class.forName(entity_class));
-            } catch (final ClassNotFoundException e) {
-              Main.LOGGER.error("could not add entity, no such class: " + entity_class);
-            }
-            Main.LOGGER.debug("added entity class " + entity_class);
-          }
-          scanner.close();
-        }
-      } catch (final IOException e) {
-        Main.LOGGER.error("error reading list of entity classes: " + e);
-      } 
-      final Metadata metadata = sources.getMetadataBuilder().build();
-      
       // create session factory
-      session_factory = metadata.getSessionFactoryBuilder().build();
+      session_factory = buildSessionFactory(service_registry);
       Main.LOGGER.debug("started Hibernate");
+      
+      setupReadOnlySessionFactory(settings);
     } catch (final RuntimeException e) {
       Main.LOGGER.error("could not start Hibernate, persistence is disabled: " + e);
       if (service_registry != null) {
@@ -304,6 +344,109 @@ public final class Persistence {
     }
   }
   
+  /**
+   * Sets up the read-only session factory, if the properties specify that
+   * read-only transactions should use a separate connection pool. The pool
+   * can connect to the same database as the main session factory, or to a 
+   * streaming replica of it; in either case, transactions on it are started 
+   * with SET TRANSACTION READ ONLY. Schema generation and second-level 
+   * caching are always disabled for the read-only session factory. If the
+   * read-only session factory cannot be started, read-only transactions
+   * use the main session factory.
+   * 
+   * @param the_settings The settings used for the main session factory.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static synchronized void 
+      setupReadOnlySessionFactory(final Map<String, String> the_settings) {
+    if (!Boolean.parseBoolean(system_properties.getProperty("hibernate.read_only.enabled", 
+                                                            FALSE))) {
+      return;
+    }
+    
+    Main.LOGGER.info("attempting to create read-only Hibernate session factory");
+    StandardServiceRegistry registry = null;
+    try {
+      final Map<String, String> settings = new HashMap<>(the_settings);
+      settings.put(Environment.URL, 
+                   system_properties.getProperty("hibernate.read_only.url", 
+                                                 the_settings.get(Environment.URL)));
+      settings.put(Environment.USER, 
+                   system_properties.getProperty("hibernate.read_only.user", 
+                                                 the_settings.get(Environment.USER)));
+      settings.put(Environment.PASS, 
+                   system_properties.getProperty("hibernate.read_only.pass", 
+                                                 the_settings.get(Environment.PASS)));
+      settings.put(Environment.C3P0_MIN_SIZE, 
+                   system_properties.getProperty("hibernate.read_only.c3p0.min_size", 
+                                                 the_settings.get(Environment.C3P0_MIN_SIZE)));
+      settings.put(Environment.C3P0_MAX_SIZE, 
+                   system_properties.getProperty("hibernate.read_only.c3p0.max_size", 
+                                                 the_settings.get(Environment.C3P0_MAX_SIZE)));
+      settings.put(Environment.HBM2DDL_AUTO, "none");
+      settings.put(Environment.USE_SECOND_LEVEL_CACHE, FALSE);
+      settings.put(Environment.USE_QUERY_CACHE, FALSE);
+      registry = new StandardServiceRegistryBuilder().applySettings(settings).build();
+      read_only_session_factory = buildSessionFactory(registry);
+      read_only_replica = 
+          !Objects.equals(settings.get(Environment.URL), the_settings.get(Environment.URL));
+      Main.LOGGER.info("started read-only Hibernate session factory");
+    } catch (final RuntimeException e) {
+      Main.LOGGER.error("could not start read-only Hibernate session factory, " + 
+                        "read-only transactions will use the main one: " + e);
+      if (registry != null) {
+        StandardServiceRegistryBuilder.destroy(registry);
+      }
+    }
+  }
+  
+  /**
+   * Builds a session factory, for all the entity classes, from the specified 
+   * service registry.
+   * 
+   * @param the_registry The service registry.
+   * @return the session factory.
+   */
+  private static SessionFactory 
+      buildSessionFactory(final StandardServiceRegistry the_registry) {
+    // create metadata sources and metadata
+    final MetadataSources sources = new MetadataSources(the_registry);
+    try (InputStream entity_stream = 
+             ClassLoader.getSystemResourceAsStream(ENTITY_CLASSES)) {
+      if (entity_stream == null) {
+        Main.LOGGER.error("could not load list of entity classes");          
+      } else {
+        final Scanner scanner = new Scanner(entity_stream, "UTF-8");
+        while (scanner.hasNextLine()) {
+          final String entity_class = scanner.nextLine();
+          try {
+            sources.addAnnotatedClass(Class.forName(entity_class));
+          } catch (final ClassNotFoundException e) {
+            Main.LOGGER.error("could not add entity, no such class: " + entity_class);
+          }
+          Main.LOGGER.debug("added entity class " + entity_class);
+        }
+        scanner.close();
+      }
+    } catch (final IOException e) {
+      Main.LOGGER.error("error reading list of entity classes: " + e);
+    } 
+    final Metadata metadata = sources.getMetadataBuilder().build();
+    final SessionFactory result = metadata.getSessionFactoryBuilder().build();
+    
+    // per-request entity loads and collection fetches
+    if (RequestStatistics.isEnabled()) {
+      final EventListenerRegistry listeners = 
+          ((SessionFactoryImplementor) result).getServiceRegistry().
+          getService(EventListenerRegistry.class);
+      final LoadStatisticsListener listener = new LoadStatisticsListener();
+      listeners.appendListeners(EventType.POST_LOAD, listener);
+      listeners.appendListeners(EventType.INIT_COLLECTION, listener);
+    }
+    
+    return result;
+  }
+  
   /**
    * @return true if a session is open on this thread, false otherwise.
    * @exception IllegalStateException if the database isn't running.
@@ -394,6 +537,66 @@ public final class Persistence {
     return result; 
   }
   
+  /**
+   * Begins a long-lived read-only transaction in this thread that will span 
+   * several operations. The transaction runs on the read-only session factory
+   * if one is configured, and on the main session factory otherwise; in 
+   * either case, the database enforces that the transaction is read-only,
+   * and the session neither flushes nor keeps snapshots of loaded entities 
+   * for dirty checking. Any open session on this thread that does not have 
+   * an active transaction is closed first.
+   * 
+   * @return true if a new read-only transaction is started, false if a 
+   * transaction was already active (in which case it is left as is).
+   * @exception IllegalStateException if the database isn't running.
+   * @exception PersistenceException if a transaction cannot be started.
+   */
+  public static boolean beginReadOnlyTransaction() 
+      throws PersistenceException {
+    checkForDatabase();
+    
+    if (isTransactionActive()) {
+      return false;
+    }
+    
+    final Session existing = session_info.get();
+    if (existing != null) {
+      session_info.remove();
+      if (existing.isOpen()) {
+        existing.close();
+      }
+    }
+    
+    final SessionFactory factory;
+    if (read_only_session_factory == null) {
+      factory = session_factory;
+    } else {
+      factory = read_only_session_factory;
+    }
+    
+    try {
+      final Session session = factory.openSession();
+      session_info.set(session);
+      session.setDefaultReadOnly(true);
+      session.setHibernateFlushMode(FlushMode.MANUAL);
+      session.beginTransaction();
+      session.doWork(connection -> {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("SET TRANSACTION READ ONLY");
+        }
+      });
+    } catch (final HibernateException e) {
+      final Session session = session_info.get();
+      session_info.remove();
+      if (session != null && session.isOpen()) {
+        session.close();
+      }
+      throw new PersistenceException("could not start read-only transaction", e);
+    }
+    
+    return true;
+  }
+  
   /**
    * Commits the active long-lived transaction. This also closes the current 
    * session, regardless of the transaction's success (it is rolled back if 
@@ -409,10 +612,8 @@ public final class Persistence {
     try {
       currentSession().getTransaction().commit();
     } finally {
-      currentSession().close();
-      session_info.remove();
+      closeCurrentSession();
     }
-    
   }
   
   /**
@@ -429,14 +630,21 @@ public final class Persistence {
       try {
         currentSession().getTransaction().rollback();
       } finally {
-        currentSession().close();
-        session_info.remove();
+        closeCurrentSession();
       }
     } else {
       throw new IllegalStateException("no active transaction to roll back");
     }
   }
   
+  /**
+   * Closes the current session.
+   */
+  private static void closeCurrentSession() {
+    currentSession().close();
+    session_info.remove();
+  }
+  
   /**
    * Saves or updates the specified object in persistent storage. This
    * method must be called within a transaction.
@@ -717,6 +925,27 @@ public final class Persistence {
     return Hibernate.unproxy(the_object);
   }
   
+  /**
+   * @return the statistics of the session factory, including second-level and
+   * query cache hit/miss counts; these are only collected if statistics 
+   * generation is enabled.
+   * @exception IllegalStateException if the database isn't running.
+   */
+  public static Statistics statistics() {
+    checkForDatabase();
+    return session_factory.getStatistics();
+  }
+  
+  /**
+   * @return true if the cast vote record tables are partitioned by county, 
+   * false otherwise.
+   */
+  public static synchronized boolean cvrsPartitioned() {
+    return system_properties != null &&
+           Boolean.parseBoolean(system_properties.getProperty(CVR_PARTITIONING_PROPERTY, 
+                                                              FALSE));
+  }
+  
   /**
    * Throws an IllegalStateException if there is no running transaction.
    */
@@ -0,0 +1,371 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import us.freeandfair.corla.Main;
+
+/**
+ * Database statistics for a single request, gathered from all the Hibernate
+ * sessions the request uses, and aggregated per endpoint. Statistics are 
+ * only gathered if the "request_statistics" property is true; requests that
+ * take longer than the "slow_request_threshold_ms" property are logged 
+ * along with their statistics.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.TooManyMethods")
+public final class RequestStatistics {
+  /**
+   * The name of the property that enables request statistics.
+   */
+  public static final String ENABLED_PROPERTY = "request_statistics";
+  
+  /**
+   * The name of the property that sets the slow request threshold.
+   */
+  public static final String SLOW_REQUEST_PROPERTY = "slow_request_threshold_ms";
+  
+  /**
+   * The default slow request threshold, in milliseconds.
+   */
+  public static final long DEFAULT_SLOW_REQUEST_MSEC = 2000;
+  
+  /**
+   * The statistics for the request running on the current thread, if any.
+   */
+  private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+  
+  /**
+   * The aggregate statistics, by endpoint name.
+   */
+  private static final Map<String, Aggregate> AGGREGATES = new ConcurrentHashMap<>();
+  
+  /**
+   * A flag indicating whether request statistics are enabled.
+   */
+  @SuppressWarnings("PMD.AvoidUsingVolatile")
+  private static volatile boolean enabled;
+  
+  /**
+   * The slow request threshold, in nanoseconds.
+   */
+  @SuppressWarnings("PMD.AvoidUsingVolatile")
+  private static volatile long slow_request_nanos = 
+      TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_REQUEST_MSEC);
+  
+  /**
+   * The time at which the request started, in nanoseconds.
+   */
+  private final long my_start_nanos = System.nanoTime();
+  
+  /**
+   * The number of JDBC statements and batches executed.
+   */
+  private int my_statements;
+  
+  /**
+   * The time spent executing JDBC statements and batches, in nanoseconds.
+   */
+  private long my_statement_nanos;
+  
+  /**
+   * The number of flushes.
+   */
+  private int my_flushes;
+  
+  /**
+   * The time spent flushing, in nanoseconds.
+   */
+  private long my_flush_nanos;
+  
+  /**
+   * The number of entities loaded from the database.
+   */
+  private int my_entity_loads;
+  
+  /**
+   * The number of collections fetched from the database on their own.
+   */
+  private int my_collection_fetches;
+  
+  /**
+   * The number of transactions completed.
+   */
+  private int my_transactions;
+  
+  /**
+   * The time spent in transactions, in nanoseconds.
+   */
+  private long my_transaction_nanos;
+  
+  /**
+   * Private constructor, used by begin().
+   */
+  private RequestStatistics() {
+    // do nothing
+  }
+  
+  /**
+   * Configures request statistics from the specified properties.
+   * 
+   * @param the_properties The properties.
+   */
+  public static void configure(final Properties the_properties) {
+    enabled = Boolean.parseBoolean(the_properties.getProperty(ENABLED_PROPERTY, "false"));
+    try {
+      final String threshold = 
+          the_properties.getProperty(SLOW_REQUEST_PROPERTY, 
+                                     String.valueOf(DEFAULT_SLOW_REQUEST_MSEC));
+      slow_request_nanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(threshold));
+    } catch (final NumberFormatException e) {
+      Main.LOGGER.error("invalid value for " + SLOW_REQUEST_PROPERTY + ", using " + 
+                        DEFAULT_SLOW_REQUEST_MSEC);
+    }
+  }
+  
+  /**
+   * @return true if request statistics are enabled, false otherwise.
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+  
+  /**
+   * Begins gathering statistics for a request on the current thread, if
+   * request statistics are enabled.
+   */
+  public static void begin() {
+    if (enabled) {
+      CURRENT.set(new RequestStatistics());
+    }
+  }
+  
+  /**
+   * @return the statistics for the request on the current thread, or null
+   * if statistics are not being gathered.
+   */
+  public static RequestStatistics current() {
+    return CURRENT.get();
+  }
+  
+  /**
+   * Ends gathering statistics for the request on the current thread, adds 
+   * them to the aggregate statistics for the specified endpoint, and logs 
+   * them if the request was slow. If statistics are not being gathered, this 
+   * method does nothing.
+   * 
+   * @param the_endpoint_name The name of the endpoint that handled the request.
+   */
+  public static void end(final String the_endpoint_name) {
+    final RequestStatistics stats = CURRENT.get();
+    if (stats == null) {
+      return;
+    }
+    CURRENT.remove();
+    final long elapsed = System.nanoTime() - stats.my_start_nanos;
+    AGGREGATES.computeIfAbsent(the_endpoint_name, name -> new Aggregate()).add(stats, elapsed);
+    if (elapsed > slow_request_nanos) {
+      Main.LOGGER.warn("slow request to " + the_endpoint_name + ": " + 
+                       TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms, " + stats);
+    }
+  }
+  
+  /**
+   * @return a snapshot of the aggregate statistics, by endpoint name.
+   */
+  public static SortedMap<String, Aggregate> aggregates() {
+    final SortedMap<String, Aggregate> result = new TreeMap<>();
+    for (final Map.Entry<String, Aggregate> entry : AGGREGATES.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return result;
+  }
+  
+  /**
+   * @return the number of JDBC statements and batches executed so far.
+   */
+  public int statements() {
+    return my_statements;
+  }
+  
+  /**
+   * Records the execution of a JDBC statement or batch.
+   * 
+   * @param the_nanos The execution time, in nanoseconds.
+   */
+  public void statementExecuted(final long the_nanos) {
+    my_statements = my_statements + 1;
+    my_statement_nanos = my_statement_nanos + the_nanos;
+  }
+  
+  /**
+   * Records a flush.
+   * 
+   * @param the_nanos The flush time, in nanoseconds.
+   */
+  public void flushed(final long the_nanos) {
+    my_flushes = my_flushes + 1;
+    my_flush_nanos = my_flush_nanos + the_nanos;
+  }
+  
+  /**
+   * Records the completion of a transaction.
+   * 
+   * @param the_nanos The transaction time, in nanoseconds.
+   */
+  public void transactionCompleted(final long the_nanos) {
+    my_transactions = my_transactions + 1;
+    my_transaction_nanos = my_transaction_nanos + the_nanos;
+  }
+  
+  /**
+   * Records the load of an entity from the database.
+   */
+  public void entityLoaded() {
+    my_entity_loads = my_entity_loads + 1;
+  }
+  
+  /**
+   * Records the fetch of a collection from the database.
+   */
+  public void collectionFetched() {
+    my_collection_fetches = my_collection_fetches + 1;
+  }
+  
+  /**
+   * @return a String representation of these statistics.
+   */
+  @Override
+  public String toString() {
+    return "statements=" + my_statements + 
+           ", statement_ms=" + TimeUnit.NANOSECONDS.toMillis(my_statement_nanos) + 
+           ", entity_loads=" + my_entity_loads + 
+           ", collection_fetches=" + my_collection_fetches + 
+           ", flushes=" + my_flushes + 
+           ", flush_ms=" + TimeUnit.NANOSECONDS.toMillis(my_flush_nanos) + 
+           ", transactions=" + my_transactions + 
+           ", transaction_ms=" + TimeUnit.NANOSECONDS.toMillis(my_transaction_nanos);
+  }
+  
+  /**
+   * Aggregate request statistics for a single endpoint. Times are in 
+   * milliseconds.
+   */
+  @SuppressWarnings("PMD.AccessorMethodGeneration")
+  public static final class Aggregate {
+    /**
+     * The number of requests.
+     */
+    private long my_requests;
+    
+    /**
+     * The total request time.
+     */
+    private long my_total_ms;
+    
+    /**
+     * The maximum request time.
+     */
+    private long my_max_ms;
+    
+    /**
+     * The total number of JDBC statements and batches.
+     */
+    private long my_statements;
+    
+    /**
+     * The maximum number of JDBC statements and batches in a single request.
+     */
+    private long my_max_statements;
+    
+    /**
+     * The total JDBC statement time.
+     */
+    private long my_statement_ms;
+    
+    /**
+     * The total number of entities loaded.
+     */
+    private long my_entity_loads;
+    
+    /**
+     * The total number of collections fetched on their own.
+     */
+    private long my_collection_fetches;
+    
+    /**
+     * The total number of flushes.
+     */
+    private long my_flushes;
+    
+    /**
+     * The total flush time.
+     */
+    private long my_flush_ms;
+    
+    /**
+     * The total transaction time.
+     */
+    private long my_transaction_ms;
+    
+    /**
+     * Adds the specified request statistics to this aggregate.
+     * 
+     * @param the_stats The request statistics.
+     * @param the_elapsed_nanos The elapsed time of the request, in nanoseconds.
+     */
+    public synchronized void add(final RequestStatistics the_stats, 
+                                 final long the_elapsed_nanos) {
+      final long elapsed_ms = TimeUnit.NANOSECONDS.toMillis(the_elapsed_nanos);
+      my_requests = my_requests + 1;
+      my_total_ms = my_total_ms + elapsed_ms;
+      my_max_ms = Math.max(my_max_ms, elapsed_ms);
+      my_statements = my_statements + the_stats.my_statements;
+      my_max_statements = Math.max(my_max_statements, the_stats.my_statements);
+      my_statement_ms = 
+          my_statement_ms + TimeUnit.NANOSECONDS.toMillis(the_stats.my_statement_nanos);
+      my_entity_loads = my_entity_loads + the_stats.my_entity_loads;
+      my_collection_fetches = my_collection_fetches + the_stats.my_collection_fetches;
+      my_flushes = my_flushes + the_stats.my_flushes;
+      my_flush_ms = my_flush_ms + TimeUnit.NANOSECONDS.toMillis(the_stats.my_flush_nanos);
+      my_transaction_ms = 
+          my_transaction_ms + TimeUnit.NANOSECONDS.toMillis(the_stats.my_transaction_nanos);
+    }
+    
+    /**
+     * @return a copy of this aggregate.
+     */
+    public synchronized Aggregate snapshot() {
+      final Aggregate result = new Aggregate();
+      result.my_requests = my_requests;
+      result.my_total_ms = my_total_ms;
+      result.my_max_ms = my_max_ms;
+      result.my_statements = my_statements;
+      result.my_max_statements = my_max_statements;
+      result.my_statement_ms = my_statement_ms;
+      result.my_entity_loads = my_entity_loads;
+      result.my_collection_fetches = my_collection_fetches;
+      result.my_flushes = my_flushes;
+      result.my_flush_ms = my_flush_ms;
+      result.my_transaction_ms = my_transaction_ms;
+      return result;
+    }
+  }
+}
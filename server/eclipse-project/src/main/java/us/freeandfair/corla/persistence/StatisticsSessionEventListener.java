@@ -0,0 +1,137 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * A Hibernate session event listener that records the activity of a session
+ * in the request statistics of the thread that opened it. Hibernate creates
+ * one instance of this listener per session when request statistics are
+ * enabled.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class StatisticsSessionEventListener extends BaseSessionEventListener {
+  /**
+   * The serialVersionUID.
+   */
+  private static final long serialVersionUID = 1L;
+  
+  /**
+   * The request statistics to record to, or null if statistics are not 
+   * being gathered for the request that opened the session.
+   */
+  private final transient RequestStatistics my_stats = RequestStatistics.current();
+  
+  /**
+   * The time at which the session was opened (and, since sessions are opened 
+   * to run transactions, the time at which the first transaction started).
+   */
+  private long my_transaction_start = System.nanoTime();
+  
+  /**
+   * The time at which the current statement or batch started.
+   */
+  private long my_statement_start;
+  
+  /**
+   * The time at which the current flush started.
+   */
+  private long my_flush_start;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void jdbcExecuteStatementStart() {
+    my_statement_start = System.nanoTime();
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    if (my_stats != null) {
+      my_stats.statementExecuted(System.nanoTime() - my_statement_start);
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void jdbcExecuteBatchStart() {
+    my_statement_start = System.nanoTime();
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    if (my_stats != null) {
+      my_stats.statementExecuted(System.nanoTime() - my_statement_start);
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void flushStart() {
+    my_flush_start = System.nanoTime();
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void flushEnd(final int the_entities, final int the_collections) {
+    if (my_stats != null) {
+      my_stats.flushed(System.nanoTime() - my_flush_start);
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void partialFlushStart() {
+    my_flush_start = System.nanoTime();
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void partialFlushEnd(final int the_entities, final int the_collections) {
+    if (my_stats != null) {
+      my_stats.flushed(System.nanoTime() - my_flush_start);
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void transactionCompletion(final boolean the_successful) {
+    final long now = System.nanoTime();
+    if (my_stats != null) {
+      my_stats.transactionCompleted(now - my_transaction_start);
+    }
+    my_transaction_start = now;
+  }
+}
@@ -20,6 +20,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.Administrator;
@@ -59,6 +60,7 @@ public final class AdministratorQueries {
       final Root<Administrator> root = cq.from(Administrator.class);
       cq.select(root).where(cb.equal(root.get("my_username"), the_username));
       final TypedQuery<Administrator> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       final List<Administrator> query_results = query.getResultList();
       // if there's exactly one result, return that
       if (query_results.size() == 1) {
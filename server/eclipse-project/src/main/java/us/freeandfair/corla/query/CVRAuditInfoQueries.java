@@ -0,0 +1,145 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.CVRAuditInfo;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * Queries having to do with CVRAuditInfo entities.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class CVRAuditInfoQueries {
+  /**
+   * The maximum number of IDs to put in a single "in" clause; this keeps
+   * us well under the PostgreSQL limit on bind parameters.
+   */
+  public static final int MAX_IDS_PER_QUERY = 1000;
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CVRAuditInfoQueries() {
+    // do nothing
+  }
+
+  /**
+   * Obtain the CVRAuditInfo objects with the specified IDs (which are the
+   * same as the IDs of their CVRs), using as few queries as possible.
+   * 
+   * @param the_ids The IDs.
+   * @return the matching CVRAuditInfo objects, mapped by ID; IDs for which
+   * no CVRAuditInfo exists do not appear in the map. If the query fails,
+   * the result is null.
+   */
+  public static Map<Long, CVRAuditInfo> get(final Collection<Long> the_ids) {
+    Map<Long, CVRAuditInfo> result = null;
+
+    try {
+      final Session s = Persistence.currentSession();
+      final Map<Long, CVRAuditInfo> found = new HashMap<>();
+      for (final List<Long> chunk : chunks(the_ids)) {
+        final CriteriaBuilder cb = s.getCriteriaBuilder();
+        final CriteriaQuery<CVRAuditInfo> cq = cb.createQuery(CVRAuditInfo.class);
+        final Root<CVRAuditInfo> root = cq.from(CVRAuditInfo.class);
+        cq.select(root).where(root.get("my_id").in(chunk));
+        final TypedQuery<CVRAuditInfo> query = s.createQuery(cq);
+        for (final CVRAuditInfo cvrai : query.getResultList()) {
+          found.put(cvrai.id(), cvrai);
+        }
+      }
+      result = found;
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for CVR audit info");
+    }
+    if (result == null) {
+      Main.LOGGER.debug("found no CVR audit info for ids " + the_ids);
+    } else {
+      Main.LOGGER.debug("found " + result.size() + " CVR audit info records");
+    }
+
+    return result;
+  }
+  
+  /**
+   * Determines which of the CVRs with the specified IDs have been audited 
+   * (that is, have CVRAuditInfo objects with submitted audit CVRs), using 
+   * as few queries as possible and without loading any entities.
+   * 
+   * @param the_ids The CVR IDs.
+   * @return the set of IDs, from among the specified IDs, of CVRs that have 
+   * been audited; if the query fails, the result is null.
+   */
+  public static Set<Long> audited(final Collection<Long> the_ids) {
+    Set<Long> result = null;
+    
+    try {
+      final Session s = Persistence.currentSession();
+      final Set<Long> found = new HashSet<>();
+      for (final List<Long> chunk : chunks(the_ids)) {
+        final CriteriaBuilder cb = s.getCriteriaBuilder();
+        final CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        final Root<CVRAuditInfo> root = cq.from(CVRAuditInfo.class);
+        cq.select(root.get("my_id")).where(cb.and(root.get("my_id").in(chunk),
+                                                  cb.isNotNull(root.get("my_acvr"))));
+        final TypedQuery<Long> query = s.createQuery(cq);
+        found.addAll(query.getResultList());
+      }
+      result = found;
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for audited CVRs");
+    }
+    if (result == null) {
+      Main.LOGGER.debug("could not determine audited CVRs for ids " + the_ids);
+    } else {
+      Main.LOGGER.debug("found " + result.size() + " audited CVRs");
+    }
+    
+    return result;
+  }
+  
+  /**
+   * Splits the specified IDs, with duplicates removed, into chunks small
+   * enough for a single "in" clause.
+   * 
+   * @param the_ids The IDs.
+   * @return the chunks, in the order the IDs were first encountered.
+   */
+  private static List<List<Long>> chunks(final Collection<Long> the_ids) {
+    final List<Long> unique_ids = new ArrayList<>(new LinkedHashSet<>(the_ids));
+    final List<List<Long>> result = new ArrayList<>();
+    for (int i = 0; i < unique_ids.size(); i = i + MAX_IDS_PER_QUERY) {
+      result.add(unique_ids.subList(i, Math.min(unique_ids.size(), i + MAX_IDS_PER_QUERY)));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,423 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.query;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.PersistenceException;
+
+import com.google.gson.stream.JsonWriter;
+
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * Queries that write cast vote records directly to JSON from a forward-only
+ * JDBC cursor over the columns needed for their JSON representation,
+ * without loading any entities. The JSON produced is the same as that
+ * produced by serializing the corresponding CastVoteRecord entities.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class CastVoteRecordProjections {
+  /**
+   * The number of rows to fetch from the database at a time.
+   */
+  public static final int FETCH_SIZE = 2000;
+
+  /**
+   * The columns retrieved for cast vote records and their contest information.
+   */
+  private static final String COLUMNS =
+      "select cvr.id, cvr.record_type, cvr.timestamp, cvr.county_id, " +
+      "cvr.cvr_number, cvr.sequence_number, cvr.scanner_id, cvr.batch_id, " +
+      "cvr.record_id, cvr.imprinted_id, cvr.ballot_type, " +
+      "cci.contest_id, cci.comment, cci.consensus, cci.choices ";
+
+  /**
+   * The join of cast vote records (aliased as "cvr") with their contest 
+   * information.
+   */
+  private static final String CONTEST_INFO_JOIN =
+      " cvr left join cvr_contest_info cci on cci.cvr_id = cvr.id";
+
+  /**
+   * The query used to retrieve cast vote records and their contest
+   * information, to which the record type and county conditions are added.
+   */
+  private static final String SELECT =
+      COLUMNS + "from cast_vote_record" + CONTEST_INFO_JOIN + 
+      " where cvr.record_type in (";
+
+  /**
+   * The query used to retrieve a page of cast vote records and their contest
+   * information, parameterized by the name of the key column. The page is
+   * selected in a subquery so that the limit applies to cast vote records
+   * rather than to contest information rows.
+   */
+  private static final String SELECT_PAGE =
+      COLUMNS + "from (select * from cast_vote_record " + 
+      "where county_id = ? and record_type = ? and %1$s > ? " + 
+      "order by %1$s limit ?)" + CONTEST_INFO_JOIN + " order by cvr.%1$s, cci.index";
+
+  /**
+   * The key column for pages of uploaded cast vote records.
+   */
+  private static final String SEQUENCE_NUMBER_KEY = "sequence_number";
+
+  /**
+   * The key column for pages of other cast vote records.
+   */
+  private static final String ID_KEY = "id";
+
+  /**
+   * The ordering of the query results; all the contest information for a
+   * cast vote record must be contiguous, in ballot order.
+   */
+  private static final String ORDER_BY =
+      " order by cvr.county_id, cvr.sequence_number, cvr.id, cci.index";
+
+  /**
+   * The "contest_info" string (for JSON serialization).
+   */
+  private static final String CONTEST_INFO = "contest_info";
+
+  /**
+   * The column names of the cast vote record part of the query results,
+   * which are also their JSON names, in order.
+   */
+  private static final String[] CVR_COLUMNS = {
+      "id", "record_type", "timestamp", "county_id", "cvr_number",
+      "sequence_number", "scanner_id", "batch_id", "record_id",
+      "imprinted_id", "ballot_type"
+  };
+
+  /**
+   * The result set index of the ID column.
+   */
+  private static final int ID = 1;
+
+  /**
+   * The result set index of the record type column.
+   */
+  private static final int RECORD_TYPE = 2;
+
+  /**
+   * The result set index of the timestamp column.
+   */
+  private static final int TIMESTAMP = 3;
+
+  /**
+   * The result set index of the sequence number column.
+   */
+  private static final int SEQUENCE_NUMBER = 6;
+
+  /**
+   * The result set index of the imprinted ID column.
+   */
+  private static final int IMPRINTED_ID = 10;
+
+  /**
+   * The result set index of the ballot type column.
+   */
+  private static final int BALLOT_TYPE = 11;
+
+  /**
+   * The result set index of the contest ID column.
+   */
+  private static final int CONTEST_ID = 12;
+
+  /**
+   * The result set index of the comment column.
+   */
+  private static final int COMMENT = 13;
+
+  /**
+   * The result set index of the consensus column.
+   */
+  private static final int CONSENSUS = 14;
+
+  /**
+   * The result set index of the choices column.
+   */
+  private static final int CHOICES = 15;
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CastVoteRecordProjections() {
+    // do nothing
+  }
+
+  /**
+   * Writes the cast vote records of the specified types, optionally only
+   * for the specified county, to the specified JSON writer as a sequence
+   * of JSON objects (the caller is responsible for any enclosing array).
+   * This method must be called within a transaction.
+   * 
+   * @param the_writer The JSON writer.
+   * @param the_county_id The county ID, or null for all counties.
+   * @param the_types The record types.
+   * @exception IOException if there is a problem writing the JSON.
+   * @exception PersistenceException if there is a problem with the query.
+   */
+  public static void writeMatching(final JsonWriter the_writer,
+                                   final Long the_county_id,
+                                   final RecordType... the_types)
+      throws IOException, PersistenceException {
+    final StringBuilder sql = new StringBuilder(SELECT);
+    for (int i = 0; i < the_types.length; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append('?');
+    }
+    sql.append(')');
+    if (the_county_id != null) {
+      sql.append(" and cvr.county_id = ?");
+    }
+    sql.append(ORDER_BY);
+
+    final boolean serialize_nulls = the_writer.getSerializeNulls();
+    // Gson omits null fields, so we do too
+    the_writer.setSerializeNulls(false);
+    try {
+      Persistence.currentSession().doWork(the_connection -> {
+        try (PreparedStatement ps =
+                 the_connection.prepareStatement(sql.toString(),
+                                                 ResultSet.TYPE_FORWARD_ONLY,
+                                                 ResultSet.CONCUR_READ_ONLY)) {
+          int index = 1;
+          for (final RecordType type : the_types) {
+            ps.setString(index, type.toString());
+            index = index + 1;
+          }
+          if (the_county_id != null) {
+            ps.setLong(index, the_county_id);
+          }
+          ps.setFetchSize(FETCH_SIZE);
+          try (ResultSet rs = ps.executeQuery()) {
+            writeResults(the_writer, rs, ID, new AtomicLong());
+          }
+        }
+      });
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      the_writer.setSerializeNulls(serialize_nulls);
+    }
+  }
+
+  /**
+   * Writes a page of the cast vote records of the specified type for the 
+   * specified county to the specified JSON writer as a sequence of JSON 
+   * objects (the caller is responsible for any enclosing array). Pages of
+   * uploaded cast vote records are keyed on sequence number, and pages of
+   * other cast vote records are keyed on ID, so each page is an index range 
+   * scan. This method must be called within a transaction.
+   * 
+   * @param the_writer The JSON writer.
+   * @param the_county_id The county ID.
+   * @param the_type The record type.
+   * @param the_after The key after which the page starts, or null to start 
+   * at the beginning.
+   * @param the_limit The maximum number of cast vote records in the page.
+   * @return the key to pass as the_after to get the next page, or null if 
+   * there are no more pages.
+   * @exception IOException if there is a problem writing the JSON.
+   * @exception PersistenceException if there is a problem with the query.
+   */
+  public static Long writePage(final JsonWriter the_writer,
+                               final Long the_county_id,
+                               final RecordType the_type,
+                               final Long the_after,
+                               final int the_limit)
+      throws IOException, PersistenceException {
+    String key = ID_KEY;
+    int key_column = ID;
+    if (the_type == RecordType.UPLOADED) {
+      key = SEQUENCE_NUMBER_KEY;
+      key_column = SEQUENCE_NUMBER;
+    }
+    final String sql = String.format(SELECT_PAGE, key);
+    final int key_index = key_column;
+    // keys are never negative
+    long after = -1;
+    if (the_after != null) {
+      after = the_after;
+    }
+    final long after_key = after;
+    final AtomicLong last_key = new AtomicLong();
+    final AtomicInteger count = new AtomicInteger();
+    
+    final boolean serialize_nulls = the_writer.getSerializeNulls();
+    the_writer.setSerializeNulls(false);
+    try {
+      Persistence.currentSession().doWork(the_connection -> {
+        try (PreparedStatement ps =
+                 the_connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                                                 ResultSet.CONCUR_READ_ONLY)) {
+          int index = 1;
+          ps.setLong(index, the_county_id);
+          index = index + 1;
+          ps.setString(index, the_type.toString());
+          index = index + 1;
+          ps.setLong(index, after_key);
+          index = index + 1;
+          ps.setInt(index, the_limit);
+          ps.setFetchSize(FETCH_SIZE);
+          try (ResultSet rs = ps.executeQuery()) {
+            count.set(writeResults(the_writer, rs, key_index, last_key));
+          }
+        }
+      });
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      the_writer.setSerializeNulls(serialize_nulls);
+    }
+    
+    Long result = null;
+    if (count.get() == the_limit) {
+      result = last_key.get();
+    }
+    return result;
+  }
+
+  /**
+   * Writes the cast vote records in the specified result set to the
+   * specified JSON writer.
+   * 
+   * @param the_writer The JSON writer.
+   * @param the_results The result set.
+   * @param the_key_column The result set index of the column containing 
+   * the key of each cast vote record.
+   * @param the_last_key A holder for the key of the last cast vote record 
+   * written.
+   * @return the number of cast vote records written.
+   * @exception SQLException if there is a problem reading the results.
+   * @exception UncheckedIOException if there is a problem writing the JSON.
+   */
+  private static int writeResults(final JsonWriter the_writer,
+                                  final ResultSet the_results,
+                                  final int the_key_column,
+                                  final AtomicLong the_last_key)
+      throws SQLException {
+    int result = 0;
+    try {
+      long current_id = 0;
+      boolean open = false;
+      while (the_results.next()) {
+        final long id = the_results.getLong(ID);
+        if (!open || id != current_id) {
+          if (open) {
+            the_writer.endArray();
+            the_writer.endObject();
+          }
+          writeRecord(the_writer, the_results);
+          the_last_key.set(the_results.getLong(the_key_column));
+          current_id = id;
+          open = true;
+          result = result + 1;
+        }
+        if (the_results.getObject(CONTEST_ID) != null) {
+          writeContestInfo(the_writer, the_results);
+        }
+      }
+      if (open) {
+        the_writer.endArray();
+        the_writer.endObject();
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return result;
+  }
+
+  /**
+   * Writes the beginning of a cast vote record (everything up to and
+   * including the start of its contest information array) from the
+   * current row of the specified result set.
+   * 
+   * @param the_writer The JSON writer.
+   * @param the_results The result set.
+   * @exception IOException if there is a problem writing the JSON.
+   * @exception SQLException if there is a problem reading the results.
+   */
+  private static void writeRecord(final JsonWriter the_writer,
+                                  final ResultSet the_results)
+      throws IOException, SQLException {
+    the_writer.beginObject();
+    for (int i = 1; i <= CVR_COLUMNS.length; i++) {
+      the_writer.name(CVR_COLUMNS[i - 1]);
+      switch (i) {
+        case RECORD_TYPE:
+        case IMPRINTED_ID:
+        case BALLOT_TYPE:
+          the_writer.value(the_results.getString(i));
+          break;
+
+        case TIMESTAMP:
+          final Timestamp timestamp = the_results.getTimestamp(i);
+          if (timestamp == null) {
+            the_writer.nullValue();
+          } else {
+            the_writer.value(timestamp.toInstant().toString());
+          }
+          break;
+
+        default:
+          the_writer.value((Number) the_results.getObject(i));
+          break;
+      }
+    }
+    the_writer.name(CONTEST_INFO);
+    the_writer.beginArray();
+  }
+
+  /**
+   * Writes a contest information object from the current row of the
+   * specified result set, in the same form as the CVRContestInfo JSON
+   * adapter does.
+   * 
+   * @param the_writer The JSON writer.
+   * @param the_results The result set.
+   * @exception IOException if there is a problem writing the JSON.
+   * @exception SQLException if there is a problem reading the results.
+   */
+  private static void writeContestInfo(final JsonWriter the_writer,
+                                       final ResultSet the_results)
+      throws IOException, SQLException {
+    the_writer.beginObject();
+    the_writer.name("contest").value(the_results.getLong(CONTEST_ID));
+    the_writer.name("comment").value(the_results.getString(COMMENT));
+    the_writer.name("consensus").value(the_results.getString(CONSENSUS));
+    the_writer.name("choices");
+    // the choices are stored as a JSON array
+    final String choices = the_results.getString(CHOICES);
+    if (choices == null) {
+      the_writer.beginArray();
+      the_writer.endArray();
+    } else {
+      the_writer.jsonValue(choices);
+    }
+    the_writer.endObject();
+  }
+}
@@ -29,6 +29,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 
 import us.freeandfair.corla.Main;
@@ -229,8 +230,14 @@ public final class CastVoteRecordQueries {
    */
   public static int deleteMatching(final Long the_county_id,
                                     final RecordType the_type) {
-    final AtomicInteger count = new AtomicInteger();
     final Session s = Persistence.currentSession();
+    if (the_type == RecordType.UPLOADED && Persistence.cvrsPartitioned()) {
+      final int truncated = truncateUploadedPartition(s, the_county_id);
+      if (truncated >= 0) {
+        return truncated;
+      }
+    }
+    final AtomicInteger count = new AtomicInteger();
     final CriteriaBuilder cb = s.getCriteriaBuilder();
     final CriteriaQuery<CastVoteRecord> cq = cb.createQuery(CastVoteRecord.class);
     final Root<CastVoteRecord> root = cq.from(CastVoteRecord.class);
@@ -245,6 +252,42 @@ public final class CastVoteRecordQueries {
     return count.get();
   }
   
+  /**
+   * Deletes the uploaded cast vote records for the specified county by 
+   * truncating the county's uploaded CVR partition, after deleting their 
+   * contest information from the county's contest information partition.
+   * 
+   * @param the_session The session to use.
+   * @param the_county_id The county ID.
+   * @return the number of records deleted, or -1 if the county has no
+   * uploaded CVR partition (in which case nothing is deleted).
+   * @exception PersistenceException if the cast vote records cannot be deleted.
+   */
+  private static int truncateUploadedPartition(final Session the_session,
+                                               final Long the_county_id) {
+    // the partition name is built from a Long, so it is safe to use in SQL
+    final String partition = "cast_vote_record_c" + the_county_id + "_uploaded";
+    final NativeQuery<?> exists_query = 
+        the_session.createNativeQuery("select to_regclass(:name) is not null");
+    exists_query.setParameter("name", partition);
+    if (!Boolean.TRUE.equals(exists_query.getSingleResult())) {
+      Main.LOGGER.warn("no uploaded CVR partition for county " + the_county_id);
+      return -1;
+    }
+    final NativeQuery<?> count_query = 
+        the_session.createNativeQuery("select count(*) from " + partition);
+    final Number count = (Number) count_query.getSingleResult();
+    final NativeQuery<?> delete_query = 
+        the_session.createNativeQuery("delete from cvr_contest_info " + 
+                                      "where county_id = :county and " + 
+                                      "cvr_id in (select id from " + partition + ")");
+    delete_query.setParameter("county", the_county_id);
+    delete_query.executeUpdate();
+    the_session.createNativeQuery("truncate table " + partition).executeUpdate();
+    Main.LOGGER.debug("truncated " + count + " uploaded CVRs for county " + the_county_id);
+    return count.intValue();
+  }
+  
   /**
    * Obtain the CastVoteRecord object with the specified county, type, 
    * and sequence number. 
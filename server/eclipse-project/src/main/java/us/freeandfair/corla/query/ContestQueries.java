@@ -24,6 +24,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.Contest;
@@ -67,6 +68,7 @@ public final class ContestQueries {
       cq.orderBy(cb.asc(root.get("my_county").get("my_id")), 
                  cb.asc(root.get("my_sequence_number")));
       final TypedQuery<Contest> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       result = query.getResultList();  
     } catch (final PersistenceException e) {
       Main.LOGGER.error("Exception when reading contests from database: " + e);
@@ -93,6 +95,7 @@ public final class ContestQueries {
       cq.where(cb.equal(root.get("my_county"), the_county));
       cq.orderBy(cb.asc(root.get("my_sequence_number")));
       final TypedQuery<Contest> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       result = new HashSet<Contest>(query.getResultList());
     } catch (final PersistenceException e) {
       Main.LOGGER.error("Exception when reading contests from database: " + e);
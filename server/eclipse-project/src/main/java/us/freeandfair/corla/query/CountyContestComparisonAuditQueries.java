@@ -11,12 +11,15 @@
 
 package us.freeandfair.corla.query;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
@@ -71,4 +74,35 @@ public final class CountyContestComparisonAuditQueries {
     }
     return result;
   }
+  
+  /**
+   * Obtain all CountyContestComparisonAudit objects for the specified Contests,
+   * with their county dashboards, in a single query.
+   *
+   * @param the_contests The contests.
+   * @return the matched objects, or null if the query fails.
+   */
+  public static List<CountyContestComparisonAudit> 
+      matching(final Collection<Contest> the_contests) {
+    if (the_contests.isEmpty()) {
+      return new ArrayList<>();
+    }
+    
+    List<CountyContestComparisonAudit> result = null;
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      final CriteriaQuery<CountyContestComparisonAudit> cq = 
+          cb.createQuery(CountyContestComparisonAudit.class);
+      final Root<CountyContestComparisonAudit> root = 
+          cq.from(CountyContestComparisonAudit.class);
+      root.fetch("my_dashboard", JoinType.INNER);
+      cq.select(root).where(root.get("my_contest").in(the_contests));
+      final TypedQuery<CountyContestComparisonAudit> query = s.createQuery(cq);
+      result = query.getResultList();
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for county comparison audits");
+    }
+    return result;
+  }
 }
@@ -24,6 +24,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.Contest;
@@ -73,6 +74,7 @@ public final class CountyContestResultQueries {
       conjuncts.add(cb.equal(root.get("my_contest"), the_contest));
       cq.select(root).where(cb.and(conjuncts.toArray(new Predicate[conjuncts.size()])));
       final TypedQuery<CountyContestResult> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       final List<CountyContestResult> query_results = query.getResultList();
       // there should only be one, if one exists
       if (query_results.size() == 1) {
@@ -113,6 +115,7 @@ public final class CountyContestResultQueries {
       cq.select(root);
       cq.where(cb.equal(root.get("my_county"), the_county));
       final TypedQuery<CountyContestResult> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       result = new HashSet<CountyContestResult>(query.getResultList());
     } catch (final PersistenceException e) {
       Main.LOGGER.error("Exception when reading contests from database: " + e);
@@ -0,0 +1,80 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.query;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.persistence.PersistenceException;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.persistence.Persistence;
+
+/**
+ * Queries having to do with CountyDashboard entities.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class CountyDashboardQueries {
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CountyDashboardQueries() {
+    // do nothing
+  }
+  
+  /**
+   * Obtains all the county dashboards, with their counties, uploaded files,
+   * rounds and audit boards, using two queries regardless of the number of
+   * counties. The rounds and audit boards are fetched by separate queries, 
+   * so that the rows of one are not multiplied by those of the other.
+   * 
+   * @return the county dashboards; the set is empty if the query fails.
+   */
+  public static Set<CountyDashboard> allWithStatus() {
+    final Set<CountyDashboard> result = new LinkedHashSet<>();
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      
+      final CriteriaQuery<CountyDashboard> cq = cb.createQuery(CountyDashboard.class);
+      final Root<CountyDashboard> root = cq.from(CountyDashboard.class);
+      root.fetch("my_county", JoinType.LEFT);
+      root.fetch("my_cvr_file", JoinType.LEFT);
+      root.fetch("my_manifest_file", JoinType.LEFT);
+      root.fetch("my_rounds", JoinType.LEFT);
+      cq.select(root);
+      // the fetch join repeats each dashboard once per round
+      result.addAll(s.createQuery(cq).getResultList());
+      
+      final CriteriaQuery<CountyDashboard> boards_cq = 
+          cb.createQuery(CountyDashboard.class);
+      final Root<CountyDashboard> boards_root = boards_cq.from(CountyDashboard.class);
+      boards_root.fetch("my_audit_boards", JoinType.LEFT);
+      boards_cq.select(boards_root);
+      // this initializes the audit boards of the dashboards already loaded
+      s.createQuery(boards_cq).getResultList();
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for county dashboards");
+      result.clear();
+    }
+    return result;
+  }
+}
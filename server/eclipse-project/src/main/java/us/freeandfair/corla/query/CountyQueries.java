@@ -20,6 +20,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.model.County;
@@ -69,6 +70,7 @@ public final class CountyQueries {
       cq.select(root).where(cb.or(cb.like(root.get("my_name"), "%" + the_string + "%"),
                                   cb.equal(root.get("my_identifier"), parsed_id)));
       final TypedQuery<County> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       final List<County> query_results = query.getResultList();
       // if there's exactly one result, return that
       if (query_results.size() == 1) {
@@ -12,9 +12,12 @@
 package us.freeandfair.corla.query;
 
 import javax.persistence.Cache;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 
 import org.hibernate.Session;
 
+import us.freeandfair.corla.persistence.LogWriter;
 import us.freeandfair.corla.persistence.Persistence;
 
 /**
@@ -33,13 +36,27 @@ public final class DatabaseResetQueries {
   
   /**
    * Deletes everything from the database except authentication 
-   * information. This query is very dangerous. 
+   * information. This query is very dangerous. The log writer is suspended
+   * until the current transaction ends and, if it commits, reset so that
+   * the log chain starts afresh.
    * 
    * @exception PersistenceException if the delete is unsuccessful.
    */
   public static void resetDatabase() {
     final Session s = Persistence.currentSession();
     
+    // no log entries may be chained to the old log while it is being deleted
+    LogWriter.suspend();
+    boolean registered = false;
+    try {
+      s.getTransaction().registerSynchronization(new LogWriterReset());
+      registered = true;
+    } finally {
+      if (!registered) {
+        LogWriter.resume();
+      }
+    }
+    
     // NOTE: this is done with native queries, because otherwise it would be
     // interminably slow (deleting one entity at a time)
     
@@ -74,4 +91,31 @@ public final class DatabaseResetQueries {
       cache.evictAll();
     }
   }
+  
+  /**
+   * Resets and resumes the log writer when a database reset transaction ends.
+   */
+  private static class LogWriterReset implements Synchronization {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beforeCompletion() {
+      // nothing to do
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterCompletion(final int the_status) {
+      try {
+        if (the_status == Status.STATUS_COMMITTED) {
+          LogWriter.reset();
+        }
+      } finally {
+        LogWriter.resume();
+      }
+    }
+  }
 }
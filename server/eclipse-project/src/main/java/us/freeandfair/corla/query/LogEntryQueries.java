@@ -11,6 +11,8 @@
 
 package us.freeandfair.corla.query;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
 
 import javax.persistence.PersistenceException;
@@ -23,6 +25,7 @@ import javax.persistence.criteria.Subquery;
 import org.hibernate.Session;
 
 import us.freeandfair.corla.Main;
+import us.freeandfair.corla.crypto.LogChainVerifier;
 import us.freeandfair.corla.model.LogEntry;
 import us.freeandfair.corla.persistence.Persistence;
 
@@ -33,6 +36,19 @@ import us.freeandfair.corla.persistence.Persistence;
  * @version 1.0.0
  */
 public final class LogEntryQueries {
+  /**
+   * The number of rows to fetch from the database at a time when streaming
+   * the log.
+   */
+  public static final int FETCH_SIZE = 2000;
+  
+  /**
+   * The query used to stream the information needed to verify the log.
+   */
+  private static final String SELECT_CHAIN =
+      "select id, previous_entry, result_code, information, timestamp, hash " +
+      "from log order by id";
+  
   /**
    * Private constructor to prevent instantiation.
    */
@@ -84,4 +100,37 @@ public final class LogEntryQueries {
     
     return result;
   }
+  
+  /**
+   * Streams the entire log, in ID order, to the specified verifier from a
+   * forward-only JDBC cursor, without loading any entities. The caller is
+   * responsible for finishing the verification.
+   * 
+   * @param the_verifier The verifier.
+   * @exception PersistenceException if the log cannot be read.
+   */
+  public static void verifyChain(final LogChainVerifier the_verifier) 
+      throws PersistenceException {
+    Persistence.currentSession().doWork(the_connection -> {
+      try (PreparedStatement ps = 
+               the_connection.prepareStatement(SELECT_CHAIN, ResultSet.TYPE_FORWARD_ONLY,
+                                               ResultSet.CONCUR_READ_ONLY)) {
+        ps.setFetchSize(FETCH_SIZE);
+        try (ResultSet rs = ps.executeQuery()) {
+          while (rs.next()) {
+            final long previous = rs.getLong("previous_entry");
+            Long previous_id = null;
+            if (!rs.wasNull()) {
+              previous_id = previous;
+            }
+            final String hash_string = 
+                LogEntry.hashString(rs.getInt("result_code"), rs.getString("information"), 
+                                    rs.getTimestamp("timestamp").toInstant());
+            the_verifier.add(rs.getLong("id"), previous_id, hash_string, 
+                             rs.getString("hash"));
+          }
+        }
+      }
+    });
+  }
 }
@@ -11,7 +11,9 @@
 
 package us.freeandfair.corla.query;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.TypedQuery;
@@ -21,6 +23,7 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
 
 import us.freeandfair.corla.Main;
 import us.freeandfair.corla.asm.AbstractStateMachine;
@@ -71,6 +74,7 @@ public final class PersistentASMStateQueries {
       }
       cq.select(root).where(predicate);
       final TypedQuery<PersistentASMState> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
       final List<PersistentASMState> query_results = query.getResultList();
       PersistentASMState asm = null;
       if (query_results.size() > 1) {
@@ -88,5 +92,32 @@ public final class PersistentASMStateQueries {
     }
     return result;
   }
-
+  
+  /**
+   * Retrieves all the persistent ASM states from the database for the 
+   * specified ASM class, with a single query.
+   * 
+   * @param the_class The class of ASM to retrieve.
+   * @return a map from ASM identities to persistent ASM states; the map is
+   * empty if the query fails.
+   */
+  public static Map<String, PersistentASMState> 
+      getAll(final Class<? extends AbstractStateMachine> the_class) {
+    final Map<String, PersistentASMState> result = new HashMap<>();
+    try {
+      final Session s = Persistence.currentSession();
+      final CriteriaBuilder cb = s.getCriteriaBuilder();
+      final CriteriaQuery<PersistentASMState> cq = cb.createQuery(PersistentASMState.class);
+      final Root<PersistentASMState> root = cq.from(PersistentASMState.class);
+      cq.select(root).where(cb.equal(root.get("my_asm_class"), the_class.getName()));
+      final TypedQuery<PersistentASMState> query = s.createQuery(cq);
+      query.setHint(QueryHints.HINT_CACHEABLE, true);
+      for (final PersistentASMState asm : query.getResultList()) {
+        result.put(asm.asmIdentity(), asm);
+      }
+    } catch (final PersistenceException e) {
+      Main.LOGGER.error("could not query database for persistent ASM states");
+    }
+    return result;
+  }
 }
@@ -13,8 +13,8 @@ package us.freeandfair.corla.report;
 
 import static us.freeandfair.corla.util.PrettyPrinter.booleanYesNo;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -38,9 +38,8 @@ import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import us.freeandfair.corla.controller.ComparisonAuditController;
 import us.freeandfair.corla.model.AuditSelection;
@@ -53,6 +52,7 @@ import us.freeandfair.corla.model.DoSDashboard;
 import us.freeandfair.corla.model.Round;
 import us.freeandfair.corla.persistence.Persistence;
 import us.freeandfair.corla.query.CountyContestResultQueries;
+import us.freeandfair.corla.util.CloseShieldOutputStream;
 
 /**
  * All the data required for a county audit report.
@@ -205,27 +205,35 @@ public class CountyReport {
   }
   
   /**
-   * @return the Excel representation of this report, as a byte array.
-   * @exception IOException if the report cannot be generated.
+   * Writes the Excel representation of this report to the specified stream,
+   * which is left open. The workbook is generated in full before anything
+   * is written; its temporary files are deleted afterwards.
+   * 
+   * @param the_output The stream.
+   * @exception IOException if the report cannot be written.
    */
-  public byte[] generateExcel() throws IOException {
-    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    final Workbook workbook = generateExcelWorkbook();
-    workbook.write(baos);
-    baos.flush();
-    baos.close();
-    workbook.close();
-    return baos.toByteArray();
+  public void generateExcel(final OutputStream the_output) throws IOException {
+    final SXSSFWorkbook workbook = generateExcelWorkbook();
+    try {
+      // the workbook closes the stream it writes to
+      workbook.write(new CloseShieldOutputStream(the_output));
+    } finally {
+      workbook.dispose();
+      workbook.close();
+    }
   }
   
   /**
-   * @return the Excel workbook for this report.
+   * @return the Excel workbook for this report. It is a streaming workbook,
+   * which keeps only a window of rows of each sheet in memory and flushes 
+   * the rest to (compressed) temporary files; dispose() deletes them.
    */
   @SuppressWarnings({"checkstyle:magicnumber", "checkstyle:executablestatementcount",
       "checkstyle:methodlength", "PMD.ExcessiveMethodLength", "PMD.NcssMethodCount",
       "PMD.NPathComplexity", "PMD.AvoidLiteralsInIfCondition"})
-  public Workbook generateExcelWorkbook() {
-    final Workbook workbook = new XSSFWorkbook();
+  public SXSSFWorkbook generateExcelWorkbook() {
+    final SXSSFWorkbook workbook = new SXSSFWorkbook();
+    workbook.setCompressTempFiles(true);
 
     // data format
     final DataFormat format = workbook.createDataFormat();
@@ -263,7 +271,9 @@ public class CountyReport {
     box_style.setBorderRight(BorderStyle.THICK);
     
     // the summary sheet
-    final Sheet summary_sheet = workbook.createSheet("Summary");
+    final SXSSFSheet summary_sheet = workbook.createSheet("Summary");
+    // the columns are sized to fit every row, not just those still in memory
+    summary_sheet.trackAllColumnsForAutoSizing();
     int row_number = 0;
     Row row = summary_sheet.createRow(row_number++);
     int cell_number = 0;
@@ -609,7 +619,9 @@ public class CountyReport {
     // round sheets
     
     for (final Round round : my_rounds) {
-      final Sheet round_sheet = workbook.createSheet("Round " + round.number());
+      final SXSSFSheet round_sheet = workbook.createSheet("Round " + round.number());
+      // the columns are sized to fit every row, not just those still in memory
+      round_sheet.trackAllColumnsForAutoSizing();
       row_number = 0;
       row = round_sheet.createRow(row_number++);
       cell_number = 0;
@@ -767,7 +779,9 @@ public class CountyReport {
     }
     
     // affirmation sheet
-    final Sheet affirmation_sheet = workbook.createSheet("Affirmation");
+    final SXSSFSheet affirmation_sheet = workbook.createSheet("Affirmation");
+    // the columns are sized to fit every row, not just those still in memory
+    affirmation_sheet.trackAllColumnsForAutoSizing();
     row_number = 0;
     row = affirmation_sheet.createRow(row_number++);
     cell_number = 0;
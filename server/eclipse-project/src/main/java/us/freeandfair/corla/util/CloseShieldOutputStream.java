@@ -0,0 +1,61 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream that passes everything written to it through to another
+ * stream, but only flushes that stream when it is closed. It is for handing
+ * a stream to a writer that closes the streams it writes to, when the 
+ * stream belongs to someone else (such as a servlet response).
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public class CloseShieldOutputStream extends FilterOutputStream {
+  /**
+   * Constructs a new CloseShieldOutputStream.
+   * 
+   * @param the_stream The stream to write to.
+   */
+  public CloseShieldOutputStream(final OutputStream the_stream) {
+    super(the_stream);
+  }
+  
+  /**
+   * Writes the specified bytes to the underlying stream all at once, 
+   * rather than one at a time.
+   * 
+   * @param the_bytes The bytes.
+   * @param the_offset The offset of the first byte to write.
+   * @param the_length The number of bytes to write.
+   * @exception IOException if the bytes cannot be written.
+   */
+  @Override
+  public void write(final byte[] the_bytes, final int the_offset, final int the_length)
+      throws IOException {
+    out.write(the_bytes, the_offset, the_length);
+  }
+  
+  /**
+   * Flushes, but does not close, the underlying stream.
+   * 
+   * @exception IOException if the underlying stream cannot be flushed.
+   */
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+}
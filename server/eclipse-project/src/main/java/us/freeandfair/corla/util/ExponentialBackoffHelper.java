@@ -35,11 +35,13 @@ public final class ExponentialBackoffHelper {
   /**
    * Calculates a delay, in milliseconds, to sleep before retrying a transaction.
    * This is done using a relatively standard exponential backoff and the specified
-   * unit delay.
+   * unit delay. Each call is counted as a transaction retry in the server
+   * metrics.
    * 
    * @param the_retries The number of retries so far.
    */
   public static long exponentialBackoff(final int the_retries, final long the_unit_delay) {
+    Metrics.transactionRetried();
     final double exponentiated = Math.pow(2,  the_retries);
     long multiplier = 1;
     
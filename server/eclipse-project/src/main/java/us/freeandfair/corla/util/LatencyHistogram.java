@@ -0,0 +1,100 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies. The upper bounds of its buckets are
+ * successive powers of two microseconds, so its relative precision is the
+ * same from well under a millisecond to over a minute, and recording a
+ * latency is a single atomic increment.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class LatencyHistogram {
+  /**
+   * The base 2 logarithm of the upper bound, in microseconds, of the
+   * first bucket (128us).
+   */
+  public static final int MIN_EXPONENT = 7;
+
+  /**
+   * The base 2 logarithm of the upper bound, in microseconds, of the
+   * last bounded bucket (about 67s).
+   */
+  public static final int MAX_EXPONENT = 26;
+
+  /**
+   * The number of buckets, including the final unbounded bucket.
+   */
+  public static final int BUCKETS = MAX_EXPONENT - MIN_EXPONENT + 2;
+
+  /**
+   * The counts of the buckets.
+   */
+  private final AtomicLongArray my_counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * The sum of all recorded latencies, in nanoseconds.
+   */
+  private final LongAdder my_total_nanos = new LongAdder();
+
+  /**
+   * Gets the upper bound of the specified bucket.
+   * 
+   * @param the_index The bucket index.
+   * @return the upper bound, in microseconds, or Long.MAX_VALUE for the
+   * final unbounded bucket.
+   */
+  public static long upperBoundMicros(final int the_index) {
+    if (the_index >= BUCKETS - 1) {
+      return Long.MAX_VALUE;
+    }
+    return 1L << (MIN_EXPONENT + the_index);
+  }
+
+  /**
+   * Records a latency.
+   * 
+   * @param the_nanos The latency, in nanoseconds.
+   */
+  public void record(final long the_nanos) {
+    final long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(the_nanos));
+    // the smallest exponent such that micros <= 2^exponent
+    final int exponent = Long.SIZE - Long.numberOfLeadingZeros(micros - 1);
+    my_counts.incrementAndGet(Math.min(BUCKETS - 1,
+                                       Math.max(0, exponent - MIN_EXPONENT)));
+    my_total_nanos.add(Math.max(0, the_nanos));
+  }
+
+  /**
+   * @return a snapshot of the (non-cumulative) bucket counts.
+   */
+  public long[] counts() {
+    final long[] result = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      result[i] = my_counts.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * @return the sum of all recorded latencies, in nanoseconds.
+   */
+  public long totalNanos() {
+    return my_total_nanos.sum();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of Longs backed by an array of primitive longs, 
+ * so that long sequences of IDs do not require one boxed object per 
+ * element while they are held in memory.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+public final class LongArrayList extends AbstractList<Long> 
+    implements RandomAccess, Serializable {
+  /**
+   * The serialVersionUID.
+   */
+  private static final long serialVersionUID = 1;
+  
+  /**
+   * The elements of the list.
+   */
+  private final long[] my_elements;
+  
+  /**
+   * Constructs a new LongArrayList containing the specified elements. The
+   * array is not copied, so it must not be modified after construction.
+   * 
+   * @param the_elements The elements.
+   */
+  public LongArrayList(final long... the_elements) {
+    super();
+    my_elements = the_elements;
+  }
+  
+  /**
+   * Constructs a new LongArrayList containing the elements of the specified
+   * collection, in iteration order.
+   * 
+   * @param the_collection The collection; must not contain nulls.
+   * @exception NullPointerException if the collection contains a null.
+   */
+  public LongArrayList(final Collection<Long> the_collection) {
+    super();
+    my_elements = new long[the_collection.size()];
+    int i = 0;
+    for (final Long l : the_collection) {
+      my_elements[i] = l;
+      i = i + 1;
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long get(final int the_index) {
+    return my_elements[the_index];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int size() {
+    return my_elements.length;
+  }
+}
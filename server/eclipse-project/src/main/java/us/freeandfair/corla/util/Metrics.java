@@ -0,0 +1,340 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-wide metrics: latency histograms for the phases of each endpoint's
+ * requests, and counters for transaction retries, halted requests and
+ * imports. Metrics are always gathered, as recording them costs only a few
+ * atomic operations, and are reported in Prometheus text format.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+@SuppressWarnings("PMD.AccessorMethodGeneration")
+public final class Metrics {
+  /**
+   * The content type of the Prometheus text format.
+   */
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  /**
+   * The Prometheus type of a counter.
+   */
+  private static final String COUNTER = "counter";
+  
+  /**
+   * The end of a label set with a single label.
+   */
+  private static final String LABEL_END = "\"} ";
+  
+  /**
+   * The number of decimal places in a time, in seconds, with nanosecond
+   * precision.
+   */
+  private static final int NANO_SCALE = 9;
+
+  /**
+   * The number of decimal places in a time, in seconds, with microsecond
+   * precision.
+   */
+  private static final int MICRO_SCALE = 6;
+
+  /**
+   * The phase latency histograms, by endpoint name and phase ordinal.
+   */
+  private static final Map<String, LatencyHistogram[]> PHASES =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The number of transaction retries.
+   */
+  private static final LongAdder RETRIES = new LongAdder();
+
+  /**
+   * The number of requests whose changes were committed but whose log
+   * entries could not be persisted.
+   */
+  private static final LongAdder UNLOGGED_COMMITS = new LongAdder();
+
+  /**
+   * The number of halted requests, by HTTP status code.
+   */
+  private static final Map<Integer, LongAdder> HALTS = new ConcurrentHashMap<>();
+
+  /**
+   * The number of requests turned away by admission control, by admission
+   * class.
+   */
+  private static final Map<String, LongAdder> REJECTIONS = new ConcurrentHashMap<>();
+  
+  /**
+   * The import counters, by import type.
+   */
+  private static final Map<String, ImportCounters> IMPORTS = new ConcurrentHashMap<>();
+
+  /**
+   * The phases of a request.
+   */
+  public enum Phase {
+    AUTHORIZATION,
+    ASM_LOAD,
+    BODY,
+    ASM_SAVE,
+    COMMIT,
+    LOG_PERSIST,
+    REQUEST;
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private Metrics() {
+    // empty
+  }
+
+  /**
+   * Records the latency of a phase of a request.
+   * 
+   * @param the_endpoint_name The name of the endpoint handling the request.
+   * @param the_phase The phase.
+   * @param the_nanos The latency, in nanoseconds.
+   */
+  public static void recordPhase(final String the_endpoint_name, final Phase the_phase,
+                                 final long the_nanos) {
+    final LatencyHistogram[] histograms = 
+        PHASES.computeIfAbsent(the_endpoint_name, name -> newHistograms());
+    histograms[the_phase.ordinal()].record(the_nanos);
+  }
+
+  /**
+   * Records a transaction retry.
+   */
+  public static void transactionRetried() {
+    RETRIES.increment();
+  }
+
+  /**
+   * Records a request whose changes were committed but whose log entries
+   * could not be persisted.
+   */
+  public static void unloggedCommit() {
+    UNLOGGED_COMMITS.increment();
+  }
+
+  /**
+   * Records a halted request.
+   * 
+   * @param the_status The HTTP status code of the response.
+   */
+  public static void halted(final int the_status) {
+    HALTS.computeIfAbsent(the_status, status -> new LongAdder()).increment();
+  }
+
+  /**
+   * Records a request turned away by admission control.
+   * 
+   * @param the_class The admission class of the request.
+   */
+  public static void rejected(final String the_class) {
+    REJECTIONS.computeIfAbsent(the_class, name -> new LongAdder()).increment();
+  }
+  
+  /**
+   * Records a completed import.
+   * 
+   * @param the_type The type of import (for example, "cvr").
+   * @param the_records The number of records imported.
+   * @param the_nanos The time taken by the import, in nanoseconds.
+   */
+  public static void imported(final String the_type, final long the_records,
+                              final long the_nanos) {
+    final ImportCounters counters =
+        IMPORTS.computeIfAbsent(the_type, type -> new ImportCounters());
+    counters.my_imports.increment();
+    counters.my_records.add(the_records);
+    counters.my_nanos.add(the_nanos);
+  }
+
+  /**
+   * @return all the metrics, in Prometheus text format.
+   */
+  public static String prometheus() {
+    final StringBuilder sb = new StringBuilder(8192);
+
+    header(sb, "corla_request_phase_seconds", "histogram",
+           "Latency of each phase of endpoint requests.");
+    for (final Map.Entry<String, LatencyHistogram[]> entry :
+         new TreeMap<>(PHASES).entrySet()) {
+      for (final Phase phase : Phase.values()) {
+        final String labels = "endpoint=\"" + escape(entry.getKey()) + "\",phase=\"" +
+                              phase.name().toLowerCase(Locale.US) + "\"";
+        histogram(sb, "corla_request_phase_seconds", labels,
+                  entry.getValue()[phase.ordinal()]);
+      }
+    }
+
+    header(sb, "corla_transaction_retries_total", COUNTER,
+           "Transactions retried after a failure.");
+    sb.append("corla_transaction_retries_total ").append(RETRIES.sum()).append('\n');
+
+    header(sb, "corla_unlogged_commits_total", COUNTER,
+           "Requests whose changes were committed but not logged; alert on any.");
+    sb.append("corla_unlogged_commits_total ").append(UNLOGGED_COMMITS.sum()).
+       append('\n');
+
+    header(sb, "corla_halts_total", COUNTER, "Requests halted, by response status.");
+    final SortedMap<Integer, LongAdder> halts = new TreeMap<>(HALTS);
+    for (final Map.Entry<Integer, LongAdder> entry : halts.entrySet()) {
+      sb.append("corla_halts_total{status=\"").append(entry.getKey()).append(LABEL_END).
+         append(entry.getValue().sum()).append('\n');
+    }
+
+    header(sb, "corla_admission_rejections_total", COUNTER,
+           "Requests turned away by admission control, by admission class.");
+    for (final Map.Entry<String, LongAdder> entry : new TreeMap<>(REJECTIONS).entrySet()) {
+      sb.append("corla_admission_rejections_total{class=\"").append(entry.getKey()).
+         append(LABEL_END).append(entry.getValue().sum()).append('\n');
+    }
+    
+    imports(sb);
+    return sb.toString();
+  }
+
+  /**
+   * @return a new array of histograms, one for each phase.
+   */
+  private static LatencyHistogram[] newHistograms() {
+    final LatencyHistogram[] result = new LatencyHistogram[Phase.values().length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new LatencyHistogram();
+    }
+    return result;
+  }
+
+  /**
+   * Appends the HELP and TYPE lines for a metric.
+   * 
+   * @param the_sb The string builder.
+   * @param the_name The metric name.
+   * @param the_type The metric type.
+   * @param the_help The help text.
+   */
+  private static void header(final StringBuilder the_sb, final String the_name,
+                             final String the_type, final String the_help) {
+    the_sb.append("# HELP ").append(the_name).append(' ').append(the_help).
+           append("\n# TYPE ").append(the_name).append(' ').append(the_type).append('\n');
+  }
+
+  /**
+   * Appends the samples of a histogram.
+   * 
+   * @param the_sb The string builder.
+   * @param the_name The metric name.
+   * @param the_labels The labels, other than the bucket bound.
+   * @param the_histogram The histogram.
+   */
+  private static void histogram(final StringBuilder the_sb, final String the_name,
+                                final String the_labels,
+                                final LatencyHistogram the_histogram) {
+    final long[] counts = the_histogram.counts();
+    long cumulative = 0;
+    for (int i = 0; i < counts.length; i++) {
+      cumulative = cumulative + counts[i];
+      final long bound = LatencyHistogram.upperBoundMicros(i);
+      String le = "+Inf";
+      if (bound != Long.MAX_VALUE) {
+        le = BigDecimal.valueOf(bound, MICRO_SCALE).stripTrailingZeros().toPlainString();
+      }
+      the_sb.append(the_name).append("_bucket{").append(the_labels).
+             append(",le=\"").append(le).append(LABEL_END).append(cumulative).append('\n');
+    }
+    the_sb.append(the_name).append("_sum{").append(the_labels).append("} ").
+           append(seconds(the_histogram.totalNanos())).append('\n');
+    the_sb.append(the_name).append("_count{").append(the_labels).append("} ").
+           append(cumulative).append('\n');
+  }
+
+  /**
+   * Appends the import counters.
+   * 
+   * @param the_sb The string builder.
+   */
+  private static void imports(final StringBuilder the_sb) {
+    final SortedMap<String, ImportCounters> imports = new TreeMap<>(IMPORTS);
+    header(the_sb, "corla_imports_total", COUNTER, "Completed imports, by type.");
+    for (final Map.Entry<String, ImportCounters> entry : imports.entrySet()) {
+      the_sb.append("corla_imports_total{type=\"").append(escape(entry.getKey())).
+             append(LABEL_END).append(entry.getValue().my_imports.sum()).append('\n');
+    }
+    header(the_sb, "corla_import_records_total", COUNTER,
+           "Records imported, by import type.");
+    for (final Map.Entry<String, ImportCounters> entry : imports.entrySet()) {
+      the_sb.append("corla_import_records_total{type=\"").append(escape(entry.getKey())).
+             append(LABEL_END).append(entry.getValue().my_records.sum()).append('\n');
+    }
+    header(the_sb, "corla_import_seconds_total", COUNTER,
+           "Time spent importing, by import type.");
+    for (final Map.Entry<String, ImportCounters> entry : imports.entrySet()) {
+      the_sb.append("corla_import_seconds_total{type=\"").append(escape(entry.getKey())).
+             append(LABEL_END).append(seconds(entry.getValue().my_nanos.sum())).append('\n');
+    }
+  }
+
+  /**
+   * Formats a time as seconds.
+   * 
+   * @param the_nanos The time, in nanoseconds.
+   * @return the time in seconds, as a decimal string.
+   */
+  private static String seconds(final long the_nanos) {
+    return BigDecimal.valueOf(the_nanos, NANO_SCALE).stripTrailingZeros().toPlainString();
+  }
+
+  /**
+   * Escapes a label value.
+   * 
+   * @param the_value The value.
+   * @return the escaped value.
+   */
+  private static String escape(final String the_value) {
+    return the_value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /**
+   * The counters for one type of import.
+   */
+  private static final class ImportCounters {
+    /**
+     * The number of imports.
+     */
+    private final LongAdder my_imports = new LongAdder();
+
+    /**
+     * The number of records imported.
+     */
+    private final LongAdder my_records = new LongAdder();
+
+    /**
+     * The time spent importing, in nanoseconds.
+     */
+    private final LongAdder my_nanos = new LongAdder();
+  }
+}
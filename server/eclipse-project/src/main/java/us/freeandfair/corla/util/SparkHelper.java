@@ -82,4 +82,45 @@ public final class SparkHelper {
 
     return raw;
   }
+  
+  /**
+   * Abandons a response whose body could not be generated: its buffered
+   * content is discarded if none of it has been sent, so that an error
+   * response can be sent instead, and its connection is aborted otherwise,
+   * so that the client sees a truncated response rather than one that looks
+   * complete.
+   * 
+   * @param the_response The response.
+   * @param the_cause The reason the response is abandoned.
+   * @exception IOException if the raw response cannot be obtained.
+   */
+  public static void abandon(final Response the_response, final Throwable the_cause)
+      throws IOException {
+    final HttpServletResponse raw = getRaw(the_response);
+    if (raw.isCommitted()) {
+      abort(raw, the_cause);
+    } else {
+      raw.resetBuffer();
+    }
+  }
+  
+  /**
+   * Aborts the connection of a raw response, so that any write to it in 
+   * progress fails instead of waiting for the client.
+   * 
+   * @param the_raw_response The raw response.
+   * @param the_cause The reason the connection is aborted.
+   * @return true if the connection was aborted, false if the response is not
+   * one whose connection can be aborted.
+   */
+  public static boolean abort(final HttpServletResponse the_raw_response, 
+                              final Throwable the_cause) {
+    boolean result = false;
+    if (the_raw_response instanceof org.eclipse.jetty.server.Response) {
+      ((org.eclipse.jetty.server.Response) the_raw_response).getHttpChannel().
+          abort(the_cause);
+      result = true;
+    }
+    return result;
+  }
 }
@@ -0,0 +1,138 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.crypto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.model.LogEntry;
+
+/**
+ * A test case for the LogChainVerifier.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class LogChainVerifierTest {
+  /**
+   * The result code of the test log entries.
+   */
+  private static final int RESULT_CODE = 200;
+
+  /**
+   * The number of entries in the test log.
+   */
+  private static final int ENTRIES = 1000;
+
+  /**
+   * The number of entries in a range.
+   */
+  private static final int RANGE_SIZE = 64;
+
+  /**
+   * The number of threads to verify on.
+   */
+  private static final int THREADS = 4;
+
+  /**
+   * The index of the first tampered entry.
+   */
+  private static final int FIRST_TAMPERED = 300;
+
+  /**
+   * The index of the second tampered entry.
+   */
+  private static final int SECOND_TAMPERED = 700;
+
+  /**
+   * @return a hash-chained log of the test length.
+   */
+  private List<LogEntry> chain() {
+    final List<LogEntry> result = new ArrayList<>();
+    final Instant now = Instant.now();
+    LogEntry previous = null;
+    for (int i = 0; i < ENTRIES; i++) {
+      final LogEntry entry = new LogEntry(RESULT_CODE, "entry " + i, null, null,
+                                          now.plusMillis(i), previous);
+      entry.setID(Long.valueOf(i + 1));
+      result.add(entry);
+      previous = entry;
+    }
+    return result;
+  }
+
+  /**
+   * Verifies the specified log.
+   * 
+   * @param the_log The log.
+   * @return the result of verification.
+   */
+  private LogChainVerifier.Result verify(final List<LogEntry> the_log) {
+    final LogChainVerifier verifier = new LogChainVerifier(THREADS, RANGE_SIZE);
+    for (final LogEntry entry : the_log) {
+      Long previous_id = null;
+      if (entry.previousEntry() != null) {
+        previous_id = entry.previousEntry().id();
+      }
+      verifier.add(entry.id(), previous_id, entry.hashString(), entry.hash());
+    }
+    return verifier.finish();
+  }
+
+  /**
+   * Tests that an intact log verifies.
+   */
+  @Test()
+  public void testIntactLog() {
+    final LogChainVerifier.Result result = verify(chain());
+    assertTrue(result.intact());
+    assertEquals(result.entries(), ENTRIES);
+    assertEquals(result.ranges(), (ENTRIES + RANGE_SIZE - 1) / RANGE_SIZE);
+  }
+
+  /**
+   * Tests that the first of several tampered entries is reported.
+   */
+  @Test()
+  public void testTamperedEntries() {
+    final List<LogEntry> log = chain();
+    for (final int index : new int[] {SECOND_TAMPERED, FIRST_TAMPERED}) {
+      final LogEntry original = log.get(index);
+      log.set(index, new LogEntry(original.resultCode(), "tampered", null, null,
+                                  original.timestamp(), original.previousEntry()));
+      log.get(index).setID(original.id());
+    }
+    final LogChainVerifier.Result result = verify(log);
+    assertFalse(result.intact());
+    // the tampered entry has a valid hash of its own, but the entry
+    // after it does not
+    assertEquals(result.firstBreak().id(), FIRST_TAMPERED + 2);
+  }
+
+  /**
+   * Tests that a missing entry at a range boundary is reported.
+   */
+  @Test()
+  public void testMissingEntryAtRangeBoundary() {
+    final List<LogEntry> log = chain();
+    log.remove(RANGE_SIZE);
+    final LogChainVerifier.Result result = verify(log);
+    assertFalse(result.intact());
+    assertEquals(result.firstBreak().id(), RANGE_SIZE + 2);
+  }
+}
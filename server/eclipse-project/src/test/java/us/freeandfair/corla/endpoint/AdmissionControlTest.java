@@ -0,0 +1,76 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.endpoint.Endpoint.AdmissionClass;
+
+/**
+ * A test case for AdmissionControl.
+ *
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "PMD.DoNotUseThreads"})
+public class AdmissionControlTest {
+  /**
+   * Restores the default limits.
+   */
+  @AfterMethod()
+  public void restoreDefaults() {
+    AdmissionControl.configure(new Properties());
+  }
+  
+  /**
+   * Tests that a class at its limit turns requests away without affecting 
+   * other classes, and admits them again once a request is released.
+   */
+  @Test()
+  public void testLimits() throws InterruptedException, ExecutionException {
+    final Properties properties = new Properties();
+    properties.setProperty("admission.heavy.max_concurrent", "1");
+    properties.setProperty("admission.heavy.max_wait_ms", "0");
+    AdmissionControl.configure(properties);
+    
+    final ExecutorService other_thread = Executors.newSingleThreadExecutor();
+    try {
+      assertTrue(AdmissionControl.admit(AdmissionClass.HEAVY));
+      assertTrue(AdmissionControl.isAdmitted());
+      assertFalse(other_thread.submit(() -> 
+          AdmissionControl.admit(AdmissionClass.HEAVY)).get());
+      assertTrue(other_thread.submit(() -> {
+        final boolean result = AdmissionControl.admit(AdmissionClass.WRITE);
+        AdmissionControl.release();
+        return result;
+      }).get());
+      
+      AdmissionControl.release();
+      assertFalse(AdmissionControl.isAdmitted());
+      assertTrue(other_thread.submit(() -> {
+        final boolean result = AdmissionControl.admit(AdmissionClass.HEAVY);
+        AdmissionControl.release();
+        return result;
+      }).get());
+    } finally {
+      other_thread.shutdown();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.endpoint.AsyncJob.State;
+
+/**
+ * A test case for AsyncJob.
+ *
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class AsyncJobTest {
+  /**
+   * Tests that a job reports its progress and keeps the first outcome it
+   * is given.
+   */
+  @Test()
+  public void testOutcome() {
+    final AsyncJob job = new AsyncJob("id", "/test", null, "admin", "localhost");
+    assertEquals(job.state(), State.QUEUED);
+    job.start();
+    job.setTotal(2);
+    job.advance();
+    assertEquals(job.state(), State.RUNNING);
+    assertFalse(job.isFinished());
+    assertNull(job.status());
+    
+    job.fail(HttpStatus.FORBIDDEN_403, "illegal");
+    job.succeed("too late");
+    assertEquals(job.state(), State.FAILED);
+    assertTrue(job.isFinished());
+    assertEquals(job.status(), Integer.valueOf(HttpStatus.FORBIDDEN_403));
+    assertEquals(job.message(), "illegal");
+    assertNotNull(job.finished());
+  }
+  
+  /**
+   * Tests that discarding a job deletes its artifact.
+   */
+  @Test()
+  public void testArtifact() throws IOException {
+    final AsyncJob job = new AsyncJob("id", "/test", "key", "admin", "localhost");
+    final Path file = Files.createTempFile("async-job-test-", ".txt");
+    job.start();
+    job.succeed(file, "text/plain", "test.txt");
+    assertEquals(job.state(), State.SUCCEEDED);
+    assertEquals(job.artifact(), file);
+    assertEquals(job.filename(), "test.txt");
+    
+    job.discard();
+    assertNull(job.artifact());
+    assertFalse(Files.exists(file));
+  }
+}
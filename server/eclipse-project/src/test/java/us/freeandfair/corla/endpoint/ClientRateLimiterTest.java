@@ -0,0 +1,68 @@
+/*
+ * Free & Fair Colorado RLA System
+ *
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.endpoint;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+/**
+ * A test case for ClientRateLimiter.
+ *
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class ClientRateLimiterTest {
+  /**
+   * Tests that a client may make a burst of requests, is then turned away
+   * until its bucket refills, and does not affect other clients.
+   */
+  @Test()
+  @SuppressWarnings("checkstyle:magicnumber")
+  public void testBurstAndRefill() {
+    final ClientRateLimiter limiter = new ClientRateLimiter(2, 3);
+    final long start = TimeUnit.SECONDS.toNanos(100);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(limiter.tryAcquire("a", start));
+    }
+    assertFalse(limiter.tryAcquire("a", start));
+    assertTrue(limiter.tryAcquire("b", start));
+
+    // at 2 requests per second, one more token arrives after half a second
+    assertFalse(limiter.tryAcquire("a", start + TimeUnit.MILLISECONDS.toNanos(400)));
+    assertTrue(limiter.tryAcquire("a", start + TimeUnit.MILLISECONDS.toNanos(500)));
+    assertFalse(limiter.tryAcquire("a", start + TimeUnit.MILLISECONDS.toNanos(500)));
+
+    // the bucket never holds more than the burst
+    final long later = start + TimeUnit.SECONDS.toNanos(60);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(limiter.tryAcquire("a", later));
+    }
+    assertFalse(limiter.tryAcquire("a", later));
+  }
+
+  /**
+   * Tests that a rate of 0 disables rate limiting.
+   */
+  @Test()
+  @SuppressWarnings("checkstyle:magicnumber")
+  public void testDisabled() {
+    final ClientRateLimiter limiter = new ClientRateLimiter(0, 1);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limiter.tryAcquire("a", 0));
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.asm.CountyDashboardASM;
+import us.freeandfair.corla.asm.PersistentASMState;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.CountyDashboard;
+import us.freeandfair.corla.persistence.EntityChanges;
+import us.freeandfair.corla.persistence.PersistentEntity;
+
+/**
+ * A test case for the DashboardRefreshCache.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class DashboardRefreshCacheTest {
+  /**
+   * The ID of the test county.
+   */
+  private static final Long COUNTY_ID = 1L;
+
+  /**
+   * Tests that a response built from a snapshot taken before a commit is not
+   * served after the commit, even when the commit changes only the county's
+   * state machine (and therefore not the dashboard version).
+   */
+  @Test()
+  public void testCommitBetweenSnapshotAndBuild() {
+    final CountyDashboard cdb = new CountyDashboard(new County("Test", COUNTY_ID));
+    
+    // a request captures the generations, and its transaction takes its snapshot
+    DashboardRefreshCache.capture();
+    final String before_tag = DashboardRefreshCache.countyTag(cdb);
+    
+    // a commit lands before the request builds its response
+    final PersistentEntity asm_state = 
+        PersistentASMState.stateFor(new CountyDashboardASM(String.valueOf(COUNTY_ID)));
+    EntityChanges.publish(new EntityChanges(Collections.singleton(asm_state)));
+    assertEquals(DashboardRefreshCache.countyTag(cdb), before_tag);
+    assertEquals(DashboardRefreshCache.countyResponse(cdb, () -> "before"), "before");
+    
+    // the next request sees the commit, so it gets a new tag and a new response
+    DashboardRefreshCache.capture();
+    assertNotEquals(DashboardRefreshCache.countyTag(cdb), before_tag);
+    assertEquals(DashboardRefreshCache.countyResponse(cdb, () -> "after"), "after");
+    
+    // and the request after that gets the cached response
+    DashboardRefreshCache.capture();
+    assertEquals(DashboardRefreshCache.countyResponse(cdb, () -> "rebuilt"), "after");
+  }
+}
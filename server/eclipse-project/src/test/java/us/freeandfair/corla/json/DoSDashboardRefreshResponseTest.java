@@ -0,0 +1,92 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.model.DoSDashboard;
+import us.freeandfair.corla.persistence.Persistence;
+import us.freeandfair.corla.persistence.RequestStatistics;
+
+/**
+ * A test case for the DoS dashboard refresh response. It needs a database
+ * containing a DoS dashboard, whose JDBC URL is given by the 
+ * "corla.test.database" system property; it is skipped otherwise.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class DoSDashboardRefreshResponseTest {
+  /**
+   * The system property containing the JDBC URL of the test database.
+   */
+  private static final String DATABASE_PROPERTY = "corla.test.database";
+  
+  /**
+   * The maximum number of statements a refresh may execute, whatever the 
+   * number of counties. 
+   */
+  private static final int MAX_STATEMENTS = 24;
+  
+  /**
+   * Tests that building the response executes a fixed number of statements,
+   * rather than some number per county.
+   * 
+   * @exception IOException if the default properties cannot be read.
+   */
+  @Test()
+  public void testStatementCount() throws IOException {
+    final String database = System.getProperty(DATABASE_PROPERTY);
+    if (database == null) {
+      throw new SkipException("no test database configured");
+    }
+    final Properties properties = new Properties();
+    try (InputStream stream = 
+             getClass().getClassLoader().getResourceAsStream(Main.DEFAULT_PROPERTIES)) {
+      properties.load(stream);
+    }
+    properties.setProperty("hibernate.url", database);
+    properties.setProperty(RequestStatistics.ENABLED_PROPERTY, "true");
+    Persistence.setProperties(properties);
+    
+    // statistics are gathered by sessions opened after this
+    RequestStatistics.begin();
+    if (!Persistence.hasDB()) {
+      RequestStatistics.end(getClass().getSimpleName());
+      throw new SkipException("test database unavailable");
+    }
+    Persistence.beginTransaction();
+    try {
+      final DoSDashboard dosdb = Persistence.getByID(DoSDashboard.ID, DoSDashboard.class);
+      if (dosdb == null) {
+        throw new SkipException("test database has no DoS dashboard");
+      }
+      final DoSDashboardRefreshResponse response = 
+          DoSDashboardRefreshResponse.createResponse(dosdb);
+      assertNotNull(response);
+      final int statements = RequestStatistics.current().statements();
+      assertTrue(statements <= MAX_STATEMENTS, statements + " statements executed");
+    } finally {
+      Persistence.rollbackTransaction();
+      RequestStatistics.end(getClass().getSimpleName());
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.json;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.persistence.Version;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.Main;
+import us.freeandfair.corla.asm.ASMState.AuditBoardDashboardState;
+import us.freeandfair.corla.asm.ASMState.CountyDashboardState;
+import us.freeandfair.corla.asm.ASMState.DoSDashboardState;
+import us.freeandfair.corla.model.AuditBoard;
+import us.freeandfair.corla.model.AuditInfo;
+import us.freeandfair.corla.model.AuditReason;
+import us.freeandfair.corla.model.AuditSelection;
+import us.freeandfair.corla.model.AuditType;
+import us.freeandfair.corla.model.BallotManifestInfo;
+import us.freeandfair.corla.model.CVRContestInfo;
+import us.freeandfair.corla.model.CVRContestInfo.ConsensusValue;
+import us.freeandfair.corla.model.CastVoteRecord;
+import us.freeandfair.corla.model.CastVoteRecord.RecordType;
+import us.freeandfair.corla.model.Choice;
+import us.freeandfair.corla.model.Contest;
+import us.freeandfair.corla.model.County;
+import us.freeandfair.corla.model.Elector;
+import us.freeandfair.corla.model.ImportStatus;
+import us.freeandfair.corla.model.ImportStatus.ImportState;
+import us.freeandfair.corla.model.Round;
+
+/**
+ * A test case for the streaming JSON adapters, which checks that they write
+ * the same fields, and the same JSON, as reflective serialization.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "PMD.ExcessiveImports",
+                   "checkstyle:magicnumber"})
+public class StreamingJsonAdapterTest {
+  /**
+   * The time at which the test objects were created.
+   */
+  private static final Instant NOW = Instant.now();
+
+  /**
+   * @return all the streaming adapters.
+   */
+  private List<AbstractStreamingJsonAdapter<?>> adapters() {
+    return Arrays.asList(new BallotManifestInfoJsonAdapter(),
+                         new CastVoteRecordJsonAdapter(),
+                         new ChoiceJsonAdapter(),
+                         new CountyDashboardRefreshResponseJsonAdapter(),
+                         new CVRToAuditResponseJsonAdapter(),
+                         new DoSDashboardRefreshResponseJsonAdapter());
+  }
+
+  /**
+   * Computes the names of the fields of a class that reflective
+   * serialization writes, in the order it writes them.
+   * 
+   * @param the_class The class.
+   * @return the names.
+   */
+  private List<String> reflectiveFieldNames(final Class<?> the_class) {
+    final FreeAndFairNamingStrategy naming = new FreeAndFairNamingStrategy();
+    final List<String> result = new ArrayList<>();
+    Class<?> c = the_class;
+    while (c != null && !Object.class.equals(c)) {
+      for (final Field f : c.getDeclaredFields()) {
+        final int modifiers = f.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) &&
+            !f.isSynthetic() && f.getAnnotation(Version.class) == null) {
+          result.add(naming.translateName(f));
+        }
+      }
+      c = c.getSuperclass();
+    }
+    return result;
+  }
+
+  /**
+   * Serializes an object with the specified adapter.
+   * 
+   * @param the_gson The Gson whose settings to use.
+   * @param the_adapter The adapter.
+   * @param the_object The object.
+   * @return the JSON.
+   */
+  private <T> String toJson(final Gson the_gson, final TypeAdapter<T> the_adapter,
+                            final T the_object)
+      throws IOException {
+    final StringWriter result = new StringWriter();
+    final JsonWriter jw = the_gson.newJsonWriter(result);
+    the_adapter.write(jw, the_object);
+    jw.flush();
+    return result.toString();
+  }
+
+  /**
+   * Checks that the streaming and reflective serializations of an object
+   * are identical, both compact and pretty-printed.
+   * 
+   * @param the_adapter The streaming adapter for the object's class.
+   * @param the_object The object.
+   */
+  private <T> void checkIdentical(final AbstractStreamingJsonAdapter<T> the_adapter,
+                                  final T the_object)
+      throws IOException {
+    for (final Gson gson : new Gson[] {Main.GSON, Main.PRETTY_GSON}) {
+      final TypeAdapter<T> streaming = gson.getAdapter(the_adapter.adaptedClass());
+      final TypeAdapter<T> reflective =
+          gson.getDelegateAdapter(the_adapter, TypeToken.get(the_adapter.adaptedClass()));
+      assertEquals(toJson(gson, streaming, the_object),
+                   toJson(gson, reflective, the_object),
+                   the_adapter.adaptedClass().getSimpleName());
+    }
+  }
+
+  /**
+   * @return a test contest.
+   */
+  private Contest contest() {
+    final County county = new County("Test County", 1L);
+    final Contest result =
+        new Contest("Test Contest", county, "Test Description",
+                    Arrays.asList(new Choice("Alice", "A", false, false),
+                                  new Choice("Bob", "B", true, false)),
+                    1, 1, 0);
+    result.setID(2L);
+    return result;
+  }
+
+  /**
+   * @return a test county dashboard refresh response.
+   */
+  private CountyDashboardRefreshResponse countyResponse() {
+    final SortedMap<String, String> general_information = new TreeMap<>();
+    general_information.put("key", "value");
+    final SortedMap<Long, String> contests_under_audit = new TreeMap<>();
+    contests_under_audit.put(2L, "Statewide Contest");
+    final Map<AuditSelection, Integer> discrepancies = new HashMap<>();
+    discrepancies.put(AuditSelection.AUDITED_CONTEST, 1);
+    discrepancies.put(AuditSelection.UNAUDITED_CONTEST, null);
+    final Round round = new Round(1, NOW, 10, 0, 10, 0,
+                                  Arrays.asList(5L, 6L), Arrays.asList(5L, 6L));
+    return new CountyDashboardRefreshResponse(
+        1L, CountyDashboardState.COUNTY_AUDIT_UNDERWAY,
+        AuditBoardDashboardState.ROUND_IN_PROGRESS, general_information,
+        new AuditBoard(Arrays.asList(new Elector("A", "B", "C"),
+                                     new Elector("D", "E", "F")), NOW),
+        null, null, Arrays.asList(2L, 3L), contests_under_audit, NOW,
+        10, 8, 7, 100, 200, new ImportStatus(ImportState.SUCCESSFUL, null, NOW), 3,
+        discrepancies, new HashMap<>(), 12L, 3, Arrays.asList(round), round,
+        new AuditInfo("general", NOW, NOW, "0123456789", BigDecimal.valueOf(0.05)));
+  }
+
+  /**
+   * Tests that the adapters write the fields that reflective serialization
+   * writes, in the same order.
+   */
+  @Test()
+  public void testFieldsInSync() {
+    for (final AbstractStreamingJsonAdapter<?> adapter : adapters()) {
+      assertEquals(adapter.fieldNames(), reflectiveFieldNames(adapter.adaptedClass()),
+                   adapter.adaptedClass().getSimpleName());
+    }
+  }
+
+  /**
+   * Tests that the adapters write the same JSON as reflective serialization.
+   */
+  @Test()
+  public void testOutputIdentical() throws IOException {
+    final Contest contest = contest();
+    final CastVoteRecord cvr =
+        new CastVoteRecord(RecordType.AUDITOR_ENTERED, NOW, 1L, 2, 3, 4, 5, 6, "4-5-6",
+                           "Ballot \"Type\" <1>",
+                           Arrays.asList(new CVRContestInfo(contest, "comment",
+                                                            ConsensusValue.YES,
+                                                            Arrays.asList("Alice"))));
+    cvr.setID(7L);
+    checkIdentical(new CastVoteRecordJsonAdapter(), cvr);
+    // an imported CVR has no timestamp
+    checkIdentical(new CastVoteRecordJsonAdapter(),
+                   new CastVoteRecord(RecordType.UPLOADED, null, 1L, 2, 3, 4, 5, 6,
+                                      "4-5-6", "Ballot Type 1", new ArrayList<>()));
+    checkIdentical(new ChoiceJsonAdapter(), new Choice("Carol", "Cé", true, true));
+    final BallotManifestInfo bmi = new BallotManifestInfo(1L, 2, 3, 100, "Bin 1");
+    bmi.setID(8L);
+    checkIdentical(new BallotManifestInfoJsonAdapter(), bmi);
+    checkIdentical(new CVRToAuditResponseJsonAdapter(),
+                   new CVRToAuditResponse(0, 1, 2, 3, "1-2-3", 4, 5L, "Ballot Type 1",
+                                          "Bin 1", true));
+    final CountyDashboardRefreshResponse county = countyResponse();
+    checkIdentical(new CountyDashboardRefreshResponseJsonAdapter(), county);
+
+    final SortedMap<Long, AuditReason> reasons = new TreeMap<>();
+    reasons.put(2L, AuditReason.STATE_WIDE_CONTEST);
+    final SortedMap<Long, Integer> estimates = new TreeMap<>();
+    estimates.put(2L, 10);
+    final Map<Integer, Integer> discrepancy = new HashMap<>();
+    discrepancy.put(-1, 1);
+    discrepancy.put(2, 0);
+    final SortedMap<Long, Map<Integer, Integer>> discrepancies = new TreeMap<>();
+    discrepancies.put(2L, discrepancy);
+    final SortedMap<Long, CountyDashboardRefreshResponse> statuses = new TreeMap<>();
+    statuses.put(1L, county);
+    final SortedMap<Long, AuditType> types = new TreeMap<>();
+    types.put(2L, AuditType.COMPARISON);
+    checkIdentical(new DoSDashboardRefreshResponseJsonAdapter(),
+                   new DoSDashboardRefreshResponse(DoSDashboardState.DOS_AUDIT_ONGOING,
+                                                   reasons, estimates, estimates,
+                                                   discrepancies, statuses,
+                                                   Arrays.asList(3L), new AuditInfo(),
+                                                   reasons, types));
+  }
+}
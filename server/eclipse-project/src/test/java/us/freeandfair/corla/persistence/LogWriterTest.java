@@ -0,0 +1,198 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.crypto.LogChainVerifier;
+import us.freeandfair.corla.model.LogEntry;
+
+/**
+ * A test case for the LogWriter.
+ * 
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+public class LogWriterTest {
+  /**
+   * The result code of the test log entries.
+   */
+  private static final int RESULT_CODE = 200;
+
+  /**
+   * The number of seconds to wait for entries to be persisted.
+   */
+  private static final long WAIT_SECONDS = 10;
+
+  /**
+   * Appends an entry and waits for it to be persisted.
+   * 
+   * @param the_information The information of the entry.
+   * @exception InterruptedException if interrupted while waiting.
+   * @exception ExecutionException if the entry cannot be persisted.
+   * @exception TimeoutException if the entry is not persisted in time.
+   */
+  private void append(final String the_information) 
+      throws InterruptedException, ExecutionException, TimeoutException {
+    LogWriter.append(Collections.singletonList(
+        new LogEntry(RESULT_CODE, the_information, null, null, Instant.now()))).
+        get(WAIT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Tests that the log chain starts afresh after the log is deleted and
+   * the writer is reset.
+   * 
+   * @exception InterruptedException if interrupted while waiting.
+   * @exception ExecutionException if an entry cannot be persisted.
+   * @exception TimeoutException if an entry is not persisted in time.
+   */
+  @Test()
+  public void testReset() 
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final MemoryStore store = new MemoryStore();
+    LogWriter.suspend();
+    LogWriter.setStore(store);
+    LogWriter.resume();
+    
+    append("before reset 1");
+    append("before reset 2");
+    assertEquals(store.entries().size(), 2);
+    assertTrue(verify(store.entries()).intact());
+    
+    // delete the log, as a database reset does
+    LogWriter.suspend();
+    store.entries().clear();
+    LogWriter.reset();
+    LogWriter.resume();
+    
+    append("after reset");
+    assertEquals(store.entries().size(), 1);
+    assertNull(store.entries().get(0).previousEntry());
+    assertTrue(verify(store.entries()).intact());
+  }
+
+  /**
+   * Tests that entries queued while the writer is suspended for a reset are
+   * persisted as the start of the new chain, rather than dropped.
+   * 
+   * @exception InterruptedException if interrupted while waiting.
+   * @exception ExecutionException if an entry cannot be persisted.
+   * @exception TimeoutException if an entry is not persisted in time.
+   */
+  @Test()
+  public void testResetWithQueuedEntries() 
+      throws InterruptedException, ExecutionException, TimeoutException {
+    final MemoryStore store = new MemoryStore();
+    LogWriter.suspend();
+    LogWriter.setStore(store);
+    LogWriter.resume();
+    
+    append("before reset");
+    
+    // an entry is appended while the log is being deleted
+    LogWriter.suspend();
+    final CompletableFuture<Void> queued = LogWriter.append(Collections.singletonList(
+        new LogEntry(RESULT_CODE, "during reset", null, null, Instant.now())));
+    store.entries().clear();
+    LogWriter.reset();
+    assertFalse(queued.isDone());
+    LogWriter.resume();
+    
+    queued.get(WAIT_SECONDS, TimeUnit.SECONDS);
+    assertEquals(store.entries().size(), 1);
+    assertEquals(store.entries().get(0).information(), "during reset");
+    assertNull(store.entries().get(0).previousEntry());
+    assertTrue(verify(store.entries()).intact());
+  }
+
+  /**
+   * Verifies the specified log.
+   * 
+   * @param the_log The log.
+   * @return the result of verification.
+   */
+  private LogChainVerifier.Result verify(final List<LogEntry> the_log) {
+    final LogChainVerifier verifier = new LogChainVerifier();
+    for (final LogEntry entry : the_log) {
+      Long previous_id = null;
+      if (entry.previousEntry() != null) {
+        previous_id = entry.previousEntry().id();
+      }
+      verifier.add(entry.id(), previous_id, entry.hashString(), entry.hash());
+    }
+    return verifier.finish();
+  }
+
+  /**
+   * A log store in memory.
+   */
+  private static class MemoryStore implements LogWriter.Store {
+    /**
+     * The persisted entries.
+     */
+    private final List<LogEntry> my_entries = 
+        Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * The last ID assigned.
+     */
+    private long my_last_id;
+
+    /**
+     * @return the persisted entries.
+     */
+    public List<LogEntry> entries() {
+      return my_entries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LogEntry last() {
+      synchronized (my_entries) {
+        LogEntry result = null;
+        if (!my_entries.isEmpty()) {
+          result = my_entries.get(my_entries.size() - 1);
+        }
+        return result;
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(final List<LogEntry> the_entries) {
+      synchronized (my_entries) {
+        for (final LogEntry entry : the_entries) {
+          my_last_id = my_last_id + 1;
+          entry.setID(my_last_id);
+        }
+        my_entries.addAll(the_entries);
+      }
+    }
+  }
+}
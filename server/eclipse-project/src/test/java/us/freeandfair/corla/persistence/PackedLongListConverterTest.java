@@ -0,0 +1,95 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+/**
+ * A test case for the PackedLongListConverter.
+ *
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class PackedLongListConverterTest {
+  /**
+   * The converter under test.
+   */
+  private final PackedLongListConverter my_converter = new PackedLongListConverter();
+  
+  /**
+   * Tests that lists survive a round trip through the packed representation,
+   * including empty lists, unordered lists, duplicates and extreme values.
+   */
+  @Test()
+  public void testRoundTrip() {
+    final Random random = new Random(2017);
+    final List<Long> shuffled = new ArrayList<>();
+    for (long l = 100_000; l < 102_000; l++) {
+      shuffled.add(l);
+      shuffled.add(random.nextLong());
+    }
+    Collections.shuffle(shuffled, random);
+    
+    final List<List<Long>> lists = 
+        Arrays.asList(Collections.<Long>emptyList(),
+                      Arrays.asList(0L),
+                      Arrays.asList(5L, 5L, 3L, 17L, 3L),
+                      Arrays.asList(Long.MAX_VALUE, Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE),
+                      shuffled);
+    for (final List<Long> list : lists) {
+      final String column = my_converter.convertToDatabaseColumn(list);
+      assertEquals(my_converter.convertToEntityAttribute(column), list);
+    }
+  }
+  
+  /**
+   * Tests that increasing lists of nearby IDs are stored compactly.
+   */
+  @Test()
+  public void testCompactness() {
+    final List<Long> ids = new ArrayList<>();
+    for (long l = 1_000_000; l < 1_010_000; l = l + 3) {
+      ids.add(l);
+    }
+    final String column = my_converter.convertToDatabaseColumn(ids);
+    // one byte per delta, plus the length and first element, in Base64
+    assertTrue(column.length() < (ids.size() + 8) * 4 / 3 + 4);
+  }
+  
+  /**
+   * Tests that columns in the older JSON representation are still read.
+   */
+  @Test()
+  public void testLegacyJSON() {
+    assertEquals(my_converter.convertToEntityAttribute("[12,7,9007199254740993]"), 
+                 Arrays.asList(12L, 7L, 9_007_199_254_740_993L));
+    assertEquals(my_converter.convertToEntityAttribute("[]"), Collections.emptyList());
+  }
+  
+  /**
+   * Tests that malformed columns are rejected.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testTruncated() {
+    final String column = my_converter.convertToDatabaseColumn(Arrays.asList(1L, 300L));
+    my_converter.convertToEntityAttribute(column.substring(0, 4));
+  }
+}
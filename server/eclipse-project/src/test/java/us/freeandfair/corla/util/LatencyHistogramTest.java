@@ -0,0 +1,85 @@
+/*
+ * Free & Fair Colorado RLA System
+ * 
+ * @title ColoradoRLA
+ * @created Oct 18, 2017
+ * @copyright 2017 Colorado Department of State
+ * @license SPDX-License-Identifier: AGPL-3.0-or-later
+ * @creator Daniel M. Zimmerman <dmz@galois.com>
+ * @description A system to assist in conducting statewide risk-limiting audits.
+ */
+
+package us.freeandfair.corla.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+import us.freeandfair.corla.util.Metrics.Phase;
+
+/**
+ * A test case for the LatencyHistogram and its Prometheus output.
+ *
+ * @author Daniel M. Zimmerman <dmz@freeandfair.us>
+ * @version 1.0.0
+ */
+// TestNG classes do not need constructors
+@SuppressWarnings({"PMD.AtLeastOneConstructor", "checkstyle:magicnumber"})
+public class LatencyHistogramTest {
+  /**
+   * Tests that latencies are counted in the smallest bucket whose upper
+   * bound is at least the latency, and that out-of-range latencies go in
+   * the first and last buckets.
+   */
+  @Test()
+  public void testBuckets() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(128));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(129));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+    histogram.record(TimeUnit.HOURS.toNanos(1));
+    
+    final long[] counts = histogram.counts();
+    assertEquals(counts.length, LatencyHistogram.BUCKETS);
+    assertEquals(counts[0], 2);
+    assertEquals(counts[1], 1);
+    // 1000us is in the bucket bounded by 1024us
+    assertEquals(LatencyHistogram.upperBoundMicros(3), 1024);
+    assertEquals(counts[3], 1);
+    assertEquals(counts[LatencyHistogram.BUCKETS - 1], 1);
+    assertEquals(LatencyHistogram.upperBoundMicros(LatencyHistogram.BUCKETS - 1), 
+                 Long.MAX_VALUE);
+    
+    long total = 0;
+    for (final long count : counts) {
+      total = total + count;
+    }
+    assertEquals(total, 5);
+  }
+  
+  /**
+   * Tests that phase histograms are reported as cumulative Prometheus 
+   * histograms.
+   */
+  @Test()
+  public void testPrometheus() {
+    Metrics.recordPhase("/test-endpoint", Phase.BODY, TimeUnit.MILLISECONDS.toNanos(1));
+    Metrics.recordPhase("/test-endpoint", Phase.BODY, TimeUnit.MILLISECONDS.toNanos(3));
+    final String text = Metrics.prometheus();
+    final String labels = "endpoint=\"/test-endpoint\",phase=\"body\"";
+    
+    assertTrue(text.contains("# TYPE corla_request_phase_seconds histogram\n"));
+    assertTrue(text.contains("corla_request_phase_seconds_bucket{" + labels + 
+                             ",le=\"0.000512\"} 0\n"));
+    assertTrue(text.contains("corla_request_phase_seconds_bucket{" + labels + 
+                             ",le=\"0.001024\"} 1\n"));
+    assertTrue(text.contains("corla_request_phase_seconds_bucket{" + labels + 
+                             ",le=\"0.004096\"} 2\n"));
+    assertTrue(text.contains("corla_request_phase_seconds_bucket{" + labels + 
+                             ",le=\"+Inf\"} 2\n"));
+    assertTrue(text.contains("corla_request_phase_seconds_sum{" + labels + "} 0.004\n"));
+    assertTrue(text.contains("corla_request_phase_seconds_count{" + labels + "} 2\n"));
+  }
+}